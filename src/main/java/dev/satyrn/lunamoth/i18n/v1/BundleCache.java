@@ -0,0 +1,463 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.AbstractResourceFileControl;
+import dev.satyrn.lunamoth.util.v1.BinaryResourceBundle;
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.ResourceBundle.Control;
+
+/**
+ * A private cache of resource bundles, used instead of the shared cache of {@link ResourceBundle#getBundle}.
+ * <p>
+ * Bundles are cached by base name, locale, format, class loader, and resource control. Unlike
+ * {@link ResourceBundle#clearCache(ClassLoader)}, clearing this cache only affects the owner of the cache, so reloading
+ * the translations of one {@link I18n} does not force every other user of the same class loader to reparse its
+ * bundles. Missing bundles are cached as well, so locales without translations are only probed once. Invalidating the
+ * cache expires bundles rather than removing them, so only bundles whose resources have changed are reparsed.
+ * <p>
+ * Bundles are located the same way {@code ResourceBundle.getBundle} locates them: the candidate locales and formats
+ * supplied by the resource control are tried in order, the control's fallback locale is tried if no candidate was
+ * found, and the time-to-live and reload checks of the control are honoured. Candidate locales of an
+ * {@link AbstractResourceFileControl} are pruned to those which have a resource in the class loader.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+final class BundleCache {
+    private static final @NotNull Logger I18N_LOGGER = Logger.getLogger(I18n.class.getName());
+    private final @NotNull ConcurrentHashMap<Key, CachedBundle> bundles = new ConcurrentHashMap<>(32);
+
+    /**
+     * Creates a new, empty bundle cache.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    BundleCache() { }
+
+    /**
+     * Gets a resource bundle, loading it and its parents if they are not already cached.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @param  locale   the locale for which a resource bundle is desired
+     * @param  loader   the class loader from which to load the resource bundle
+     * @param  control  the control which gives information for the resource bundle loading process
+     * @return a resource bundle containing the bundles of every candidate locale, most specific first
+     * @throws IllegalArgumentException if any parameter is {@code null}
+     * @throws MissingResourceException if no resource bundle could be found for {@code locale} or the fallback locale
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull ResourceBundle getBundle(final @NotNull String baseName,
+                                      final @NotNull Locale locale,
+                                      final @NotNull ClassLoader loader,
+                                      final @NotNull Control control) throws MissingResourceException {
+        Parameters.requireNonNull("baseName", baseName);
+        Parameters.requireNonNull("locale", locale);
+        Parameters.requireNonNull("loader", loader);
+        Parameters.requireNonNull("control", control);
+
+        @NotNull List<Locale> found = new ArrayList<>(4);
+        @NotNull List<ResourceBundle> chain = this.loadChain(baseName, locale, loader, control, found);
+        if (chain.isEmpty() || (found.size() == 1 && found.get(0).equals(Locale.ROOT))) {
+            final @Nullable Locale fallback = control.getFallbackLocale(baseName, locale);
+            if (fallback != null && !fallback.equals(locale)) {
+                final @NotNull List<Locale> fallbackFound = new ArrayList<>(4);
+                final @NotNull List<ResourceBundle> fallbackChain = this.loadChain(baseName, fallback, loader, control, fallbackFound);
+                if (!fallbackChain.isEmpty()) {
+                    chain = fallbackChain;
+                    found = fallbackFound;
+                }
+            }
+        }
+
+        if (chain.isEmpty()) {
+            throw new MissingResourceException("Can't find bundle for base name " + baseName + ", locale " + locale,
+                    baseName + "_" + locale, "");
+        }
+        return new ChainedResourceBundle(found.get(0), chain);
+    }
+
+    /**
+     * Removes every cached bundle.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    void clear() {
+        this.bundles.clear();
+    }
+
+    /**
+     * Removes every cached bundle which was loaded by {@code loader}.
+     *
+     * @param loader the class loader
+     * @since 1.0-SNAPSHOT
+     */
+    void clear(final @NotNull ClassLoader loader) {
+        this.bundles.keySet().removeIf(key -> key.loader == loader);
+    }
+
+    /**
+     * Expires every cached bundle, so that the resource control checks whether each bundle
+     * {@linkplain Control#needsReload needs to be reloaded} the next time it is requested. Bundles whose resources have
+     * not changed are kept.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    void invalidate() {
+        this.bundles.replaceAll((key, cached) -> cached.invalidate());
+    }
+
+    /**
+     * Expires every cached bundle which was loaded by {@code loader}, so that the resource control checks whether it
+     * {@linkplain Control#needsReload needs to be reloaded} the next time it is requested.
+     *
+     * @param loader the class loader
+     * @since 1.0-SNAPSHOT
+     */
+    void invalidate(final @NotNull ClassLoader loader) {
+        this.bundles.replaceAll((key, cached) -> key.loader == loader ? cached.invalidate() : cached);
+    }
+
+    /**
+     * Expires every cached bundle which was loaded by {@code loader} from one of the named resources, so that the
+     * resource control checks whether it {@linkplain Control#needsReload needs to be reloaded} the next time it is
+     * requested. A bundle's resource name is its {@linkplain Control#toBundleName bundle name}, with {@code '/'} in
+     * place of {@code '.'}.
+     *
+     * @param loader        the class loader
+     * @param resourceNames the resource names of the bundles to expire, without file extensions
+     * @since 1.0-SNAPSHOT
+     */
+    void invalidate(final @NotNull ClassLoader loader,
+                    final @NotNull Set<String> resourceNames) {
+        this.bundles.replaceAll((key, cached) -> key.loader == loader
+                && resourceNames.contains(key.control.toBundleName(key.baseName, key.locale).replace('.', '/'))
+                ? cached.invalidate() : cached);
+    }
+
+    /**
+     * Loads the bundle for every candidate locale of {@code locale} which has one.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @param  locale   the locale for which a resource bundle is desired
+     * @param  loader   the class loader from which to load the resource bundle
+     * @param  control  the resource control
+     * @param  found    receives the candidate locale of each loaded bundle
+     * @return the loaded bundles, most specific first
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull List<ResourceBundle> loadChain(final @NotNull String baseName,
+                                                    final @NotNull Locale locale,
+                                                    final @NotNull ClassLoader loader,
+                                                    final @NotNull Control control,
+                                                    final @NotNull List<Locale> found) {
+        final @NotNull List<Locale> candidates = control instanceof AbstractResourceFileControl<?> fileControl
+                ? fileControl.getCandidateLocales(baseName, locale, loader)
+                : control.getCandidateLocales(baseName, locale);
+        final @NotNull List<String> formats = control.getFormats(baseName);
+        final @NotNull List<ResourceBundle> chain = new ArrayList<>(candidates.size());
+        for (final @NotNull Locale candidate : candidates) {
+            for (final @NotNull String format : formats) {
+                final @Nullable ResourceBundle bundle = this.load(new Key(baseName, candidate, format, loader, control));
+                if (bundle != null) {
+                    chain.add(bundle);
+                    found.add(candidate);
+                    break;
+                }
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * Gets a single cached bundle, loading or reloading it if necessary.
+     *
+     * @param  key the cache key
+     * @return the bundle, or {@code null} if the bundle does not exist
+     * @since  1.0-SNAPSHOT
+     */
+    private @Nullable ResourceBundle load(final @NotNull Key key) {
+        final @Nullable CachedBundle cached = this.bundles.get(key);
+        final long now = System.currentTimeMillis();
+        if (cached != null && !cached.isExpired(now)) {
+            return cached.bundle;
+        }
+        if (cached != null && cached.bundle != null
+                && !key.control.needsReload(key.baseName, key.locale, key.format, key.loader, cached.bundle, cached.loadTime)) {
+            this.bundles.replace(key, cached, new CachedBundle(cached.bundle, cached.loadTime, this.expiry(key, now)));
+            return cached.bundle;
+        }
+
+        @Nullable ResourceBundle bundle = null;
+        try {
+            bundle = key.control.newBundle(key.baseName, key.locale, key.format, key.loader, cached != null);
+        } catch (final MissingResourceException ignored) {
+            // The bundle does not exist in this format.
+        } catch (final Exception ex) {
+            I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to load resource bundle %s for %s",
+                    key.control.toBundleName(key.baseName, key.locale), key.locale.getDisplayName()));
+        }
+
+        final long expiry = this.expiry(key, now);
+        if (expiry != Long.MIN_VALUE) {
+            this.bundles.put(key, new CachedBundle(bundle, now, expiry));
+        }
+        return bundle;
+    }
+
+    /**
+     * Gets the time at which a bundle loaded {@code now} expires.
+     *
+     * @param  key the cache key
+     * @param  now the current time, in milliseconds
+     * @return the expiry time, {@link Long#MAX_VALUE} if the bundle never expires, or {@link Long#MIN_VALUE} if the
+     *         bundle should not be cached
+     * @since  1.0-SNAPSHOT
+     */
+    private long expiry(final @NotNull Key key,
+                        final long now) {
+        final long timeToLive = key.control.getTimeToLive(key.baseName, key.locale);
+        if (timeToLive == Control.TTL_DONT_CACHE) {
+            return Long.MIN_VALUE;
+        }
+        if (timeToLive == Control.TTL_NO_EXPIRATION_CONTROL || timeToLive < 0L || Long.MAX_VALUE - now < timeToLive) {
+            return Long.MAX_VALUE;
+        }
+        return now + timeToLive;
+    }
+
+    /**
+     * Identifies a single cached bundle.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private static final class Key {
+        private final @NotNull String baseName;
+        private final @NotNull Locale locale;
+        private final @NotNull String format;
+        private final @NotNull ClassLoader loader;
+        private final @NotNull Control control;
+        private final int hashCode;
+
+        /**
+         * Creates a new cache key.
+         *
+         * @param baseName the base name of the resource bundle
+         * @param locale   the locale of the resource bundle
+         * @param format   the format of the resource bundle
+         * @param loader   the class loader from which the resource bundle is loaded
+         * @param control  the resource control which loads the bundle
+         * @since 1.0-SNAPSHOT
+         */
+        private Key(final @NotNull String baseName,
+                    final @NotNull Locale locale,
+                    final @NotNull String format,
+                    final @NotNull ClassLoader loader,
+                    final @NotNull Control control) {
+            this.baseName = baseName;
+            this.locale = locale;
+            this.format = format;
+            this.loader = loader;
+            this.control = control;
+            this.hashCode = Objects.hash(baseName, locale, format, System.identityHashCode(loader), System.identityHashCode(control));
+        }
+
+        /**
+         * Checks whether this key is equal to another object.
+         *
+         * @param  obj the object to compare to
+         * @return {@code true} if {@code obj} identifies the same bundle, otherwise {@code false}.
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            return this == obj || (obj instanceof Key other
+                    && this.loader == other.loader
+                    && this.control == other.control
+                    && this.baseName.equals(other.baseName)
+                    && this.locale.equals(other.locale)
+                    && this.format.equals(other.format));
+        }
+
+        /**
+         * Gets the hash code of this key.
+         *
+         * @return the hash code
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * A cached bundle, or the absence of one, and the time it was loaded.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private static final class CachedBundle {
+        private final @Nullable ResourceBundle bundle;
+        private final long loadTime;
+        private final long expiry;
+
+        /**
+         * Creates a new cached bundle.
+         *
+         * @param bundle   the bundle, or {@code null} if the bundle does not exist
+         * @param loadTime the time the bundle was loaded, in milliseconds
+         * @param expiry   the time the bundle expires, in milliseconds
+         * @since 1.0-SNAPSHOT
+         */
+        private CachedBundle(final @Nullable ResourceBundle bundle,
+                             final long loadTime,
+                             final long expiry) {
+            this.bundle = bundle;
+            this.loadTime = loadTime;
+            this.expiry = expiry;
+        }
+
+        /**
+         * Checks whether this bundle has expired.
+         *
+         * @param  now the current time, in milliseconds
+         * @return {@code true} if the bundle has expired, otherwise {@code false}.
+         * @since  1.0-SNAPSHOT
+         */
+        private boolean isExpired(final long now) {
+            return now >= this.expiry;
+        }
+
+        /**
+         * Gets a copy of this cached bundle which has already expired.
+         *
+         * @return the expired copy
+         * @since  1.0-SNAPSHOT
+         */
+        private @NotNull CachedBundle invalidate() {
+            return new CachedBundle(this.bundle, this.loadTime, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * A resource bundle which looks up keys in a list of bundles, most specific first.
+     * <p>
+     * Keys are looked up in each bundle of the chain in turn, so a chain of {@link BinaryResourceBundle language packs}
+     * never decodes more than the requested keys unless its key set is requested.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    static final class ChainedResourceBundle extends ResourceBundle {
+        private final @NotNull Locale locale;
+        private final @NotNull List<ResourceBundle> chain;
+
+        /**
+         * Creates a new chained resource bundle.
+         *
+         * @param locale the locale of the most specific bundle
+         * @param chain  the bundles, most specific first
+         * @since 1.0-SNAPSHOT
+         */
+        private ChainedResourceBundle(final @NotNull Locale locale,
+                                      final @NotNull List<ResourceBundle> chain) {
+            this.locale = locale;
+            this.chain = List.copyOf(chain);
+        }
+
+        /**
+         * Gets the locale of the most specific bundle.
+         *
+         * @return the locale
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        public @NotNull Locale getLocale() {
+            return this.locale;
+        }
+
+        /**
+         * Gets an object for the given key from the most specific bundle which contains it.
+         *
+         * @param  key the key for the desired object
+         * @return the object, or {@code null} if no bundle contains {@code key}
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        protected @Nullable Object handleGetObject(final @NotNull String key) {
+            for (final @NotNull ResourceBundle bundle : this.chain) {
+                if (bundle.containsKey(key)) {
+                    return bundle.getObject(key);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checks whether any bundle in the chain contains {@code key}, without building the key set of the chain.
+         *
+         * @param  key the key
+         * @return {@code true} if any bundle in the chain contains {@code key}, otherwise {@code false}.
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        public boolean containsKey(final @NotNull String key) {
+            for (final @NotNull ResourceBundle bundle : this.chain) {
+                if (bundle.containsKey(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Checks whether every bundle in the chain is a language pack, whose values are only decoded when they are
+         * looked up.
+         *
+         * @return {@code true} if every bundle in the chain is a language pack, otherwise {@code false}.
+         * @since  1.0-SNAPSHOT
+         */
+        boolean isPacked() {
+            for (final @NotNull ResourceBundle bundle : this.chain) {
+                if (!(bundle instanceof BinaryResourceBundle)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Gets the keys of every bundle in the chain.
+         *
+         * @return the keys
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        public @NotNull Enumeration<String> getKeys() {
+            return Collections.enumeration(this.handleKeySet());
+        }
+
+        /**
+         * Gets the keys of every bundle in the chain.
+         *
+         * @return the keys
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        protected @NotNull Set<String> handleKeySet() {
+            final @NotNull Set<String> keys = new HashSet<>();
+            for (final @NotNull ResourceBundle bundle : this.chain) {
+                keys.addAll(bundle.keySet());
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import java.lang.annotation.*;
+
+/**
+ * Generates a class of typed {@link TranslationKey} constants from a translation resource at compile time.
+ * <p>
+ * The annotation processor {@link TranslationKeyProcessor}, which must be enabled explicitly, reads the *.lang or
+ * *.json resource named by {@link #resource()} and emits a class named {@link #className()} in the package of the
+ * annotated element. The class declares one {@code public static final TranslationKey} constant per translation key,
+ * named after the key in upper case with every other character replaced by an underscore (for example,
+ * {@code test.result} becomes {@code TEST_RESULT}). Keys are numbered in sorted order, so the generated ids are stable
+ * between builds.
+ * <p>
+ * Referring to a key which is not in the resource then fails to compile, rather than silently falling back at runtime.
+ * <p>
+ * For example:
+ * <pre>{@code
+ * @GenerateTranslationKeys(resource = "lang/en_us.lang", className = "LangKeys")
+ * public final class MyPlugin {
+ *     void greet(final I18n i18n) {
+ *         i18n.format(LangKeys.GREETING_WELCOME, "world");
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.TYPE, ElementType.PACKAGE})
+public @interface GenerateTranslationKeys {
+    /**
+     * The class path name of the translation resource to read, for example {@code "lang/en_us.lang"}. Resources are
+     * looked up in the class output directory, then the source path, then the class path. Resources whose name ends
+     * in {@code .json} are read as JSON; all others are read as *.lang files.
+     *
+     * @return the resource name
+     * @since  1.0-SNAPSHOT
+     */
+    String resource();
+
+    /**
+     * The simple name of the class to generate.
+     *
+     * @return the class name
+     * @since  1.0-SNAPSHOT
+     */
+    String className();
+}
@@ -1,6 +1,9 @@
 package dev.satyrn.lunamoth.i18n.v1;
 
+import dev.satyrn.lunamoth.lang.v1.AbstractResourceLoader;
+import dev.satyrn.lunamoth.lang.v1.ArchiveResourceLoader;
 import dev.satyrn.lunamoth.lang.v1.FileResourceLoader;
+import dev.satyrn.lunamoth.util.v1.BinaryResourceBundle;
 import dev.satyrn.lunamoth.util.v1.JsonResourceBundle;
 import dev.satyrn.lunamoth.util.v1.LanguageResourceBundle;
 import dev.satyrn.lunamoth.util.v1.Parameters;
@@ -8,36 +11,50 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.text.MessageFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import static java.util.ResourceBundle.Control;
 
 /**
  * Provides internationalization support through a {@link ResourceBundle}.
+ * <p>
+ * Instances are safe for use by multiple concurrent threads. All resolved state (the loaded bundles, the current
+ * locale, the resource control, and the compiled message templates) is held in a single immutable snapshot which is replaced
+ * atomically whenever the configuration changes, so translations never block and never observe a partially reloaded
+ * state.
+ * <p>
+ * A single instance can also serve many locales at once: {@link #forLocale(Locale)} returns a {@link Translator} bound
+ * to a specific locale, backed by a bounded cache of per-locale translation tables shared by every translator.
+ * <p>
+ * External translations in the base directory can optionally be watched for changes with
+ * {@link #watchBaseDirectory(Duration)}. Instances which watch their base directory should be {@linkplain #close()
+ * closed} when they are no longer needed.
  *
  * @author Isabel Maskrey
  * @since  1.0.0
  */
-public class I18n {
+public class I18n implements AutoCloseable {
     private final static @NotNull ClassLoader DEFAULT_CLASS_LOADER = I18n.class.getClassLoader();
     private final static @NotNull Control LANG_FILE_CONTROL = new LanguageResourceBundle.Control();
     private final static @NotNull Control JSON_FILE_CONTROL = new JsonResourceBundle.Control();
-    private final static @NotNull Pattern DOUBLE_APOS = Pattern.compile("''");
+    private final static @NotNull Control BINARY_FILE_CONTROL = new BinaryResourceBundle.Control();
     private final static @NotNull Logger I18N_LOGGER = Logger.getLogger(I18n.class.getName());
     private final static @NotNull Locale DEFAULT_LOCALE = Locale.US;
+    private final static int DEFAULT_MAXIMUM_CACHED_LOCALES = 32;
     private final @NotNull String baseName;
-    private final @NotNull HashMap<String, HashMap<String, MessageFormat>> formatters = HashMap.newHashMap(2);
-    private @NotNull Locale currentLocale = DEFAULT_LOCALE;
-    private @NotNull Control resourceControl = LANG_FILE_CONTROL;
-    private @Nullable ResourceBundle internalTranslations;
-    private @Nullable ResourceBundle externalTranslations;
-    private @Nullable ResourceBundle defaultTranslations;
-    private @Nullable FileResourceLoader fileResourceLoader;
-    private @Nullable String baseDirectory;
+    private final @NotNull ReentrantLock reloadLock = new ReentrantLock();
+    private volatile int maximumCachedLocales = DEFAULT_MAXIMUM_CACHED_LOCALES;
+    private final @NotNull BundleCache bundleCache = new BundleCache();
+    private volatile @NotNull Snapshot snapshot;
+    private @Nullable Duration watchDebounce;
+    private @Nullable ResourceDirectoryWatcher watcher;
 
     /**
      * Creates a new {@link I18n} instance which only relies on internal resources.
@@ -56,7 +73,8 @@ public class I18n {
      *
      * @param  baseName      the base package name for I18n resource key/value files
      * @param  baseDirectory the base directory where fallback or user-configured custom translations are stored. Can be
-     *                       {@code null} if the i18n utility should not support this feature.
+     *                       {@code null} if the i18n utility should not support this feature. May also be the path of
+     *                       a *.zip or *.jar archive containing the translations.
      * @throws IllegalArgumentException if {@code baseName} is {@code null}
      * @since  1.0-SNAPSHOT
      * @see    #I18n(String)
@@ -65,8 +83,7 @@ public class I18n {
                 final @Nullable String baseDirectory) {
         Parameters.requireNonNull("baseName", baseName);
         this.baseName = baseName;
-        this.baseDirectory = baseDirectory;
-        this.reloadResources();
+        this.snapshot = this.loadSnapshot(DEFAULT_LOCALE, LANG_FILE_CONTROL, baseDirectory, null);
     }
 
     /**
@@ -85,7 +102,7 @@ public class I18n {
      * @return The base directory
      */
     public @Nullable String getBaseDirectory() {
-        return this.baseDirectory;
+        return this.snapshot.baseDirectory;
     }
 
     /**
@@ -95,7 +112,7 @@ public class I18n {
      * @since 1.0-SNAPSHOT
      */
     public @NotNull Locale getCurrentLocale() {
-        return this.currentLocale;
+        return this.snapshot.locale;
     }
 
     /**
@@ -128,15 +145,16 @@ public class I18n {
     @Contract(value = "_ -> this", mutates = "this")
     public @NotNull I18n setCurrentLocale(final @NotNull Locale locale) {
         Parameters.requireNonNull("locale", locale);
-        this.currentLocale = locale;
-        this.reloadResources();
+        this.switchLocale(locale);
         return this;
     }
 
     /**
      * Sets the current {@code baseDirectory}.
      * <p>
-     * If set to {@code null}, external resources will not be loaded.
+     * If set to {@code null}, external resources will not be loaded. If set to the path of a *.zip or *.jar archive,
+     * external resources are read directly from inside the archive. Every translation is reloaded, even if
+     * {@code baseDirectory} is the current base directory; see {@link #reload()}.
      *
      * @param baseDirectory The base directory for the external resources.
      * @return The modified {@code I18n} instance.
@@ -145,8 +163,7 @@ public class I18n {
     @SuppressWarnings({"UnusedReturnValue"})
     @Contract(value = "_ -> this", mutates = "this")
     public @NotNull I18n setBaseDirectory(final @Nullable String baseDirectory) {
-        this.baseDirectory = baseDirectory;
-        this.reloadResources();
+        this.reloadResources(null, null, baseDirectory, true);
         return this;
     }
 
@@ -165,19 +182,66 @@ public class I18n {
      */
     @Contract(value = "_ -> this", mutates = "this")
     public @NotNull I18n setCurrentLocale(final @Nullable String localeString) {
-        if (Objects.isNull(localeString) || localeString.isBlank()) {
-            this.currentLocale = DEFAULT_LOCALE;
-        } else {
+        @NotNull Locale locale = DEFAULT_LOCALE;
+        if (!Objects.isNull(localeString) && !localeString.isBlank()) {
             final @NotNull String[] parts = Arrays.stream(localeString.split("_")).filter(part -> !part.isBlank()).toArray(String[]::new);
-            if (parts.length == 0) {
-                this.currentLocale = DEFAULT_LOCALE;
-            } else if (parts.length == 1) {
-                this.currentLocale = Locale.of(parts[0]);
-            } else {
-                this.currentLocale = Locale.of(parts[0], parts[1]);
+            if (parts.length == 1) {
+                locale = Locale.of(parts[0]);
+            } else if (parts.length > 1) {
+                locale = Locale.of(parts[0], parts[1]);
             }
         }
-        this.reloadResources();
+        this.switchLocale(locale);
+        return this;
+    }
+
+    /**
+     * Gets a {@link Translator} which translates into {@code locale}, independently of the current locale.
+     * <p>
+     * Translators share a bounded cache of per-locale translations with this {@code I18n}, so creating one is cheap and
+     * the resources for a locale are only loaded the first time any translator for that locale is used. Translators
+     * always reflect the most recently loaded resources, including changes to the resource type or base directory.
+     *
+     * @param  locale the locale to translate into
+     * @return a translator for {@code locale}
+     * @throws IllegalArgumentException if {@code locale} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_ -> new")
+    public @NotNull Translator forLocale(final @NotNull Locale locale) {
+        Parameters.requireNonNull("locale", locale);
+        return new Translator(this, locale);
+    }
+
+    /**
+     * Gets the maximum number of locales whose translations are kept cached.
+     *
+     * @return the maximum number of cached locales
+     * @since  1.0-SNAPSHOT
+     */
+    public int getMaximumCachedLocales() {
+        return this.maximumCachedLocales;
+    }
+
+    /**
+     * Sets the maximum number of locales whose translations are kept cached. When more locales are in use, the least
+     * recently used locales are evicted and reloaded on their next use. The current locale is never evicted.
+     *
+     * @param  maximumCachedLocales the maximum number of cached locales
+     * @return The modified {@code I18n} instance.
+     * @throws IllegalArgumentException if {@code maximumCachedLocales} is less than 1
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull I18n setMaximumCachedLocales(final int maximumCachedLocales) {
+        Parameters.requireInBounds("maximumCachedLocales", maximumCachedLocales, 1, Integer.MAX_VALUE);
+        this.reloadLock.lock();
+        try {
+            this.maximumCachedLocales = maximumCachedLocales;
+            this.snapshot.tables.setMaximumSize(maximumCachedLocales);
+        } finally {
+            this.reloadLock.unlock();
+        }
         return this;
     }
 
@@ -188,7 +252,8 @@ public class I18n {
      * cannot specify {@code CUSTOM} as a {@code resourceType} without also specifying a {@code customResourceControl}.
      * See {@link #setResourceType(ResourceType, Control)} for more information on using custom resource types.
      *
-     * @param resourceType The resource type. May be {@code LANG} or {@code JSON}, but not {@code CUSTOM}.
+     * @param resourceType The resource type. May be {@code LANG}, {@code JSON} or {@code BINARY}, but not
+     *                     {@code CUSTOM}.
      * @return The modified {@code I18n} instance.
      * @throws IllegalArgumentException if {@code resourceType} is {@code null}, or if {@code resourceType} is
      *                                  {@code custom}.
@@ -204,8 +269,8 @@ public class I18n {
      * <p>
      * Passing {@code resourceType} as {@link ResourceType#CUSTOM} to this method without also supplying a
      * {@code customResourceControl} will result in an {@code IllegalArgumentException}. However, when setting
-     * {@code resourceType} to {@link ResourceType#LANG} or {@link ResourceType#JSON}, {@code customResourceControl} is
-     * ignored.
+     * {@code resourceType} to {@link ResourceType#LANG}, {@link ResourceType#JSON} or {@link ResourceType#BINARY},
+     * {@code customResourceControl} is ignored.
      *
      * @param resourceType The resource type.
      * @param customResourceControl The custom resource control for the {@code CUSTOM} {@code resourceType}. Only used
@@ -220,77 +285,390 @@ public class I18n {
     public @NotNull I18n setResourceType(final @NotNull  ResourceType resourceType,
                                          final @Nullable ResourceBundle.Control customResourceControl) {
         Parameters.requireNonNull("resourceType", resourceType);
-        switch (resourceType) {
-            case JSON:
-                this.resourceControl = JSON_FILE_CONTROL;
-                break;
-            case LANG:
-                this.resourceControl = LANG_FILE_CONTROL;
-                break;
-            case CUSTOM:
+        final @NotNull Control resourceControl = switch (resourceType) {
+            case JSON -> JSON_FILE_CONTROL;
+            case LANG -> LANG_FILE_CONTROL;
+            case BINARY -> BINARY_FILE_CONTROL;
+            case CUSTOM -> {
                 Parameters.requireNonNull("customResourceControl", customResourceControl);
-                this.resourceControl = customResourceControl;
+                yield customResourceControl;
+            }
+        };
+        this.reloadResources(null, resourceControl, null, false);
+        return this;
+    }
+
+    /**
+     * Reloads every translation, rereading the internal resources and the external translations in the base directory.
+     * <p>
+     * Translations continue to use the previously loaded resources until the reload has completed.
+     *
+     * @return The modified {@code I18n} instance.
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract(value = "-> this", mutates = "this")
+    public @NotNull I18n reload() {
+        this.reloadResources(null, null, null, false);
+        return this;
+    }
+
+    /**
+     * Watches the base directory for changes to external translations, and reloads them automatically.
+     * <p>
+     * Changes are collected until no further changes have been made for the {@code debounce} interval. Only the
+     * translations of cached locales which are affected by a changed file are then reloaded, in the background, and
+     * swapped in atomically; translations in progress are never blocked by a reload. If the base directory is changed,
+     * the new directory is watched instead. If the base directory is a translation archive, every cached locale is
+     * reloaded whenever the archive changes.
+     * <p>
+     * Passing {@code null} stops watching the base directory.
+     *
+     * @param  debounce how long to wait after the last change before reloading, or {@code null} to stop watching
+     * @return The modified {@code I18n} instance.
+     * @throws IllegalArgumentException if {@code debounce} is negative
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull I18n watchBaseDirectory(final @Nullable Duration debounce) {
+        if (debounce != null && debounce.isNegative()) {
+            throw new IllegalArgumentException("debounce must not be negative.");
+        }
+        this.reloadLock.lock();
+        try {
+            this.watchDebounce = debounce;
+            this.startWatcher();
+        } finally {
+            this.reloadLock.unlock();
         }
-        this.reloadResources();
         return this;
     }
 
     /**
-     * Reloads the translations based on the current state of the {@code I18n}
+     * Stops watching the base directory, if it is being watched, and closes the translation archive, if one is in use.
+     * The {@code I18n} can still be used for translation after it has been closed, but external translations are no
+     * longer loaded for locales which have not been used yet.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() {
+        this.watchBaseDirectory(null);
+        this.reloadLock.lock();
+        try {
+            if (this.snapshot.resourceLoader instanceof ArchiveResourceLoader archiveLoader) {
+                archiveLoader.close();
+            }
+        } finally {
+            this.reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the current base directory watcher with one for the current configuration. Must be called while holding
+     * the reload lock.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void startWatcher() {
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+        }
+        final @Nullable Duration debounce = this.watchDebounce;
+        final @Nullable String baseDirectory = this.snapshot.baseDirectory;
+        if (debounce == null || baseDirectory == null || baseDirectory.isEmpty()) {
+            return;
+        }
+
+        final @NotNull Path directory = Path.of(baseDirectory).toAbsolutePath().normalize();
+        try {
+            if (ArchiveResourceLoader.isArchive(directory) && directory.getParent() != null) {
+                final @NotNull Path archiveName = directory.getFileName();
+                this.watcher = new ResourceDirectoryWatcher(directory.getParent(), debounce, changed -> {
+                    if (changed.contains(archiveName) || changed.stream().anyMatch(ResourceDirectoryWatcher::isAllFiles)) {
+                        this.reloadChanged(directory, Set.of(ResourceDirectoryWatcher.ALL_FILES));
+                    }
+                });
+            } else {
+                this.watcher = new ResourceDirectoryWatcher(directory, debounce, changed -> this.reloadChanged(directory, changed));
+            }
+        } catch (final IOException ex) {
+            I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to watch base directory %s for changes", directory));
+        }
+    }
+
+    /**
+     * Reloads the translations of every cached locale which is affected by a change to external translation files.
+     *
+     * @param directory the watched directory
+     * @param changed   the changed files, relative to {@code directory}
+     * @since 1.0-SNAPSHOT
+     */
+    private void reloadChanged(final @NotNull Path directory,
+                               final @NotNull Set<Path> changed) {
+        this.reloadLock.lock();
+        try {
+            final @NotNull Snapshot current = this.snapshot;
+            if (current.resourceLoader == null || current.baseDirectory == null
+                    || !Path.of(current.baseDirectory).toAbsolutePath().normalize().equals(directory)) {
+                return;
+            }
+            current.resourceLoader.refresh();
+
+            final @NotNull Set<Locale> locales = new HashSet<>(current.tables.locales());
+            locales.add(current.locale);
+            final boolean allFiles = changed.stream().anyMatch(ResourceDirectoryWatcher::isAllFiles);
+            locales.removeIf(locale -> !allFiles && !this.isAffected(locale, current.control, changed));
+            if (locales.isEmpty()) {
+                return;
+            }
+
+            I18N_LOGGER.log(Level.FINE, () -> String.format("Reloading external translations for %s", locales));
+            if (allFiles) {
+                this.bundleCache.invalidate(current.resourceLoader);
+            } else {
+                final @NotNull Set<String> resourceNames = new HashSet<>();
+                for (final @NotNull Path path : changed) {
+                    resourceNames.add(resourceName(path));
+                }
+                this.bundleCache.invalidate(current.resourceLoader, resourceNames);
+            }
+            @Nullable TranslationTable currentTable = null;
+            for (final @NotNull Locale locale : locales) {
+                final @NotNull TranslationTable table = this.loadTable(locale, current.control,
+                        current.defaultTranslations, current.resourceLoader);
+                current.tables.put(table);
+                if (locale.equals(current.locale)) {
+                    currentTable = table;
+                }
+            }
+            if (currentTable != null) {
+                this.snapshot = new Snapshot(current.locale, current, currentTable);
+            }
+        } finally {
+            this.reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether any of the {@code changed} files may supply translations for {@code locale}.
+     *
+     * @param  locale          the locale
+     * @param  resourceControl the resource control used to load bundles
+     * @param  changed         the changed files, relative to the base directory
+     * @return {@code true} if the translations for {@code locale} should be reloaded, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    private boolean isAffected(final @NotNull Locale locale,
+                               final @NotNull Control resourceControl,
+                               final @NotNull Set<Path> changed) {
+        final @NotNull Set<String> bundlePaths = new HashSet<>();
+        for (final @NotNull Locale candidate : resourceControl.getCandidateLocales(this.baseName, locale)) {
+            bundlePaths.add(resourceControl.toBundleName(this.baseName, candidate).replace('.', '/'));
+        }
+        final @Nullable Locale fallback = resourceControl.getFallbackLocale(this.baseName, locale);
+        if (fallback != null) {
+            for (final @NotNull Locale candidate : resourceControl.getCandidateLocales(this.baseName, fallback)) {
+                bundlePaths.add(resourceControl.toBundleName(this.baseName, candidate).replace('.', '/'));
+            }
+        }
+
+        for (final @NotNull Path path : changed) {
+            if (bundlePaths.contains(resourceName(path))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the resource name of a translation file, which is its path relative to the base directory with {@code '/'}
+     * separators and without its file extension.
+     *
+     * @param  path the path of the translation file, relative to the base directory
+     * @return the resource name
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull String resourceName(final @NotNull Path path) {
+        final @NotNull String name = path.toString().replace(File.separatorChar, '/');
+        final int extension = name.lastIndexOf('.');
+        return extension > name.lastIndexOf('/') ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * Switches the current locale, reusing the cached translations of the current snapshot. Nothing is reloaded unless
+     * the translations for {@code locale} are not cached yet.
+     *
+     * @param locale the new locale
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(mutates = "this")
+    private void switchLocale(final @NotNull Locale locale) {
+        this.reloadLock.lock();
+        try {
+            final @NotNull Snapshot current = this.snapshot;
+            this.snapshot = new Snapshot(locale, current, current.tables.get(locale));
+        } finally {
+            this.reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the translations based on the current state of the {@code I18n}, replacing any of the current locale,
+     * resource control, or base directory with the supplied values, and atomically publishes the result.
+     * <p>
+     * Writers are serialized with each other, but readers are never blocked: translations continue to use the previous
+     * snapshot until the new one has been completely loaded.
      *
-     * @apiNote This also includes an explicit call to {@link ResourceBundle#clearCache(ClassLoader)}. Use sparingly, if
-     *          at all...
+     * @param locale                 the new locale, or {@code null} to keep the current locale
+     * @param resourceControl        the new resource control, or {@code null} to keep the current control
+     * @param baseDirectory          the new base directory; only applied if {@code replaceBaseDirectory} is
+     *                               {@code true}
+     * @param replaceBaseDirectory   whether {@code baseDirectory} should replace the current base directory
+     * @apiNote Changing the resource control or base directory clears this instance's bundle cache, so every bundle it
+     *          uses is reparsed; otherwise only bundles whose resources have changed are reparsed. Other users of the
+     *          same class loader are not affected.
      * @since   1.0-SNAPSHOT
      */
     @Contract(mutates = "this")
-    private void reloadResources() {
+    private void reloadResources(final @Nullable Locale locale,
+                                 final @Nullable Control resourceControl,
+                                 final @Nullable String baseDirectory,
+                                 final boolean replaceBaseDirectory) {
+        this.reloadLock.lock();
+        try {
+            final @NotNull Snapshot current = this.snapshot;
+            this.snapshot = this.loadSnapshot(locale == null ? current.locale : locale,
+                    resourceControl == null ? current.control : resourceControl,
+                    replaceBaseDirectory ? baseDirectory : current.baseDirectory,
+                    current);
+            if (this.watchDebounce != null && !Objects.equals(current.baseDirectory, this.snapshot.baseDirectory)) {
+                this.startWatcher();
+            }
+        } finally {
+            this.reloadLock.unlock();
+        }
+    }
 
-        ResourceBundle.clearCache(DEFAULT_CLASS_LOADER);
-        if (this.fileResourceLoader != null) {
-            ResourceBundle.clearCache(this.fileResourceLoader);
+    /**
+     * Loads a new snapshot of the translation state for the given configuration.
+     * <p>
+     * If {@code resourceControl} and {@code baseDirectory} are unchanged from {@code previous}, the resource loader of
+     * {@code previous} is refreshed and reused, and the cached bundles are expired, so that only bundles whose
+     * resources have changed are reparsed. Otherwise the bundle cache is cleared.
+     *
+     * @param  locale          the locale to load translations for
+     * @param  resourceControl the resource control used to load bundles
+     * @param  baseDirectory   the base directory for external translations, or {@code null}
+     * @param  previous        the snapshot being replaced, if any, used to reuse the external resource loader
+     * @return the loaded snapshot
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull Snapshot loadSnapshot(final @NotNull Locale locale,
+                                           final @NotNull Control resourceControl,
+                                           final @Nullable String baseDirectory,
+                                           final @Nullable Snapshot previous) {
+        if (previous != null && previous.control == resourceControl && Objects.equals(previous.baseDirectory, baseDirectory)) {
+            this.bundleCache.invalidate();
+        } else {
+            this.bundleCache.clear();
         }
 
+        @Nullable ResourceBundle defaultTranslations;
         try {
-            this.defaultTranslations = ResourceBundle.getBundle(this.baseName, DEFAULT_LOCALE, DEFAULT_CLASS_LOADER, this.resourceControl);
+            defaultTranslations = this.bundleCache.getBundle(this.baseName, DEFAULT_LOCALE, DEFAULT_CLASS_LOADER, resourceControl);
         } catch (final MissingResourceException ex) {
             I18N_LOGGER.log(Level.SEVERE, ex, () -> String.format("Failed to load DEFAULT locale bundle for %s!", DEFAULT_LOCALE.getDisplayName()));
-            this.defaultTranslations = null;
+            defaultTranslations = null;
+        }
+
+        @Nullable AbstractResourceLoader resourceLoader = null;
+        if (baseDirectory != null && !baseDirectory.isEmpty()) {
+            if (previous != null && previous.resourceLoader != null && baseDirectory.equals(previous.baseDirectory)) {
+                resourceLoader = previous.resourceLoader;
+                resourceLoader.refresh();
+            } else {
+                resourceLoader = createResourceLoader(baseDirectory);
+            }
+        }
+        if (previous != null && previous.resourceLoader instanceof ArchiveResourceLoader archiveLoader
+                && previous.resourceLoader != resourceLoader) {
+            archiveLoader.close();
         }
 
+        final @Nullable ResourceBundle defaults = defaultTranslations;
+        final @Nullable AbstractResourceLoader loader = resourceLoader;
+        final @NotNull LocaleTableCache tables = new LocaleTableCache(
+                tableLocale -> this.loadTable(tableLocale, resourceControl, defaults, loader), this.maximumCachedLocales);
+        return new Snapshot(locale, resourceControl, baseDirectory, resourceLoader, defaultTranslations, tables,
+                tables.get(locale));
+    }
+
+    /**
+     * Creates the loader for external translations in {@code baseDirectory}. If {@code baseDirectory} names a *.zip or
+     * *.jar archive, translations are read from inside the archive; otherwise they are read from the directory.
+     *
+     * @param  baseDirectory the base directory or archive
+     * @return the resource loader, or {@code null} if the archive could not be opened
+     * @since  1.0-SNAPSHOT
+     */
+    private static @Nullable AbstractResourceLoader createResourceLoader(final @NotNull String baseDirectory) {
+        final @NotNull Path path = Path.of(baseDirectory);
+        if (!ArchiveResourceLoader.isArchive(path)) {
+            return new FileResourceLoader(DEFAULT_CLASS_LOADER, baseDirectory);
+        }
+        try {
+            return new ArchiveResourceLoader(DEFAULT_CLASS_LOADER, path);
+        } catch (final IOException ex) {
+            I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to open translation archive %s", baseDirectory));
+            return null;
+        }
+    }
+
+    /**
+     * Loads the translation table for a single locale.
+     *
+     * @param  locale              the locale to load translations for
+     * @param  resourceControl     the resource control used to load bundles
+     * @param  defaultTranslations the default locale bundle, or {@code null}
+     * @param  resourceLoader  the loader for external translations, or {@code null}
+     * @return the translation table
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull TranslationTable loadTable(final @NotNull  Locale locale,
+                                                final @NotNull  Control resourceControl,
+                                                final @Nullable ResourceBundle defaultTranslations,
+                                                final @Nullable AbstractResourceLoader resourceLoader) {
+        @Nullable ResourceBundle internalTranslations;
         try {
-            this.internalTranslations = ResourceBundle.getBundle(this.baseName, this.currentLocale, DEFAULT_CLASS_LOADER, this.resourceControl);
+            internalTranslations = this.bundleCache.getBundle(this.baseName, locale, DEFAULT_CLASS_LOADER, resourceControl);
         } catch (final MissingResourceException ex) {
-            I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to load internal locale bundle for %s", this.currentLocale.getDisplayName()));
-            this.internalTranslations = null;
+            I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to load internal locale bundle for %s", locale.getDisplayName()));
+            internalTranslations = null;
         }
 
-        if (this.baseDirectory != null && !this.baseDirectory.isEmpty()) {
-            if (this.fileResourceLoader == null) {
-                this.fileResourceLoader = new FileResourceLoader(DEFAULT_CLASS_LOADER, this.baseDirectory);
-            }
+        @Nullable ResourceBundle externalTranslations = null;
+        if (resourceLoader != null) {
             try {
-                this.externalTranslations = ResourceBundle.getBundle(this.baseName, this.currentLocale,
-                        this.fileResourceLoader, this.resourceControl);
+                externalTranslations = this.bundleCache.getBundle(this.baseName, locale, resourceLoader, resourceControl);
             } catch (final MissingResourceException ex) {
-                I18N_LOGGER.log(Level.FINE, ex, () -> String.format("Failed to load internal locale bundle for %s", this.currentLocale.getDisplayName()));
-                this.externalTranslations = null;
+                I18N_LOGGER.log(Level.FINE, ex, () -> String.format("Failed to load external locale bundle for %s", locale.getDisplayName()));
             }
-        } else {
-            this.externalTranslations = null;
         }
+
+        return TranslationTable.build(locale, defaultTranslations, internalTranslations, externalTranslations);
     }
 
     /**
-     * Gets a map of translation keys to message caches for a specific {@code locale}.
+     * Gets the translation table for {@code locale} from the current snapshot.
      *
-     * @param locale The locale used to retrieve the cache.
-     * @return The cache, or a new cache if one did not exist for the locale.
-     * @throws IllegalArgumentException if {@code locale} is {@code null}
-     * @since 1.0-SNAPSHOT
+     * @param  locale the locale
+     * @return the translation table
+     * @since  1.0-SNAPSHOT
      */
-    private @NotNull HashMap<String, MessageFormat> getMessageCacheForLocale(final @NotNull Locale locale) {
-        Parameters.requireNonNull("locale", locale);
-        return this.formatters.computeIfAbsent(getLocaleString(locale), k -> HashMap.newHashMap(32));
+    @NotNull TranslationTable getTable(final @NotNull Locale locale) {
+        final @NotNull Snapshot snapshot = this.snapshot;
+        return snapshot.locale.equals(locale) ? snapshot.table : snapshot.tables.get(locale);
     }
 
     /**
@@ -364,78 +742,133 @@ public class I18n {
     public @NotNull String translate(final @NotNull  String key,
                                      final @NotNull  String fallback,
                                      final @Nullable Object[] format) {
-        final @NotNull String translatedKey = this.translateRaw(key, fallback);
+        Parameters.requireNonNull("key", key);
+        Parameters.requireNonNull("fallback", fallback);
+        return this.snapshot.table.translate(key, fallback, format);
+    }
 
-        if (format == null || format.length == 0) {
-            return DOUBLE_APOS.matcher(translatedKey).replaceAll("'");
-        } else {
-            final @NotNull HashMap<String, MessageFormat> currentLocaleCache = this.getMessageCacheForLocale(this.currentLocale);
-
-            @Nullable MessageFormat formatter = currentLocaleCache.computeIfAbsent(translatedKey, k -> {
-                try {
-                    return new MessageFormat(k, this.currentLocale);
-                } catch (final IllegalArgumentException ex) {
-                    I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Invalid format for translation key \"%s\". Translation arguments will be rejected.", key));
-                    // Fallback: try to replace {#} with [#].
-                    try {
-                        return new MessageFormat(k.replaceAll("\\{(\\D*?)}", "[$1]"), this.currentLocale);
-                    } catch (final IllegalArgumentException ignored) { }
-                }
-                return null;
-            });
-
-            @NotNull String result = fallback;
-            if (formatter != null) {
-                try {
-                    result = formatter.format(format);
-                } catch (final IllegalArgumentException ignored) {
-                    result = formatter.toPattern().replaceAll("\\{(\\d+?)(.*?)}", "[$1]");
-                }
-            }
-            return result;
-        }
+    /**
+     * Translates a typed translation {@code key}.
+     * <p>
+     * Typed keys are resolved with array lookups rather than string hashing. See {@link GenerateTranslationKeys}.
+     *
+     * @param  key The translation key. Its key string is also used as the fallback translation value.
+     * @return     The translated string, or the key string if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull TranslationKey key) {
+        return this.translate(key, (Object[]) null);
     }
 
     /**
-     * Translates a {@code key} from a translation file to the translated value. If translation fails for any reason,
-     * returns the fallback.
-     * @param key      The key to translate.
-     * @param fallback The translation fallback.
-     * @return         The translated string, or {@code fallback} if translation failed for any reason.
-     * @throws IllegalArgumentException if {@code key} is {@code null} or {@code fallback} is {@code null}.
-     * @since 1.0-SNAPSHOT
+     * Translates a typed translation {@code key} and formats the result with the {@code format} specified.
+     *
+     * @param  key    The translation key. Its key string is also used as the fallback translation value.
+     * @param  format An array containing objects to use to format the result string.
+     * @return        The translated string, or the key string if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
      */
-    private @NotNull String translateRaw(final @NotNull String key,
-                                         final @NotNull String fallback) {
+    public @NotNull String translate(final @NotNull TranslationKey key,
+                                     final @Nullable Object[] format) {
         Parameters.requireNonNull("key", key);
-        Parameters.requireNonNull("fallback", fallback);
-        if (this.externalTranslations != null) {
-            try {
-                return this.externalTranslations.getString(key);
-            } catch (final MissingResourceException ex) {
-                I18N_LOGGER.log(Level.FINEST, ex, () -> String.format("Invalid translation key \"%s\" in external locale bundle for %s.", key, this.currentLocale.getDisplayName()));
-            }
-        }
-        if (this.internalTranslations != null) {
-            try {
-                return this.internalTranslations.getString(key);
-            } catch (final MissingResourceException ex) {
-                I18N_LOGGER.log(Level.FINE, ex, () -> String.format("Invalid translation key \"%s\" in internal locale bundle for %s.", key, this.currentLocale.getDisplayName()));
-            }
-        }
-        if (this.defaultTranslations != null) {
-            try {
-                return this.defaultTranslations.getString(key);
-            } catch (final MissingResourceException ex) {
-                I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Invalid translation key \"%s\" in DEFAULT locale bundle for %s!", key, DEFAULT_LOCALE.getDisplayName()));
-            }
-        }
-        I18N_LOGGER.log(Level.INFO, String.format("Failed to translate \"%s\" to %s; using fallback value.", key, this.currentLocale.getDisplayName()));
-        return fallback;
+        return this.snapshot.table.translate(key, format);
+    }
+
+    /**
+     * Formats a string from the translation file identified by a typed translation {@code key}.
+     *
+     * @param  key    The translation key. Its key string is also used as the fallback translation value.
+     * @param  format An array containing objects to use to format the result string.
+     * @return The translated string, or the key string if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String format(final @NotNull TranslationKey key,
+                                  final @Nullable Object... format) {
+        return this.translate(key, format);
+    }
+
+    /**
+     * Gets the translation layer which supplies the value for a translation {@code key} in the current locale.
+     *
+     * @param  key the translation key
+     * @return the layer which supplies the translation, or {@code null} if no layer contains {@code key}
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @Nullable TranslationSource getTranslationSource(final @NotNull String key) {
+        Parameters.requireNonNull("key", key);
+        final @Nullable TranslationTable.Entry entry = this.snapshot.table.peek(key);
+        return entry == null ? null : entry.source();
     }
 
     //#region Nested and Inner Classes
 
+    /**
+     * An immutable view of all resolved translation state for a single configuration of an {@link I18n}.
+     * <p>
+     * Snapshots are never modified after construction. The locale table cache is shared between snapshots which only
+     * differ by their current locale, and is replaced whenever the resource control or base directory changes.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private static final class Snapshot {
+        private final @NotNull Locale locale;
+        private final @NotNull Control control;
+        private final @Nullable String baseDirectory;
+        private final @Nullable AbstractResourceLoader resourceLoader;
+        private final @Nullable ResourceBundle defaultTranslations;
+        private final @NotNull LocaleTableCache tables;
+        private final @NotNull TranslationTable table;
+
+        /**
+         * Creates a new snapshot.
+         *
+         * @param locale               the locale used for translation
+         * @param control              the resource control used to load bundles
+         * @param baseDirectory        the base directory for external translations, or {@code null}
+         * @param resourceLoader   the loader for external translations, or {@code null}
+         * @param defaultTranslations  the default locale bundle, or {@code null}
+         * @param tables               the cache of translation tables for every locale in use
+         * @param table                the flattened translations for {@code locale}
+         * @since 1.0-SNAPSHOT
+         */
+        private Snapshot(final @NotNull Locale locale,
+                         final @NotNull Control control,
+                         final @Nullable String baseDirectory,
+                         final @Nullable AbstractResourceLoader resourceLoader,
+                         final @Nullable ResourceBundle defaultTranslations,
+                         final @NotNull LocaleTableCache tables,
+                         final @NotNull TranslationTable table) {
+            this.locale = locale;
+            this.control = control;
+            this.baseDirectory = baseDirectory;
+            this.resourceLoader = resourceLoader;
+            this.defaultTranslations = defaultTranslations;
+            this.tables = tables;
+            this.table = table;
+        }
+
+        /**
+         * Creates a new snapshot which shares all resources with {@code previous}, but with the given current locale and
+         * translation table.
+         *
+         * @param locale   the locale used for translation
+         * @param previous the snapshot to share resources with
+         * @param table    the flattened translations for {@code locale}
+         * @since 1.0-SNAPSHOT
+         */
+        private Snapshot(final @NotNull Locale locale,
+                         final @NotNull Snapshot previous,
+                         final @NotNull TranslationTable table) {
+            this(locale, previous.control, previous.baseDirectory, previous.resourceLoader,
+                    previous.defaultTranslations, previous.tables, table);
+        }
+    }
+
     /**
      * Defines types of resource files that the {@link I18n} instance might use.
      * <p>
@@ -463,6 +896,14 @@ public class I18n {
          * folder specified by the {@code baseName} which match the format &lt;language&gt;_&lt;countryCode&gt;.json.
          */
         JSON,
+        /**
+         * Load resources from compiled *.langpack files.
+         * <p>
+         * Language packs are compiled from *.lang or *.json files with {@link BinaryResourceBundle#main(String[])}, and
+         * are loaded with the {@link BinaryResourceBundle.Control} resource bundle controller. Packs on the file system
+         * are memory mapped, and their values are only decoded when they are looked up.
+         */
+        BINARY,
         /**
          * Load resources with a custom resource control.
          * <p>
@@ -473,5 +914,27 @@ public class I18n {
         CUSTOM
     }
 
+    /**
+     * Identifies the translation layer which supplied a translated value.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     * @see   I18n#getTranslationSource(String)
+     */
+    public enum TranslationSource {
+        /**
+         * The value was loaded from the external base directory.
+         */
+        EXTERNAL,
+        /**
+         * The value was loaded from the internal resources for the current locale.
+         */
+        INTERNAL,
+        /**
+         * The value was loaded from the internal resources for the default locale.
+         */
+        DEFAULT
+    }
+
     //#endregion
 }
@@ -0,0 +1,182 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of {@link TranslationTable} instances keyed by locale.
+ * <p>
+ * Lookups of cached locales are a single concurrent map probe and never block. Tables for locales which are not cached
+ * are loaded at most once, even if requested concurrently. When the cache grows beyond its maximum size, the least
+ * recently used locales are evicted.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+final class LocaleTableCache {
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+    private final @NotNull ConcurrentHashMap<Locale, Node> tables = new ConcurrentHashMap<>(8);
+    private final @NotNull ReentrantLock evictionLock = new ReentrantLock();
+    private final @NotNull Function<Locale, TranslationTable> loader;
+    private volatile int maximumSize;
+
+    /**
+     * Creates a new locale table cache.
+     *
+     * @param loader      loads the translation table for a locale
+     * @param maximumSize the maximum number of locales to keep cached
+     * @throws IllegalArgumentException if {@code loader} is {@code null} or {@code maximumSize} is less than 1
+     * @since  1.0-SNAPSHOT
+     */
+    LocaleTableCache(final @NotNull Function<Locale, TranslationTable> loader,
+                     final int maximumSize) {
+        Parameters.requireNonNull("loader", loader);
+        Parameters.requireInBounds("maximumSize", maximumSize, 1, Integer.MAX_VALUE);
+        this.loader = loader;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Gets the translation table for a {@code locale}, loading it if it is not already cached.
+     *
+     * @param  locale the locale
+     * @return the translation table
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull TranslationTable get(final @NotNull Locale locale) {
+        @Nullable Node node = this.tables.get(locale);
+        if (node == null) {
+            node = this.tables.computeIfAbsent(locale, key -> new Node(this.loader.apply(key)));
+            this.evict();
+        }
+        node.touch();
+        return node.table;
+    }
+
+    /**
+     * Adds a table which has already been loaded to the cache, replacing any existing table for its locale.
+     *
+     * @param table the table to add
+     * @since 1.0-SNAPSHOT
+     */
+    void put(final @NotNull TranslationTable table) {
+        this.tables.put(table.locale(), new Node(table));
+        this.evict();
+    }
+
+    /**
+     * Gets the translation table for a {@code locale} if it is cached.
+     *
+     * @param  locale the locale
+     * @return the translation table, or {@code null} if it is not cached
+     * @since  1.0-SNAPSHOT
+     */
+    @Nullable TranslationTable getIfPresent(final @NotNull Locale locale) {
+        final @Nullable Node node = this.tables.get(locale);
+        return node == null ? null : node.table;
+    }
+
+    /**
+     * Gets a snapshot of the cached locales.
+     *
+     * @return the cached locales
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull Set<Locale> locales() {
+        return Set.copyOf(this.tables.keySet());
+    }
+
+    /**
+     * Gets the number of cached locales.
+     *
+     * @return the number of cached locales
+     * @since  1.0-SNAPSHOT
+     */
+    int size() {
+        return this.tables.size();
+    }
+
+    /**
+     * Sets the maximum number of cached locales, evicting the least recently used locales if necessary.
+     *
+     * @param maximumSize the maximum number of locales to keep cached
+     * @throws IllegalArgumentException if {@code maximumSize} is less than 1
+     * @since  1.0-SNAPSHOT
+     */
+    void setMaximumSize(final int maximumSize) {
+        Parameters.requireInBounds("maximumSize", maximumSize, 1, Integer.MAX_VALUE);
+        this.maximumSize = maximumSize;
+        this.evict();
+    }
+
+    /**
+     * Evicts the least recently used locales until the cache is within its maximum size.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void evict() {
+        if (this.tables.size() <= this.maximumSize) {
+            return;
+        }
+        this.evictionLock.lock();
+        try {
+            while (this.tables.size() > this.maximumSize) {
+                @Nullable Map.Entry<Locale, Node> eldest = null;
+                for (final @NotNull Map.Entry<Locale, Node> entry : this.tables.entrySet()) {
+                    if (eldest == null || entry.getValue().lastAccess - eldest.getValue().lastAccess < 0) {
+                        eldest = entry;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                this.tables.remove(eldest.getKey(), eldest.getValue());
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cached table and the time it was last accessed.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private static final class Node {
+        private final @NotNull TranslationTable table;
+        private volatile long lastAccess = System.nanoTime();
+
+        /**
+         * Creates a new cache node.
+         *
+         * @param table the cached table
+         * @since 1.0-SNAPSHOT
+         */
+        private Node(final @NotNull TranslationTable table) {
+            this.table = table;
+        }
+
+        /**
+         * Records an access to this node. Accesses within a millisecond of the last recorded access are not recorded,
+         * which keeps frequently used locales from contending on the same field.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        private void touch() {
+            final long now = System.nanoTime();
+            if (now - this.lastAccess > ACCESS_GRANULARITY_NANOS) {
+                this.lastAccess = now;
+            }
+        }
+    }
+}
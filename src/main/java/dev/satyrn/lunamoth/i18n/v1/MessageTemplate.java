@@ -0,0 +1,394 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, pre-compiled translation message.
+ * <p>
+ * Templates are compiled once from a {@link MessageFormat} pattern into a program of literal and argument segments,
+ * with apostrophe quoting already resolved. Rendering a template appends directly to a caller-supplied
+ * {@link StringBuilder}, and a template may be shared freely between threads.
+ * <p>
+ * Simple arguments (e.g. {@code {0}}) are rendered exactly as {@link MessageFormat} would render them. Arguments which
+ * specify a format type (e.g. {@code {0,number,currency}}) are delegated to a {@code MessageFormat} prototype, which
+ * is copied per render as {@code MessageFormat} is not thread-safe.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+final class MessageTemplate {
+    private static final @NotNull Pattern NON_NUMERIC_ARGUMENT = Pattern.compile("\\{(\\D*?)}");
+    private static final @NotNull ConcurrentHashMap<Locale, NumberFormat> NUMBER_FORMATS = new ConcurrentHashMap<>(4);
+    private static final @NotNull ConcurrentHashMap<Locale, DateFormat> DATE_FORMATS = new ConcurrentHashMap<>(4);
+    private static final int SEG_RAW = 0;
+    private static final int SEG_INDEX = 1;
+    private static final int SEG_TYPE = 2;
+    private static final int SEG_MODIFIER = 3;
+
+    private final @NotNull Locale locale;
+    private final @NotNull String text;
+    private final @Nullable String[] literals;
+    private final int[] argumentIndices;
+    private final @Nullable MessageFormat[] formats;
+    private final @NotNull String errorText;
+    private final int estimatedLength;
+
+    /**
+     * Creates a new message template.
+     *
+     * @param locale          the locale used to format arguments
+     * @param text            the text used when the template is rendered without arguments
+     * @param literals        the literal segments, one more than the number of arguments, or {@code null} if the
+     *                        template cannot be formatted
+     * @param argumentIndices the argument index of each argument segment
+     * @param formats         the format prototype for each argument segment, or {@code null} for simple arguments
+     * @param errorText       the text used when formatting the arguments fails
+     * @since 1.0-SNAPSHOT
+     */
+    private MessageTemplate(final @NotNull Locale locale,
+                            final @NotNull String text,
+                            final @Nullable String[] literals,
+                            final int[] argumentIndices,
+                            final @Nullable MessageFormat[] formats,
+                            final @NotNull String errorText) {
+        this.locale = locale;
+        this.text = text;
+        this.literals = literals;
+        this.argumentIndices = argumentIndices;
+        this.formats = formats;
+        this.errorText = errorText;
+        this.estimatedLength = text.length() + (argumentIndices == null ? 0 : argumentIndices.length * 8);
+    }
+
+    /**
+     * Compiles a {@link MessageFormat} pattern into a template.
+     *
+     * @param  pattern the message pattern
+     * @param  locale  the locale used to format arguments
+     * @return the compiled template
+     * @throws IllegalArgumentException if {@code pattern} or {@code locale} is {@code null}, or if {@code pattern} is
+     *                                  not a valid {@code MessageFormat} pattern
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_, _ -> new")
+    static @NotNull MessageTemplate compile(final @NotNull String pattern,
+                                            final @NotNull Locale locale) throws IllegalArgumentException {
+        Parameters.requireNonNull("pattern", pattern);
+        Parameters.requireNonNull("locale", locale);
+        return compile(pattern, unescapeApostrophes(pattern), locale);
+    }
+
+    /**
+     * Compiles a {@link MessageFormat} pattern into a template, recovering from invalid patterns.
+     * <p>
+     * If {@code pattern} is invalid, {@code errorHandler} is notified and any non-numeric argument placeholders (e.g.
+     * {@code {name}}) are replaced with square brackets (e.g. {@code [name]}) before compiling again. If the pattern
+     * is still invalid, an unformattable template is returned. In all cases, the template's {@link #text()} is derived
+     * from the original {@code pattern}.
+     *
+     * @param  pattern      the message pattern
+     * @param  locale       the locale used to format arguments
+     * @param  errorHandler notified if {@code pattern} is invalid
+     * @return the compiled template
+     * @throws IllegalArgumentException if {@code pattern}, {@code locale}, or {@code errorHandler} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_, _, _ -> new")
+    static @NotNull MessageTemplate compileLenient(final @NotNull String pattern,
+                                                   final @NotNull Locale locale,
+                                                   final @NotNull Consumer<IllegalArgumentException> errorHandler) {
+        Parameters.requireNonNull("pattern", pattern);
+        Parameters.requireNonNull("locale", locale);
+        Parameters.requireNonNull("errorHandler", errorHandler);
+        final @NotNull String text = unescapeApostrophes(pattern);
+        try {
+            return compile(pattern, text, locale);
+        } catch (final IllegalArgumentException ex) {
+            errorHandler.accept(ex);
+        }
+        try {
+            return compile(NON_NUMERIC_ARGUMENT.matcher(pattern).replaceAll("[$1]"), text, locale);
+        } catch (final IllegalArgumentException ignored) { }
+        return new MessageTemplate(locale, text, null, null, null, text);
+    }
+
+    /**
+     * Compiles a {@link MessageFormat} pattern into a template.
+     *
+     * @param  pattern the message pattern
+     * @param  text    the text used when the template is rendered without arguments
+     * @param  locale  the locale used to format arguments
+     * @return the compiled template
+     * @throws IllegalArgumentException if {@code pattern} is not a valid {@code MessageFormat} pattern
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull MessageTemplate compile(final @NotNull String pattern,
+                                                    final @NotNull String text,
+                                                    final @NotNull Locale locale) throws IllegalArgumentException {
+        final @NotNull List<String> literals = new ArrayList<>(4);
+        final @NotNull List<Integer> argumentIndices = new ArrayList<>(4);
+        final @NotNull List<MessageFormat> formats = new ArrayList<>(4);
+        final @NotNull StringBuilder errorText = new StringBuilder(pattern.length());
+        final @Nullable StringBuilder[] segments = new StringBuilder[4];
+        segments[SEG_RAW] = new StringBuilder();
+
+        // Mirrors the parser in MessageFormat.applyPattern so that quoting and brace handling are identical.
+        int part = SEG_RAW;
+        boolean inQuote = false;
+        int braceStack = 0;
+        for (int i = 0; i < pattern.length(); ++i) {
+            final char ch = pattern.charAt(i);
+            if (part == SEG_RAW) {
+                if (ch == '\'') {
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                        segments[part].append(ch);
+                        ++i;
+                    } else {
+                        inQuote = !inQuote;
+                    }
+                } else if (ch == '{' && !inQuote) {
+                    part = SEG_INDEX;
+                    segments[SEG_INDEX] = new StringBuilder();
+                } else {
+                    segments[part].append(ch);
+                }
+            } else if (inQuote) {
+                segments[part].append(ch);
+                if (ch == '\'') {
+                    inQuote = false;
+                }
+            } else {
+                switch (ch) {
+                    case ',' -> {
+                        if (part < SEG_MODIFIER) {
+                            segments[++part] = new StringBuilder();
+                        } else {
+                            segments[part].append(ch);
+                        }
+                    }
+                    case '{' -> {
+                        ++braceStack;
+                        segments[part].append(ch);
+                    }
+                    case '}' -> {
+                        if (braceStack == 0) {
+                            final @NotNull String literal = segments[SEG_RAW].toString();
+                            final int argumentIndex = parseArgumentIndex(segments[SEG_INDEX].toString());
+                            literals.add(literal);
+                            argumentIndices.add(argumentIndex);
+                            formats.add(makeFormat(argumentIndex, segments, locale));
+                            errorText.append(literal).append('[').append(argumentIndex).append(']');
+                            part = SEG_RAW;
+                            segments[SEG_RAW].setLength(0);
+                            segments[SEG_INDEX] = null;
+                            segments[SEG_TYPE] = null;
+                            segments[SEG_MODIFIER] = null;
+                        } else {
+                            --braceStack;
+                            segments[part].append(ch);
+                        }
+                    }
+                    case ' ' -> {
+                        // Skip any leading space chars for the type segment.
+                        if (part != SEG_TYPE || !segments[SEG_TYPE].isEmpty()) {
+                            segments[part].append(ch);
+                        }
+                    }
+                    case '\'' -> {
+                        inQuote = true;
+                        segments[part].append(ch);
+                    }
+                    default -> segments[part].append(ch);
+                }
+            }
+        }
+        if (braceStack == 0 && part != SEG_RAW) {
+            throw new IllegalArgumentException("Unmatched braces in the pattern.");
+        }
+
+        final @NotNull String trailingLiteral = segments[SEG_RAW].toString();
+        literals.add(trailingLiteral);
+        errorText.append(trailingLiteral);
+
+        final int[] indices = new int[argumentIndices.size()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = argumentIndices.get(i);
+        }
+        return new MessageTemplate(locale, text, literals.toArray(String[]::new), indices,
+                formats.toArray(MessageFormat[]::new), errorText.toString());
+    }
+
+    /**
+     * Gets the text of this template as rendered without any arguments.
+     * <p>
+     * Only doubled apostrophes are unescaped; argument placeholders are left as they appear in the pattern.
+     *
+     * @return the template text
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull String text() {
+        return this.text;
+    }
+
+    /**
+     * Gets the text of this template with each argument replaced by its index in square brackets, such as
+     * {@code [0]}. Used when the supplied arguments cannot be formatted.
+     *
+     * @return the error text
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull String errorText() {
+        return this.errorText;
+    }
+
+    /**
+     * Checks whether this template can be formatted with arguments.
+     *
+     * @return {@code true} if the template was compiled successfully, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    boolean isFormattable() {
+        return this.literals != null;
+    }
+
+    /**
+     * Gets an estimate of the rendered length of this template, suitable for sizing a builder.
+     *
+     * @return the estimated length
+     * @since  1.0-SNAPSHOT
+     */
+    int estimatedLength() {
+        return this.estimatedLength;
+    }
+
+    /**
+     * Formats this template with the given {@code arguments}.
+     *
+     * @param  arguments the arguments to format
+     * @return the formatted string
+     * @throws IllegalArgumentException if an argument cannot be formatted by its argument format
+     * @throws IllegalStateException    if this template is not formattable
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull String format(final @Nullable Object[] arguments) throws IllegalArgumentException {
+        final @NotNull StringBuilder builder = new StringBuilder(this.estimatedLength);
+        this.formatTo(builder, arguments);
+        return builder.toString();
+    }
+
+    /**
+     * Formats this template with the given {@code arguments}, appending the result to {@code builder}.
+     * <p>
+     * If formatting fails, {@code builder} may contain a partially rendered message.
+     *
+     * @param  builder   the builder to append to
+     * @param  arguments the arguments to format
+     * @throws IllegalArgumentException if an argument cannot be formatted by its argument format
+     * @throws IllegalStateException    if this template is not formattable
+     * @since  1.0-SNAPSHOT
+     */
+    void formatTo(final @NotNull StringBuilder builder,
+                  final @Nullable Object[] arguments) throws IllegalArgumentException {
+        if (this.literals == null || this.argumentIndices == null || this.formats == null) {
+            throw new IllegalStateException("template cannot be formatted.");
+        }
+        for (int i = 0; i < this.argumentIndices.length; ++i) {
+            builder.append(this.literals[i]);
+            final int argumentIndex = this.argumentIndices[i];
+            if (arguments == null || argumentIndex >= arguments.length) {
+                builder.append('{').append(argumentIndex).append('}');
+                continue;
+            }
+
+            final @Nullable Object argument = arguments[argumentIndex];
+            final @Nullable MessageFormat format = this.formats[i];
+            if (argument == null) {
+                builder.append("null");
+            } else if (format != null) {
+                builder.append(((MessageFormat) format.clone()).format(arguments));
+            } else if (argument instanceof Number) {
+                builder.append(((NumberFormat) NUMBER_FORMATS.computeIfAbsent(this.locale, NumberFormat::getInstance).clone()).format(argument));
+            } else if (argument instanceof Date) {
+                builder.append(((DateFormat) DATE_FORMATS.computeIfAbsent(this.locale, locale ->
+                        DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale)).clone()).format(argument));
+            } else if (argument instanceof String string) {
+                builder.append(string);
+            } else {
+                final @Nullable String string = argument.toString();
+                builder.append(string == null ? "null" : string);
+            }
+        }
+        builder.append(this.literals[this.literals.length - 1]);
+    }
+
+    /**
+     * Parses the index segment of an argument in the same manner as {@link MessageFormat}.
+     *
+     * @param  segment the index segment
+     * @return the argument index
+     * @throws IllegalArgumentException if the segment is not a non-negative integer
+     * @since  1.0-SNAPSHOT
+     */
+    private static int parseArgumentIndex(final @NotNull String segment) throws IllegalArgumentException {
+        final int argumentIndex;
+        try {
+            argumentIndex = Integer.parseInt(segment);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("can't parse argument number: " + segment, ex);
+        }
+        if (argumentIndex < 0) {
+            throw new IllegalArgumentException("negative argument number: " + argumentIndex);
+        }
+        return argumentIndex;
+    }
+
+    /**
+     * Creates the format prototype for an argument which specifies a format type.
+     *
+     * @param  argumentIndex the argument index
+     * @param  segments      the parsed argument segments
+     * @param  locale        the locale used to format the argument
+     * @return the format prototype, or {@code null} if the argument does not specify a format type
+     * @throws IllegalArgumentException if the format type or style is invalid
+     * @since  1.0-SNAPSHOT
+     */
+    private static @Nullable MessageFormat makeFormat(final int argumentIndex,
+                                                      final @Nullable StringBuilder[] segments,
+                                                      final @NotNull Locale locale) throws IllegalArgumentException {
+        final @Nullable StringBuilder type = segments[SEG_TYPE];
+        if (type == null || type.isEmpty()) {
+            return null;
+        }
+
+        final @NotNull StringBuilder argument = new StringBuilder().append('{').append(argumentIndex).append(',').append(type);
+        if (segments[SEG_MODIFIER] != null) {
+            argument.append(',').append(segments[SEG_MODIFIER]);
+        }
+        return new MessageFormat(argument.append('}').toString(), locale);
+    }
+
+    /**
+     * Replaces each doubled apostrophe in {@code pattern} with a single apostrophe.
+     *
+     * @param  pattern the pattern
+     * @return the unescaped pattern
+     * @since  1.0-SNAPSHOT
+     */
+    static @NotNull String unescapeApostrophes(final @NotNull String pattern) {
+        return pattern.indexOf('\'') < 0 ? pattern : pattern.replace("''", "'");
+    }
+}
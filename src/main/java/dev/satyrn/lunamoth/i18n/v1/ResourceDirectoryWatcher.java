@@ -0,0 +1,226 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches a directory tree for changes and reports the changed files in debounced batches.
+ * <p>
+ * Events are collected on a dedicated daemon thread. Once no further events have arrived for the debounce interval, the
+ * paths of every changed file, relative to the watched directory, are passed to the listener on a second daemon thread.
+ * If the file system reports that events were lost, the empty path is reported, which indicates that any file in the
+ * tree may have changed.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+final class ResourceDirectoryWatcher implements AutoCloseable {
+    private static final @NotNull Logger I18N_LOGGER = Logger.getLogger(I18n.class.getName());
+    static final @NotNull Path ALL_FILES = Path.of("");
+    private final @NotNull Path directory;
+    private final @NotNull Duration debounce;
+    private final @NotNull Consumer<Set<Path>> listener;
+    private final @NotNull WatchService watchService;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final @NotNull Thread watchThread;
+    private final @NotNull Object pendingLock = new Object();
+    private @NotNull Set<Path> pending = new HashSet<>();
+    private @Nullable ScheduledFuture<?> pendingFlush;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new watcher and starts watching {@code directory} and all of its subdirectories.
+     *
+     * @param  directory the directory to watch
+     * @param  debounce  how long to wait after the last change before reporting a batch
+     * @param  listener  receives the paths of changed files, relative to {@code directory}
+     * @throws IllegalArgumentException if any parameter is {@code null}, or if {@code debounce} is negative
+     * @throws IOException if the directory could not be watched
+     * @since  1.0-SNAPSHOT
+     */
+    ResourceDirectoryWatcher(final @NotNull Path directory,
+                             final @NotNull Duration debounce,
+                             final @NotNull Consumer<Set<Path>> listener) throws IOException {
+        Parameters.requireNonNull("directory", directory);
+        Parameters.requireNonNull("debounce", debounce);
+        Parameters.requireNonNull("listener", listener);
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("debounce must not be negative.");
+        }
+        this.directory = directory.toAbsolutePath().normalize();
+        this.debounce = debounce;
+        this.listener = listener;
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        try {
+            this.registerTree(this.directory);
+        } catch (final IOException ex) {
+            this.watchService.close();
+            throw ex;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final @NotNull Thread thread = new Thread(runnable, "lunamoth-i18n-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchThread = new Thread(this::watch, "lunamoth-i18n-watcher");
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    /**
+     * Gets the watched directory.
+     *
+     * @return the absolute, normalized watched directory
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Checks whether a reported path indicates that any file in the tree may have changed.
+     *
+     * @param  path a reported path
+     * @return {@code true} if every file should be considered changed, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    static boolean isAllFiles(final @NotNull Path path) {
+        return ALL_FILES.equals(path);
+    }
+
+    /**
+     * Registers a directory and all of its subdirectories with the watch service.
+     *
+     * @param  start the root of the tree to register
+     * @throws IOException if a directory could not be registered
+     * @since  1.0-SNAPSHOT
+     */
+    private void registerTree(final @NotNull Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public @NotNull FileVisitResult preVisitDirectory(final @NotNull Path dir,
+                                                              final @NotNull BasicFileAttributes attributes) throws IOException {
+                dir.register(ResourceDirectoryWatcher.this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Collects watch events until the watcher is closed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void watch() {
+        while (!this.closed) {
+            final @NotNull WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (final InterruptedException | ClosedWatchServiceException ignored) {
+                return;
+            }
+
+            final @NotNull Path parent = (Path) key.watchable();
+            final @NotNull Set<Path> changed = new HashSet<>();
+            for (final @NotNull WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    changed.add(ALL_FILES);
+                    continue;
+                }
+                final @NotNull Path child = parent.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        this.registerTree(child);
+                    } catch (final IOException ex) {
+                        I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to watch directory %s", child));
+                    }
+                    changed.add(ALL_FILES);
+                    continue;
+                }
+                changed.add(this.directory.relativize(child));
+            }
+            key.reset();
+
+            if (!changed.isEmpty()) {
+                this.schedule(changed);
+            }
+        }
+    }
+
+    /**
+     * Adds changed paths to the pending batch and restarts the debounce interval.
+     *
+     * @param changed the changed paths
+     * @since 1.0-SNAPSHOT
+     */
+    private void schedule(final @NotNull Set<Path> changed) {
+        synchronized (this.pendingLock) {
+            this.pending.addAll(changed);
+            if (this.pendingFlush != null) {
+                this.pendingFlush.cancel(false);
+            }
+            try {
+                this.pendingFlush = this.scheduler.schedule(this::flush, this.debounce.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (final RejectedExecutionException ignored) {
+                // The watcher has been closed.
+            }
+        }
+    }
+
+    /**
+     * Reports the pending batch to the listener.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void flush() {
+        final @NotNull Set<Path> batch;
+        synchronized (this.pendingLock) {
+            batch = this.pending;
+            this.pending = new HashSet<>();
+            this.pendingFlush = null;
+        }
+        if (batch.isEmpty() || this.closed) {
+            return;
+        }
+        try {
+            this.listener.accept(batch);
+        } catch (final RuntimeException ex) {
+            I18N_LOGGER.log(Level.WARNING, ex, () -> String.format("Failed to reload resources from %s", this.directory));
+        }
+    }
+
+    /**
+     * Stops watching the directory. Pending changes are discarded.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        try {
+            this.watchService.close();
+        } catch (final IOException ex) {
+            I18N_LOGGER.log(Level.FINE, ex, () -> String.format("Failed to close watch service for %s", this.directory));
+        }
+        this.scheduler.shutdownNow();
+        this.watchThread.interrupt();
+    }
+}
@@ -0,0 +1,166 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A typed translation key with a dense integer id.
+ * <p>
+ * Translation keys are normally declared as constants of a class generated by {@link GenerateTranslationKeys}, but
+ * can also be created at runtime with {@link Index#of(String...)}. Every key belongs to an {@link Index}, and its id is
+ * its position within that index. Translating a {@code TranslationKey} resolves the value with plain array lookups,
+ * instead of hashing the key string for every translation.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public final class TranslationKey {
+    private final @NotNull Index index;
+    private final int id;
+    private final @NotNull String key;
+
+    /**
+     * Creates a new translation key.
+     *
+     * @param index the index which contains the key
+     * @param id    the position of the key in {@code index}
+     * @param key   the translation key string
+     * @since 1.0-SNAPSHOT
+     */
+    private TranslationKey(final @NotNull Index index,
+                           final int id,
+                           final @NotNull String key) {
+        this.index = index;
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * Gets the index which contains this key.
+     *
+     * @return the index
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull Index getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Gets the id of this key, which is its position within its index.
+     *
+     * @return the id
+     * @since  1.0-SNAPSHOT
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the translation key string.
+     *
+     * @return the key
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Gets the translation key string.
+     *
+     * @return the key
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull String toString() {
+        return this.key;
+    }
+
+    /**
+     * A fixed set of translation keys, numbered from 0.
+     * <p>
+     * Each index is assigned a process-wide slot, which translation tables use to cache the values of every key in the
+     * index as a single array.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    public static final class Index {
+        private static final @NotNull AtomicInteger NEXT_SLOT = new AtomicInteger();
+        private final int slot = NEXT_SLOT.getAndIncrement();
+        private final @NotNull TranslationKey[] keys;
+
+        /**
+         * Creates a new index.
+         *
+         * @param keys the translation key strings
+         * @since 1.0-SNAPSHOT
+         */
+        private Index(final @NotNull String[] keys) {
+            this.keys = new TranslationKey[keys.length];
+            for (int id = 0; id < keys.length; ++id) {
+                this.keys[id] = new TranslationKey(this, id, keys[id]);
+            }
+        }
+
+        /**
+         * Creates a new index containing the given translation keys. The id of each key is its position in
+         * {@code keys}.
+         *
+         * @param  keys the translation key strings
+         * @return the index
+         * @throws IllegalArgumentException if {@code keys} is {@code null}, contains {@code null}, or contains
+         *                                  duplicate keys
+         * @since  1.0-SNAPSHOT
+         */
+        @Contract("_ -> new")
+        public static @NotNull Index of(final @NotNull String... keys) {
+            Parameters.requireAllNonNull("keys", keys);
+            final @NotNull Set<String> seen = new HashSet<>(keys.length * 2);
+            for (final @NotNull String key : keys) {
+                if (!seen.add(key)) {
+                    throw new IllegalArgumentException(String.format("Duplicate translation key \"%s\".", key));
+                }
+            }
+            return new Index(keys.clone());
+        }
+
+        /**
+         * Gets the translation key with the given {@code id}.
+         *
+         * @param  id the id of the key
+         * @return the translation key
+         * @throws IllegalArgumentException if {@code id} is negative or not less than {@link #size()}
+         * @since  1.0-SNAPSHOT
+         */
+        public @NotNull TranslationKey get(final int id) {
+            Parameters.requireInBounds("id", id, 0, this.keys.length - 1);
+            return this.keys[id];
+        }
+
+        /**
+         * Gets the number of keys in this index.
+         *
+         * @return the number of keys
+         * @since  1.0-SNAPSHOT
+         */
+        public int size() {
+            return this.keys.length;
+        }
+
+        /**
+         * Gets the process-wide slot of this index.
+         *
+         * @return the slot
+         * @since  1.0-SNAPSHOT
+         */
+        int slot() {
+            return this.slot;
+        }
+    }
+}
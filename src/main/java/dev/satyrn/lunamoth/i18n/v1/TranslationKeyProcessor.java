@@ -0,0 +1,275 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.JsonResourceBundle;
+import dev.satyrn.lunamoth.util.v1.LanguageResourceBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor which generates typed translation key classes for elements annotated with
+ * {@link GenerateTranslationKeys}.
+ * <p>
+ * The processor is not registered as a service, so it never runs in a downstream build unless it is asked for. Enable
+ * it by naming it with {@code javac -processor dev.satyrn.lunamoth.i18n.v1.TranslationKeyProcessor}, or in Maven by
+ * adding this library to the compiler plugin's {@code annotationProcessorPaths} and the processor to its
+ * {@code annotationProcessors}. Reading a *.json resource requires Gson on the processor path as well.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+@SupportedAnnotationTypes("dev.satyrn.lunamoth.i18n.v1.GenerateTranslationKeys")
+public final class TranslationKeyProcessor extends AbstractProcessor {
+    private static final @NotNull StandardLocation[] RESOURCE_LOCATIONS = {
+            StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_PATH, StandardLocation.CLASS_PATH
+    };
+    private static final @NotNull String INDEX_FIELD = "INDEX";
+
+    /**
+     * Creates a new instance of the processor. Called by the compiler.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public TranslationKeyProcessor() { }
+
+    /**
+     * Gets the latest source version supported by the compiler, as the generated code does not depend on any
+     * particular language version.
+     *
+     * @return the latest supported source version
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Generates a key class for every element annotated with {@link GenerateTranslationKeys}.
+     *
+     * @param  annotations the annotation types requested to be processed
+     * @param  roundEnv    environment for information about the current and prior round
+     * @return {@code true}, as the annotation is claimed by this processor
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public boolean process(final @NotNull Set<? extends TypeElement> annotations,
+                           final @NotNull RoundEnvironment roundEnv) {
+        for (final @NotNull Element element : roundEnv.getElementsAnnotatedWith(GenerateTranslationKeys.class)) {
+            final @NotNull GenerateTranslationKeys annotation = element.getAnnotation(GenerateTranslationKeys.class);
+            final @NotNull PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(element);
+            try {
+                this.generate(element, packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString(),
+                        annotation.className(), annotation.resource());
+            } catch (final IOException ex) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("Failed to generate translation keys from \"%s\": %s", annotation.resource(), ex.getMessage()), element);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generates a single key class.
+     *
+     * @param  element     the annotated element, used to report errors
+     * @param  packageName the package of the generated class
+     * @param  className   the simple name of the generated class
+     * @param  resource    the class path name of the translation resource
+     * @throws IOException if the resource could not be read or the class could not be written
+     * @since  1.0-SNAPSHOT
+     */
+    private void generate(final @NotNull Element element,
+                          final @NotNull String packageName,
+                          final @NotNull String className,
+                          final @NotNull String resource) throws IOException {
+        if (!SourceVersion.isIdentifier(className) || SourceVersion.isKeyword(className)) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("\"%s\" is not a valid class name.", className), element);
+            return;
+        }
+
+        final @Nullable ResourceBundle bundle = this.readBundle(resource);
+        if (bundle == null) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Translation resource \"%s\" could not be found.", resource), element);
+            return;
+        }
+
+        final @NotNull List<String> keys = new ArrayList<>(bundle.keySet());
+        Collections.sort(keys);
+        final @NotNull String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        final @NotNull JavaFileObject source = this.processingEnv.getFiler().createSourceFile(qualifiedName, element);
+        try (final @NotNull Writer writer = source.openWriter()) {
+            writer.write(render(packageName, className, resource, keys));
+        }
+    }
+
+    /**
+     * Reads a translation resource from the first location which contains it.
+     *
+     * @param  resource the class path name of the resource
+     * @return the resource bundle, or {@code null} if the resource could not be found
+     * @throws IOException if the resource was found but could not be read
+     * @since  1.0-SNAPSHOT
+     */
+    private @Nullable ResourceBundle readBundle(final @NotNull String resource) throws IOException {
+        for (final @NotNull StandardLocation location : RESOURCE_LOCATIONS) {
+            final @NotNull FileObject file;
+            final @NotNull InputStream stream;
+            try {
+                file = this.processingEnv.getFiler().getResource(location, "", resource);
+                stream = file.openInputStream();
+            } catch (final IOException | IllegalArgumentException ignored) {
+                continue;
+            }
+            try (stream) {
+                return resource.endsWith(".json") ? new JsonResourceBundle(stream) : new LanguageResourceBundle(stream);
+            } catch (final RuntimeException | LinkageError ex) {
+                throw new IOException(ex.toString(), ex);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Renders the source code of a key class.
+     *
+     * @param  packageName the package of the generated class
+     * @param  className   the simple name of the generated class
+     * @param  resource    the name of the translation resource
+     * @param  keys        the translation keys, in id order
+     * @return the source code
+     * @since  1.0-SNAPSHOT
+     */
+    static @NotNull String render(final @NotNull String packageName,
+                                  final @NotNull String className,
+                                  final @NotNull String resource,
+                                  final @NotNull List<String> keys) {
+        final @NotNull StringBuilder source = new StringBuilder(256 + keys.size() * 128);
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import dev.satyrn.lunamoth.i18n.v1.TranslationKey;\n\n")
+                .append("/**\n")
+                .append(" * Translation keys generated from <code>").append(escapeJavadoc(resource)).append("</code>.\n")
+                .append(" */\n")
+                .append("public final class ").append(className).append(" {\n")
+                .append("    /**\n")
+                .append("     * The index containing every key of this class.\n")
+                .append("     */\n")
+                .append("    public static final TranslationKey.Index ").append(INDEX_FIELD).append(" = TranslationKey.Index.of(");
+        for (int id = 0; id < keys.size(); ++id) {
+            source.append(id == 0 ? "\n            " : ",\n            ").append(quote(keys.get(id)));
+        }
+        source.append(");\n");
+
+        final @NotNull Set<String> names = new HashSet<>();
+        names.add(INDEX_FIELD);
+        for (int id = 0; id < keys.size(); ++id) {
+            source.append("\n    /**\n")
+                    .append("     * The translation key <code>").append(escapeJavadoc(keys.get(id))).append("</code>.\n")
+                    .append("     */\n")
+                    .append("    public static final TranslationKey ").append(toConstantName(keys.get(id), names))
+                    .append(" = ").append(INDEX_FIELD).append(".get(").append(id).append(");\n");
+        }
+
+        source.append("\n    private ").append(className).append("() { }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Converts a translation key to a unique constant name.
+     *
+     * @param  key   the translation key
+     * @param  names the constant names used so far, which is updated with the returned name
+     * @return the constant name
+     * @since  1.0-SNAPSHOT
+     */
+    static @NotNull String toConstantName(final @NotNull String key,
+                                          final @NotNull Set<String> names) {
+        final @NotNull StringBuilder name = new StringBuilder(key.length() + 1);
+        for (int i = 0; i < key.length(); ++i) {
+            final char c = Character.toUpperCase(key.charAt(i));
+            name.append((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ? c : '_');
+        }
+        if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+            name.insert(0, '_');
+        }
+
+        @NotNull String candidate = name.toString();
+        for (int suffix = 2; !names.add(candidate); ++suffix) {
+            candidate = name + "_" + suffix;
+        }
+        return candidate;
+    }
+
+    /**
+     * Quotes a string as a Java string literal.
+     *
+     * @param  value the string
+     * @return the string literal
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull String quote(final @NotNull String value) {
+        final @NotNull StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    /**
+     * Escapes a string for use in a Javadoc comment.
+     *
+     * @param  value the string
+     * @return the escaped string
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull String escapeJavadoc(final @NotNull String value) {
+        final @NotNull StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '@' -> escaped.append("&#64;");
+                case '{' -> escaped.append("&#123;");
+                case '}' -> escaped.append("&#125;");
+                case '*' -> escaped.append("&#42;");
+                case '\\' -> escaped.append("&#92;");
+                default -> escaped.append(c < 0x20 ? ' ' : c);
+            }
+        }
+        return escaped.toString();
+    }
+}
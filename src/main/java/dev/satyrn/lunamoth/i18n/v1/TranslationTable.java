@@ -0,0 +1,417 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.BinaryResourceBundle;
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An immutable, flattened view of the external, internal, and default translation layers for a single locale.
+ * <p>
+ * Every key from every layer is resolved once when the table is built, so a lookup is a single hash probe which never
+ * throws. Layers loaded from language packs are the exception: their keys are looked up in the pack and compiled the
+ * first time they are requested, so that building a table does not decode the whole pack. Keys which are requested but
+ * not present are recorded in a bounded negative set so that misses are only reported once. Tables are safe for use
+ * by multiple concurrent threads.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+final class TranslationTable {
+    private static final @NotNull Logger I18N_LOGGER = Logger.getLogger(I18n.class.getName());
+    private static final int MAX_MISSING_KEYS = 1024;
+    private static final @NotNull I18n.TranslationSource @NotNull [] SOURCES = I18n.TranslationSource.values();
+    private final @NotNull Locale locale;
+    private final @NotNull HashMap<String, Entry> entries;
+    private final @Nullable ResourceBundle @NotNull [] packs;
+    private final boolean hasPacks;
+    private final @NotNull ConcurrentHashMap<String, Entry> packEntries = new ConcurrentHashMap<>(16);
+    private final @NotNull Set<String> missingKeys = ConcurrentHashMap.newKeySet();
+    private final @NotNull ConcurrentHashMap<String, MessageTemplate> fallbackTemplates = new ConcurrentHashMap<>(16);
+    private volatile @Nullable Entry @NotNull [][] indexedEntries = new Entry[0][];
+
+    /**
+     * Creates a new translation table.
+     *
+     * @param locale  the locale of the table
+     * @param entries the resolved entries, which must not be modified after construction
+     * @param packs   the language pack layers which are resolved on demand, indexed by source ordinal
+     * @since 1.0-SNAPSHOT
+     */
+    private TranslationTable(final @NotNull Locale locale,
+                             final @NotNull HashMap<String, Entry> entries,
+                             final @Nullable ResourceBundle @NotNull [] packs) {
+        this.locale = locale;
+        this.entries = entries;
+        this.packs = packs;
+        this.hasPacks = Arrays.stream(packs).anyMatch(Objects::nonNull);
+    }
+
+    /**
+     * Builds a translation table by merging the translation layers in order of precedence.
+     * <p>
+     * Keys from {@code externalTranslations} take precedence over {@code internalTranslations}, which take precedence
+     * over {@code defaultTranslations}. Every resolved value is compiled into a {@link MessageTemplate}. Layers which
+     * are {@link BinaryResourceBundle language packs}, or chains of them, are not merged; their values are resolved on first lookup.
+     *
+     * @param  locale               the locale used to format arguments
+     * @param  defaultTranslations  the default locale bundle, or {@code null}
+     * @param  internalTranslations the internal bundle for {@code locale}, or {@code null}
+     * @param  externalTranslations the external bundle for {@code locale}, or {@code null}
+     * @return the translation table
+     * @throws IllegalArgumentException if {@code locale} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_, _, _, _ -> new")
+    static @NotNull TranslationTable build(final @NotNull Locale locale,
+                                           final @Nullable ResourceBundle defaultTranslations,
+                                           final @Nullable ResourceBundle internalTranslations,
+                                           final @Nullable ResourceBundle externalTranslations) {
+        Parameters.requireNonNull("locale", locale);
+        final @NotNull HashMap<String, Entry> entries = HashMap.newHashMap(
+                defaultTranslations == null || isPack(defaultTranslations)
+                        ? 16 : defaultTranslations.keySet().size());
+        final @NotNull HashMap<String, MessageTemplate> templates = HashMap.newHashMap(entries.size());
+        final @Nullable ResourceBundle @NotNull [] packs = new ResourceBundle[SOURCES.length];
+        merge(entries, templates, packs, locale, defaultTranslations, I18n.TranslationSource.DEFAULT);
+        merge(entries, templates, packs, locale, internalTranslations, I18n.TranslationSource.INTERNAL);
+        merge(entries, templates, packs, locale, externalTranslations, I18n.TranslationSource.EXTERNAL);
+        return new TranslationTable(locale, entries, packs);
+    }
+
+    /**
+     * Merges every translation in {@code bundle} into {@code entries}, replacing existing entries. A language pack is
+     * recorded in {@code packs} instead, so that its keys are not decoded until they are looked up.
+     *
+     * @param entries   the entries to merge into
+     * @param templates templates compiled so far, keyed by pattern, so that identical values share a template
+     * @param packs     the language pack layers, indexed by source ordinal
+     * @param locale    the locale used to format arguments
+     * @param bundle    the bundle to merge, or {@code null}
+     * @param source    the layer that {@code bundle} represents
+     * @since 1.0-SNAPSHOT
+     */
+    private static void merge(final @NotNull HashMap<String, Entry> entries,
+                              final @NotNull HashMap<String, MessageTemplate> templates,
+                              final @Nullable ResourceBundle @NotNull [] packs,
+                              final @NotNull Locale locale,
+                              final @Nullable ResourceBundle bundle,
+                              final @NotNull I18n.TranslationSource source) {
+        if (bundle == null) {
+            return;
+        }
+        if (isPack(bundle)) {
+            packs[source.ordinal()] = bundle;
+            return;
+        }
+        for (final @NotNull String key : bundle.keySet()) {
+            if (bundle.getObject(key) instanceof String pattern) {
+                final @NotNull MessageTemplate template = templates.computeIfAbsent(pattern, k -> compile(key, k, locale));
+                entries.put(key, new Entry(template, source));
+            }
+        }
+    }
+
+    /**
+     * Checks whether {@code bundle} is a language pack, or a chain of language packs loaded by a {@link BundleCache},
+     * whose keys should be looked up on demand rather than merged.
+     *
+     * @param  bundle the bundle
+     * @return {@code true} if {@code bundle} should be resolved on lookup, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    private static boolean isPack(final @NotNull ResourceBundle bundle) {
+        return bundle instanceof BinaryResourceBundle
+                || (bundle instanceof BundleCache.ChainedResourceBundle chained && chained.isPacked());
+    }
+
+    /**
+     * Compiles a translation pattern into a message template, logging a warning if the pattern is invalid.
+     *
+     * @param  key     the translation key, used for logging
+     * @param  pattern the translation pattern
+     * @param  locale  the locale used to format arguments
+     * @return the compiled template
+     * @since  1.0-SNAPSHOT
+     */
+    static @NotNull MessageTemplate compile(final @NotNull String key,
+                                            final @NotNull String pattern,
+                                            final @NotNull Locale locale) {
+        return MessageTemplate.compileLenient(pattern, locale, ex -> I18N_LOGGER.log(Level.WARNING, ex,
+                () -> String.format("Invalid format for translation key \"%s\". Translation arguments will be rejected.", key)));
+    }
+
+    /**
+     * Gets the locale of this table.
+     *
+     * @return the locale
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull Locale locale() {
+        return this.locale;
+    }
+
+    /**
+     * Gets the number of keys in this table. Keys from language packs are only counted once they have been looked up.
+     *
+     * @return the number of keys
+     * @since  1.0-SNAPSHOT
+     */
+    int size() {
+        int size = this.entries.size();
+        for (final @NotNull String key : this.packEntries.keySet()) {
+            if (!this.entries.containsKey(key)) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Translates a {@code key} to the value in this table and formats the result with the {@code format} specified.
+     * <p>
+     * If {@code key} is not present, {@code fallback} is formatted instead. Templates for fallback values are compiled
+     * on demand and cached.
+     *
+     * @param  key      the translation key
+     * @param  fallback the fallback translation value
+     * @param  format   an array containing objects to use to format the result string, or {@code null}
+     * @return the translated string, or {@code fallback} if translation failed for any reason
+     * @throws IllegalArgumentException if {@code key} is {@code null} or if {@code fallback} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull String translate(final @NotNull  String key,
+                              final @NotNull  String fallback,
+                              final @Nullable Object[] format) {
+        Parameters.requireNonNull("key", key);
+        Parameters.requireNonNull("fallback", fallback);
+        return this.translate(this.get(key), key, fallback, format);
+    }
+
+    /**
+     * Translates a typed {@code key} to the value in this table and formats the result with the {@code format}
+     * specified. If {@code key} is not present, the key string is formatted instead.
+     *
+     * @param  key    the translation key
+     * @param  format an array containing objects to use to format the result string, or {@code null}
+     * @return the translated string, or the key string if translation failed for any reason
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @NotNull String translate(final @NotNull TranslationKey key,
+                              final @Nullable Object[] format) {
+        Parameters.requireNonNull("key", key);
+        return this.translate(this.get(key), key.getKey(), key.getKey(), format);
+    }
+
+    /**
+     * Formats a resolved entry, or the fallback value if the entry is missing.
+     *
+     * @param  entry    the resolved entry, or {@code null} if the key is missing
+     * @param  key      the translation key, used for logging
+     * @param  fallback the fallback translation value
+     * @param  format   an array containing objects to use to format the result string, or {@code null}
+     * @return the translated string, or {@code fallback} if translation failed for any reason
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull String translate(final @Nullable Entry entry,
+                                      final @NotNull  String key,
+                                      final @NotNull  String fallback,
+                                      final @Nullable Object[] format) {
+        if (format == null || format.length == 0) {
+            return entry != null ? entry.template().text() : MessageTemplate.unescapeApostrophes(fallback);
+        }
+
+        final @NotNull MessageTemplate template = entry != null
+                ? entry.template()
+                : this.fallbackTemplates.computeIfAbsent(fallback, k -> compile(key, k, this.locale));
+        if (!template.isFormattable()) {
+            return fallback;
+        }
+
+        final @NotNull StringBuilder builder = new StringBuilder(template.estimatedLength());
+        try {
+            template.formatTo(builder, format);
+        } catch (final IllegalArgumentException ignored) {
+            return template.errorText();
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets the entry for a translation {@code key}.
+     * <p>
+     * If the key is not present, the miss is recorded and reported once at {@link Level#INFO}.
+     *
+     * @param  key the translation key
+     * @return the entry, or {@code null} if no layer contains {@code key}
+     * @since  1.0-SNAPSHOT
+     */
+    @Nullable Entry get(final @NotNull String key) {
+        final @Nullable Entry entry = this.lookup(key);
+        if (entry == null && !this.missingKeys.contains(key)) {
+            if (this.missingKeys.size() < MAX_MISSING_KEYS && this.missingKeys.add(key)) {
+                I18N_LOGGER.log(Level.INFO, () -> String.format("Failed to translate \"%s\" to %s; using fallback value.", key, this.locale.getDisplayName()));
+            } else {
+                I18N_LOGGER.log(Level.FINE, () -> String.format("Failed to translate \"%s\" to %s; using fallback value.", key, this.locale.getDisplayName()));
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the entry for a typed translation {@code key}.
+     * <p>
+     * The entries for every key of the key's index are resolved together the first time any of them is requested, so
+     * later lookups are two array reads. If the key is not present, the miss is recorded as with {@link #get(String)}.
+     *
+     * @param  key the translation key
+     * @return the entry, or {@code null} if no layer contains {@code key}
+     * @since  1.0-SNAPSHOT
+     */
+    @Nullable Entry get(final @NotNull TranslationKey key) {
+        final @Nullable Entry @NotNull [][] indexed = this.indexedEntries;
+        final int slot = key.getIndex().slot();
+        @Nullable Entry @Nullable [] entries = slot < indexed.length ? indexed[slot] : null;
+        if (entries == null) {
+            entries = this.resolve(key.getIndex());
+        }
+        final @Nullable Entry entry = entries[key.getId()];
+        return entry != null ? entry : this.get(key.getKey());
+    }
+
+    /**
+     * Resolves the entries for every key of an {@code index} and publishes them for lookups by slot.
+     *
+     * @param  index the index
+     * @return the entries, in order of key id
+     * @since  1.0-SNAPSHOT
+     */
+    private synchronized @Nullable Entry @NotNull [] resolve(final @NotNull TranslationKey.Index index) {
+        final int slot = index.slot();
+        @Nullable Entry @NotNull [][] indexed = this.indexedEntries;
+        if (slot < indexed.length && indexed[slot] != null) {
+            return indexed[slot];
+        }
+
+        final @Nullable Entry @NotNull [] entries = new Entry[index.size()];
+        for (int id = 0; id < entries.length; ++id) {
+            entries[id] = this.lookup(index.get(id).getKey());
+        }
+        indexed = Arrays.copyOf(indexed, Math.max(indexed.length, slot + 1));
+        indexed[slot] = entries;
+        this.indexedEntries = indexed;
+        return entries;
+    }
+
+    /**
+     * Gets the entry for a translation {@code key} without recording a miss.
+     *
+     * @param  key the translation key
+     * @return the entry, or {@code null} if no layer contains {@code key}
+     * @since  1.0-SNAPSHOT
+     */
+    @Nullable Entry peek(final @NotNull String key) {
+        return this.lookup(key);
+    }
+
+    /**
+     * Finds the entry for a translation {@code key} in the layer of highest precedence which contains it.
+     * <p>
+     * If this table has no language pack layers, this is a single hash probe. Otherwise, the packs which take precedence
+     * over the merged entry are searched, and a value found in a pack is compiled and cached.
+     *
+     * @param  key the translation key
+     * @return the entry, or {@code null} if no layer contains {@code key}
+     * @since  1.0-SNAPSHOT
+     */
+    private @Nullable Entry lookup(final @NotNull String key) {
+        final @Nullable Entry entry = this.entries.get(key);
+        if (!this.hasPacks) {
+            return entry;
+        }
+        final @Nullable Entry cached = this.packEntries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        for (final @NotNull I18n.TranslationSource source : SOURCES) {
+            if (entry != null && entry.source == source) {
+                return entry;
+            }
+            final @Nullable ResourceBundle pack = this.packs[source.ordinal()];
+            if (pack != null && pack.containsKey(key) && pack.getObject(key) instanceof String pattern) {
+                final @NotNull Entry resolved = new Entry(compile(key, pattern, this.locale), source);
+                final @Nullable Entry previous = this.packEntries.putIfAbsent(key, resolved);
+                return previous != null ? previous : resolved;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Checks whether a translation {@code key} has been recorded as missing from this table.
+     *
+     * @param  key the translation key
+     * @return {@code true} if a lookup for {@code key} has missed, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    boolean isKnownMissing(final @NotNull String key) {
+        return this.missingKeys.contains(key);
+    }
+
+    /**
+     * A resolved translation and the layer it was resolved from.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    static final class Entry {
+        private final @NotNull MessageTemplate template;
+        private final @NotNull I18n.TranslationSource source;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param template the compiled translation
+         * @param source   the layer which supplied the translation
+         * @since 1.0-SNAPSHOT
+         */
+        private Entry(final @NotNull MessageTemplate template,
+                      final @NotNull I18n.TranslationSource source) {
+            this.template = template;
+            this.source = source;
+        }
+
+        /**
+         * Gets the compiled translation.
+         *
+         * @return the template
+         * @since  1.0-SNAPSHOT
+         */
+        @NotNull MessageTemplate template() {
+            return this.template;
+        }
+
+        /**
+         * Gets the layer which supplied the translation.
+         *
+         * @return the source layer
+         * @since  1.0-SNAPSHOT
+         */
+        @NotNull I18n.TranslationSource source() {
+            return this.source;
+        }
+    }
+}
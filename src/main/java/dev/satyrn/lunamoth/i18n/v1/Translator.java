@@ -0,0 +1,179 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * A lightweight, immutable handle which translates messages into a single locale using the resources of an
+ * {@link I18n} instance.
+ * <p>
+ * Translators are obtained through {@link I18n#forLocale(Locale)}, and share the per-locale translation cache of the
+ * {@code I18n} which created them. Each translation costs a single cache lookup, and translators always reflect the
+ * most recently loaded resources of their {@code I18n}. Translators are safe for use by multiple concurrent threads.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public final class Translator {
+    private final @NotNull I18n i18n;
+    private final @NotNull Locale locale;
+
+    /**
+     * Creates a new translator.
+     *
+     * @param i18n   the {@code I18n} which supplies translations
+     * @param locale the locale to translate into
+     * @since 1.0-SNAPSHOT
+     */
+    Translator(final @NotNull I18n i18n,
+               final @NotNull Locale locale) {
+        this.i18n = i18n;
+        this.locale = locale;
+    }
+
+    /**
+     * Gets the locale this translator translates into.
+     *
+     * @return the locale
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull Locale getLocale() {
+        return this.locale;
+    }
+
+    /**
+     * Attempts to translate a {@code key} from a translation file to the translated value.
+     *
+     * @param  key The translation key. Also used as the fallback translation value.
+     * @return     The translated string, or {@code key} if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull String key) {
+        return this.translate(key, key, null);
+    }
+
+    /**
+     * Attempts to translate a {@code key} from a translation file to the translated value.
+     *
+     * @param  key      The translation key.
+     * @param  fallback The fallback translation value.
+     * @return          The translated string, or {@code fallback} if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null} or if {@code fallback} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull String key,
+                                     final @NotNull String fallback) {
+        return this.translate(key, fallback, null);
+    }
+
+    /**
+     * Attempts to translate a {@code key} from a translation file to the translated value and formats the result with
+     * the {@code format} specified.
+     *
+     * @param  key    The translation key. Also used as the fallback translation value.
+     * @param  format An array containing objects to use to format the result string.
+     * @return        The translated string, or {@code key} if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull  String key,
+                                     final @Nullable Object[] format) {
+        return this.translate(key, key, format);
+    }
+
+    /**
+     * Attempts to translate a {@code key} from a translation file to the translated value and formats the result with
+     * the {@code format} specified.
+     *
+     * @param  key      The translation key.
+     * @param  fallback The fallback translation value.
+     * @param  format   An array containing objects to use to format the result string.
+     * @return          The translated string, or {@code fallback} if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null} or if {@code fallback} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull  String key,
+                                     final @NotNull  String fallback,
+                                     final @Nullable Object[] format) {
+        Parameters.requireNonNull("key", key);
+        Parameters.requireNonNull("fallback", fallback);
+        return this.i18n.getTable(this.locale).translate(key, fallback, format);
+    }
+
+    /**
+     * Formats a string from the translation file identified by {@code key}.
+     *
+     * @param  key      the translation key
+     * @param  fallback the fallback translated value
+     * @param  format   An array containing objects to use to format the result string.
+     * @return The translated string, or {@code fallback} if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null} or {@code fallback} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String format(final @NotNull String key,
+                                  final @NotNull String fallback,
+                                  final @Nullable Object... format) {
+        return this.translate(key, fallback, format);
+    }
+
+    /**
+     * Translates a typed translation {@code key}.
+     * <p>
+     * Typed keys are resolved with array lookups rather than string hashing. See {@link GenerateTranslationKeys}.
+     *
+     * @param  key The translation key. Its key string is also used as the fallback translation value.
+     * @return     The translated string, or the key string if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull TranslationKey key) {
+        return this.translate(key, (Object[]) null);
+    }
+
+    /**
+     * Translates a typed translation {@code key} and formats the result with the {@code format} specified.
+     *
+     * @param  key    The translation key. Its key string is also used as the fallback translation value.
+     * @param  format An array containing objects to use to format the result string.
+     * @return        The translated string, or the key string if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String translate(final @NotNull TranslationKey key,
+                                     final @Nullable Object[] format) {
+        Parameters.requireNonNull("key", key);
+        return this.i18n.getTable(this.locale).translate(key, format);
+    }
+
+    /**
+     * Formats a string from the translation file identified by a typed translation {@code key}.
+     *
+     * @param  key    The translation key. Its key string is also used as the fallback translation value.
+     * @param  format An array containing objects to use to format the result string.
+     * @return The translated string, or the key string if translation failed for any reason.
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull String format(final @NotNull TranslationKey key,
+                                  final @Nullable Object... format) {
+        return this.translate(key, format);
+    }
+
+    /**
+     * Gets the translation layer which supplies the value for a translation {@code key} in this translator's locale.
+     *
+     * @param  key the translation key
+     * @return the layer which supplies the translation, or {@code null} if no layer contains {@code key}
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @Nullable I18n.TranslationSource getTranslationSource(final @NotNull String key) {
+        Parameters.requireNonNull("key", key);
+        final @Nullable TranslationTable.Entry entry = this.i18n.getTable(this.locale).peek(key);
+        return entry == null ? null : entry.source();
+    }
+}
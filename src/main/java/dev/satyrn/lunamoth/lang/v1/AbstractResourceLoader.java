@@ -0,0 +1,55 @@
+package dev.satyrn.lunamoth.lang.v1;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Abstract base class for resource loaders which serve external resources, such as user-supplied translations.
+ * <p>
+ * Cannot be used to find, define, or load classes.
+ *
+ * @implSpec  Implementations should override {@link #getResource(String)} and {@link #getResourceAsStream(String)}, and
+ *            discard any cached knowledge of the available resources in {@link #refresh()}.
+ * @author    Isabel Maskrey
+ * @since     1.0-SNAPSHOT
+ */
+public abstract class AbstractResourceLoader extends ClassLoader {
+    /**
+     * Creates a new instance of {@code AbstractResourceLoader}.
+     *
+     * @param loader The parent class loader
+     * @since 1.0-SNAPSHOT
+     */
+    protected AbstractResourceLoader(final @Nullable ClassLoader loader) {
+        super(loader);
+    }
+
+    /**
+     * Attempts to load a class with this classloader.
+     * <p>
+     * Always throws {@code UnsupportedOperationException}, as this loader does not load classes for security reasons.
+     *
+     * @param  name the <a href="#binary-name">binary name</a> of the class
+     * @return the loaded class
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @throws UnsupportedOperationException always, as this loader does not support loading classes
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_ -> fail")
+    @Override
+    public final @NotNull Class<?> loadClass(final @NotNull String name) throws UnsupportedOperationException {
+        Objects.requireNonNull(name);
+        throw new UnsupportedOperationException("loading classes from external resources is not allowed.");
+    }
+
+    /**
+     * Discards any cached knowledge of the available resources, so that changes to the underlying storage become
+     * visible to subsequent lookups.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public abstract void refresh();
+}
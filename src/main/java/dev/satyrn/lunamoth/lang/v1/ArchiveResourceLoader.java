@@ -0,0 +1,235 @@
+package dev.satyrn.lunamoth.lang.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Custom resource loader which can load files from a *.zip or *.jar archive on the disk.
+ * <p>
+ * Cannot be used to find, define, or load classes.
+ * <p>
+ * The archive is opened with the JDK zip file system, and its entries are indexed once when it is opened, so lookups
+ * for resources which do not exist never touch the archive. Entries are streamed directly from the archive without
+ * being extracted. Call {@link #refresh()} after the archive has been replaced to reopen it, and {@link #close()} once
+ * the loader is no longer needed.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public class ArchiveResourceLoader extends AbstractResourceLoader implements Closeable {
+    private final @NotNull Path archive;
+    private final @NotNull Object archiveLock = new Object();
+    private volatile @NotNull OpenArchive openArchive;
+    private boolean closed;
+
+    /**
+     * Creates a new instance of {@code ArchiveResourceLoader} and indexes the archive.
+     *
+     * @param  loader  The parent class loader
+     * @param  archive The archive to load resources from
+     * @throws NullPointerException if {@code archive} is null
+     * @throws IOException if the archive could not be opened
+     * @since  1.0-SNAPSHOT
+     */
+    public ArchiveResourceLoader(final @Nullable ClassLoader loader,
+                                 final @NotNull Path archive) throws IOException {
+        super(loader);
+
+        Objects.requireNonNull(archive);
+        this.archive = archive.toAbsolutePath().normalize();
+        this.openArchive = OpenArchive.open(this.archive);
+    }
+
+    /**
+     * Checks whether a path names a *.zip or *.jar archive.
+     *
+     * @param  path the path
+     * @return {@code true} if {@code path} is a regular file with the extension {@code zip} or {@code jar}, otherwise
+     *         {@code false}.
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public static boolean isArchive(final @NotNull Path path) {
+        Objects.requireNonNull(path);
+        final @Nullable Path fileName = path.getFileName();
+        if (fileName == null) {
+            return false;
+        }
+        final @NotNull String name = fileName.toString().toLowerCase(Locale.ROOT);
+        return (name.endsWith(".zip") || name.endsWith(".jar")) && Files.isRegularFile(path);
+    }
+
+    /**
+     * Finds a resource with the given {@code name} in the archive.
+     *
+     * @param  name the resource name
+     * @return a {@code URL} object representing the resouce's location, or {@code null} if the resource could not
+     *         be located.
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable URL getResource(final @NotNull String name) {
+        Objects.requireNonNull(name);
+        final @Nullable Path entry = this.openArchive.find(name);
+        if (entry != null) {
+            try {
+                return entry.toUri().toURL();
+            } catch (final MalformedURLException | IllegalArgumentException ignored) { }
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds a resource with the given {@code name} in the archive, and creates a new {@code InputStream} to read the
+     * resource's contents.
+     *
+     * @param  name the resource name
+     * @return An input stream for reading resource data, or {@code null} if the resource is inaccessible. This could be
+     *         because the resource does not exist, or if the archive could not be read.
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable InputStream getResourceAsStream(final @NotNull String name) {
+        Objects.requireNonNull(name);
+        final @Nullable Path entry = this.openArchive.find(name);
+        if (entry != null) {
+            try {
+                return Files.newInputStream(entry);
+            } catch (final IOException | ClosedFileSystemException ignored) { }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reopens and reindexes the archive. If the archive can no longer be opened, the loader serves no resources until
+     * it is refreshed again.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void refresh() {
+        synchronized (this.archiveLock) {
+            if (this.closed) {
+                return;
+            }
+            @NotNull OpenArchive replacement;
+            try {
+                replacement = OpenArchive.open(this.archive);
+            } catch (final IOException ex) {
+                replacement = OpenArchive.EMPTY;
+            }
+            final @NotNull OpenArchive previous = this.openArchive;
+            this.openArchive = replacement;
+            previous.close();
+        }
+    }
+
+    /**
+     * Closes the archive. The loader serves no resources after it has been closed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() {
+        synchronized (this.archiveLock) {
+            this.closed = true;
+            final @NotNull OpenArchive previous = this.openArchive;
+            this.openArchive = OpenArchive.EMPTY;
+            previous.close();
+        }
+    }
+
+    /**
+     * An opened archive file system and the index of its entries.
+     *
+     * @param fileSystem the zip file system, or {@code null} if no archive is open
+     * @param index      the names of every entry in the archive, without a leading or trailing {@code '/'}
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private record OpenArchive(@Nullable FileSystem fileSystem,
+                               @NotNull Set<String> index) {
+        private static final @NotNull OpenArchive EMPTY = new OpenArchive(null, Set.of());
+
+        /**
+         * Opens and indexes an archive.
+         *
+         * @param  archive the archive
+         * @return the opened archive
+         * @throws IOException if the archive could not be opened or read
+         * @since  1.0-SNAPSHOT
+         */
+        private static @NotNull OpenArchive open(final @NotNull Path archive) throws IOException {
+            final @NotNull FileSystem fileSystem = FileSystems.newFileSystem(archive);
+            try {
+                final @NotNull Set<String> index = new HashSet<>();
+                final @NotNull Path root = fileSystem.getPath("/");
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public @NotNull FileVisitResult preVisitDirectory(final @NotNull Path directory,
+                                                                      final @NotNull BasicFileAttributes attributes) {
+                        index.add(root.relativize(directory).toString());
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public @NotNull FileVisitResult visitFile(final @NotNull Path file,
+                                                              final @NotNull BasicFileAttributes attributes) {
+                        index.add(root.relativize(file).toString());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                return new OpenArchive(fileSystem, Collections.unmodifiableSet(index));
+            } catch (final IOException | RuntimeException ex) {
+                fileSystem.close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Finds an entry in the archive.
+         *
+         * @param  name the resource name
+         * @return the path of the entry, or {@code null} if the archive does not contain {@code name}.
+         * @since  1.0-SNAPSHOT
+         */
+        private @Nullable Path find(final @NotNull String name) {
+            if (this.fileSystem == null) {
+                return null;
+            }
+            final @NotNull Path entry;
+            try {
+                entry = this.fileSystem.getPath("/").resolve(name).normalize();
+            } catch (final InvalidPathException ex) {
+                return null;
+            }
+            return this.index.contains(this.fileSystem.getPath("/").relativize(entry).toString()) ? entry : null;
+        }
+
+        /**
+         * Closes the archive file system, if one is open.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        private void close() {
+            if (this.fileSystem != null) {
+                try {
+                    this.fileSystem.close();
+                } catch (final IOException ignored) { }
+            }
+        }
+    }
+}
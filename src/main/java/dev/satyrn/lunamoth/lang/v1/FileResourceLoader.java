@@ -1,27 +1,33 @@
 package dev.satyrn.lunamoth.lang.v1;
 
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.Objects;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
 
 /**
  * Custom resource loader which can load files from the disk.
  * <p>
  * Cannot be used to find, define, or load classes.
+ * <p>
+ * Rather than checking the file system on every lookup, the loader keeps an index of every file and directory under the
+ * base directory. The index is built on first use and answers existence queries from memory, so probing for resources
+ * which do not exist costs no system calls. The index is not updated automatically: call {@link #refresh()} after the
+ * contents of the base directory have changed.
  *
  * @author Isabel Maskrey
  * @since 1.0-SNAPSHOT
  */
-public class FileResourceLoader extends ClassLoader {
-    private final @NotNull String baseDirectory;
+public class FileResourceLoader extends AbstractResourceLoader {
+    private final @NotNull Path baseDirectory;
+    private final @NotNull Object indexLock = new Object();
+    private volatile @Nullable Set<Path> index;
 
     /**
      * Creates a new instance of {@code FileResourceLoader}.
@@ -36,25 +42,7 @@ public class FileResourceLoader extends ClassLoader {
         super(loader);
 
         Objects.requireNonNull(baseDirectory);
-        this.baseDirectory = baseDirectory;
-    }
-
-    /**
-     * Attempts to load a class with this classloader.
-     * <p>
-     * Always throws {@code UnsupportedOperationException}, as this loader does not load classes for security reasons.
-     *
-     * @param  name the <a href="#binary-name">binary name</a> of the class
-     * @return the loaded class
-     * @throws NullPointerException if {@code name} is {@code null}
-     * @throws UnsupportedOperationException always, as this loader does not support loading classes
-     * @since  1.0-SNAPSHOT
-     */
-    @Contract("_ -> fail")
-    @Override
-    public @NotNull Class<?> loadClass(final @NotNull String name) throws UnsupportedOperationException {
-        Objects.requireNonNull(name);
-        throw new UnsupportedOperationException("loading classes from file directories is not allowed.");
+        this.baseDirectory = Path.of(baseDirectory).toAbsolutePath().normalize();
     }
 
     /**
@@ -69,10 +57,10 @@ public class FileResourceLoader extends ClassLoader {
     @Override
     public @Nullable URL getResource(final @NotNull String name) {
         Objects.requireNonNull(name);
-        final @NotNull File file = new File(this.baseDirectory, name);
-        if (file.exists()) {
+        final @Nullable Path path = this.find(name);
+        if (path != null) {
             try {
-                return file.toURI().toURL();
+                return path.toUri().toURL();
             } catch (final MalformedURLException ignored) { }
         }
 
@@ -92,13 +80,104 @@ public class FileResourceLoader extends ClassLoader {
     @Override
     public @Nullable InputStream getResourceAsStream(final @NotNull String name) {
         Objects.requireNonNull(name);
-        final @NotNull File file = new File(this.baseDirectory, name);
-        if (file.exists()) {
+        final @Nullable Path path = this.find(name);
+        if (path != null) {
             try {
-                return new FileInputStream(file);
-            } catch (final FileNotFoundException ignored) { }
+                return Files.newInputStream(path);
+            } catch (final IOException ignored) { }
         }
 
         return null;
     }
+
+    /**
+     * Discards the index of the base directory. It is rebuilt the next time a resource is looked up.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void refresh() {
+        this.index = null;
+    }
+
+    /**
+     * Resolves a resource name against the base directory.
+     * <p>
+     * Names which resolve to a path outside the base directory are not covered by the index, and are checked on the
+     * file system directly.
+     *
+     * @param  name the resource name
+     * @return the path of the resource, or {@code null} if the resource does not exist.
+     * @since  1.0-SNAPSHOT
+     */
+    private @Nullable Path find(final @NotNull String name) {
+        final @NotNull Path path;
+        try {
+            path = this.baseDirectory.resolve(name).normalize();
+        } catch (final InvalidPathException ex) {
+            return null;
+        }
+        if (!path.startsWith(this.baseDirectory)) {
+            return Files.exists(path) ? path : null;
+        }
+        return this.getIndex().contains(path) ? path : null;
+    }
+
+    /**
+     * Gets the index of the base directory, building it if necessary.
+     *
+     * @return the absolute, normalized paths of every file and directory under the base directory.
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull Set<Path> getIndex() {
+        @Nullable Set<Path> index = this.index;
+        if (index == null) {
+            synchronized (this.indexLock) {
+                index = this.index;
+                if (index == null) {
+                    index = this.buildIndex();
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Walks the base directory, following symbolic links, and collects every file and directory within it. Entries
+     * which cannot be read are skipped.
+     *
+     * @return the absolute, normalized paths of every file and directory under the base directory.
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull Set<Path> buildIndex() {
+        final @NotNull Set<Path> index = new HashSet<>();
+        if (!Files.isDirectory(this.baseDirectory)) {
+            return Set.of();
+        }
+        try {
+            Files.walkFileTree(this.baseDirectory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public @NotNull FileVisitResult preVisitDirectory(final @NotNull Path directory,
+                                                                  final @NotNull BasicFileAttributes attributes) {
+                    index.add(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public @NotNull FileVisitResult visitFile(final @NotNull Path file,
+                                                          final @NotNull BasicFileAttributes attributes) {
+                    index.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public @NotNull FileVisitResult visitFileFailed(final @NotNull Path file,
+                                                                final @NotNull IOException ex) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException ignored) { }
+        return Collections.unmodifiableSet(index);
+    }
 }
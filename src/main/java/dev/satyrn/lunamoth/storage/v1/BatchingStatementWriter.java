@@ -0,0 +1,398 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues data-modifying statements and writes them behind the caller in batches.
+ * <p>
+ * Submitted statements are collected until either the batch size is reached or the flush interval has elapsed since
+ * the first statement of the batch was taken. The batch is then written over a single connection, in a single
+ * transaction. Consecutive statements with the same SQL are sent with one {@link PreparedStatement#executeBatch()}
+ * call, and each distinct statement is prepared only once per batch. Statements are always executed in the order they
+ * were submitted.
+ * <p>
+ * If a batch fails, it is rolled back and its statements are executed again one at a time, each in its own
+ * transaction, so that a failing statement only fails its own future.
+ * <p>
+ * The queue is bounded: when it is full, {@link #submit(String, Object...)} blocks until the writer catches up.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class BatchingStatementWriter implements AutoCloseable {
+    private static final @NotNull Logger WRITER_LOGGER = Logger.getLogger(BatchingStatementWriter.class.getName());
+    private final @NotNull ConnectionSupplier supplier;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final @NotNull BlockingQueue<Submission> queue;
+    private final @NotNull ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final @NotNull Thread writer;
+    private boolean isClosed;
+    private volatile @Nullable Submission closeMarker;
+
+    /**
+     * Creates a new {@code BatchingStatementWriter} and starts its writer thread.
+     *
+     * @param supplier      The supplier which provides a connection for each batch.
+     * @param batchSize     The maximum number of statements written in one batch.
+     * @param flushInterval How long to wait for a batch to fill before it is written.
+     * @param capacity      The maximum number of statements which may be queued.
+     * @throws IllegalArgumentException if {@code supplier} or {@code flushInterval} is {@code null}, if
+     *                                  {@code flushInterval} is negative, or if {@code batchSize} or {@code capacity} is
+     *                                  less than 1.
+     * @since 1.0-SNAPSHOT
+     */
+    public BatchingStatementWriter(final @NotNull ConnectionSupplier supplier,
+                                   final int batchSize,
+                                   final @NotNull Duration flushInterval,
+                                   final int capacity) {
+        Parameters.requireNonNull("supplier", supplier);
+        Parameters.requireNonNull("flushInterval", flushInterval);
+        Parameters.requireInBounds("batchSize", batchSize, 1, Integer.MAX_VALUE);
+        Parameters.requireInBounds("capacity", capacity, 1, Integer.MAX_VALUE);
+        if (flushInterval.isNegative()) {
+            throw new IllegalArgumentException("flushInterval must not be negative.");
+        }
+        this.supplier = supplier;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = Thread.ofPlatform()
+                .name("lunamoth-statement-writer")
+                .daemon(true)
+                .start(this::write);
+    }
+
+    /**
+     * Queues a statement to be written in the next batch, blocking while the queue is full.
+     *
+     * @param sql        The SQL of the statement.
+     * @param parameters The values of the statement's parameters, in order.
+     * @return A future which completes once the statement has been committed, or completes exceptionally if the
+     *         statement failed and was rolled back.
+     * @throws IllegalArgumentException if {@code sql} or {@code parameters} is {@code null}.
+     * @throws IllegalStateException if the writer has been closed.
+     * @throws InterruptedException if the thread was interrupted while waiting for space in the queue.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull CompletableFuture<Void> submit(final @NotNull String sql,
+                                                   final @Nullable Object @NotNull ... parameters) throws InterruptedException {
+        Parameters.requireNonNull("sql", sql);
+        Parameters.requireNonNull("parameters", parameters);
+        return this.enqueue(new Submission(sql, parameters.clone(), new CompletableFuture<>()));
+    }
+
+    /**
+     * Writes every statement submitted before this call, without waiting for the batch to fill, and waits until they
+     * have been written.
+     *
+     * @throws IllegalStateException if the writer has been closed.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     * @since 1.0-SNAPSHOT
+     */
+    public void flush() throws InterruptedException {
+        awaitQuietly(this.enqueue(new Submission(null, null, new CompletableFuture<>())));
+    }
+
+    /**
+     * Stops accepting statements, writes every queued statement, and waits for the writer thread to finish.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() {
+        @Nullable CompletableFuture<Void> drained = null;
+        this.closeLock.writeLock().lock();
+        try {
+            if (!this.isClosed) {
+                this.isClosed = true;
+                final @NotNull Submission marker = new Submission(null, null, new CompletableFuture<>());
+                this.closeMarker = marker;
+                this.queue.put(marker);
+                drained = marker.future();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.closeLock.writeLock().unlock();
+        }
+
+        if (drained == null) {
+            return;
+        }
+        try {
+            awaitQuietly(drained);
+            this.writer.join();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds a submission to the queue.
+     *
+     * @param submission The submission.
+     * @return The submission's future.
+     * @throws IllegalStateException if the writer has been closed.
+     * @throws InterruptedException if the thread was interrupted while waiting for space in the queue.
+     * @since 1.0-SNAPSHOT
+     */
+    private @NotNull CompletableFuture<Void> enqueue(final @NotNull Submission submission) throws InterruptedException {
+        this.closeLock.readLock().lock();
+        try {
+            if (this.isClosed) throw new IllegalStateException("writer has been closed.");
+            this.queue.put(submission);
+        } finally {
+            this.closeLock.readLock().unlock();
+        }
+        return submission.future();
+    }
+
+    /**
+     * Runs on the writer thread, collecting and writing batches until the writer has been closed and drained.
+     * <p>
+     * The marker queued by {@link #close()} is always the last submission, as no statements may be submitted once the
+     * writer has been closed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void write() {
+        final @NotNull List<Submission> batch = new ArrayList<>();
+        final @NotNull List<Submission> markers = new ArrayList<>();
+        while (true) {
+            try {
+                final @NotNull Submission first = this.queue.take();
+                (first.isMarker() ? markers : batch).add(first);
+                final long deadline = System.nanoTime() + this.flushIntervalNanos;
+                while (markers.isEmpty() && batch.size() < this.batchSize) {
+                    final @Nullable Submission next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    (next.isMarker() ? markers : batch).add(next);
+                }
+            } catch (final InterruptedException ex) {
+                WRITER_LOGGER.log(Level.WARNING, "Statement writer was interrupted; writing pending statements.");
+            }
+
+            if (!batch.isEmpty()) {
+                this.execute(batch);
+                batch.clear();
+            }
+            final boolean closed = markers.contains(this.closeMarker);
+            markers.forEach(marker -> marker.future().complete(null));
+            markers.clear();
+            if (closed) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of statements in a single transaction, and completes their futures. If the batch fails, its
+     * statements are executed again one at a time.
+     *
+     * @param batch The statements, in submission order.
+     * @since 1.0-SNAPSHOT
+     */
+    private void execute(final @NotNull List<Submission> batch) {
+        final @Nullable Connection connection;
+        try {
+            connection = this.supplier.get();
+        } catch (final RuntimeException ex) {
+            fail(batch, ex);
+            return;
+        }
+        if (connection == null) {
+            fail(batch, new SQLException("Could not open a connection to write " + batch.size() + " statement(s)."));
+            return;
+        }
+
+        final @NotNull Map<String, PreparedStatement> statements = new HashMap<>();
+        try (connection) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (int start = 0, end; start < batch.size(); start = end) {
+                    final @NotNull String sql = batch.get(start).sql();
+                    final @NotNull PreparedStatement statement = prepare(connection, statements, sql);
+                    for (end = start; end < batch.size() && sql.equals(batch.get(end).sql()); ++end) {
+                        bind(statement, batch.get(end).parameters());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+                connection.commit();
+                batch.forEach(submission -> submission.future().complete(null));
+            } catch (final SQLException | RuntimeException ex) {
+                rollback(connection, ex);
+                if (batch.size() == 1) {
+                    fail(batch, ex);
+                } else {
+                    executeEach(connection, statements, batch);
+                }
+            } finally {
+                for (final @NotNull PreparedStatement statement : statements.values()) {
+                    try {
+                        statement.close();
+                    } catch (final SQLException ignored) { }
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (final SQLException ex) {
+            fail(batch, ex);
+        }
+    }
+
+    /**
+     * Executes the statements of a failed batch one at a time, each in its own transaction, and completes their
+     * futures.
+     *
+     * @param connection The connection, which is not in auto-commit mode.
+     * @param statements The statements prepared for the batch, by SQL.
+     * @param batch      The statements, in submission order.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void executeEach(final @NotNull Connection connection,
+                                    final @NotNull Map<String, PreparedStatement> statements,
+                                    final @NotNull List<Submission> batch) {
+        for (final @NotNull Submission submission : batch) {
+            try {
+                final @NotNull PreparedStatement statement = prepare(connection, statements, submission.sql());
+                statement.clearBatch();
+                bind(statement, submission.parameters());
+                statement.executeUpdate();
+                connection.commit();
+                submission.future().complete(null);
+            } catch (final SQLException | RuntimeException ex) {
+                WRITER_LOGGER.log(Level.WARNING, "Failed to write a statement; rolling back.", ex);
+                try {
+                    connection.rollback();
+                } catch (final SQLException suppressed) {
+                    ex.addSuppressed(suppressed);
+                }
+                submission.future().completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * Gets the statement prepared for a SQL string in the current batch, preparing it on first use.
+     *
+     * @param connection The connection.
+     * @param statements The statements prepared for the batch, by SQL.
+     * @param sql        The SQL.
+     * @return The prepared statement.
+     * @throws SQLException if the statement could not be prepared.
+     * @since 1.0-SNAPSHOT
+     */
+    private static @NotNull PreparedStatement prepare(final @NotNull Connection connection,
+                                                      final @NotNull Map<String, PreparedStatement> statements,
+                                                      final @NotNull String sql) throws SQLException {
+        @Nullable PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Sets the parameters of a prepared statement.
+     *
+     * @param statement  The statement.
+     * @param parameters The values of the statement's parameters, in order.
+     * @throws SQLException if a parameter could not be set.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void bind(final @NotNull PreparedStatement statement,
+                             final @Nullable Object @NotNull [] parameters) throws SQLException {
+        for (int index = 0; index < parameters.length; ++index) {
+            statement.setObject(index + 1, parameters[index]);
+        }
+    }
+
+    /**
+     * Rolls back a failed batch.
+     *
+     * @param connection The connection.
+     * @param cause      The reason the batch failed.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void rollback(final @NotNull Connection connection,
+                                 final @NotNull Exception cause) {
+        WRITER_LOGGER.log(Level.SEVERE, "Failed to write a batch of statements; rolling back.", cause);
+        try {
+            connection.rollback();
+        } catch (final SQLException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * Completes the futures of a batch exceptionally. Futures which have already completed are left as they are.
+     *
+     * @param batch The statements.
+     * @param cause The reason the batch failed.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void fail(final @NotNull List<Submission> batch,
+                             final @NotNull Throwable cause) {
+        batch.forEach(submission -> submission.future().completeExceptionally(cause));
+    }
+
+    /**
+     * Waits for a marker to be processed.
+     *
+     * @param future The marker's future, which never completes exceptionally.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void awaitQuietly(final @NotNull CompletableFuture<Void> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (final ExecutionException ignored) { }
+    }
+
+    /**
+     * A queued statement, or a marker which forces the pending statements to be written.
+     *
+     * @param sql        The SQL of the statement, or {@code null} for a marker.
+     * @param parameters The values of the statement's parameters, or {@code null} for a marker.
+     * @param future     The future which completes once the statement or marker has been processed.
+     * @since 1.0-SNAPSHOT
+     */
+    private record Submission(@Nullable String sql,
+                              @Nullable Object @Nullable [] parameters,
+                              @NotNull CompletableFuture<Void> future) {
+        /**
+         * Checks whether this submission is a marker rather than a statement.
+         *
+         * @return {@code true} if this submission is a marker, otherwise {@code false}.
+         * @since 1.0-SNAPSHOT
+         */
+        private boolean isMarker() {
+            return this.sql == null;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a {@link ConnectionSupplier} with a circuit breaker, so that callers fail fast while the data source is
+ * unreachable.
+ * <p>
+ * While the circuit is {@linkplain State#CLOSED closed}, every call is passed to the delegate. Once
+ * {@code failureThreshold} consecutive calls have failed, the circuit {@linkplain State#OPEN opens}, and calls return
+ * {@code null} immediately without touching the delegate. When the backoff has elapsed, the circuit becomes
+ * {@linkplain State#HALF_OPEN half-open} and lets a single probe through: if it succeeds, the circuit closes again; if
+ * it fails, the circuit reopens and the backoff doubles, up to {@code maximumBackoff}. A call fails if the delegate
+ * returns {@code null} or throws.
+ * <p>
+ * The state is kept in a single atomic reference, so checking the circuit never blocks. When used with a
+ * {@link PooledConnectionSupplier}, place the breaker beneath the pool, so that it only sees the physical connects and
+ * not borrowers which timed out waiting for a busy pool.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class CircuitBreakingConnectionSupplier implements ConnectionSupplier {
+    private static final @NotNull Logger BREAKER_LOGGER = Logger.getLogger(CircuitBreakingConnectionSupplier.class.getName());
+    private final @NotNull ConnectionSupplier delegate;
+    private final int failureThreshold;
+    private final long initialBackoffNanos;
+    private final long maximumBackoffNanos;
+    private final @NotNull AtomicReference<Circuit> circuit;
+    private final @NotNull LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a new {@code CircuitBreakingConnectionSupplier}.
+     *
+     * @param delegate         The supplier which opens connections.
+     * @param failureThreshold The number of consecutive failures which open the circuit.
+     * @param initialBackoff   How long the circuit stays open after it first opens.
+     * @param maximumBackoff   The longest the circuit stays open after a failed probe.
+     * @throws IllegalArgumentException if any parameter is {@code null}, if {@code failureThreshold} is less than 1, if
+     *                                  {@code initialBackoff} is not positive, or if {@code maximumBackoff} is less than
+     *                                  {@code initialBackoff}.
+     * @since 1.0-SNAPSHOT
+     */
+    public CircuitBreakingConnectionSupplier(final @NotNull ConnectionSupplier delegate,
+                                             final int failureThreshold,
+                                             final @NotNull Duration initialBackoff,
+                                             final @NotNull Duration maximumBackoff) {
+        Parameters.requireNonNull("delegate", delegate);
+        Parameters.requireNonNull("initialBackoff", initialBackoff);
+        Parameters.requireNonNull("maximumBackoff", maximumBackoff);
+        Parameters.requireInBounds("failureThreshold", failureThreshold, 1, Integer.MAX_VALUE);
+        if (initialBackoff.isNegative() || initialBackoff.isZero()) {
+            throw new IllegalArgumentException("initialBackoff must be positive.");
+        }
+        if (maximumBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("maximumBackoff must not be less than initialBackoff.");
+        }
+        this.delegate = delegate;
+        this.failureThreshold = failureThreshold;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maximumBackoffNanos = maximumBackoff.toNanos();
+        this.circuit = new AtomicReference<>(new Circuit(State.CLOSED, 0, 0L, this.initialBackoffNanos));
+    }
+
+    /**
+     * Gets the current state of the circuit. An open circuit whose backoff has elapsed is reported as open until the
+     * next call probes it.
+     *
+     * @return The state.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull State getState() {
+        return this.circuit.get().state();
+    }
+
+    /**
+     * Gets the number of calls which were rejected without reaching the delegate.
+     *
+     * @return The number of rejected calls.
+     * @since 1.0-SNAPSHOT
+     */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * Gets the metrics of the delegate supplier.
+     *
+     * @return The delegate's metrics, or {@code null} if it does not collect metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable ConnectionMetrics getMetrics() {
+        return this.delegate.getMetrics();
+    }
+
+    /**
+     * Opens a connection with the delegate supplier, unless the circuit is open.
+     *
+     * @return The connection, or {@code null} if the circuit is open or the delegate failed to open a connection.
+     * @throws RuntimeException if the delegate throws; the failure is counted before it is rethrown.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection get() {
+        return this.open(false);
+    }
+
+    /**
+     * Opens a read-only connection with the delegate supplier, unless the circuit is open.
+     *
+     * @return The connection, or {@code null} if the circuit is open or the delegate failed to open a connection.
+     * @throws RuntimeException if the delegate throws; the failure is counted before it is rethrown.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection getReadOnly() {
+        return this.open(true);
+    }
+
+    /**
+     * Opens a connection with the delegate supplier, unless the circuit is open.
+     *
+     * @param readOnly Whether to open the connection with {@link ConnectionSupplier#getReadOnly()}.
+     * @return The connection, or {@code null} if the circuit is open or the delegate failed to open a connection.
+     * @throws RuntimeException if the delegate throws; the failure is counted before it is rethrown.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection open(final boolean readOnly) {
+        final boolean probe;
+        while (true) {
+            final @NotNull Circuit current = this.circuit.get();
+            if (current.state() == State.CLOSED) {
+                probe = false;
+                break;
+            }
+            if (current.state() == State.HALF_OPEN || System.nanoTime() - current.openedAt() < current.backoffNanos()) {
+                this.rejected.increment();
+                return null;
+            }
+            if (this.circuit.compareAndSet(current, current.withState(State.HALF_OPEN))) {
+                BREAKER_LOGGER.log(Level.FINE, "Probing the data source after {0} ms.", current.backoffNanos() / 1_000_000L);
+                probe = true;
+                break;
+            }
+        }
+
+        @Nullable Connection connection = null;
+        try {
+            connection = readOnly ? this.delegate.getReadOnly() : this.delegate.get();
+            return connection;
+        } finally {
+            if (connection != null) {
+                this.succeeded(probe);
+            } else {
+                this.failed(probe);
+            }
+        }
+    }
+
+    /**
+     * Records a successful call, closing the circuit.
+     *
+     * @param probe Whether the call was a probe of a half-open circuit.
+     * @since 1.0-SNAPSHOT
+     */
+    private void succeeded(final boolean probe) {
+        final @NotNull Circuit closed = new Circuit(State.CLOSED, 0, 0L, this.initialBackoffNanos);
+        while (true) {
+            final @NotNull Circuit current = this.circuit.get();
+            if (current.state() == State.CLOSED && current.failures() == 0 || this.circuit.compareAndSet(current, closed)) {
+                break;
+            }
+        }
+        if (probe) {
+            BREAKER_LOGGER.log(Level.INFO, "Data source is reachable again; circuit closed.");
+        }
+    }
+
+    /**
+     * Records a failed call, opening the circuit once the failure threshold is reached, or reopening it with a longer
+     * backoff if the call was a probe.
+     *
+     * @param probe Whether the call was a probe of a half-open circuit.
+     * @since 1.0-SNAPSHOT
+     */
+    private void failed(final boolean probe) {
+        while (true) {
+            final @NotNull Circuit current = this.circuit.get();
+            final @NotNull Circuit next;
+            if (probe) {
+                final long backoff = current.backoffNanos() > this.maximumBackoffNanos / 2L
+                        ? this.maximumBackoffNanos
+                        : current.backoffNanos() * 2L;
+                next = new Circuit(State.OPEN, current.failures() + 1, System.nanoTime(), backoff);
+            } else if (current.state() != State.CLOSED) {
+                // Another caller opened the circuit while this call was in flight.
+                return;
+            } else if (current.failures() + 1 >= this.failureThreshold) {
+                next = new Circuit(State.OPEN, current.failures() + 1, System.nanoTime(), this.initialBackoffNanos);
+            } else {
+                next = new Circuit(State.CLOSED, current.failures() + 1, 0L, this.initialBackoffNanos);
+            }
+            if (this.circuit.compareAndSet(current, next)) {
+                if (next.state() == State.OPEN) {
+                    BREAKER_LOGGER.log(Level.WARNING, "Data source is unreachable after {0} consecutive failure(s); failing fast for {1} ms.",
+                            new Object[]{next.failures(), next.backoffNanos() / 1_000_000L});
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * The state of a circuit breaker.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public enum State {
+        /**
+         * Calls are passed to the delegate.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        CLOSED,
+        /**
+         * Calls fail immediately until the backoff has elapsed.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        OPEN,
+        /**
+         * A single probe is in flight; every other call fails immediately.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * An immutable snapshot of the circuit.
+     *
+     * @param state        The state of the circuit.
+     * @param failures     The number of consecutive failures.
+     * @param openedAt     The {@link System#nanoTime()} at which the circuit last opened.
+     * @param backoffNanos How long the circuit stays open, in nanoseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    private record Circuit(@NotNull State state,
+                           int failures,
+                           long openedAt,
+                           long backoffNanos) {
+        /**
+         * Copies the circuit with a new state.
+         *
+         * @param state The new state.
+         * @return The copy.
+         * @since 1.0-SNAPSHOT
+         */
+        private @NotNull Circuit withState(final @NotNull State state) {
+            return new Circuit(state, this.failures, this.openedAt, this.backoffNanos);
+        }
+    }
+}
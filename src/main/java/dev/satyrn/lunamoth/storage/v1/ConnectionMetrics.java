@@ -0,0 +1,469 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Collects the metrics of a {@link ConnectionSupplier}.
+ * <p>
+ * Counters and histograms are built from {@link LongAdder}s, so recording a sample never blocks and scales with the
+ * number of threads recording. Latencies are kept in power-of-two nanosecond buckets. The metrics can be read with
+ * {@link #snapshot()}, or over JMX once they have been registered with {@link #register(String)}.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class ConnectionMetrics implements ConnectionMetricsMXBean {
+    private static final @NotNull IntSupplier UNTRACKED = () -> -1;
+    private final @NotNull LongAdder acquireFailures = new LongAdder();
+    private final @NotNull LongAdder acquireTimeouts = new LongAdder();
+    private final @NotNull LongAdder connectFailures = new LongAdder();
+    private final @NotNull LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final @NotNull LatencyHistogram connectLatency = new LatencyHistogram();
+    private final @NotNull LatencyHistogram connectionLifetime = new LatencyHistogram();
+    private final @NotNull IntSupplier activeConnections;
+    private final @NotNull IntSupplier idleConnections;
+    private final @NotNull IntSupplier waitingThreads;
+    private @Nullable ObjectName objectName;
+
+    /**
+     * Creates a new {@code ConnectionMetrics} for a supplier which does not track active or idle connections.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public ConnectionMetrics() {
+        this(UNTRACKED, UNTRACKED, UNTRACKED);
+    }
+
+    /**
+     * Creates a new {@code ConnectionMetrics}.
+     *
+     * @param activeConnections Gets the number of connections which are lent out.
+     * @param idleConnections   Gets the number of idle connections.
+     * @param waitingThreads    Gets the number of callers waiting for a connection.
+     * @throws IllegalArgumentException if any parameter is {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    public ConnectionMetrics(final @NotNull IntSupplier activeConnections,
+                             final @NotNull IntSupplier idleConnections,
+                             final @NotNull IntSupplier waitingThreads) {
+        Parameters.requireNonNull("activeConnections", activeConnections);
+        Parameters.requireNonNull("idleConnections", idleConnections);
+        Parameters.requireNonNull("waitingThreads", waitingThreads);
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.waitingThreads = waitingThreads;
+    }
+
+    /**
+     * Records an attempt to give a caller a connection.
+     *
+     * @param nanos   How long the attempt took, in nanoseconds.
+     * @param success Whether the caller was given a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    public void recordAcquire(final long nanos,
+                              final boolean success) {
+        if (success) {
+            this.acquireLatency.record(nanos);
+        } else {
+            this.acquireFailures.increment();
+        }
+    }
+
+    /**
+     * Records that a caller gave up waiting for a connection. Timeouts must also be recorded as failed acquisitions.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public void recordAcquireTimeout() {
+        this.acquireTimeouts.increment();
+    }
+
+    /**
+     * Records an attempt to open a physical connection.
+     *
+     * @param nanos   How long the attempt took, in nanoseconds.
+     * @param success Whether the connection was opened.
+     * @since 1.0-SNAPSHOT
+     */
+    public void recordConnect(final long nanos,
+                              final boolean success) {
+        if (success) {
+            this.connectLatency.record(nanos);
+        } else {
+            this.connectFailures.increment();
+        }
+    }
+
+    /**
+     * Records that a physical connection was closed.
+     *
+     * @param lifetimeNanos How long the connection was open, in nanoseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    public void recordClose(final long lifetimeNanos) {
+        this.connectionLifetime.record(lifetimeNanos);
+    }
+
+    /**
+     * Takes a snapshot of the metrics. The snapshot is not atomic: samples recorded while it is taken may be partially
+     * included.
+     *
+     * @return The snapshot.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull Snapshot snapshot() {
+        final @NotNull Latency acquireLatency = this.acquireLatency.snapshot();
+        final @NotNull Latency connectLatency = this.connectLatency.snapshot();
+        final @NotNull Latency connectionLifetime = this.connectionLifetime.snapshot();
+        return new Snapshot(acquireLatency.count(),
+                this.acquireFailures.sum(),
+                this.acquireTimeouts.sum(),
+                connectLatency.count(),
+                this.connectFailures.sum(),
+                connectionLifetime.count(),
+                this.activeConnections.getAsInt(),
+                this.idleConnections.getAsInt(),
+                this.waitingThreads.getAsInt(),
+                acquireLatency,
+                connectLatency,
+                connectionLifetime);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     *
+     * @param name The value of the {@code name} key of the MBean's object name, such as the name of the database.
+     * @return The object name the metrics were registered under.
+     * @throws IllegalArgumentException if {@code name} is {@code null}.
+     * @throws IllegalStateException if the metrics are already registered, or if they could not be registered.
+     * @since 1.0-SNAPSHOT
+     */
+    public synchronized @NotNull ObjectName register(final @NotNull String name) {
+        Parameters.requireNonNull("name", name);
+        if (this.objectName != null) throw new IllegalStateException("metrics are already registered.");
+        try {
+            final @NotNull ObjectName objectName = new ObjectName("dev.satyrn.lunamoth:type=ConnectionMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+            return objectName;
+        } catch (final InstanceAlreadyExistsException ex) {
+            throw new IllegalStateException("metrics named \"" + name + "\" are already registered.", ex);
+        } catch (final JMException ex) {
+            throw new IllegalStateException("failed to register metrics named \"" + name + "\".", ex);
+        }
+    }
+
+    /**
+     * Unregisters the metrics from the platform MBean server, if they are registered.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public synchronized void unregister() {
+        if (this.objectName == null) {
+            return;
+        }
+        final @NotNull MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(this.objectName);
+        } catch (final InstanceNotFoundException ignored) {
+        } catch (final JMException ex) {
+            throw new IllegalStateException("failed to unregister metrics.", ex);
+        } finally {
+            this.objectName = null;
+        }
+    }
+
+    /**
+     * Gets the number of connections which were successfully borrowed or opened for a caller.
+     *
+     * @return The number of successful acquisitions.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public long getAcquireCount() {
+        return this.acquireLatency.count();
+    }
+
+    /**
+     * Gets the number of times a caller could not be given a connection.
+     *
+     * @return The number of failed acquisitions, including timeouts.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public long getAcquireFailureCount() {
+        return this.acquireFailures.sum();
+    }
+
+    /**
+     * Gets the number of times a caller gave up waiting for a connection.
+     *
+     * @return The number of acquisition timeouts.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public long getAcquireTimeoutCount() {
+        return this.acquireTimeouts.sum();
+    }
+
+    /**
+     * Gets the number of physical connections which were opened.
+     *
+     * @return The number of successful connects.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public long getConnectCount() {
+        return this.connectLatency.count();
+    }
+
+    /**
+     * Gets the number of times a physical connection could not be opened.
+     *
+     * @return The number of failed connects.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public long getConnectFailureCount() {
+        return this.connectFailures.sum();
+    }
+
+    /**
+     * Gets the number of physical connections which were closed.
+     *
+     * @return The number of closed connections.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public long getCloseCount() {
+        return this.connectionLifetime.count();
+    }
+
+    /**
+     * Gets the number of connections which are currently lent out.
+     *
+     * @return The number of active connections, or {@code -1} if the supplier does not track them.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public int getActiveConnections() {
+        return this.activeConnections.getAsInt();
+    }
+
+    /**
+     * Gets the number of connections which are currently idle.
+     *
+     * @return The number of idle connections, or {@code -1} if the supplier does not track them.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public int getIdleConnections() {
+        return this.idleConnections.getAsInt();
+    }
+
+    /**
+     * Gets the number of callers which are currently waiting for a connection.
+     *
+     * @return The wait queue depth, or {@code -1} if the supplier does not track it.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public int getWaitingThreads() {
+        return this.waitingThreads.getAsInt();
+    }
+
+    /**
+     * Gets the mean time taken to acquire a connection.
+     *
+     * @return The mean acquire latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getAcquireLatencyMeanMillis() {
+        return millis(this.acquireLatency.snapshot().mean());
+    }
+
+    /**
+     * Gets the 99th percentile of the time taken to acquire a connection.
+     *
+     * @return The 99th percentile acquire latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getAcquireLatencyP99Millis() {
+        return millis(this.acquireLatency.snapshot().percentile(0.99d));
+    }
+
+    /**
+     * Gets the longest time taken to acquire a connection.
+     *
+     * @return The maximum acquire latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getAcquireLatencyMaxMillis() {
+        return millis(this.acquireLatency.snapshot().maxNanos());
+    }
+
+    /**
+     * Gets the mean time taken to open a physical connection.
+     *
+     * @return The mean connect latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getConnectLatencyMeanMillis() {
+        return millis(this.connectLatency.snapshot().mean());
+    }
+
+    /**
+     * Gets the 99th percentile of the time taken to open a physical connection.
+     *
+     * @return The 99th percentile connect latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getConnectLatencyP99Millis() {
+        return millis(this.connectLatency.snapshot().percentile(0.99d));
+    }
+
+    /**
+     * Gets the longest time taken to open a physical connection.
+     *
+     * @return The maximum connect latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getConnectLatencyMaxMillis() {
+        return millis(this.connectLatency.snapshot().maxNanos());
+    }
+
+    /**
+     * Gets the mean lifetime of the physical connections which have been closed.
+     *
+     * @return The mean connection lifetime, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getConnectionLifetimeMeanMillis() {
+        return millis(this.connectionLifetime.snapshot().mean());
+    }
+
+    /**
+     * Gets the longest lifetime of the physical connections which have been closed.
+     *
+     * @return The maximum connection lifetime, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public double getConnectionLifetimeMaxMillis() {
+        return millis(this.connectionLifetime.snapshot().maxNanos());
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos The duration, in nanoseconds.
+     * @return The duration, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    private static double millis(final double nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    /**
+     * A point-in-time copy of the metrics of a {@link ConnectionSupplier}.
+     *
+     * @param acquireCount         The number of successful acquisitions.
+     * @param acquireFailureCount  The number of failed acquisitions, including timeouts.
+     * @param acquireTimeoutCount  The number of acquisition timeouts.
+     * @param connectCount         The number of physical connections opened.
+     * @param connectFailureCount  The number of physical connections which could not be opened.
+     * @param closeCount           The number of physical connections closed.
+     * @param activeConnections    The number of connections lent out, or {@code -1} if not tracked.
+     * @param idleConnections      The number of idle connections, or {@code -1} if not tracked.
+     * @param waitingThreads       The number of callers waiting for a connection, or {@code -1} if not tracked.
+     * @param acquireLatency       The latency of successful acquisitions.
+     * @param connectLatency       The latency of successful connects.
+     * @param connectionLifetime   The lifetime of closed connections.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public record Snapshot(long acquireCount,
+                           long acquireFailureCount,
+                           long acquireTimeoutCount,
+                           long connectCount,
+                           long connectFailureCount,
+                           long closeCount,
+                           int activeConnections,
+                           int idleConnections,
+                           int waitingThreads,
+                           @NotNull Latency acquireLatency,
+                           @NotNull Latency connectLatency,
+                           @NotNull Latency connectionLifetime) { }
+
+    /**
+     * A point-in-time copy of a latency histogram.
+     *
+     * @param count      The number of samples.
+     * @param totalNanos The sum of every sample, in nanoseconds.
+     * @param maxNanos   The largest sample, in nanoseconds.
+     * @param buckets    The number of samples in each bucket. Bucket {@code 0} holds samples of {@code 0} nanoseconds,
+     *                   and bucket {@code i} holds samples of at least {@code 2^(i-1)} and less than {@code 2^i}
+     *                   nanoseconds.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public record Latency(long count,
+                          long totalNanos,
+                          long maxNanos,
+                          long @NotNull [] buckets) {
+        /**
+         * Gets the mean of the samples.
+         *
+         * @return The mean, in nanoseconds, or {@code 0} if there are no samples.
+         * @since 1.0-SNAPSHOT
+         */
+        public double mean() {
+            return this.count == 0L ? 0d : (double) this.totalNanos / this.count;
+        }
+
+        /**
+         * Estimates a percentile of the samples, as the upper bound of the bucket it falls in.
+         *
+         * @param quantile The percentile, between {@code 0} and {@code 1}.
+         * @return The estimated percentile, in nanoseconds, or {@code 0} if there are no samples.
+         * @throws IllegalArgumentException if {@code quantile} is not between {@code 0} and {@code 1}.
+         * @since 1.0-SNAPSHOT
+         */
+        public long percentile(final double quantile) {
+            Parameters.requireInBounds("quantile", quantile, 0d, 1d);
+            final long total = Arrays.stream(this.buckets).sum();
+            if (total == 0L) {
+                return 0L;
+            }
+            final long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+            long seen = 0L;
+            for (int bucket = 0; bucket < this.buckets.length; ++bucket) {
+                seen += this.buckets[bucket];
+                if (seen >= rank) {
+                    return Math.min((1L << bucket) - 1L, this.maxNanos);
+                }
+            }
+            return this.maxNanos;
+        }
+    }
+}
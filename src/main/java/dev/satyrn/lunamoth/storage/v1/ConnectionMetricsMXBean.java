@@ -0,0 +1,148 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+/**
+ * Management interface for {@link ConnectionMetrics}, exposing the metrics of a {@link ConnectionSupplier} over JMX.
+ * <p>
+ * Latencies are reported in milliseconds. Percentiles are estimated from power-of-two histogram buckets, and are never
+ * more than twice the true value.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public interface ConnectionMetricsMXBean {
+    /**
+     * Gets the number of connections which were successfully borrowed or opened for a caller.
+     *
+     * @return The number of successful acquisitions.
+     * @since 1.0-SNAPSHOT
+     */
+    long getAcquireCount();
+
+    /**
+     * Gets the number of times a caller could not be given a connection.
+     *
+     * @return The number of failed acquisitions, including timeouts.
+     * @since 1.0-SNAPSHOT
+     */
+    long getAcquireFailureCount();
+
+    /**
+     * Gets the number of times a caller gave up waiting for a connection.
+     *
+     * @return The number of acquisition timeouts.
+     * @since 1.0-SNAPSHOT
+     */
+    long getAcquireTimeoutCount();
+
+    /**
+     * Gets the number of physical connections which were opened.
+     *
+     * @return The number of successful connects.
+     * @since 1.0-SNAPSHOT
+     */
+    long getConnectCount();
+
+    /**
+     * Gets the number of times a physical connection could not be opened.
+     *
+     * @return The number of failed connects.
+     * @since 1.0-SNAPSHOT
+     */
+    long getConnectFailureCount();
+
+    /**
+     * Gets the number of physical connections which were closed.
+     *
+     * @return The number of closed connections.
+     * @since 1.0-SNAPSHOT
+     */
+    long getCloseCount();
+
+    /**
+     * Gets the number of connections which are currently lent out.
+     *
+     * @return The number of active connections, or {@code -1} if the supplier does not track them.
+     * @since 1.0-SNAPSHOT
+     */
+    int getActiveConnections();
+
+    /**
+     * Gets the number of connections which are currently idle.
+     *
+     * @return The number of idle connections, or {@code -1} if the supplier does not track them.
+     * @since 1.0-SNAPSHOT
+     */
+    int getIdleConnections();
+
+    /**
+     * Gets the number of callers which are currently waiting for a connection.
+     *
+     * @return The wait queue depth, or {@code -1} if the supplier does not track it.
+     * @since 1.0-SNAPSHOT
+     */
+    int getWaitingThreads();
+
+    /**
+     * Gets the mean time taken to acquire a connection.
+     *
+     * @return The mean acquire latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getAcquireLatencyMeanMillis();
+
+    /**
+     * Gets the 99th percentile of the time taken to acquire a connection.
+     *
+     * @return The 99th percentile acquire latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getAcquireLatencyP99Millis();
+
+    /**
+     * Gets the longest time taken to acquire a connection.
+     *
+     * @return The maximum acquire latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getAcquireLatencyMaxMillis();
+
+    /**
+     * Gets the mean time taken to open a physical connection.
+     *
+     * @return The mean connect latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getConnectLatencyMeanMillis();
+
+    /**
+     * Gets the 99th percentile of the time taken to open a physical connection.
+     *
+     * @return The 99th percentile connect latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getConnectLatencyP99Millis();
+
+    /**
+     * Gets the longest time taken to open a physical connection.
+     *
+     * @return The maximum connect latency, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getConnectLatencyMaxMillis();
+
+    /**
+     * Gets the mean lifetime of the physical connections which have been closed.
+     *
+     * @return The mean connection lifetime, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getConnectionLifetimeMeanMillis();
+
+    /**
+     * Gets the longest lifetime of the physical connections which have been closed.
+     *
+     * @return The maximum connection lifetime, in milliseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    double getConnectionLifetimeMaxMillis();
+}
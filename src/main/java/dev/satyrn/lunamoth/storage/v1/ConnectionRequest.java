@@ -0,0 +1,116 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opens a connection for {@link ConnectionSupplier#getAsync(java.util.concurrent.Executor, java.time.Duration)}.
+ * <p>
+ * Interrupts the thread opening the connection if the future completes first, and closes any connection which arrives
+ * after the future has completed.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+final class ConnectionRequest implements Runnable {
+    private static final @NotNull Logger REQUEST_LOGGER = Logger.getLogger(ConnectionRequest.class.getName());
+    private final @NotNull ConnectionSupplier supplier;
+    private final @NotNull CompletableFuture<Connection> future = new CompletableFuture<>();
+    private final @NotNull ReentrantLock workerLock = new ReentrantLock();
+    private @Nullable Thread worker;
+
+    /**
+     * Creates a new request.
+     *
+     * @param supplier The supplier which opens the connection.
+     * @since 1.0-SNAPSHOT
+     */
+    ConnectionRequest(final @NotNull ConnectionSupplier supplier) {
+        this.supplier = supplier;
+        this.future.whenComplete((connection, ex) -> {
+            if (ex != null) {
+                this.interruptWorker();
+            }
+        });
+    }
+
+    /**
+     * Gets the future which completes with the connection.
+     *
+     * @return The future.
+     * @since 1.0-SNAPSHOT
+     */
+    @NotNull CompletableFuture<Connection> future() {
+        return this.future;
+    }
+
+    /**
+     * Opens the connection and completes the future, unless the future has already completed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void run() {
+        this.workerLock.lock();
+        try {
+            if (this.future.isDone()) {
+                return;
+            }
+            this.worker = Thread.currentThread();
+        } finally {
+            this.workerLock.unlock();
+        }
+
+        @Nullable Connection connection = null;
+        @Nullable RuntimeException failure = null;
+        try {
+            connection = this.supplier.get();
+        } catch (final RuntimeException ex) {
+            failure = ex;
+        } finally {
+            this.workerLock.lock();
+            try {
+                this.worker = null;
+                // Clears an interrupt delivered by cancellation, so it cannot leak into the executor's next task.
+                if (this.future.isDone()) {
+                    Thread.interrupted();
+                }
+            } finally {
+                this.workerLock.unlock();
+            }
+        }
+
+        if (failure != null) {
+            this.future.completeExceptionally(failure);
+        } else if (!this.future.complete(connection) && connection != null) {
+            try {
+                connection.close();
+            } catch (final SQLException ex) {
+                REQUEST_LOGGER.log(Level.FINE, "Failed to close a connection which arrived after its request completed.", ex);
+            }
+        }
+    }
+
+    /**
+     * Interrupts the thread which is opening the connection, if any.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void interruptWorker() {
+        this.workerLock.lock();
+        try {
+            if (this.worker != null) {
+                this.worker.interrupt();
+            }
+        } finally {
+            this.workerLock.unlock();
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package dev.satyrn.lunamoth.storage.v1;
 
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
@@ -19,4 +25,85 @@ public interface ConnectionSupplier extends Supplier<Connection> {
      * @since 1.0-SNAPSHOT
      */
     @Nullable Connection get();
+
+    /**
+     * Opens a connection which will only be used to read data. Suppliers which can route reads to a replica of the
+     * data source do so; by default, this is the same as {@link #get()}.
+     *
+     * @return The connection to the data source.
+     * @since 1.0-SNAPSHOT
+     */
+    default @Nullable Connection getReadOnly() {
+        return this.get();
+    }
+
+    /**
+     * Gets the metrics collected by this supplier.
+     *
+     * @return The metrics, or {@code null} if this supplier does not collect metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    default @Nullable ConnectionMetrics getMetrics() {
+        return null;
+    }
+
+    /**
+     * Opens a connection to the data source on a new virtual thread, without blocking the calling thread.
+     *
+     * @return A future which completes with the connection, or with {@code null} if the connection could not be
+     *         opened.
+     * @see #getAsync(Executor, Duration)
+     * @since 1.0-SNAPSHOT
+     */
+    default @NotNull CompletableFuture<Connection> getAsync() {
+        return this.getAsync(Thread::startVirtualThread, null);
+    }
+
+    /**
+     * Opens a connection to the data source on a new virtual thread, without blocking the calling thread.
+     *
+     * @param timeout How long to wait for the connection, or {@code null} to wait indefinitely.
+     * @return A future which completes with the connection, or with {@code null} if the connection could not be
+     *         opened.
+     * @throws IllegalArgumentException if {@code timeout} is negative.
+     * @see #getAsync(Executor, Duration)
+     * @since 1.0-SNAPSHOT
+     */
+    default @NotNull CompletableFuture<Connection> getAsync(final @Nullable Duration timeout) {
+        return this.getAsync(Thread::startVirtualThread, timeout);
+    }
+
+    /**
+     * Opens a connection to the data source with an executor, without blocking the calling thread.
+     * <p>
+     * If the future is cancelled, or the timeout elapses, before the connection has been opened, the thread opening the
+     * connection is interrupted, and the connection is closed as soon as it becomes available. A connection is never
+     * leaked by a future which did not complete with it.
+     *
+     * @param executor The executor which calls {@link #get()}.
+     * @param timeout  How long to wait for the connection, or {@code null} to wait indefinitely.
+     * @return A future which completes with the connection, or with {@code null} if the connection could not be
+     *         opened. The future completes exceptionally with a {@link java.util.concurrent.TimeoutException} if the
+     *         timeout elapses, or with the exception thrown by {@link #get()}.
+     * @throws IllegalArgumentException if {@code executor} is {@code null}, or {@code timeout} is negative.
+     * @since 1.0-SNAPSHOT
+     */
+    default @NotNull CompletableFuture<Connection> getAsync(final @NotNull Executor executor,
+                                                            final @Nullable Duration timeout) {
+        Parameters.requireNonNull("executor", executor);
+        if (timeout != null && timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative.");
+        }
+
+        final @NotNull ConnectionRequest request = new ConnectionRequest(this);
+        if (timeout != null) {
+            request.future().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            executor.execute(request);
+        } catch (final RuntimeException ex) {
+            request.future().completeExceptionally(ex);
+        }
+        return request.future();
+    }
 }
@@ -0,0 +1,728 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches entities read from a data source, and writes changes back behind the caller.
+ * <p>
+ * {@link #get(Object)} reads through the cache: on a miss, the entity is loaded with the loader over a connection from
+ * the supplier. Concurrent misses for the same key share a single load. Loaded entities expire once the time to live
+ * has elapsed, and the least recently used entity is evicted once the cache holds more than {@code maximumSize}
+ * entities. Entities which do not exist are not cached.
+ * <p>
+ * {@link #put(Object, Object)} updates the cache immediately and marks the entity dirty. Once the cache is
+ * {@linkplain #start() started}, dirty entities are written back in batches by a background task, every flush interval
+ * or as soon as a batch is full. Each batch is written in a single transaction; a batch which fails is retried on the
+ * next flush. Dirty entities are never evicted or expired before they have been written, so a read never observes an
+ * older value than the last write. The number of dirty entities is bounded: once the bound is reached, a put of a key
+ * which is not already dirty waits for a flush to make room, and is rejected if none does in time.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the entities.
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class EntityCache<K, V> implements AutoCloseable {
+    private static final @NotNull Logger CACHE_LOGGER = Logger.getLogger(EntityCache.class.getName());
+    private final @NotNull ConnectionSupplier supplier;
+    private final @NotNull Loader<K, V> loader;
+    private final @NotNull Writer<K, V> writer;
+    private final int maximumSize;
+    private final @NotNull ReentrantLock cacheLock = new ReentrantLock();
+    private final @NotNull Condition dirtyWritten = this.cacheLock.newCondition();
+    private final @NotNull ReentrantLock flushLock = new ReentrantLock();
+    private final @NotNull LinkedHashMap<K, CachedEntity<V>> entities;
+    private final @NotNull LinkedHashMap<K, DirtyEntity<V>> dirty = new LinkedHashMap<>();
+    private final @NotNull ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final @NotNull LongAdder hits = new LongAdder();
+    private final @NotNull LongAdder misses = new LongAdder();
+    private final @NotNull LongAdder loadFailures = new LongAdder();
+    private final @NotNull LongAdder evictions = new LongAdder();
+    private final @NotNull LongAdder writes = new LongAdder();
+    private final @NotNull LongAdder writeFailures = new LongAdder();
+    private volatile boolean isClosed;
+    private boolean isFlushQueued;
+    private long nextVersion;
+    private long timeToLiveNanos = Duration.ofMinutes(10L).toNanos();
+    private @NotNull Duration flushInterval = Duration.ofSeconds(5L);
+    private int batchSize = 100;
+    private int maximumDirty = 10_000;
+    private long dirtyTimeoutNanos;
+    private @Nullable ScheduledExecutorService flusher;
+
+    /**
+     * Creates a new {@code EntityCache}. Dirty entities are only written back when the cache is started, flushed or
+     * closed.
+     *
+     * @param supplier    The supplier which provides connections to load and write entities.
+     * @param loader      The function which loads an entity.
+     * @param writer      The function which writes a batch of dirty entities.
+     * @param maximumSize The maximum number of entities held in the cache.
+     * @throws IllegalArgumentException if {@code supplier}, {@code loader} or {@code writer} is {@code null}, or if
+     *                                  {@code maximumSize} is less than 1.
+     * @since 1.0-SNAPSHOT
+     */
+    public EntityCache(final @NotNull ConnectionSupplier supplier,
+                       final @NotNull Loader<K, V> loader,
+                       final @NotNull Writer<K, V> writer,
+                       final int maximumSize) {
+        Parameters.requireNonNull("supplier", supplier);
+        Parameters.requireNonNull("loader", loader);
+        Parameters.requireNonNull("writer", writer);
+        Parameters.requireInBounds("maximumSize", maximumSize, 1, Integer.MAX_VALUE);
+        this.supplier = supplier;
+        this.loader = loader;
+        this.writer = writer;
+        this.maximumSize = maximumSize;
+        this.entities = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Sets how long a loaded entity stays in the cache before it is loaded again.
+     *
+     * @param timeToLive The time to live.
+     * @return The mutated {@code EntityCache}.
+     * @throws IllegalArgumentException if {@code timeToLive} is {@code null}, zero or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull EntityCache<K, V> setTimeToLive(final @NotNull Duration timeToLive) {
+        Parameters.requireNonNull("timeToLive", timeToLive);
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be positive.");
+        }
+        this.timeToLiveNanos = timeToLive.toNanos();
+        return this;
+    }
+
+    /**
+     * Sets how often dirty entities are written back, and how many are written in one batch. The interval only takes
+     * effect when the cache is started.
+     *
+     * @param flushInterval The interval between background flushes.
+     * @param batchSize     The maximum number of entities written in one batch.
+     * @return The mutated {@code EntityCache}.
+     * @throws IllegalArgumentException if {@code flushInterval} is {@code null}, zero or negative, or if
+     *                                  {@code batchSize} is less than 1.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_, _ -> this", mutates = "this")
+    public @NotNull EntityCache<K, V> setWriteBehind(final @NotNull Duration flushInterval, final int batchSize) {
+        Parameters.requireNonNull("flushInterval", flushInterval);
+        Parameters.requireInBounds("batchSize", batchSize, 1, Integer.MAX_VALUE);
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive.");
+        }
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets how many dirty entities may wait to be written back, and how long a put waits for room once that many are
+     * waiting. A put which replaces an entity that is already dirty never waits. By default, up to 10,000 entities may
+     * be dirty and a put is rejected as soon as the bound is reached.
+     *
+     * @param maximumDirty The maximum number of dirty entities.
+     * @param timeout      How long a put waits for a flush to make room, or {@link Duration#ZERO} to reject it
+     *                     immediately.
+     * @return The mutated {@code EntityCache}.
+     * @throws IllegalArgumentException if {@code maximumDirty} is less than 1, or if {@code timeout} is {@code null}
+     *                                  or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_, _ -> this", mutates = "this")
+    public @NotNull EntityCache<K, V> setMaximumDirty(final int maximumDirty, final @NotNull Duration timeout) {
+        Parameters.requireInBounds("maximumDirty", maximumDirty, 1, Integer.MAX_VALUE);
+        Parameters.requireNonNull("timeout", timeout);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative.");
+        }
+        this.maximumDirty = maximumDirty;
+        this.dirtyTimeoutNanos = timeout.toNanos();
+        return this;
+    }
+
+    /**
+     * Starts the background task which writes dirty entities back. Calling this method more than once has no further
+     * effect.
+     *
+     * @return The mutated {@code EntityCache}.
+     * @throws IllegalStateException if the cache has been closed.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "-> this", mutates = "this")
+    public @NotNull EntityCache<K, V> start() {
+        this.cacheLock.lock();
+        try {
+            if (this.isClosed) throw new IllegalStateException("cache has been disposed.");
+            if (this.flusher != null) {
+                return this;
+            }
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final @NotNull Thread thread = new Thread(runnable, "lunamoth-entity-cache");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long interval = this.flushInterval.toMillis();
+            this.flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } finally {
+            this.cacheLock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Gets an entity, loading it if it is not cached or has expired.
+     *
+     * @param key The key of the entity.
+     * @return The entity, or {@code null} if it does not exist.
+     * @throws IllegalArgumentException if {@code key} is {@code null}.
+     * @throws IllegalStateException    if the cache has been closed.
+     * @throws SQLException             if the entity could not be loaded.
+     * @since 1.0-SNAPSHOT
+     */
+    public @Nullable V get(final @NotNull K key) throws SQLException {
+        Parameters.requireNonNull("key", key);
+        if (this.isClosed) throw new IllegalStateException("cache has been disposed.");
+
+        this.cacheLock.lock();
+        try {
+            final @Nullable CachedEntity<V> cached = this.entities.get(key);
+            if (cached != null && (cached.isDirty() || System.nanoTime() - cached.loadedAt() < this.timeToLiveNanos)) {
+                this.hits.increment();
+                return cached.value();
+            }
+            if (cached != null) {
+                this.entities.remove(key);
+            }
+            final @Nullable DirtyEntity<V> written = this.dirty.get(key);
+            if (written != null) {
+                this.hits.increment();
+                this.cache(key, new CachedEntity<>(written.value(), System.nanoTime(), true));
+                return written.value();
+            }
+        } finally {
+            this.cacheLock.unlock();
+        }
+
+        this.misses.increment();
+        final @NotNull CompletableFuture<V> load = new CompletableFuture<>();
+        final @Nullable CompletableFuture<V> inFlight = this.loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            final @Nullable V value = this.load(key);
+            load.complete(this.loaded(key, load, value));
+        } catch (final SQLException | RuntimeException ex) {
+            this.loadFailures.increment();
+            this.loading.remove(key, load);
+            load.completeExceptionally(ex);
+        }
+        return await(load);
+    }
+
+    /**
+     * Caches an entity and marks it dirty, so that it is written back by the next flush. If the maximum number of
+     * entities are already dirty, waits for a flush to make room first.
+     *
+     * @param key   The key of the entity.
+     * @param value The entity.
+     * @throws IllegalArgumentException if {@code key} or {@code value} is {@code null}.
+     * @throws IllegalStateException    if the cache has been closed, or if the maximum number of entities are still
+     *                                  dirty once the timeout has elapsed or the calling thread is interrupted.
+     * @see #setMaximumDirty(int, Duration)
+     * @since 1.0-SNAPSHOT
+     */
+    public void put(final @NotNull K key, final @NotNull V value) {
+        Parameters.requireNonNull("key", key);
+        Parameters.requireNonNull("value", value);
+        @Nullable ScheduledExecutorService flusher = null;
+        this.cacheLock.lock();
+        try {
+            if (this.isClosed) throw new IllegalStateException("cache has been disposed.");
+            this.awaitRoom(key);
+            // A load in flight for this key would otherwise return an older value than this one.
+            this.loading.remove(key);
+            this.dirty.put(key, new DirtyEntity<>(value, ++this.nextVersion));
+            this.cache(key, new CachedEntity<>(value, System.nanoTime(), true));
+            if (this.dirty.size() >= this.batchSize && !this.isFlushQueued) {
+                this.isFlushQueued = true;
+                flusher = this.flusher;
+            }
+        } finally {
+            this.cacheLock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (final RejectedExecutionException ignored) { }
+        }
+    }
+
+    /**
+     * Waits until an entity can be marked dirty without exceeding the maximum number of dirty entities, queueing a
+     * flush to make room. Must be called while holding the cache lock.
+     *
+     * @param key The key of the entity.
+     * @throws IllegalStateException if the cache was closed while waiting, or if there is still no room once the
+     *                               timeout has elapsed or the calling thread is interrupted.
+     * @since 1.0-SNAPSHOT
+     */
+    private void awaitRoom(final @NotNull K key) {
+        if (this.dirty.size() < this.maximumDirty || this.dirty.containsKey(key)) {
+            return;
+        }
+        if (this.flusher != null && !this.isFlushQueued) {
+            this.isFlushQueued = true;
+            try {
+                this.flusher.execute(this::flushQuietly);
+            } catch (final RejectedExecutionException ignored) { }
+        }
+        long remaining = this.dirtyTimeoutNanos;
+        try {
+            while (this.dirty.size() >= this.maximumDirty && !this.dirty.containsKey(key)) {
+                if (this.isClosed) throw new IllegalStateException("cache has been disposed.");
+                if (remaining <= 0L) {
+                    throw new IllegalStateException(this.dirty.size() + " dirty entities are already waiting to be written back.");
+                }
+                remaining = this.dirtyWritten.awaitNanos(remaining);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for dirty entities to be written back.", ex);
+        }
+    }
+
+    /**
+     * Removes an entity from the cache, so that it is loaded again on the next read. A dirty entity is written back
+     * before it is removed.
+     *
+     * @param key The key of the entity.
+     * @throws IllegalArgumentException if {@code key} is {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    public void invalidate(final @NotNull K key) {
+        Parameters.requireNonNull("key", key);
+        this.cacheLock.lock();
+        try {
+            this.loading.remove(key);
+            final @Nullable CachedEntity<V> cached = this.entities.get(key);
+            if (cached != null && !cached.isDirty()) {
+                this.entities.remove(key);
+            }
+        } finally {
+            this.cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty entity back, in batches, on the calling thread.
+     *
+     * @throws SQLException if a batch could not be written. Dirty entities which were not written are retried on the
+     *                      next flush.
+     * @since 1.0-SNAPSHOT
+     */
+    public void flush() throws SQLException {
+        this.flushLock.lock();
+        try {
+            while (true) {
+                final @NotNull Map<K, V> batch = new LinkedHashMap<>();
+                final @NotNull Map<K, Long> versions = new HashMap<>();
+                this.cacheLock.lock();
+                try {
+                    this.isFlushQueued = false;
+                    final @NotNull Iterator<Map.Entry<K, DirtyEntity<V>>> iterator = this.dirty.entrySet().iterator();
+                    while (iterator.hasNext() && batch.size() < this.batchSize) {
+                        final @NotNull Map.Entry<K, DirtyEntity<V>> entry = iterator.next();
+                        batch.put(entry.getKey(), entry.getValue().value());
+                        versions.put(entry.getKey(), entry.getValue().version());
+                    }
+                } finally {
+                    this.cacheLock.unlock();
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                this.write(batch);
+                this.written(versions);
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of entities held in the cache.
+     *
+     * @return The number of entities.
+     * @since 1.0-SNAPSHOT
+     */
+    public int size() {
+        this.cacheLock.lock();
+        try {
+            return this.entities.size();
+        } finally {
+            this.cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the cache's statistics.
+     *
+     * @return The statistics.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull Statistics statistics() {
+        final int size;
+        final int dirtyCount;
+        this.cacheLock.lock();
+        try {
+            size = this.entities.size();
+            dirtyCount = this.dirty.size();
+        } finally {
+            this.cacheLock.unlock();
+        }
+        return new Statistics(this.hits.sum(), this.misses.sum(), this.loadFailures.sum(), this.evictions.sum(),
+                this.writes.sum(), this.writeFailures.sum(), size, dirtyCount);
+    }
+
+    /**
+     * Stops the background task, and writes every dirty entity back. Calling this method more than once has no
+     * further effect.
+     *
+     * @throws SQLException if a batch could not be written. Dirty entities which were not written are lost.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() throws SQLException {
+        final @Nullable ScheduledExecutorService flusher;
+        this.cacheLock.lock();
+        try {
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            this.dirtyWritten.signalAll();
+            flusher = this.flusher;
+            this.flusher = null;
+        } finally {
+            this.cacheLock.unlock();
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(this.flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.flush();
+    }
+
+    /**
+     * Loads an entity over a connection from the supplier.
+     *
+     * @param key The key of the entity.
+     * @return The entity, or {@code null} if it does not exist.
+     * @throws SQLException if no connection could be opened, or the entity could not be loaded.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable V load(final @NotNull K key) throws SQLException {
+        try (final @Nullable Connection connection = this.supplier.get()) {
+            if (connection == null) {
+                throw new SQLException("Could not open a connection to load the entity.");
+            }
+            return this.loader.load(connection, key);
+        }
+    }
+
+    /**
+     * Caches a loaded entity, unless the load was superseded by a write or an invalidation while it was in flight. A
+     * write which raced with the load always wins, even if it has already been written back, since the loaded value may
+     * have been read before the write was committed.
+     *
+     * @param key   The key of the entity.
+     * @param load  The load.
+     * @param value The loaded entity, or {@code null} if it does not exist.
+     * @return The entity to return to the callers waiting on the load.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable V loaded(final @NotNull K key,
+                               final @NotNull CompletableFuture<V> load,
+                               final @Nullable V value) {
+        this.cacheLock.lock();
+        try {
+            final boolean isCurrent = this.loading.remove(key, load);
+            final @Nullable DirtyEntity<V> written = this.dirty.get(key);
+            if (written != null) {
+                return written.value();
+            }
+            // Only a write, or a load which completed before this one was registered, can have cached the key since
+            // the miss; either is at least as new as the loaded value.
+            final @Nullable CachedEntity<V> cached = this.entities.get(key);
+            if (cached != null) {
+                return cached.value();
+            }
+            if (isCurrent && value != null) {
+                this.cache(key, new CachedEntity<>(value, System.nanoTime(), false));
+            }
+            return value;
+        } finally {
+            this.cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Caches an entity, evicting other entities if the cache is full. Must be called while holding the cache lock.
+     *
+     * @param key    The key of the entity.
+     * @param entity The entity.
+     * @since 1.0-SNAPSHOT
+     */
+    private void cache(final @NotNull K key, final @NotNull CachedEntity<V> entity) {
+        this.entities.put(key, entity);
+        this.evict();
+    }
+
+    /**
+     * Evicts the least recently used clean entities while the cache is full. Dirty entities are kept until they have
+     * been written back. Must be called while holding the cache lock.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void evict() {
+        final @NotNull Iterator<CachedEntity<V>> iterator = this.entities.values().iterator();
+        while (this.entities.size() > this.maximumSize && iterator.hasNext()) {
+            if (!iterator.next().isDirty()) {
+                iterator.remove();
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of dirty entities in a single transaction.
+     *
+     * @param batch The entities.
+     * @throws SQLException if no connection could be opened, or the batch could not be written.
+     * @since 1.0-SNAPSHOT
+     */
+    private void write(final @NotNull @Unmodifiable Map<K, V> batch) throws SQLException {
+        try (final @Nullable Connection connection = this.supplier.get()) {
+            if (connection == null) {
+                throw new SQLException("Could not open a connection to write " + batch.size() + " entities.");
+            }
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                this.writer.write(connection, Collections.unmodifiableMap(batch));
+                connection.commit();
+            } catch (final SQLException | RuntimeException ex) {
+                try {
+                    connection.rollback();
+                } catch (final SQLException suppressed) {
+                    ex.addSuppressed(suppressed);
+                }
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (final SQLException | RuntimeException ex) {
+            this.writeFailures.increment();
+            throw ex;
+        }
+        this.writes.add(batch.size());
+    }
+
+    /**
+     * Marks a written batch clean. Entities which were put again since the batch was taken stay dirty, even if the same
+     * instance was put.
+     *
+     * @param versions The versions of the written entities, by key.
+     * @since 1.0-SNAPSHOT
+     */
+    private void written(final @NotNull Map<K, Long> versions) {
+        this.cacheLock.lock();
+        try {
+            final long now = System.nanoTime();
+            for (final @NotNull Map.Entry<K, Long> entry : versions.entrySet()) {
+                final @Nullable DirtyEntity<V> written = this.dirty.get(entry.getKey());
+                if (written == null || written.version() != entry.getValue()) {
+                    continue;
+                }
+                this.dirty.remove(entry.getKey());
+                final @Nullable CachedEntity<V> cached = this.entities.get(entry.getKey());
+                if (cached != null) {
+                    this.entities.replace(entry.getKey(), new CachedEntity<>(written.value(), now, false));
+                }
+            }
+            this.evict();
+            this.dirtyWritten.signalAll();
+        } finally {
+            this.cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty entity back, logging any failure.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (final SQLException | RuntimeException ex) {
+            CACHE_LOGGER.log(Level.WARNING, "Failed to write dirty entities back; they will be retried.", ex);
+        }
+    }
+
+    /**
+     * Waits for a load to complete.
+     *
+     * @param load The load.
+     * @param <V>  The type of the entity.
+     * @return The loaded entity, or {@code null} if it does not exist.
+     * @throws SQLException if the entity could not be loaded.
+     * @since 1.0-SNAPSHOT
+     */
+    private static <V> @Nullable V await(final @NotNull CompletableFuture<V> load) throws SQLException {
+        try {
+            return load.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Loads an entity from the data source.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the entities.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        /**
+         * Loads an entity. The connection must not be closed by the loader.
+         *
+         * @param connection The connection.
+         * @param key        The key of the entity.
+         * @return The entity, or {@code null} if it does not exist.
+         * @throws SQLException if the entity could not be loaded.
+         * @since 1.0-SNAPSHOT
+         */
+        @Nullable V load(@NotNull Connection connection, @NotNull K key) throws SQLException;
+    }
+
+    /**
+     * Writes a batch of entities to the data source.
+     *
+     * @param <K> The type of the keys.
+     * @param <V> The type of the entities.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    @FunctionalInterface
+    public interface Writer<K, V> {
+        /**
+         * Writes a batch of entities, typically with a single batched upsert. The connection is in a transaction which
+         * is committed once the writer returns, and must not be closed, committed or rolled back by the writer.
+         *
+         * @param connection The connection.
+         * @param entities   The entities, by key, in the order they were first written.
+         * @throws SQLException if the entities could not be written.
+         * @since 1.0-SNAPSHOT
+         */
+        void write(@NotNull Connection connection, @NotNull @Unmodifiable Map<K, V> entities) throws SQLException;
+    }
+
+    /**
+     * A point-in-time report of a cache's statistics.
+     *
+     * @param hitCount          The number of reads served from the cache.
+     * @param missCount         The number of reads which had to load the entity, or wait for another load.
+     * @param loadFailureCount  The number of loads which failed.
+     * @param evictionCount     The number of entities evicted because the cache was full.
+     * @param writeCount        The number of dirty entities written back.
+     * @param writeFailureCount The number of batches which could not be written.
+     * @param size              The number of entities held in the cache.
+     * @param dirtyCount        The number of entities waiting to be written back.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public record Statistics(long hitCount,
+                             long missCount,
+                             long loadFailureCount,
+                             long evictionCount,
+                             long writeCount,
+                             long writeFailureCount,
+                             int size,
+                             int dirtyCount) {
+        /**
+         * Gets the fraction of reads which were served from the cache.
+         *
+         * @return The hit rate, between {@code 0} and {@code 1}, or {@code 1} if there have been no reads.
+         * @since 1.0-SNAPSHOT
+         */
+        public double hitRate() {
+            final long reads = this.hitCount + this.missCount;
+            return reads == 0L ? 1d : (double) this.hitCount / reads;
+        }
+    }
+
+    /**
+     * A cached entity.
+     *
+     * @param value    The entity.
+     * @param loadedAt The {@link System#nanoTime()} at which the entity was loaded or written back.
+     * @param isDirty  Whether the entity is waiting to be written back.
+     * @param <V>      The type of the entity.
+     * @since 1.0-SNAPSHOT
+     */
+    private record CachedEntity<V>(@NotNull V value, long loadedAt, boolean isDirty) { }
+
+    /**
+     * An entity waiting to be written back.
+     *
+     * @param value   The entity.
+     * @param version The version of the write, which increases with every {@link #put(Object, Object)}.
+     * @param <V>     The type of the entity.
+     * @since 1.0-SNAPSHOT
+     */
+    private record DirtyEntity<V>(@NotNull V value, long version) { }
+}
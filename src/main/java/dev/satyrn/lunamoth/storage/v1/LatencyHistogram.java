@@ -0,0 +1,93 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of nanosecond latencies with power-of-two buckets.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+final class LatencyHistogram {
+    private final @NotNull LongAdder @NotNull [] buckets = new LongAdder[64];
+    private final @NotNull LongAdder count = new LongAdder();
+    private final @NotNull LongAdder total = new LongAdder();
+    private final @NotNull LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Creates a new, empty histogram.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    LatencyHistogram() {
+        for (int bucket = 0; bucket < this.buckets.length; ++bucket) {
+            this.buckets[bucket] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a sample. Negative samples are recorded as {@code 0}.
+     *
+     * @param nanos The sample, in nanoseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    void record(final long nanos) {
+        this.record(nanos, true);
+    }
+
+    /**
+     * Records a sample, optionally without counting it in a bucket. Samples which are not bucketed still count towards
+     * the number of samples, their total and their maximum, but not towards percentiles.
+     *
+     * @param nanos    The sample, in nanoseconds.
+     * @param bucketed Whether to count the sample in its bucket.
+     * @since 1.0-SNAPSHOT
+     */
+    void record(final long nanos,
+                final boolean bucketed) {
+        final long sample = Math.max(0L, nanos);
+        if (bucketed) {
+            this.buckets[64 - Long.numberOfLeadingZeros(sample)].increment();
+        }
+        this.count.increment();
+        this.total.add(sample);
+        this.max.accumulate(sample);
+    }
+
+    /**
+     * Gets the number of samples.
+     *
+     * @return The number of samples.
+     * @since 1.0-SNAPSHOT
+     */
+    long count() {
+        return this.count.sum();
+    }
+
+    /**
+     * Gets the largest sample.
+     *
+     * @return The largest sample, in nanoseconds.
+     * @since 1.0-SNAPSHOT
+     */
+    long max() {
+        return this.max.get();
+    }
+
+    /**
+     * Copies the histogram.
+     *
+     * @return The copy.
+     * @since 1.0-SNAPSHOT
+     */
+    @NotNull ConnectionMetrics.Latency snapshot() {
+        final long @NotNull [] buckets = new long[this.buckets.length];
+        for (int bucket = 0; bucket < buckets.length; ++bucket) {
+            buckets[bucket] = this.buckets[bucket].sum();
+        }
+        return new ConnectionMetrics.Latency(this.count.sum(), this.total.sum(), this.max.get(), buckets);
+    }
+}
@@ -0,0 +1,339 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a {@link ConnectionSupplier} to detect connections which are never closed.
+ * <p>
+ * Every connection handed out is tracked from the moment it is supplied until it is closed. A background task
+ * periodically reports each connection which has been held for longer than the leak threshold: once through the logger
+ * when it is first detected, and for as long as it stays open through {@link #snapshot()}. A fraction of borrows, set by
+ * the sample rate, also capture the stack trace of the code which took the connection, so that a leak can be traced to
+ * its source.
+ * <p>
+ * Tracking a borrow costs a timestamp and an insertion into a concurrent set, and capturing a stack trace is limited to
+ * the sampled borrows, so the detector is cheap enough to leave enabled in production. When used with a
+ * {@link PooledConnectionSupplier}, place the detector above the pool so that it tracks borrows rather than physical
+ * connections.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class LeakDetectingConnectionSupplier implements ConnectionSupplier, AutoCloseable {
+    private static final @NotNull Logger LEAK_LOGGER = Logger.getLogger(LeakDetectingConnectionSupplier.class.getName());
+    private final @NotNull ConnectionSupplier delegate;
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final @NotNull Set<Borrow> outstanding = ConcurrentHashMap.newKeySet();
+    private final @NotNull LongAdder borrowed = new LongAdder();
+    private final @NotNull LongAdder returned = new LongAdder();
+    private final @NotNull LongAdder leaksDetected = new LongAdder();
+    private final @NotNull ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new {@code LeakDetectingConnectionSupplier}, and starts checking for leaks.
+     *
+     * @param delegate   The supplier which opens connections.
+     * @param threshold  How long a connection may be held before it is reported as a leak.
+     * @param sampleRate The fraction of borrows, between {@code 0} and {@code 1}, which capture a stack trace.
+     * @throws IllegalArgumentException if {@code delegate} or {@code threshold} is {@code null}, if {@code threshold} is
+     *                                  not positive, or if {@code sampleRate} is not between {@code 0} and {@code 1}.
+     * @since 1.0-SNAPSHOT
+     */
+    public LeakDetectingConnectionSupplier(final @NotNull ConnectionSupplier delegate,
+                                           final @NotNull Duration threshold,
+                                           final double sampleRate) {
+        Parameters.requireNonNull("delegate", delegate);
+        Parameters.requireNonNull("threshold", threshold);
+        Parameters.requireInBounds("sampleRate", sampleRate, 0d, 1d);
+        if (threshold.isNegative() || threshold.isZero()) {
+            throw new IllegalArgumentException("threshold must be positive.");
+        }
+        this.delegate = delegate;
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final @NotNull Thread thread = new Thread(runnable, "lunamoth-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = Math.max(TimeUnit.MILLISECONDS.toNanos(10L), this.thresholdNanos / 2L);
+        this.scheduler.scheduleWithFixedDelay(this::detect, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Opens a connection with the delegate supplier, and tracks it until it is closed.
+     *
+     * @return The tracked connection, or {@code null} if the delegate could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection get() {
+        return this.track(this.delegate.get());
+    }
+
+    /**
+     * Opens a read-only connection with the delegate supplier, and tracks it until it is closed.
+     *
+     * @return The tracked connection, or {@code null} if the delegate could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection getReadOnly() {
+        return this.track(this.delegate.getReadOnly());
+    }
+
+    /**
+     * Tracks a connection opened by the delegate supplier until it is closed.
+     *
+     * @param connection The connection, or {@code null} if the delegate could not open a connection.
+     * @return The tracked connection, or {@code null} if {@code connection} is {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection track(final @Nullable Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+
+        final @Nullable Throwable site = this.sampleRate > 0d && ThreadLocalRandom.current().nextDouble() < this.sampleRate
+                ? new Throwable("Connection borrowed here")
+                : null;
+        if (site != null) {
+            // Drop this frame, so that the trace starts at the get method which the borrower called.
+            final @NotNull StackTraceElement @NotNull [] trace = site.getStackTrace();
+            site.setStackTrace(Arrays.copyOfRange(trace, Math.min(1, trace.length), trace.length));
+        }
+        final @NotNull Borrow borrow = new Borrow(Thread.currentThread().getName(), System.nanoTime(), site, new AtomicBoolean());
+        this.outstanding.add(borrow);
+        this.borrowed.increment();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new TrackedConnection(connection, borrow));
+    }
+
+    /**
+     * Gets the metrics of the delegate supplier.
+     *
+     * @return The delegate's metrics, or {@code null} if it does not collect metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable ConnectionMetrics getMetrics() {
+        return this.delegate.getMetrics();
+    }
+
+    /**
+     * Takes a snapshot of the tracked connections.
+     *
+     * @return The snapshot, listing every connection which is currently held for longer than the leak threshold.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull Snapshot snapshot() {
+        final long now = System.nanoTime();
+        final @NotNull List<SuspectedLeak> suspects = new ArrayList<>();
+        int outstanding = 0;
+        for (final @NotNull Borrow borrow : this.outstanding) {
+            ++outstanding;
+            final long held = now - borrow.borrowedAt();
+            if (held >= this.thresholdNanos) {
+                suspects.add(new SuspectedLeak(borrow.threadName(), Duration.ofNanos(held), borrow.site()));
+            }
+        }
+        return new Snapshot(this.borrowed.sum(), this.returned.sum(), outstanding, this.leaksDetected.sum(), List.copyOf(suspects));
+    }
+
+    /**
+     * Stops checking for leaks. Connections which are still held are no longer reported, but can still be closed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Logs every connection which has been held for longer than the leak threshold and has not yet been reported.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private void detect() {
+        final long now = System.nanoTime();
+        for (final @NotNull Borrow borrow : this.outstanding) {
+            final long held = now - borrow.borrowedAt();
+            if (held < this.thresholdNanos || !borrow.reported().compareAndSet(false, true)) {
+                continue;
+            }
+            this.leaksDetected.increment();
+            LEAK_LOGGER.log(Level.WARNING,
+                    String.format("Connection borrowed by thread \"%s\" has been held for %d ms without being closed; it may have leaked.%s",
+                            borrow.threadName(),
+                            TimeUnit.NANOSECONDS.toMillis(held),
+                            borrow.site() == null ? " Borrow site was not sampled." : ""),
+                    borrow.site());
+        }
+    }
+
+    /**
+     * Stops tracking a connection which has been closed.
+     *
+     * @param borrow The borrow.
+     * @since 1.0-SNAPSHOT
+     */
+    private void release(final @NotNull Borrow borrow) {
+        if (this.outstanding.remove(borrow)) {
+            this.returned.increment();
+            if (borrow.reported().get()) {
+                LEAK_LOGGER.log(Level.INFO, "Connection borrowed by thread \"{0}\" was closed after {1} ms.",
+                        new Object[]{borrow.threadName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - borrow.borrowedAt())});
+            }
+        }
+    }
+
+    /**
+     * A point-in-time report of the tracked connections.
+     *
+     * @param borrowCount    The number of connections handed out.
+     * @param returnCount    The number of connections closed.
+     * @param outstanding    The number of connections currently held.
+     * @param leakCount      The number of connections which have been reported as leaks.
+     * @param suspectedLeaks The connections currently held for longer than the leak threshold.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public record Snapshot(long borrowCount,
+                           long returnCount,
+                           int outstanding,
+                           long leakCount,
+                           @NotNull @Unmodifiable List<SuspectedLeak> suspectedLeaks) { }
+
+    /**
+     * A connection which has been held for longer than the leak threshold.
+     *
+     * @param threadName The name of the thread which took the connection.
+     * @param heldFor    How long the connection has been held.
+     * @param borrowSite The stack trace of the code which took the connection, or {@code null} if it was not sampled.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public record SuspectedLeak(@NotNull String threadName,
+                                @NotNull Duration heldFor,
+                                @Nullable Throwable borrowSite) { }
+
+    /**
+     * A tracked borrow. Borrows are compared by identity.
+     *
+     * @param threadName The name of the thread which took the connection.
+     * @param borrowedAt The {@link System#nanoTime()} at which the connection was taken.
+     * @param site       The stack trace of the code which took the connection, or {@code null} if it was not sampled.
+     * @param reported   Whether the borrow has been reported as a leak.
+     * @since 1.0-SNAPSHOT
+     */
+    private record Borrow(@NotNull String threadName,
+                          long borrowedAt,
+                          @Nullable Throwable site,
+                          @NotNull AtomicBoolean reported) {
+        /**
+         * Checks whether this is the same borrow as another object.
+         *
+         * @param obj The other object.
+         * @return {@code true} if {@code obj} is this borrow, otherwise {@code false}.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            return this == obj;
+        }
+
+        /**
+         * Gets the identity hash code of this borrow.
+         *
+         * @return The hash code.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * Handles calls to a tracked connection, stopping tracking when it is closed.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private final class TrackedConnection implements InvocationHandler {
+        private final @NotNull Connection connection;
+        private final @NotNull Borrow borrow;
+
+        /**
+         * Creates a new handler for a tracked connection.
+         *
+         * @param connection The connection.
+         * @param borrow     The borrow tracking the connection.
+         * @since 1.0-SNAPSHOT
+         */
+        private TrackedConnection(final @NotNull Connection connection,
+                                  final @NotNull Borrow borrow) {
+            this.connection = connection;
+            this.borrow = borrow;
+        }
+
+        /**
+         * Handles a call to the connection.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> LeakDetectingConnectionSupplier.this.release(this.borrow);
+                case "equals" -> {
+                    return args != null && proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Tracked " + this.connection;
+                }
+                default -> { }
+            }
+            try {
+                return method.invoke(this.connection, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ public final class MySQLConnectionSupplier implements ConnectionSupplier, AutoCl
     private @NotNull String hostname = "localhost";
     private final @NotNull String database;
     private final @NotNull PasswordAuthentication credentials;
+    private final @NotNull ConnectionMetrics metrics = new ConnectionMetrics();
     private boolean isClosed = false;
 
     /**
@@ -215,9 +216,13 @@ public final class MySQLConnectionSupplier implements ConnectionSupplier, AutoCl
                 connectionURL,
                 userName == null ? "anonymous user" : "user " + userName
         });
+        final long start = System.nanoTime();
         try {
-            return DriverManager.getConnection(connectionURL, userName, String.copyValueOf(password));
+            final @NotNull Connection connection = DriverManager.getConnection(connectionURL, userName, String.copyValueOf(password));
+            this.recordConnect(start, true);
+            return connection;
         } catch (SQLException ex) {
+            this.recordConnect(start, false);
             MYSQL_CONNECTION_LOGGER.log(Level.SEVERE,
                     String.format("Failed to connect to the MySQL-like database at %s with %s!", connectionURL, userName == null ? "anonymous user" : "user " + userName),
                     ex);
@@ -225,6 +230,30 @@ public final class MySQLConnectionSupplier implements ConnectionSupplier, AutoCl
         return null;
     }
 
+    /**
+     * Gets the metrics of the supplier. Every connection is opened directly, so acquire and connect latencies are the
+     * same, and active and idle connections are not tracked.
+     * @return The metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull ConnectionMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Records an attempt to connect to the database.
+     * @param start   The {@link System#nanoTime()} at which the attempt started.
+     * @param success Whether the connection was opened.
+     * @since 1.0-SNAPSHOT
+     */
+    private void recordConnect(final long start,
+                               final boolean success) {
+        final long elapsed = System.nanoTime() - start;
+        this.metrics.recordConnect(elapsed, success);
+        this.metrics.recordAcquire(elapsed, success);
+    }
+
     /**
      * Zeroes out the credential password.
      *
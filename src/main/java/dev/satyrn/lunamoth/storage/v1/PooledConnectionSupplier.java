@@ -0,0 +1,948 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pools the connections created by another {@link ConnectionSupplier}.
+ * <p>
+ * At most {@code maximumSize} connections are open at once. Borrowers wait in arrival order for up to the borrow
+ * timeout when every connection is in use. Calling {@link Connection#close()} on a borrowed connection returns it to
+ * the pool instead of closing it; the connection cannot be used after it has been returned. Statements opened through
+ * a borrowed connection report the borrowed connection as their {@linkplain Statement#getConnection() connection}.
+ * Returning a connection closes the statements opened through it, along with their result sets, rolls back any open
+ * transaction, and restores the auto-commit, read-only, transaction isolation, catalog, schema, holdability, type map,
+ * client info and network timeout settings the connection was opened with, so nothing leaks to the next borrower.
+ * Connections which have been idle for longer than the validation interval are validated before they are lent out, and a background task
+ * validates idle connections, closes connections which have been idle for longer than the idle timeout, and keeps at
+ * least {@code minimumSize} connections open.
+ * <p>
+ * Only {@link ReentrantLock} and {@link Semaphore} are used for coordination, so borrowing from a virtual thread never
+ * pins its carrier thread. Connections are created outside any lock.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class PooledConnectionSupplier implements ConnectionSupplier, AutoCloseable {
+    private static final @NotNull Logger POOL_LOGGER = Logger.getLogger(PooledConnectionSupplier.class.getName());
+    private static final int STATEMENT_PRUNE_INTERVAL = 64;
+    private final @NotNull ConnectionSupplier delegate;
+    private final int minimumSize;
+    private final int maximumSize;
+    private final @NotNull Semaphore borrowPermits;
+    private final @NotNull ReentrantLock poolLock = new ReentrantLock();
+    private final @NotNull Condition connectionReturned = this.poolLock.newCondition();
+    private final @NotNull ArrayDeque<IdleConnection> idle = new ArrayDeque<>();
+    private final @NotNull IdentityHashMap<Connection, Long> openedAt = new IdentityHashMap<>();
+    private final @NotNull IdentityHashMap<Connection, ConnectionState> initialStates = new IdentityHashMap<>();
+    private final @NotNull ConnectionMetrics metrics = new ConnectionMetrics(
+            () -> this.getOpenConnections() - this.getIdleConnections(),
+            this::getIdleConnections,
+            this::getWaitingThreads);
+    private int openConnections;
+    private int waitingBorrowers;
+    private volatile boolean isClosed;
+    private @NotNull Duration borrowTimeout = Duration.ofSeconds(30L);
+    private @NotNull Duration idleTimeout = Duration.ofMinutes(10L);
+    private @NotNull Duration validationInterval = Duration.ofSeconds(5L);
+    private @NotNull Duration validationTimeout = Duration.ofSeconds(5L);
+    private @NotNull Duration maintenanceInterval = Duration.ofSeconds(30L);
+    private @Nullable ScheduledExecutorService maintenance;
+
+    /**
+     * Creates a new {@code PooledConnectionSupplier}. No connections are opened until the pool is started or a
+     * connection is borrowed.
+     *
+     * @param delegate    The supplier which opens new connections.
+     * @param minimumSize The number of connections to keep open, even when idle.
+     * @param maximumSize The maximum number of connections which may be open at once.
+     * @throws IllegalArgumentException if {@code delegate} is {@code null}, if {@code maximumSize} is less than 1, or if
+     *                                  {@code minimumSize} is negative or greater than {@code maximumSize}.
+     * @since 1.0-SNAPSHOT
+     */
+    public PooledConnectionSupplier(final @NotNull ConnectionSupplier delegate,
+                                    final int minimumSize,
+                                    final int maximumSize) {
+        Parameters.requireNonNull("delegate", delegate);
+        Parameters.requireInBounds("maximumSize", maximumSize, 1, Integer.MAX_VALUE);
+        Parameters.requireInBounds("minimumSize", minimumSize, 0, maximumSize);
+        this.delegate = delegate;
+        this.minimumSize = minimumSize;
+        this.maximumSize = maximumSize;
+        this.borrowPermits = new Semaphore(maximumSize, true);
+    }
+
+    /**
+     * Sets how long {@link #get()} waits for a connection when every connection is in use.
+     * @param borrowTimeout The borrow timeout.
+     * @return The mutated {@code PooledConnectionSupplier}.
+     * @throws IllegalArgumentException if {@code borrowTimeout} is {@code null} or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull PooledConnectionSupplier setBorrowTimeout(final @NotNull Duration borrowTimeout) {
+        this.borrowTimeout = requireNonNegative("borrowTimeout", borrowTimeout);
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is closed, while more than the minimum number of connections
+     * are open.
+     * @param idleTimeout The idle timeout.
+     * @return The mutated {@code PooledConnectionSupplier}.
+     * @throws IllegalArgumentException if {@code idleTimeout} is {@code null} or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull PooledConnectionSupplier setIdleTimeout(final @NotNull Duration idleTimeout) {
+        this.idleTimeout = requireNonNegative("idleTimeout", idleTimeout);
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is validated again, and how long validation may take.
+     * @param validationInterval The idle time after which connections are validated. {@link Duration#ZERO} validates
+     *                           every connection before it is lent out.
+     * @param validationTimeout  How long to wait for a connection to be validated. Rounded up to whole seconds.
+     * @return The mutated {@code PooledConnectionSupplier}.
+     * @throws IllegalArgumentException if either parameter is {@code null} or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_, _ -> this", mutates = "this")
+    public @NotNull PooledConnectionSupplier setValidation(final @NotNull Duration validationInterval,
+                                                           final @NotNull Duration validationTimeout) {
+        this.validationInterval = requireNonNegative("validationInterval", validationInterval);
+        this.validationTimeout = requireNonNegative("validationTimeout", validationTimeout);
+        return this;
+    }
+
+    /**
+     * Sets how often the background task validates and evicts idle connections. Only takes effect when the pool is
+     * started.
+     * @param maintenanceInterval The interval between background maintenance runs.
+     * @return The mutated {@code PooledConnectionSupplier}.
+     * @throws IllegalArgumentException if {@code maintenanceInterval} is {@code null}, zero or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull PooledConnectionSupplier setMaintenanceInterval(final @NotNull Duration maintenanceInterval) {
+        requireNonNegative("maintenanceInterval", maintenanceInterval);
+        if (maintenanceInterval.isZero()) {
+            throw new IllegalArgumentException("maintenanceInterval must be positive.");
+        }
+        this.maintenanceInterval = maintenanceInterval;
+        return this;
+    }
+
+    /**
+     * Opens the minimum number of connections in parallel, and starts the background maintenance task. Calling this
+     * method more than once has no further effect.
+     * @return The mutated {@code PooledConnectionSupplier}.
+     * @throws IllegalStateException if the supplier has been closed.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "-> this", mutates = "this")
+    public @NotNull PooledConnectionSupplier start() {
+        this.poolLock.lock();
+        try {
+            if (this.isClosed) throw new IllegalStateException("supplier has been disposed.");
+            if (this.maintenance != null) {
+                return this;
+            }
+            this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final @NotNull Thread thread = new Thread(runnable, "lunamoth-connection-pool");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long interval = this.maintenanceInterval.toMillis();
+            this.maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+        } finally {
+            this.poolLock.unlock();
+        }
+        this.fill();
+        return this;
+    }
+
+    /**
+     * Gets the number of connections which are currently open, whether idle or borrowed.
+     * @return The number of open connections.
+     * @since 1.0-SNAPSHOT
+     */
+    public int getOpenConnections() {
+        this.poolLock.lock();
+        try {
+            return this.openConnections;
+        } finally {
+            this.poolLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connections which are currently idle in the pool.
+     * @return The number of idle connections.
+     * @since 1.0-SNAPSHOT
+     */
+    public int getIdleConnections() {
+        this.poolLock.lock();
+        try {
+            return this.idle.size();
+        } finally {
+            this.poolLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of callers which are currently waiting for a connection.
+     * @return The number of waiting callers.
+     * @since 1.0-SNAPSHOT
+     */
+    public int getWaitingThreads() {
+        this.poolLock.lock();
+        try {
+            return this.borrowPermits.getQueueLength() + this.waitingBorrowers;
+        } finally {
+            this.poolLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the metrics of the pool. Connect latency, connect failures and connection lifetime refer to the physical
+     * connections opened by the delegate supplier.
+     * @return The metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull ConnectionMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no idle connection is available and the pool is not
+     * full. Close the connection to return it to the pool.
+     * @return The borrowed connection, or {@code null} if no connection became available within the borrow timeout,
+     *         if the thread was interrupted, or if a new connection could not be opened.
+     * @throws IllegalStateException if the supplier has been closed.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override public @Nullable Connection get() {
+        if (this.isClosed) throw new IllegalStateException("supplier has been disposed.");
+
+        final long start = System.nanoTime();
+        final long deadline = start + this.borrowTimeout.toNanos();
+        try {
+            if (!this.borrowPermits.tryAcquire(this.borrowTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                this.timedOut();
+                this.metrics.recordAcquire(System.nanoTime() - start, false);
+                return null;
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            this.metrics.recordAcquire(System.nanoTime() - start, false);
+            return null;
+        }
+
+        boolean lent = false;
+        try {
+            final @Nullable Connection connection = this.borrow(deadline);
+            if (connection != null) {
+                lent = true;
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, new PooledConnection(connection));
+            }
+            return null;
+        } finally {
+            if (!lent) {
+                this.borrowPermits.release();
+            }
+            this.metrics.recordAcquire(System.nanoTime() - start, lent);
+        }
+    }
+
+    /**
+     * Logs and counts a borrower which gave up waiting for a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    private void timedOut() {
+        POOL_LOGGER.log(Level.WARNING, "Timed out after {0} waiting for a pooled connection.", this.borrowTimeout);
+        this.metrics.recordAcquireTimeout();
+    }
+
+    /**
+     * Takes a valid idle connection, or opens a new connection if the pool is not full. The caller must hold a borrow
+     * permit.
+     * @param deadline The {@link System#nanoTime()} at which to stop waiting for a connection.
+     * @return The connection, or {@code null} if none could be obtained.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection borrow(final long deadline) {
+        while (true) {
+            @Nullable IdleConnection candidate = null;
+            this.poolLock.lock();
+            try {
+                while (!this.isClosed) {
+                    candidate = this.idle.pollFirst();
+                    if (candidate != null || this.openConnections < this.maximumSize) {
+                        break;
+                    }
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        this.timedOut();
+                        return null;
+                    }
+                    ++this.waitingBorrowers;
+                    try {
+                        this.connectionReturned.awaitNanos(remaining);
+                    } finally {
+                        --this.waitingBorrowers;
+                    }
+                }
+                if (this.isClosed) {
+                    return null;
+                }
+                if (candidate == null) {
+                    ++this.openConnections;
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                this.poolLock.unlock();
+            }
+
+            if (candidate == null) {
+                return this.open();
+            }
+            if (System.nanoTime() - candidate.idleSince < this.validationInterval.toNanos() || this.isValid(candidate.connection)) {
+                return candidate.connection;
+            }
+            this.discard(candidate.connection);
+        }
+    }
+
+    /**
+     * Opens a new connection in a slot which has already been counted as open. The slot is released if the connection
+     * could not be opened.
+     * @return The new connection, or {@code null} if it could not be opened.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection open() {
+        @Nullable Connection connection = null;
+        final long start = System.nanoTime();
+        try {
+            connection = this.delegate.get();
+        } catch (final RuntimeException ex) {
+            POOL_LOGGER.log(Level.SEVERE, "Failed to open a pooled connection!", ex);
+        }
+        final long opened = System.nanoTime();
+        this.metrics.recordConnect(opened - start, connection != null);
+        if (connection == null) {
+            this.release();
+            return null;
+        }
+        final @NotNull ConnectionState state;
+        try {
+            state = ConnectionState.capture(connection);
+        } catch (final SQLException ex) {
+            POOL_LOGGER.log(Level.SEVERE, "Failed to read the settings of a pooled connection!", ex);
+            this.metrics.recordClose(System.nanoTime() - opened);
+            this.discard(connection);
+            return null;
+        }
+        this.poolLock.lock();
+        try {
+            this.openedAt.put(connection, opened);
+            this.initialStates.put(connection, state);
+        } finally {
+            this.poolLock.unlock();
+        }
+        return connection;
+    }
+
+    /**
+     * Returns a connection to the pool, or closes it if it is no longer usable or the pool has been closed.
+     * <p>
+     * The statements opened by the borrower are closed, any open transaction is rolled back, and the settings the
+     * borrower changed are restored to those the connection was opened with. A connection which cannot be reset is
+     * closed instead.
+     * @param borrowed The handler of the connection being returned.
+     * @since 1.0-SNAPSHOT
+     */
+    private void giveBack(final @NotNull PooledConnection borrowed) {
+        final @NotNull Connection connection = borrowed.connection;
+        try {
+            borrowed.closeStatements();
+            final boolean reusable = !this.isClosed && !connection.isClosed();
+            if (reusable) {
+                final @Nullable ConnectionState state;
+                this.poolLock.lock();
+                try {
+                    state = this.initialStates.get(connection);
+                } finally {
+                    this.poolLock.unlock();
+                }
+                final boolean isAutoCommit = connection.getAutoCommit();
+                if (!isAutoCommit) {
+                    connection.rollback();
+                }
+                if (state != null) {
+                    state.restore(connection, isAutoCommit, borrowed.changedSettings);
+                } else if (!isAutoCommit) {
+                    connection.setAutoCommit(true);
+                }
+
+                this.poolLock.lock();
+                try {
+                    if (!this.isClosed) {
+                        this.idle.addFirst(new IdleConnection(connection, System.nanoTime()));
+                        this.connectionReturned.signal();
+                        return;
+                    }
+                } finally {
+                    this.poolLock.unlock();
+                }
+            }
+        } catch (final SQLException ex) {
+            POOL_LOGGER.log(Level.FINE, "Discarding a pooled connection which could not be reset.", ex);
+        } finally {
+            this.borrowPermits.release();
+        }
+        this.discard(connection);
+    }
+
+    /**
+     * Checks whether a connection is still valid.
+     * @param connection The connection.
+     * @return {@code true} if the connection is valid, otherwise {@code false}.
+     * @since 1.0-SNAPSHOT
+     */
+    private boolean isValid(final @NotNull Connection connection) {
+        try {
+            final long timeout = this.validationTimeout.toSeconds() + (this.validationTimeout.toNanosPart() > 0 ? 1L : 0L);
+            return connection.isValid((int) Math.min(timeout, Integer.MAX_VALUE));
+        } catch (final SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a connection which is counted as open, and releases its slot.
+     * @param connection The connection.
+     * @since 1.0-SNAPSHOT
+     */
+    private void discard(final @NotNull Connection connection) {
+        try {
+            connection.close();
+        } catch (final SQLException ex) {
+            POOL_LOGGER.log(Level.FINE, "Failed to close a pooled connection.", ex);
+        } finally {
+            final @Nullable Long opened;
+            this.poolLock.lock();
+            try {
+                opened = this.openedAt.remove(connection);
+                this.initialStates.remove(connection);
+            } finally {
+                this.poolLock.unlock();
+            }
+            if (opened != null) {
+                this.metrics.recordClose(System.nanoTime() - opened);
+            }
+            this.release();
+        }
+    }
+
+    /**
+     * Releases the slot of a connection which has been closed or could not be opened.
+     * @since 1.0-SNAPSHOT
+     */
+    private void release() {
+        this.poolLock.lock();
+        try {
+            --this.openConnections;
+            this.connectionReturned.signal();
+        } finally {
+            this.poolLock.unlock();
+        }
+    }
+
+    /**
+     * Opens connections in parallel, on virtual threads, until the minimum number of connections is open.
+     * @since 1.0-SNAPSHOT
+     */
+    private void fill() {
+        final int missing;
+        this.poolLock.lock();
+        try {
+            missing = this.isClosed ? 0 : Math.max(0, this.minimumSize - this.openConnections);
+            this.openConnections += missing;
+        } finally {
+            this.poolLock.unlock();
+        }
+        if (missing == 0) {
+            return;
+        }
+
+        try (final @NotNull ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < missing; ++i) {
+                executor.execute(() -> {
+                    final @Nullable Connection connection = this.open();
+                    if (connection == null) {
+                        return;
+                    }
+                    this.poolLock.lock();
+                    try {
+                        if (!this.isClosed) {
+                            this.idle.addLast(new IdleConnection(connection, System.nanoTime()));
+                            this.connectionReturned.signal();
+                            return;
+                        }
+                    } finally {
+                        this.poolLock.unlock();
+                    }
+                    this.discard(connection);
+                });
+            }
+        }
+    }
+
+    /**
+     * Validates idle connections, closes connections which have been idle for too long while more than the minimum
+     * number of connections are open, and then opens connections until the minimum is reached again.
+     * @since 1.0-SNAPSHOT
+     */
+    private void maintain() {
+        try {
+            final @NotNull List<IdleConnection> candidates = new ArrayList<>();
+            final @NotNull List<Connection> evicted = new ArrayList<>();
+            final long now = System.nanoTime();
+            this.poolLock.lock();
+            try {
+                int surplus = this.openConnections - this.minimumSize;
+                for (final @NotNull Iterator<IdleConnection> iterator = this.idle.descendingIterator(); iterator.hasNext(); ) {
+                    final @NotNull IdleConnection connection = iterator.next();
+                    if (surplus > 0 && now - connection.idleSince >= this.idleTimeout.toNanos()) {
+                        iterator.remove();
+                        evicted.add(connection.connection);
+                        --surplus;
+                    } else if (now - connection.idleSince >= this.validationInterval.toNanos()) {
+                        iterator.remove();
+                        candidates.add(connection);
+                    }
+                }
+            } finally {
+                this.poolLock.unlock();
+            }
+
+            evicted.forEach(this::discard);
+            for (final @NotNull IdleConnection candidate : candidates) {
+                if (!this.isValid(candidate.connection)) {
+                    this.discard(candidate.connection);
+                    continue;
+                }
+                this.poolLock.lock();
+                try {
+                    if (!this.isClosed) {
+                        this.idle.addLast(new IdleConnection(candidate.connection, System.nanoTime()));
+                        this.connectionReturned.signal();
+                        continue;
+                    }
+                } finally {
+                    this.poolLock.unlock();
+                }
+                this.discard(candidate.connection);
+            }
+            this.fill();
+        } catch (final RuntimeException ex) {
+            POOL_LOGGER.log(Level.WARNING, "Connection pool maintenance failed.", ex);
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the background maintenance task. Borrowed connections are closed when
+     * they are returned. The delegate supplier is not closed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public void close() {
+        final @NotNull List<IdleConnection> connections;
+        final @Nullable ScheduledExecutorService maintenance;
+        this.poolLock.lock();
+        try {
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            connections = new ArrayList<>(this.idle);
+            this.idle.clear();
+            maintenance = this.maintenance;
+            this.maintenance = null;
+            this.connectionReturned.signalAll();
+        } finally {
+            this.poolLock.unlock();
+        }
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        connections.forEach(connection -> this.discard(connection.connection));
+    }
+
+    /**
+     * Ensures that a duration is not {@code null} or negative.
+     * @param paramName The name of the parameter.
+     * @param value     The duration.
+     * @return {@code value}
+     * @throws IllegalArgumentException if {@code value} is {@code null} or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    private static @NotNull Duration requireNonNegative(final @NotNull String paramName,
+                                                        final @Nullable Duration value) {
+        Parameters.requireNonNull(paramName, value);
+        if (value.isNegative()) {
+            throw new IllegalArgumentException(paramName + " must not be negative.");
+        }
+        return value;
+    }
+
+    /**
+     * An idle connection and the {@link System#nanoTime()} at which it became idle or was last validated.
+     *
+     * @param connection The connection.
+     * @param idleSince  The time at which the connection became idle.
+     * @since 1.0-SNAPSHOT
+     */
+    private record IdleConnection(@NotNull Connection connection, long idleSince) { }
+
+    /**
+     * The settings a connection was opened with, which are restored when it is returned to the pool.
+     *
+     * @param isAutoCommit         Whether the connection was in auto-commit mode.
+     * @param isReadOnly           Whether the connection was read-only.
+     * @param transactionIsolation The transaction isolation level.
+     * @param catalog              The catalog, or {@code null} if the driver does not support catalogs.
+     * @param schema               The schema, or {@code null} if the driver does not support schemas.
+     * @param holdability          The result set holdability.
+     * @param typeMap              A copy of the type map, or {@code null} if the driver does not support type maps.
+     * @param clientInfo           The client info properties, or {@code null} if the driver does not support them.
+     * @param networkTimeout       The network timeout in milliseconds, or {@code 0} if there is none or the driver does
+     *                             not support network timeouts.
+     * @since 1.0-SNAPSHOT
+     */
+    private record ConnectionState(boolean isAutoCommit,
+                                   boolean isReadOnly,
+                                   int transactionIsolation,
+                                   @Nullable String catalog,
+                                   @Nullable String schema,
+                                   int holdability,
+                                   @Nullable Map<String, Class<?>> typeMap,
+                                   @Nullable Properties clientInfo,
+                                   int networkTimeout) {
+        /**
+         * Reads the settings of a newly opened connection.
+         * @param connection The connection.
+         * @return The settings.
+         * @throws SQLException if the settings could not be read.
+         * @since 1.0-SNAPSHOT
+         */
+        private static @NotNull ConnectionState capture(final @NotNull Connection connection) throws SQLException {
+            @Nullable String schema;
+            try {
+                schema = connection.getSchema();
+            } catch (final SQLFeatureNotSupportedException ex) {
+                schema = null;
+            }
+            @Nullable Map<String, Class<?>> typeMap;
+            try {
+                final @Nullable Map<String, Class<?>> current = connection.getTypeMap();
+                typeMap = current == null ? null : new HashMap<>(current);
+            } catch (final SQLFeatureNotSupportedException ex) {
+                typeMap = null;
+            }
+            @Nullable Properties clientInfo;
+            try {
+                final @Nullable Properties current = connection.getClientInfo();
+                clientInfo = current == null ? null : (Properties) current.clone();
+            } catch (final SQLFeatureNotSupportedException ex) {
+                clientInfo = null;
+            }
+            int networkTimeout;
+            try {
+                networkTimeout = connection.getNetworkTimeout();
+            } catch (final SQLFeatureNotSupportedException ex) {
+                networkTimeout = 0;
+            }
+            return new ConnectionState(connection.getAutoCommit(), connection.isReadOnly(),
+                    connection.getTransactionIsolation(), connection.getCatalog(), schema, connection.getHoldability(),
+                    typeMap, clientInfo, networkTimeout);
+        }
+
+        /**
+         * Restores the settings of a connection which is being returned, after any open transaction was rolled back.
+         * Only the settings the borrower changed are written, so an untouched connection costs no round trips.
+         * @param connection   The connection.
+         * @param isAutoCommit Whether the connection is currently in auto-commit mode.
+         * @param changed      The names of the setters the borrower called.
+         * @throws SQLException if a setting could not be restored.
+         * @since 1.0-SNAPSHOT
+         */
+        private void restore(final @NotNull Connection connection,
+                             final boolean isAutoCommit,
+                             final @NotNull Set<String> changed) throws SQLException {
+            if (changed.contains("setReadOnly")) {
+                connection.setReadOnly(this.isReadOnly);
+            }
+            if (changed.contains("setTransactionIsolation")) {
+                connection.setTransactionIsolation(this.transactionIsolation);
+            }
+            if (changed.contains("setCatalog") && this.catalog != null) {
+                connection.setCatalog(this.catalog);
+            }
+            if (changed.contains("setSchema") && this.schema != null) {
+                connection.setSchema(this.schema);
+            }
+            if (changed.contains("setHoldability")) {
+                connection.setHoldability(this.holdability);
+            }
+            if (changed.contains("setTypeMap") && this.typeMap != null) {
+                connection.setTypeMap(new HashMap<>(this.typeMap));
+            }
+            if (changed.contains("setClientInfo") && this.clientInfo != null) {
+                connection.setClientInfo((Properties) this.clientInfo.clone());
+            }
+            if (changed.contains("setNetworkTimeout")) {
+                connection.setNetworkTimeout(Thread::startVirtualThread, this.networkTimeout);
+            }
+            if (isAutoCommit != this.isAutoCommit) {
+                connection.setAutoCommit(this.isAutoCommit);
+            }
+        }
+    }
+
+    /**
+     * Handles calls to a borrowed connection, returning the connection to the pool instead of closing it.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final @NotNull Connection connection;
+        private final @NotNull AtomicBoolean returned = new AtomicBoolean();
+        private final @NotNull ConcurrentLinkedQueue<Statement> statements = new ConcurrentLinkedQueue<>();
+        private final @NotNull Set<String> changedSettings = ConcurrentHashMap.newKeySet();
+        private final @NotNull AtomicInteger opened = new AtomicInteger();
+
+        /**
+         * Creates a new handler for a borrowed connection.
+         * @param connection The borrowed connection.
+         * @since 1.0-SNAPSHOT
+         */
+        private PooledConnection(final @NotNull Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Handles a call to the borrowed connection.
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (this.returned.compareAndSet(false, true)) {
+                        PooledConnectionSupplier.this.giveBack(this);
+                    }
+                    return null;
+                }
+                case "createStatement", "prepareStatement", "prepareCall" -> {
+                    this.requireBorrowed();
+                    final @NotNull Statement statement = (Statement) this.call(method, args);
+                    this.track(statement);
+                    return Proxy.newProxyInstance(method.getReturnType().getClassLoader(),
+                            new Class<?>[]{method.getReturnType()}, new PooledStatement(statement, (Connection) proxy));
+                }
+                case "setReadOnly", "setTransactionIsolation", "setCatalog", "setSchema", "setHoldability", "setTypeMap",
+                     "setClientInfo", "setNetworkTimeout" -> {
+                    this.requireBorrowed();
+                    this.changedSettings.add(method.getName());
+                }
+                case "isClosed" -> {
+                    return this.returned.get() || this.connection.isClosed();
+                }
+                case "equals" -> {
+                    return args != null && proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + this.connection;
+                }
+                default -> this.requireBorrowed();
+            }
+            return this.call(method, args);
+        }
+
+        /**
+         * Calls a method on the borrowed connection.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        private @Nullable Object call(final @NotNull Method method,
+                                      final @Nullable Object @Nullable [] args) throws Throwable {
+            try {
+                return method.invoke(this.connection, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        /**
+         * Checks that the connection has not been returned to the pool.
+         * @throws SQLException if the connection has been returned.
+         * @since 1.0-SNAPSHOT
+         */
+        private void requireBorrowed() throws SQLException {
+            if (this.returned.get()) {
+                throw new SQLException("Connection has been returned to the pool.");
+            }
+        }
+
+        /**
+         * Tracks a statement opened by the borrower, so that it is closed when the connection is returned. Statements
+         * which the borrower has already closed are dropped periodically, so a long borrow does not retain them.
+         * @param statement The statement.
+         * @since 1.0-SNAPSHOT
+         */
+        private void track(final @NotNull Statement statement) {
+            this.statements.add(statement);
+            if (this.opened.incrementAndGet() % STATEMENT_PRUNE_INTERVAL == 0) {
+                this.statements.removeIf(tracked -> {
+                    try {
+                        return tracked.isClosed();
+                    } catch (final SQLException ex) {
+                        return false;
+                    }
+                });
+            }
+        }
+
+        /**
+         * Closes every statement opened by the borrower which is still open, which also closes their result sets.
+         * @throws SQLException if a statement could not be closed.
+         * @since 1.0-SNAPSHOT
+         */
+        private void closeStatements() throws SQLException {
+            @Nullable SQLException failure = null;
+            for (@Nullable Statement statement = this.statements.poll(); statement != null; statement = this.statements.poll()) {
+                try {
+                    statement.close();
+                } catch (final SQLException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    } else {
+                        failure.addSuppressed(ex);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Handles calls to a statement opened through a borrowed connection, so that the statement reports the borrowed
+     * connection rather than the pooled connection beneath it.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class PooledStatement implements InvocationHandler {
+        private final @NotNull Statement statement;
+        private final @NotNull Connection connection;
+
+        /**
+         * Creates a new handler for a statement opened through a borrowed connection.
+         * @param statement  The statement.
+         * @param connection The borrowed connection the statement was opened through.
+         * @since 1.0-SNAPSHOT
+         */
+        private PooledStatement(final @NotNull Statement statement,
+                                final @NotNull Connection connection) {
+            this.statement = statement;
+            this.connection = connection;
+        }
+
+        /**
+         * Handles a call to the statement.
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection" -> {
+                    return this.connection;
+                }
+                case "equals" -> {
+                    return args != null && proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + this.statement;
+                }
+                default -> { }
+            }
+            try {
+                return method.invoke(this.statement, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,671 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Decorates a {@link ConnectionSupplier} to time every statement executed on its connections.
+ * <p>
+ * Statements created by a supplied connection are wrapped in proxies which time each {@code execute} call and record
+ * the number of rows it affected, grouped by the statement's normalized SQL. Normalization strips comments, replaces
+ * string and numeric literals with {@code ?}, collapses {@code IN} lists and whitespace, so that statements which only
+ * differ in their values share their statistics. Statements which take longer than the slow query threshold are logged.
+ * <p>
+ * In detailed mode, latencies are also counted in histogram buckets, so that percentiles can be estimated, and result
+ * sets are wrapped so that the rows fetched by queries are counted. Otherwise, only the execution count, the error
+ * count, the total and maximum latency, and update counts are recorded, which costs two {@link System#nanoTime()} calls
+ * and a handful of uncontended {@link LongAdder} updates per execution.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class QueryTimingConnectionSupplier implements ConnectionSupplier {
+    /**
+     * The SQL under which batches of plain statements, whose SQL is not known, are recorded.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public static final @NotNull String BATCH_SQL = "<batch>";
+    /**
+     * The SQL under which statements are recorded once {@link #MAXIMUM_STATEMENTS} distinct statements are tracked.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public static final @NotNull String OTHER_SQL = "<other>";
+    /**
+     * The maximum number of distinct normalized statements tracked.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public static final int MAXIMUM_STATEMENTS = 1024;
+    private static final @NotNull Logger QUERY_LOGGER = Logger.getLogger(QueryTimingConnectionSupplier.class.getName());
+    private static final @NotNull Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private final @NotNull ConnectionSupplier delegate;
+    private final long slowQueryNanos;
+    private final boolean detailed;
+    private final @NotNull ConcurrentMap<String, QueryStatistics> statistics = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentMap<String, String> normalized = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@code QueryTimingConnectionSupplier}.
+     *
+     * @param delegate           The supplier which opens connections.
+     * @param slowQueryThreshold The execution time at or above which a statement is logged as slow.
+     * @param detailed           Whether to record latency histograms and count the rows fetched by queries.
+     * @throws IllegalArgumentException if {@code delegate} or {@code slowQueryThreshold} is {@code null}, or if
+     *                                  {@code slowQueryThreshold} is negative.
+     * @since 1.0-SNAPSHOT
+     */
+    public QueryTimingConnectionSupplier(final @NotNull ConnectionSupplier delegate,
+                                         final @NotNull Duration slowQueryThreshold,
+                                         final boolean detailed) {
+        Parameters.requireNonNull("delegate", delegate);
+        Parameters.requireNonNull("slowQueryThreshold", slowQueryThreshold);
+        if (slowQueryThreshold.isNegative()) {
+            throw new IllegalArgumentException("slowQueryThreshold must not be negative.");
+        }
+        this.delegate = delegate;
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+        this.detailed = detailed;
+    }
+
+    /**
+     * Opens a connection with the delegate supplier, and wraps it so that its statements are timed.
+     *
+     * @return The timed connection, or {@code null} if the delegate could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection get() {
+        return this.time(this.delegate.get());
+    }
+
+    /**
+     * Opens a read-only connection with the delegate supplier, and wraps it so that its statements are timed.
+     *
+     * @return The timed connection, or {@code null} if the delegate could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection getReadOnly() {
+        return this.time(this.delegate.getReadOnly());
+    }
+
+    /**
+     * Wraps a connection opened by the delegate supplier so that its statements are timed.
+     *
+     * @param connection The connection, or {@code null} if the delegate could not open a connection.
+     * @return The timed connection, or {@code null} if {@code connection} is {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection time(final @Nullable Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        final @NotNull TimedConnection handler = new TimedConnection(connection);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    /**
+     * Gets the metrics of the delegate supplier.
+     *
+     * @return The delegate's metrics, or {@code null} if it does not collect metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable ConnectionMetrics getMetrics() {
+        return this.delegate.getMetrics();
+    }
+
+    /**
+     * Takes a snapshot of the statistics of every tracked statement.
+     *
+     * @return The statistics, ordered by total execution time, longest first.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull @Unmodifiable List<StatementStatistics> snapshot() {
+        return this.statistics.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong((StatementStatistics stats) -> stats.latency().totalNanos()).reversed())
+                .toList();
+    }
+
+    /**
+     * Gets the statements with the slowest single execution.
+     *
+     * @param limit The maximum number of statements to return.
+     * @return The statistics of up to {@code limit} statements, ordered by their maximum execution time, longest first.
+     * @throws IllegalArgumentException if {@code limit} is negative.
+     * @since 1.0-SNAPSHOT
+     */
+    public @NotNull @Unmodifiable List<StatementStatistics> slowestStatements(final int limit) {
+        Parameters.requireInBounds("limit", limit, 0, Integer.MAX_VALUE);
+        return this.statistics.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> entry) -> entry.getValue().latency.max()).reversed())
+                .limit(limit)
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Discards the statistics of every statement.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public void reset() {
+        this.statistics.clear();
+    }
+
+    /**
+     * Normalizes a SQL string, so that statements which only differ in their literal values are grouped together.
+     *
+     * @param sql The SQL.
+     * @return The normalized SQL.
+     * @since 1.0-SNAPSHOT
+     */
+    static @NotNull String normalize(final @NotNull String sql) {
+        final int length = sql.length();
+        final @NotNull StringBuilder result = new StringBuilder(length);
+        boolean space = false;
+        for (int index = 0; index < length; ) {
+            final char c = sql.charAt(index);
+            if (c == '-' && index + 1 < length && sql.charAt(index + 1) == '-') {
+                while (index < length && sql.charAt(index) != '\n') {
+                    ++index;
+                }
+                space = true;
+            } else if (c == '/' && index + 1 < length && sql.charAt(index + 1) == '*') {
+                final int end = sql.indexOf("*/", index + 2);
+                index = end < 0 ? length : end + 2;
+                space = true;
+            } else if (Character.isWhitespace(c)) {
+                ++index;
+                space = true;
+            } else {
+                if (space && !result.isEmpty()) {
+                    result.append(' ');
+                }
+                space = false;
+                if (c == '\'') {
+                    for (++index; index < length; ++index) {
+                        if (sql.charAt(index) == '\'') {
+                            if (index + 1 < length && sql.charAt(index + 1) == '\'') {
+                                ++index;
+                            } else {
+                                break;
+                            }
+                        }
+                    }
+                    ++index;
+                    result.append('?');
+                } else if (c == '"' || c == '`') {
+                    final int end = sql.indexOf(c, index + 1);
+                    final int next = end < 0 ? length : end + 1;
+                    result.append(sql, index, next);
+                    index = next;
+                } else if (Character.isDigit(c) && (result.isEmpty() || !isIdentifierPart(result.charAt(result.length() - 1)))) {
+                    while (index < length && (Character.isLetterOrDigit(sql.charAt(index)) || sql.charAt(index) == '.')) {
+                        ++index;
+                    }
+                    result.append('?');
+                } else if (isIdentifierPart(c)) {
+                    final int start = index;
+                    while (index < length && isIdentifierPart(sql.charAt(index))) {
+                        ++index;
+                    }
+                    result.append(sql, start, index);
+                } else {
+                    result.append(c);
+                    ++index;
+                }
+            }
+        }
+        return result.indexOf("?") < 0 ? result.toString() : IN_LIST.matcher(result).replaceAll("(?)");
+    }
+
+    /**
+     * Checks whether a character may be part of an unquoted identifier.
+     *
+     * @param c The character.
+     * @return {@code true} if the character may be part of an identifier, otherwise {@code false}.
+     * @since 1.0-SNAPSHOT
+     */
+    private static boolean isIdentifierPart(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Gets the statistics key of a SQL string, normalizing it on first use.
+     *
+     * @param sql The SQL, or {@link #BATCH_SQL}.
+     * @return The normalized SQL.
+     * @since 1.0-SNAPSHOT
+     */
+    private @NotNull String keyFor(final @NotNull String sql) {
+        @Nullable String key = this.normalized.get(sql);
+        if (key == null) {
+            key = sql.equals(BATCH_SQL) ? BATCH_SQL : normalize(sql);
+            if (this.normalized.size() < MAXIMUM_STATEMENTS * 4) {
+                this.normalized.put(sql, key);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Gets the statistics for a statistics key.
+     *
+     * @param key The normalized SQL, as returned by {@link #keyFor(String)}.
+     * @return The statistics.
+     * @since 1.0-SNAPSHOT
+     */
+    private @NotNull QueryStatistics statisticsFor(final @NotNull String key) {
+        final @Nullable QueryStatistics existing = this.statistics.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return this.statistics.computeIfAbsent(
+                this.statistics.size() < MAXIMUM_STATEMENTS ? key : OTHER_SQL,
+                ignored -> new QueryStatistics());
+    }
+
+    /**
+     * Invokes a method on a delegate, unwrapping any exception it throws.
+     *
+     * @param target The delegate.
+     * @param method The method.
+     * @param args   The arguments.
+     * @return The result of the method.
+     * @throws Throwable if the method throws.
+     * @since 1.0-SNAPSHOT
+     */
+    private static @Nullable Object invokeOn(final @NotNull Object target,
+                                             final @NotNull Method method,
+                                             final @Nullable Object @Nullable [] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * The statistics of a normalized statement.
+     *
+     * @param sql        The normalized SQL.
+     * @param executions The number of executions, including failed ones.
+     * @param errors     The number of executions which threw.
+     * @param rows       The number of rows affected, plus the number of rows fetched in detailed mode.
+     * @param latency    The execution latency. Only holds bucket counts in detailed mode.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public record StatementStatistics(@NotNull String sql,
+                                      long executions,
+                                      long errors,
+                                      long rows,
+                                      @NotNull ConnectionMetrics.Latency latency) { }
+
+    /**
+     * The live statistics of a normalized statement.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class QueryStatistics {
+        private final @NotNull LatencyHistogram latency = new LatencyHistogram();
+        private final @NotNull LongAdder errors = new LongAdder();
+        private final @NotNull LongAdder rows = new LongAdder();
+
+        /**
+         * Copies the statistics.
+         *
+         * @param sql The normalized SQL.
+         * @return The copy.
+         * @since 1.0-SNAPSHOT
+         */
+        private @NotNull StatementStatistics snapshot(final @NotNull String sql) {
+            final @NotNull ConnectionMetrics.Latency latency = this.latency.snapshot();
+            return new StatementStatistics(sql, latency.count(), this.errors.sum(), this.rows.sum(), latency);
+        }
+    }
+
+    /**
+     * Handles calls to a timed connection, wrapping the statements it creates.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private final class TimedConnection implements InvocationHandler {
+        private final @NotNull Connection connection;
+        private @Nullable Connection proxy;
+
+        /**
+         * Creates a new handler for a connection.
+         *
+         * @param connection The connection.
+         * @since 1.0-SNAPSHOT
+         */
+        private TimedConnection(final @NotNull Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Handles a call to the connection.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            return switch (method.getName()) {
+                case "createStatement", "prepareStatement", "prepareCall" -> {
+                    final @Nullable Object statement = invokeOn(this.connection, method, args);
+                    if (statement == null) {
+                        yield null;
+                    }
+                    final @Nullable String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                    yield Proxy.newProxyInstance(method.getReturnType().getClassLoader(),
+                            new Class<?>[]{method.getReturnType()}, new TimedStatement(statement, sql, proxy));
+                }
+                case "equals" -> args != null && proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "Timed " + this.connection;
+                default -> invokeOn(this.connection, method, args);
+            };
+        }
+    }
+
+    /**
+     * Handles calls to a timed statement, recording every execution.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private final class TimedStatement implements InvocationHandler {
+        private final @NotNull Object statement;
+        private final @Nullable String preparedSql;
+        private final @NotNull Object connection;
+        private @Nullable QueryStatistics lastStats;
+        private @Nullable CountingResultSet results;
+        private @Nullable Object resultsProxy;
+
+        /**
+         * Creates a new handler for a statement.
+         *
+         * @param statement   The statement.
+         * @param preparedSql The SQL the statement was prepared with, or {@code null} for a plain statement.
+         * @param connection  The timed connection which created the statement.
+         * @since 1.0-SNAPSHOT
+         */
+        private TimedStatement(final @NotNull Object statement,
+                               final @Nullable String preparedSql,
+                               final @NotNull Object connection) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+        }
+
+        /**
+         * Handles a call to the statement.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            final @NotNull String name = method.getName();
+            if (name.startsWith("execute")) {
+                return this.execute(proxy, method, args);
+            }
+            return switch (name) {
+                case "getResultSet" -> {
+                    final @Nullable Object result = invokeOn(this.statement, method, args);
+                    yield result instanceof ResultSet resultSet && this.lastStats != null
+                            && QueryTimingConnectionSupplier.this.detailed
+                            ? this.wrap(proxy, resultSet, this.lastStats)
+                            : result;
+                }
+                case "getMoreResults", "close" -> {
+                    this.countResults();
+                    yield invokeOn(this.statement, method, args);
+                }
+                case "getConnection" -> this.connection;
+                case "equals" -> args != null && proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "Timed " + this.statement;
+                default -> invokeOn(this.statement, method, args);
+            };
+        }
+
+        /**
+         * Wraps a result set of the statement so the rows fetched from it are counted. A result set which is already
+         * wrapped is returned as the same proxy, so its rows are only counted once.
+         *
+         * @param proxy     The proxy of the statement.
+         * @param resultSet The result set.
+         * @param stats     The statistics of the execution which produced the result set.
+         * @return The wrapped result set.
+         * @since 1.0-SNAPSHOT
+         */
+        private @NotNull Object wrap(final @NotNull Object proxy,
+                                     final @NotNull ResultSet resultSet,
+                                     final @NotNull QueryStatistics stats) {
+            if (this.results != null && this.resultsProxy != null && this.results.resultSet == resultSet) {
+                return this.resultsProxy;
+            }
+            this.countResults();
+            this.results = new CountingResultSet(resultSet, stats, proxy);
+            this.resultsProxy = Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, this.results);
+            return this.resultsProxy;
+        }
+
+        /**
+         * Counts the rows fetched from the current result set, which the driver closes when the statement is closed,
+         * executed again or moved to its next result.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        private void countResults() {
+            if (this.results != null) {
+                this.results.count();
+                this.results = null;
+                this.resultsProxy = null;
+            }
+        }
+
+        /**
+         * Executes the statement and records the execution.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The {@code execute} method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        private @Nullable Object execute(final @NotNull Object proxy,
+                                         final @NotNull Method method,
+                                         final @Nullable Object @Nullable [] args) throws Throwable {
+            final @NotNull String sql = this.preparedSql != null
+                    ? this.preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : BATCH_SQL;
+            final @NotNull String key = QueryTimingConnectionSupplier.this.keyFor(sql);
+            final @NotNull QueryStatistics stats = QueryTimingConnectionSupplier.this.statisticsFor(key);
+            this.countResults();
+            this.lastStats = stats;
+            final long start = System.nanoTime();
+            final @Nullable Object result;
+            try {
+                result = invokeOn(this.statement, method, args);
+            } catch (final Throwable ex) {
+                stats.errors.increment();
+                this.record(stats, key, System.nanoTime() - start);
+                throw ex;
+            }
+            this.record(stats, key, System.nanoTime() - start);
+
+            switch (result) {
+                case Integer count when count > 0 -> stats.rows.add(count);
+                case Long count when count > 0L -> stats.rows.add(count);
+                case int[] counts -> {
+                    for (final int count : counts) {
+                        if (count > 0) {
+                            stats.rows.add(count);
+                        }
+                    }
+                }
+                case long[] counts -> {
+                    for (final long count : counts) {
+                        if (count > 0L) {
+                            stats.rows.add(count);
+                        }
+                    }
+                }
+                case ResultSet resultSet when QueryTimingConnectionSupplier.this.detailed -> {
+                    return this.wrap(proxy, resultSet, stats);
+                }
+                case null, default -> { }
+            }
+            return result;
+        }
+
+        /**
+         * Records an execution, and logs it if it was slow.
+         *
+         * @param stats   The statistics of the statement.
+         * @param key     The normalized SQL of the statement.
+         * @param elapsed The execution time, in nanoseconds.
+         * @since 1.0-SNAPSHOT
+         */
+        private void record(final @NotNull QueryStatistics stats,
+                            final @NotNull String key,
+                            final long elapsed) {
+            stats.latency.record(elapsed, QueryTimingConnectionSupplier.this.detailed);
+            if (elapsed >= QueryTimingConnectionSupplier.this.slowQueryNanos) {
+                QUERY_LOGGER.log(Level.WARNING, "Slow statement took {0} ms: {1}",
+                        new Object[]{TimeUnit.NANOSECONDS.toMillis(elapsed), key});
+            }
+        }
+    }
+
+    /**
+     * Handles calls to a result set, counting the rows fetched from it.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class CountingResultSet implements InvocationHandler {
+        private final @NotNull ResultSet resultSet;
+        private final @NotNull QueryStatistics stats;
+        private final @NotNull Object statement;
+        private long rows;
+        private boolean counted;
+
+        /**
+         * Creates a new handler for a result set.
+         *
+         * @param resultSet The result set.
+         * @param stats     The statistics of the query which produced the result set.
+         * @param statement The timed statement which produced the result set.
+         * @since 1.0-SNAPSHOT
+         */
+        private CountingResultSet(final @NotNull ResultSet resultSet,
+                                  final @NotNull QueryStatistics stats,
+                                  final @NotNull Object statement) {
+            this.resultSet = resultSet;
+            this.stats = stats;
+            this.statement = statement;
+        }
+
+        /**
+         * Handles a call to the result set.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    final boolean hasRow = this.resultSet.next();
+                    if (hasRow) {
+                        ++this.rows;
+                    } else {
+                        this.count();
+                    }
+                    return hasRow;
+                }
+                case "close" -> this.count();
+                case "getStatement" -> {
+                    return this.statement;
+                }
+                case "equals" -> {
+                    return args != null && proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Counting " + this.resultSet;
+                }
+                default -> { }
+            }
+            return invokeOn(this.resultSet, method, args);
+        }
+
+        /**
+         * Adds the rows fetched so far to the statistics, once. Called when the result set is exhausted or closed, or
+         * when its statement is closed.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        private void count() {
+            if (!this.counted) {
+                this.counted = true;
+                this.stats.rows.add(this.rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Routes read-only borrows to replicas of a data source, and every other borrow to the primary.
+ * <p>
+ * {@link #get()} always opens a connection to the primary, so writes and transactions are never routed to a replica.
+ * {@link #getReadOnly()} opens a connection to a replica chosen by the routing strategy. A replica which fails to open
+ * a connection is taken out of rotation for the retry interval, and the next replica is tried instead; when no replica
+ * is available, the read is sent to the primary. A replica which collects {@link ConnectionMetrics metrics}, such as a
+ * pool, is only taken out of rotation when it fails to connect; a borrow which times out because the replica's pool is
+ * saturated just moves on to the next replica.
+ * <p>
+ * Each replica is usually a {@link PooledConnectionSupplier} over its own host. Outstanding borrows are counted per
+ * replica through a proxy which is released when the connection is closed. The {@link CircuitBreakingConnectionSupplier},
+ * {@link LeakDetectingConnectionSupplier}, {@link QueryTimingConnectionSupplier} and
+ * {@link StatementCachingConnectionSupplier} decorators forward {@link ConnectionSupplier#getReadOnly()} to their
+ * delegate, so they may be placed around the router as well as around each node. A {@link PooledConnectionSupplier}
+ * around the router lends the same connections for reads and writes, so it belongs around each node instead.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class ReplicaRoutingConnectionSupplier implements ConnectionSupplier {
+    private static final @NotNull Logger ROUTING_LOGGER = Logger.getLogger(ReplicaRoutingConnectionSupplier.class.getName());
+    private final @NotNull ConnectionSupplier primary;
+    private final @NotNull List<Replica> replicas;
+    private final @NotNull Strategy strategy;
+    private final @NotNull AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long retryIntervalNanos = Duration.ofSeconds(30L).toNanos();
+
+    /**
+     * Creates a new {@code ReplicaRoutingConnectionSupplier}.
+     *
+     * @param primary  The supplier which opens connections to the primary.
+     * @param replicas The suppliers which open connections to each replica.
+     * @param strategy How read-only borrows are balanced between the replicas.
+     * @throws IllegalArgumentException if any parameter is {@code null}, or if {@code replicas} contains {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    public ReplicaRoutingConnectionSupplier(final @NotNull ConnectionSupplier primary,
+                                            final @NotNull List<? extends ConnectionSupplier> replicas,
+                                            final @NotNull Strategy strategy) {
+        Parameters.requireNonNull("primary", primary);
+        Parameters.requireNonNull("replicas", replicas);
+        Parameters.requireNonNull("strategy", strategy);
+        for (final @Nullable ConnectionSupplier replica : replicas) {
+            Parameters.requireNonNull("replicas", replica);
+        }
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets how long a replica stays out of rotation after it fails to open a connection.
+     *
+     * @param retryInterval The retry interval.
+     * @return The mutated {@code ReplicaRoutingConnectionSupplier}.
+     * @throws IllegalArgumentException if {@code retryInterval} is {@code null} or negative.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull ReplicaRoutingConnectionSupplier setRetryInterval(final @NotNull Duration retryInterval) {
+        Parameters.requireNonNull("retryInterval", retryInterval);
+        if (retryInterval.isNegative()) {
+            throw new IllegalArgumentException("retryInterval must not be negative.");
+        }
+        this.retryIntervalNanos = retryInterval.toNanos();
+        return this;
+    }
+
+    /**
+     * Opens a connection to the primary.
+     *
+     * @return The connection, or {@code null} if the primary could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection get() {
+        return this.primary.get();
+    }
+
+    /**
+     * Opens a connection to a replica in rotation, or to the primary if no replica could open a connection.
+     *
+     * @return The connection, or {@code null} if neither a replica nor the primary could open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection getReadOnly() {
+        final int count = this.replicas.size();
+        final int start = count == 0 ? 0 : Math.floorMod(this.nextReplica.getAndIncrement(), count);
+        final boolean[] tried = new boolean[count];
+        for (int attempt = 0; attempt < count; ++attempt) {
+            final int index = this.choose(start, tried);
+            if (index < 0) {
+                break;
+            }
+            tried[index] = true;
+            final @Nullable Connection connection = this.borrow(this.replicas.get(index));
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return this.primary.get();
+    }
+
+    /**
+     * Gets the metrics of the primary.
+     *
+     * @return The primary's metrics, or {@code null} if it does not collect metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable ConnectionMetrics getMetrics() {
+        return this.primary.getMetrics();
+    }
+
+    /**
+     * Gets the number of replicas which are currently in rotation.
+     *
+     * @return The number of healthy replicas.
+     * @since 1.0-SNAPSHOT
+     */
+    public int getHealthyReplicas() {
+        final long now = System.nanoTime();
+        int healthy = 0;
+        for (final @NotNull Replica replica : this.replicas) {
+            if (replica.isHealthy(now)) {
+                ++healthy;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Gets the number of connections borrowed from a replica which have not yet been closed.
+     *
+     * @param replica The index of the replica, in the order the replicas were given.
+     * @return The number of outstanding borrows.
+     * @throws IllegalArgumentException if {@code replica} is out of range.
+     * @since 1.0-SNAPSHOT
+     */
+    public int getOutstandingBorrows(final int replica) {
+        Parameters.requireInBounds("replica", replica, 0, this.replicas.size() - 1);
+        return this.replicas.get(replica).outstanding.get();
+    }
+
+    /**
+     * Chooses the next replica to try.
+     *
+     * @param start The index at which a round-robin scan starts, which also breaks ties between replicas.
+     * @param tried The replicas which have already been tried for this borrow.
+     * @return The index of the replica, or {@code -1} if no untried replica is in rotation.
+     * @since 1.0-SNAPSHOT
+     */
+    private int choose(final int start, final boolean @NotNull [] tried) {
+        final long now = System.nanoTime();
+        final int count = this.replicas.size();
+        int chosen = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int offset = 0; offset < count; ++offset) {
+            final int index = (start + offset) % count;
+            final @NotNull Replica replica = this.replicas.get(index);
+            if (tried[index] || !replica.isHealthy(now)) {
+                continue;
+            }
+            if (this.strategy == Strategy.ROUND_ROBIN) {
+                return index;
+            }
+            final int outstanding = replica.outstanding.get();
+            if (outstanding < fewest) {
+                chosen = index;
+                fewest = outstanding;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Borrows a connection from a replica, taking the replica out of rotation if it fails.
+     * <p>
+     * A replica fails if it throws, or if it returns {@code null} and either does not collect metrics or counted a
+     * failed connect during the borrow. A replica which returns {@code null} without a failed connect, such as a pool
+     * whose borrow timed out, stays in rotation.
+     *
+     * @param replica The replica.
+     * @return The tracked connection, or {@code null} if the replica could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection borrow(final @NotNull Replica replica) {
+        final @Nullable ConnectionMetrics metrics = replica.supplier.getMetrics();
+        final long connectFailures = metrics == null ? 0L : metrics.getConnectFailureCount();
+        replica.outstanding.incrementAndGet();
+        @Nullable Connection connection = null;
+        boolean threw = false;
+        try {
+            connection = replica.supplier.get();
+        } catch (final RuntimeException ex) {
+            threw = true;
+            ROUTING_LOGGER.log(Level.FINE, "Replica threw while opening a connection.", ex);
+        } finally {
+            if (connection == null) {
+                replica.outstanding.decrementAndGet();
+            }
+        }
+        if (connection == null) {
+            if (!threw && metrics != null && metrics.getConnectFailureCount() == connectFailures) {
+                ROUTING_LOGGER.log(Level.FINE, "Replica had no connection available; trying the next replica.");
+                return null;
+            }
+            replica.unhealthyUntil = System.nanoTime() + this.retryIntervalNanos;
+            replica.isUnhealthy = true;
+            ROUTING_LOGGER.log(Level.WARNING, "Replica could not open a connection; taking it out of rotation for {0} ms.",
+                    this.retryIntervalNanos / 1_000_000L);
+            return null;
+        }
+        replica.isUnhealthy = false;
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ReplicaConnection(connection, replica));
+    }
+
+    /**
+     * How read-only borrows are balanced between replicas.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public enum Strategy {
+        /**
+         * Each borrow goes to the next replica in turn.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        ROUND_ROBIN,
+        /**
+         * Each borrow goes to the replica with the fewest connections which have not yet been closed.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        LEAST_OUTSTANDING
+    }
+
+    /**
+     * A replica and its routing state.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class Replica {
+        private final @NotNull ConnectionSupplier supplier;
+        private final @NotNull AtomicInteger outstanding = new AtomicInteger();
+        private volatile long unhealthyUntil;
+        private volatile boolean isUnhealthy;
+
+        /**
+         * Creates the routing state of a replica.
+         *
+         * @param supplier The supplier which opens connections to the replica.
+         * @since 1.0-SNAPSHOT
+         */
+        private Replica(final @NotNull ConnectionSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        /**
+         * Checks whether the replica is in rotation.
+         *
+         * @param now The current {@link System#nanoTime()}.
+         * @return {@code true} if the replica has not failed, or its retry interval has elapsed.
+         * @since 1.0-SNAPSHOT
+         */
+        private boolean isHealthy(final long now) {
+            return !this.isUnhealthy || now - this.unhealthyUntil >= 0L;
+        }
+    }
+
+    /**
+     * Handles calls to a connection borrowed from a replica, releasing the borrow when it is closed.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class ReplicaConnection implements InvocationHandler {
+        private final @NotNull Connection connection;
+        private final @NotNull Replica replica;
+        private final @NotNull AtomicBoolean isReleased = new AtomicBoolean();
+
+        /**
+         * Creates a new handler for a replica connection.
+         *
+         * @param connection The connection.
+         * @param replica    The replica the connection was borrowed from.
+         * @since 1.0-SNAPSHOT
+         */
+        private ReplicaConnection(final @NotNull Connection connection,
+                                  final @NotNull Replica replica) {
+            this.connection = connection;
+            this.replica = replica;
+        }
+
+        /**
+         * Handles a call to the connection.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (this.isReleased.compareAndSet(false, true)) {
+                        this.replica.outstanding.decrementAndGet();
+                    }
+                }
+                case "equals" -> {
+                    return args != null && proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Replica " + this.connection;
+                }
+                default -> { }
+            }
+            try {
+                return method.invoke(this.connection, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decorates a {@link ConnectionSupplier} so that its connections cache the statements prepared on them.
+ * <p>
+ * Calling {@link Connection#prepareStatement(String)} on a supplied connection reuses the statement previously prepared
+ * for the same SQL, provided it is not still in use. Calling {@link PreparedStatement#close()} closes the result sets
+ * the borrower opened, clears the statement's parameters and batch, restores its maximum rows, query timeout, fetch
+ * size, fetch direction and escape processing to their values when it was prepared, and returns it to the cache
+ * instead of closing it. Each connection caches at most
+ * {@code maximumStatements} statements; the least recently used idle statement is closed when the limit is exceeded.
+ * Statements registered with {@link #register(String...)} are prepared as soon as a connection is opened. Closing the
+ * connection closes every cached statement.
+ * <p>
+ * To keep cached statements across borrows, place this supplier beneath a {@link PooledConnectionSupplier}, so that
+ * the pool lends out the same caching connection each time.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class StatementCachingConnectionSupplier implements ConnectionSupplier {
+    private static final @NotNull Logger CACHE_LOGGER = Logger.getLogger(StatementCachingConnectionSupplier.class.getName());
+    private final @NotNull ConnectionSupplier delegate;
+    private final int maximumStatements;
+    private final @NotNull CopyOnWriteArrayList<String> registered = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new {@code StatementCachingConnectionSupplier}.
+     *
+     * @param delegate          The supplier which opens new connections.
+     * @param maximumStatements The maximum number of statements cached per connection.
+     * @throws IllegalArgumentException if {@code delegate} is {@code null} or {@code maximumStatements} is less than 1.
+     * @since 1.0-SNAPSHOT
+     */
+    public StatementCachingConnectionSupplier(final @NotNull ConnectionSupplier delegate,
+                                              final int maximumStatements) {
+        Parameters.requireNonNull("delegate", delegate);
+        Parameters.requireInBounds("maximumStatements", maximumStatements, 1, Integer.MAX_VALUE);
+        this.delegate = delegate;
+        this.maximumStatements = maximumStatements;
+    }
+
+    /**
+     * Registers statements which are prepared as soon as each new connection is opened.
+     *
+     * @param sql The SQL of the statements.
+     * @return The mutated {@code StatementCachingConnectionSupplier}.
+     * @throws IllegalArgumentException if {@code sql} is {@code null} or contains {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public @NotNull StatementCachingConnectionSupplier register(final @NotNull String @NotNull ... sql) {
+        Parameters.requireAllNonNull("sql", sql);
+        for (final @NotNull String statement : sql) {
+            this.registered.addIfAbsent(statement);
+        }
+        return this;
+    }
+
+    /**
+     * Opens a connection with the delegate supplier, and prepares every registered statement on it.
+     *
+     * @return The caching connection, or {@code null} if the delegate could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection get() {
+        return this.cache(this.delegate.get());
+    }
+
+    /**
+     * Opens a read-only connection with the delegate supplier, and prepares every registered statement on it.
+     *
+     * @return The caching connection, or {@code null} if the delegate could not open a connection.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Connection getReadOnly() {
+        return this.cache(this.delegate.getReadOnly());
+    }
+
+    /**
+     * Gets the metrics of the delegate supplier.
+     *
+     * @return The delegate's metrics, or {@code null} if it does not collect metrics.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable ConnectionMetrics getMetrics() {
+        return this.delegate.getMetrics();
+    }
+
+    /**
+     * Wraps a connection opened by the delegate supplier so that it caches its statements, and prepares every
+     * registered statement on it.
+     *
+     * @param connection The connection, or {@code null} if the delegate could not open a connection.
+     * @return The caching connection, or {@code null} if {@code connection} is {@code null}.
+     * @since 1.0-SNAPSHOT
+     */
+    private @Nullable Connection cache(final @Nullable Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+
+        final @NotNull CachingConnection handler = new CachingConnection(connection, this.maximumStatements);
+        final @NotNull Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        handler.proxy = proxy;
+        for (final @NotNull String sql : this.registered) {
+            try {
+                proxy.prepareStatement(sql).close();
+            } catch (final SQLException ex) {
+                CACHE_LOGGER.log(Level.WARNING, String.format("Failed to prepare registered statement \"%s\".", sql), ex);
+            }
+        }
+        return proxy;
+    }
+
+    /**
+     * Invokes a method on a delegate, unwrapping any exception it throws.
+     *
+     * @param target The delegate.
+     * @param method The method.
+     * @param args   The arguments.
+     * @return The result of the method.
+     * @throws Throwable if the method throws.
+     * @since 1.0-SNAPSHOT
+     */
+    private static @Nullable Object invokeOn(final @NotNull Object target,
+                                             final @NotNull Method method,
+                                             final @Nullable Object @Nullable [] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Closes a statement, logging any failure.
+     *
+     * @param statement The statement.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void closeQuietly(final @NotNull PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (final SQLException ex) {
+            CACHE_LOGGER.log(Level.FINE, "Failed to close a cached statement.", ex);
+        }
+    }
+
+    /**
+     * Handles calls to a caching connection.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class CachingConnection implements InvocationHandler {
+        private final @NotNull Connection connection;
+        private final int maximumStatements;
+        private final @NotNull ReentrantLock cacheLock = new ReentrantLock();
+        private final @NotNull LinkedHashMap<String, CachedStatement> cache = new LinkedHashMap<>(16, 0.75f, true);
+        private @Nullable Connection proxy;
+        private boolean isClosed;
+
+        /**
+         * Creates a new handler for a connection.
+         *
+         * @param connection        The connection.
+         * @param maximumStatements The maximum number of statements to cache.
+         * @since 1.0-SNAPSHOT
+         */
+        private CachingConnection(final @NotNull Connection connection,
+                                  final int maximumStatements) {
+            this.connection = connection;
+            this.maximumStatements = maximumStatements;
+        }
+
+        /**
+         * Handles a call to the connection.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            return switch (method.getName()) {
+                case "prepareStatement" -> args != null && args.length == 1
+                        ? this.prepare((String) args[0])
+                        : invokeOn(this.connection, method, args);
+                case "close" -> {
+                    this.close();
+                    yield null;
+                }
+                case "equals" -> args != null && proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "Statement caching " + this.connection;
+                default -> invokeOn(this.connection, method, args);
+            };
+        }
+
+        /**
+         * Takes the cached statement for a SQL string, or prepares a new one.
+         *
+         * @param sql The SQL.
+         * @return The statement.
+         * @throws SQLException if the statement could not be prepared.
+         * @since 1.0-SNAPSHOT
+         */
+        private @NotNull PreparedStatement prepare(final @NotNull String sql) throws SQLException {
+            this.cacheLock.lock();
+            try {
+                if (this.isClosed) throw new SQLException("Connection is closed.");
+                final @Nullable CachedStatement cached = this.cache.get(sql);
+                if (cached != null && !cached.inUse) {
+                    cached.inUse = true;
+                    return cached.lend();
+                }
+            } finally {
+                this.cacheLock.unlock();
+            }
+
+            final @NotNull PreparedStatement statement = this.connection.prepareStatement(sql);
+            final @NotNull StatementSettings settings;
+            try {
+                settings = StatementSettings.capture(statement);
+            } catch (final SQLException ex) {
+                closeQuietly(statement);
+                throw ex;
+            }
+            final @NotNull CachedStatement created = new CachedStatement(this, sql, statement, settings);
+            final @NotNull List<PreparedStatement> evicted = new ArrayList<>();
+            this.cacheLock.lock();
+            try {
+                if (this.isClosed || this.cache.containsKey(sql)) {
+                    // Another caller is using the cached statement; this one is closed when it is returned.
+                    created.evicted = true;
+                } else {
+                    this.cache.put(sql, created);
+                    this.evict(evicted);
+                }
+                created.inUse = true;
+            } finally {
+                this.cacheLock.unlock();
+            }
+            evicted.forEach(StatementCachingConnectionSupplier::closeQuietly);
+            return created.lend();
+        }
+
+        /**
+         * Removes the least recently used idle statements until the cache fits its limit. Must be called with the cache
+         * lock held.
+         *
+         * @param evicted The list to add removed statements to, which should be closed once the lock is released.
+         * @since 1.0-SNAPSHOT
+         */
+        private void evict(final @NotNull List<PreparedStatement> evicted) {
+            final @NotNull Iterator<CachedStatement> iterator = this.cache.values().iterator();
+            while (this.cache.size() > this.maximumStatements && iterator.hasNext()) {
+                final @NotNull CachedStatement cached = iterator.next();
+                iterator.remove();
+                cached.evicted = true;
+                if (!cached.inUse) {
+                    evicted.add(cached.statement);
+                }
+            }
+        }
+
+        /**
+         * Returns a statement to the cache, or closes it if it has been evicted or could not be reset.
+         *
+         * @param cached The statement.
+         * @param lent   The handler the statement was lent through.
+         * @since 1.0-SNAPSHOT
+         */
+        private void giveBack(final @NotNull CachedStatement cached,
+                              final @NotNull LentStatement lent) {
+            boolean close;
+            try {
+                for (final @NotNull ResultSet resultSet : lent.resultSets) {
+                    resultSet.close();
+                }
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+                cached.settings.restore(cached.statement, lent.changedSettings);
+                close = false;
+            } catch (final SQLException ex) {
+                close = true;
+            }
+            this.cacheLock.lock();
+            try {
+                cached.inUse = false;
+                if (close && !cached.evicted) {
+                    this.cache.remove(cached.sql);
+                    cached.evicted = true;
+                }
+                close |= cached.evicted;
+            } finally {
+                this.cacheLock.unlock();
+            }
+            if (close) {
+                closeQuietly(cached.statement);
+            }
+        }
+
+        /**
+         * Closes every cached statement, then the connection.
+         *
+         * @throws SQLException if the connection could not be closed.
+         * @since 1.0-SNAPSHOT
+         */
+        private void close() throws SQLException {
+            final @NotNull List<PreparedStatement> statements = new ArrayList<>();
+            this.cacheLock.lock();
+            try {
+                if (this.isClosed) {
+                    return;
+                }
+                this.isClosed = true;
+                for (final @NotNull CachedStatement cached : this.cache.values()) {
+                    cached.evicted = true;
+                    statements.add(cached.statement);
+                }
+                this.cache.clear();
+            } finally {
+                this.cacheLock.unlock();
+            }
+            statements.forEach(StatementCachingConnectionSupplier::closeQuietly);
+            this.connection.close();
+        }
+    }
+
+    /**
+     * A cached statement and its state. The state is guarded by the owning connection's cache lock.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class CachedStatement {
+        private final @NotNull CachingConnection owner;
+        private final @NotNull String sql;
+        private final @NotNull PreparedStatement statement;
+        private final @NotNull StatementSettings settings;
+        private boolean inUse;
+        private boolean evicted;
+
+        /**
+         * Creates a new cached statement.
+         *
+         * @param owner     The connection which owns the statement.
+         * @param sql       The SQL the statement was prepared with.
+         * @param statement The statement.
+         * @param settings  The settings of the statement when it was prepared.
+         * @since 1.0-SNAPSHOT
+         */
+        private CachedStatement(final @NotNull CachingConnection owner,
+                                final @NotNull String sql,
+                                final @NotNull PreparedStatement statement,
+                                final @NotNull StatementSettings settings) {
+            this.owner = owner;
+            this.sql = sql;
+            this.statement = statement;
+            this.settings = settings;
+        }
+
+        /**
+         * Creates a proxy which lends out the statement until the proxy is closed.
+         *
+         * @return The proxy.
+         * @since 1.0-SNAPSHOT
+         */
+        private @NotNull PreparedStatement lend() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new LentStatement(this));
+        }
+    }
+
+    /**
+     * The settings of a statement when it was prepared, which are restored when it is returned to the cache.
+     *
+     * @param maxRows        The maximum number of rows.
+     * @param queryTimeout   The query timeout, in seconds.
+     * @param fetchSize      The fetch size.
+     * @param fetchDirection The fetch direction.
+     * @since 1.0-SNAPSHOT
+     */
+    private record StatementSettings(int maxRows, int queryTimeout, int fetchSize, int fetchDirection) {
+        /**
+         * Reads the settings of a newly prepared statement.
+         *
+         * @param statement The statement.
+         * @return The settings.
+         * @throws SQLException if the settings could not be read.
+         * @since 1.0-SNAPSHOT
+         */
+        private static @NotNull StatementSettings capture(final @NotNull PreparedStatement statement) throws SQLException {
+            return new StatementSettings(statement.getMaxRows(), statement.getQueryTimeout(), statement.getFetchSize(),
+                    statement.getFetchDirection());
+        }
+
+        /**
+         * Restores the settings a borrower changed. Escape processing has no getter, so it is restored to its default,
+         * which is enabled.
+         *
+         * @param statement The statement.
+         * @param changed   The names of the setters the borrower called.
+         * @throws SQLException if a setting could not be restored.
+         * @since 1.0-SNAPSHOT
+         */
+        private void restore(final @NotNull PreparedStatement statement,
+                             final @NotNull Set<String> changed) throws SQLException {
+            if (changed.isEmpty()) {
+                return;
+            }
+            if (changed.contains("setMaxRows") || changed.contains("setLargeMaxRows")) {
+                statement.setMaxRows(this.maxRows);
+            }
+            if (changed.contains("setQueryTimeout")) {
+                statement.setQueryTimeout(this.queryTimeout);
+            }
+            if (changed.contains("setFetchSize")) {
+                statement.setFetchSize(this.fetchSize);
+            }
+            if (changed.contains("setFetchDirection")) {
+                statement.setFetchDirection(this.fetchDirection);
+            }
+            if (changed.contains("setEscapeProcessing")) {
+                statement.setEscapeProcessing(true);
+            }
+        }
+    }
+
+    /**
+     * Handles calls to a lent statement, returning the statement to the cache instead of closing it.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    private static final class LentStatement implements InvocationHandler {
+        private final @NotNull CachedStatement cached;
+        private final @NotNull Set<String> changedSettings = new HashSet<>();
+        private final @NotNull List<ResultSet> resultSets = new ArrayList<>();
+        private boolean returned;
+
+        /**
+         * Creates a new handler for a lent statement.
+         *
+         * @param cached The statement.
+         * @since 1.0-SNAPSHOT
+         */
+        private LentStatement(final @NotNull CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        /**
+         * Handles a call to the statement.
+         *
+         * @param proxy  The proxy the method was called on.
+         * @param method The method.
+         * @param args   The arguments.
+         * @return The result of the method.
+         * @throws Throwable if the method throws.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Object invoke(final @NotNull Object proxy,
+                                       final @NotNull Method method,
+                                       final @Nullable Object @Nullable [] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!this.returned) {
+                        this.returned = true;
+                        this.cached.owner.giveBack(this.cached, this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return this.returned || this.cached.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return this.cached.owner.proxy;
+                }
+                case "equals" -> {
+                    return args != null && proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached " + this.cached.statement;
+                }
+                case "setMaxRows", "setLargeMaxRows", "setQueryTimeout", "setFetchSize", "setFetchDirection",
+                     "setEscapeProcessing" -> {
+                    this.requireLent();
+                    this.changedSettings.add(method.getName());
+                }
+                default -> this.requireLent();
+            }
+            final @Nullable Object result = invokeOn(this.cached.statement, method, args);
+            if (result instanceof ResultSet resultSet) {
+                this.resultSets.add(resultSet);
+            }
+            return result;
+        }
+
+        /**
+         * Checks that the statement has not been returned to the cache.
+         *
+         * @throws SQLException if the statement has been returned.
+         * @since 1.0-SNAPSHOT
+         */
+        private void requireLent() throws SQLException {
+            if (this.returned) {
+                throw new SQLException("Statement has been returned to the cache.");
+            }
+        }
+    }
+}
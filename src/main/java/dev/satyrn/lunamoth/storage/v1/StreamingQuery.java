@@ -0,0 +1,370 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import dev.satyrn.lunamoth.util.function.v1.ParametricSupplier;
+import dev.satyrn.lunamoth.util.v1.Parameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs queries whose rows are fetched and mapped lazily, so that large result sets can be scanned in constant memory.
+ * <p>
+ * Each query borrows a {@linkplain ConnectionSupplier#getReadOnly() read-only} connection from the supplier, and
+ * prepares a forward-only, read-only statement with the configured fetch size, so that the driver only holds a window of
+ * rows at a time. Auto-commit is disabled while the rows are read, since some drivers ignore the fetch size otherwise,
+ * and restored when the query is closed. The rows are mapped one at a time as they are consumed through a
+ * {@link RowIterator} or a {@link Stream}.
+ * <p>
+ * The connection, statement and result set are released as soon as the last row has been read, or when the iterator or
+ * stream is closed. A caller which may stop before the last row must close it, preferably with try-with-resources.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class StreamingQuery {
+    /**
+     * The fetch size which makes MySQL Connector/J stream rows one at a time, rather than reading the whole result set
+     * into memory, when the connection does not use server-side cursors.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public static final int ROW_BY_ROW = Integer.MIN_VALUE;
+    private final @NotNull ConnectionSupplier supplier;
+    private final int fetchSize;
+
+    /**
+     * Creates a new {@code StreamingQuery}.
+     *
+     * @param supplier  The supplier which provides a connection for each query.
+     * @param fetchSize The number of rows the driver fetches at a time, {@code 0} to use the driver's default, or
+     *                  {@link #ROW_BY_ROW}.
+     * @throws IllegalArgumentException if {@code supplier} is {@code null}, or {@code fetchSize} is negative and not
+     *                                  {@link #ROW_BY_ROW}.
+     * @since 1.0-SNAPSHOT
+     */
+    public StreamingQuery(final @NotNull ConnectionSupplier supplier, final int fetchSize) {
+        Parameters.requireNonNull("supplier", supplier);
+        if (fetchSize != ROW_BY_ROW) {
+            Parameters.requireInBounds("fetchSize", fetchSize, 0, Integer.MAX_VALUE);
+        }
+        this.supplier = supplier;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Runs a query, and iterates over its rows as they are fetched.
+     *
+     * @param sql        The SQL of the query.
+     * @param mapper     The function which maps the current row of the result set to a value.
+     * @param parameters The values of the query's parameters.
+     * @param <T>        The type of the mapped values.
+     * @return An iterator over the mapped rows, which must be closed unless it is exhausted.
+     * @throws IllegalArgumentException if {@code sql}, {@code mapper} or {@code parameters} is {@code null}.
+     * @throws SQLException             if no connection could be opened, or the query could not be run.
+     * @since 1.0-SNAPSHOT
+     */
+    public <T> @NotNull RowIterator<T> iterator(final @NotNull String sql,
+                                                final @NotNull RowMapper<? extends T> mapper,
+                                                final @Nullable Object @NotNull ... parameters) throws SQLException {
+        Parameters.requireNonNull("sql", sql);
+        Parameters.requireNonNull("mapper", mapper);
+        Parameters.requireNonNull("parameters", parameters);
+
+        final @Nullable Connection connection = this.supplier.getReadOnly();
+        if (connection == null) {
+            throw new SQLException("Could not open a connection to run the query.");
+        }
+        boolean restoreAutoCommit = false;
+        @Nullable PreparedStatement statement = null;
+        try {
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(this.fetchSize);
+            for (int index = 0; index < parameters.length; ++index) {
+                statement.setObject(index + 1, parameters[index]);
+            }
+            final @NotNull ResultSet resultSet = statement.executeQuery();
+            return new RowIterator<>(connection, restoreAutoCommit, statement, resultSet, mapper);
+        } catch (final SQLException | RuntimeException ex) {
+            try {
+                release(connection, restoreAutoCommit, statement, null);
+            } catch (final SQLException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Runs a query, and streams its rows as they are fetched.
+     * <p>
+     * A {@link SQLException} thrown while the stream is consumed or closed is wrapped in an
+     * {@link UncheckedSQLException}.
+     *
+     * @param sql        The SQL of the query.
+     * @param mapper     The function which maps the current row of the result set to a value.
+     * @param parameters The values of the query's parameters.
+     * @param <T>        The type of the mapped values.
+     * @return A sequential stream of the mapped rows, which must be closed unless it is fully consumed.
+     * @throws IllegalArgumentException if {@code sql}, {@code mapper} or {@code parameters} is {@code null}.
+     * @throws SQLException             if no connection could be opened, or the query could not be run.
+     * @since 1.0-SNAPSHOT
+     */
+    public <T> @NotNull Stream<T> stream(final @NotNull String sql,
+                                         final @NotNull RowMapper<? extends T> mapper,
+                                         final @Nullable Object @NotNull ... parameters) throws SQLException {
+        final @NotNull RowIterator<T> iterator = this.iterator(sql, mapper, parameters);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        iterator.close();
+                    } catch (final SQLException ex) {
+                        throw new UncheckedSQLException(ex);
+                    }
+                });
+    }
+
+    /**
+     * Closes the resources of a query, in reverse order of acquisition.
+     *
+     * @param connection        The connection.
+     * @param restoreAutoCommit Whether auto-commit was disabled for the query.
+     * @param statement         The statement, or {@code null} if it was not prepared.
+     * @param resultSet         The result set, or {@code null} if the query was not run.
+     * @throws SQLException if any resource could not be closed. Every resource is closed regardless.
+     * @since 1.0-SNAPSHOT
+     */
+    private static void release(final @NotNull Connection connection,
+                                final boolean restoreAutoCommit,
+                                final @Nullable PreparedStatement statement,
+                                final @Nullable ResultSet resultSet) throws SQLException {
+        @Nullable SQLException failure = null;
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+        } catch (final SQLException ex) {
+            failure = ex;
+        }
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } catch (final SQLException ex) {
+            failure = suppress(failure, ex);
+        }
+        try {
+            if (restoreAutoCommit) {
+                connection.setAutoCommit(true);
+            }
+        } catch (final SQLException ex) {
+            failure = suppress(failure, ex);
+        }
+        try {
+            connection.close();
+        } catch (final SQLException ex) {
+            failure = suppress(failure, ex);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Combines two failures.
+     *
+     * @param failure The first failure, or {@code null} if there was none.
+     * @param ex      The next failure.
+     * @return The first failure, with {@code ex} suppressed, or {@code ex} if there was no first failure.
+     * @since 1.0-SNAPSHOT
+     */
+    private static @NotNull SQLException suppress(final @Nullable SQLException failure, final @NotNull SQLException ex) {
+        if (failure == null) {
+            return ex;
+        }
+        failure.addSuppressed(ex);
+        return failure;
+    }
+
+    /**
+     * Maps the current row of a result set to a value.
+     *
+     * @param <T> The type of the mapped value.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        /**
+         * Adapts a function which does not read the result set with checked calls, such as one which hands the row to
+         * another mapping layer.
+         *
+         * @param function The function.
+         * @param <T>      The type of the mapped value.
+         * @return The row mapper.
+         * @throws IllegalArgumentException if {@code function} is {@code null}.
+         * @since 1.0-SNAPSHOT
+         */
+        static <T> @NotNull RowMapper<T> of(final @NotNull ParametricSupplier<? super ResultSet, ? extends T> function) {
+            Parameters.requireNonNull("function", function);
+            return function::get;
+        }
+
+        /**
+         * Maps the current row of a result set. The mapper must not move the cursor or close the result set.
+         *
+         * @param row The result set, positioned on the row to map.
+         * @return The mapped value.
+         * @throws SQLException if a column could not be read.
+         * @since 1.0-SNAPSHOT
+         */
+        T map(@NotNull ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Iterates over the mapped rows of a query as they are fetched.
+     * <p>
+     * The query's resources are released once the last row has been read, if the mapper or the driver throws, or when
+     * the iterator is closed. A {@link SQLException} thrown while iterating is wrapped in an
+     * {@link UncheckedSQLException}.
+     *
+     * @param <T> The type of the mapped values.
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public static final class RowIterator<T> implements Iterator<T>, AutoCloseable {
+        private final @NotNull Connection connection;
+        private final boolean restoreAutoCommit;
+        private final @NotNull PreparedStatement statement;
+        private final @NotNull ResultSet resultSet;
+        private final @NotNull RowMapper<? extends T> mapper;
+        private boolean hasRow;
+        private boolean isAdvanced;
+        private boolean isClosed;
+
+        /**
+         * Creates a new iterator over a running query.
+         *
+         * @param connection        The connection.
+         * @param restoreAutoCommit Whether auto-commit was disabled for the query.
+         * @param statement         The statement.
+         * @param resultSet         The result set.
+         * @param mapper            The row mapper.
+         * @since 1.0-SNAPSHOT
+         */
+        private RowIterator(final @NotNull Connection connection,
+                            final boolean restoreAutoCommit,
+                            final @NotNull PreparedStatement statement,
+                            final @NotNull ResultSet resultSet,
+                            final @NotNull RowMapper<? extends T> mapper) {
+            this.connection = connection;
+            this.restoreAutoCommit = restoreAutoCommit;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+        }
+
+        /**
+         * Checks whether the query has another row, fetching it if needed.
+         *
+         * @return {@code true} if there is another row, otherwise {@code false}.
+         * @throws UncheckedSQLException if the row could not be fetched.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public boolean hasNext() {
+            if (this.isClosed) {
+                return false;
+            }
+            if (!this.isAdvanced) {
+                try {
+                    this.hasRow = this.resultSet.next();
+                } catch (final SQLException ex) {
+                    throw this.fail(ex);
+                }
+                this.isAdvanced = true;
+                if (!this.hasRow) {
+                    try {
+                        this.close();
+                    } catch (final SQLException ex) {
+                        throw new UncheckedSQLException(ex);
+                    }
+                }
+            }
+            return this.hasRow;
+        }
+
+        /**
+         * Maps the next row.
+         *
+         * @return The mapped value.
+         * @throws NoSuchElementException if there are no more rows.
+         * @throws UncheckedSQLException  if the row could not be fetched or mapped.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.isAdvanced = false;
+            try {
+                return this.mapper.map(this.resultSet);
+            } catch (final SQLException ex) {
+                throw this.fail(ex);
+            } catch (final RuntimeException ex) {
+                try {
+                    this.close();
+                } catch (final SQLException suppressed) {
+                    ex.addSuppressed(suppressed);
+                }
+                throw ex;
+            }
+        }
+
+        /**
+         * Releases the query's resources. Closing an iterator more than once has no effect.
+         *
+         * @throws SQLException if any resource could not be closed. Every resource is closed regardless.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public void close() throws SQLException {
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            this.hasRow = false;
+            release(this.connection, this.restoreAutoCommit, this.statement, this.resultSet);
+        }
+
+        /**
+         * Releases the query's resources after a failure.
+         *
+         * @param ex The failure.
+         * @return The failure to throw.
+         * @since 1.0-SNAPSHOT
+         */
+        private @NotNull UncheckedSQLException fail(final @NotNull SQLException ex) {
+            try {
+                this.close();
+            } catch (final SQLException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            return new UncheckedSQLException(ex);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serial;
+import java.sql.SQLException;
+
+/**
+ * Wraps a {@link SQLException} which is thrown where a checked exception is not allowed, such as from an
+ * {@link java.util.Iterator} or a {@link java.util.stream.Stream}.
+ *
+ * @author Isabel Maskrey
+ * @since 1.0-SNAPSHOT
+ */
+public final class UncheckedSQLException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new {@code UncheckedSQLException}.
+     *
+     * @param cause The SQL exception.
+     * @since 1.0-SNAPSHOT
+     */
+    public UncheckedSQLException(final @NotNull SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * Gets the SQL exception wrapped by this exception.
+     *
+     * @return The SQL exception.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public synchronized @NotNull SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
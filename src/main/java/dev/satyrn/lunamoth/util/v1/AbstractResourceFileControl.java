@@ -1,15 +1,28 @@
 package dev.satyrn.lunamoth.util.v1;
 
 import dev.satyrn.lunamoth.i18n.v1.I18n;
+import dev.satyrn.lunamoth.lang.v1.AbstractResourceLoader;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
 
 /**
  * Abstract base class for loading resource files with a specific file extension into a resource bundle.
@@ -27,6 +40,32 @@ public abstract class AbstractResourceFileControl<T extends ResourceBundle> exte
      * @since 1.0-SNAPSHOT
      */
     private final @NotNull String fileExtension;
+    /**
+     * The time-to-live of loaded bundles, in milliseconds, {@link #TTL_NO_EXPIRATION_CONTROL} or {@link #TTL_DONT_CACHE}.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private final long timeToLive;
+    /**
+     * The fingerprints of the resources which bundles were loaded from, recorded unless bundles are not cached.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private final @NotNull Map<ResourceBundle, Fingerprint> fingerprints = Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * The hashed fingerprints of resources which {@link #needsReload} found to have changed, keyed by resource URL, so
+     * that the reloaded bundle can adopt the hash without reading the resource again.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private final @NotNull Map<String, Fingerprint> changedResources = new ConcurrentHashMap<>();
+    /**
+     * The resources which exist for each base name, per class loader. An empty optional means that the resources of a
+     * base name could not be listed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private final @NotNull Map<ClassLoader, Map<String, Optional<Set<String>>>> resourceIndex = Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Represents a resource bundle loader that handles different file types.
@@ -41,8 +80,35 @@ public abstract class AbstractResourceFileControl<T extends ResourceBundle> exte
      * @since               1.0-SNAPSHOT
      */
     protected AbstractResourceFileControl(final @NotNull String fileExtension) {
+        this(fileExtension, TTL_NO_EXPIRATION_CONTROL);
+    }
+
+    /**
+     * Represents a resource bundle loader that handles different file types, and whose bundles expire after
+     * {@code timeToLive} milliseconds.
+     * <p>
+     * When a bundle expires, it is only reloaded if the resource it was loaded from has changed. The modification time
+     * and size of the resource are recorded at load time, along with a hash of the contents if the bundle was read
+     * from a stream, which is computed while the stream is read. The resource is only hashed again when its
+     * modification time or size differ, so a bundle whose resource was touched but not modified is kept. Bundles read
+     * {@linkplain #newBundle(ClassLoader, String, boolean) directly} are not hashed at load time, so the first change
+     * to their resource always reloads them.
+     *
+     * @param  fileExtension the file extension for the resource files handled by this file control.
+     * @param  timeToLive    the time-to-live of loaded bundles in milliseconds, {@link #TTL_NO_EXPIRATION_CONTROL} if
+     *                       bundles should never expire, or {@link #TTL_DONT_CACHE} if bundles should not be cached.
+     * @throws IllegalArgumentException if {@code timeToLive} is negative but not {@link #TTL_NO_EXPIRATION_CONTROL} or
+     *                                  {@link #TTL_DONT_CACHE}.
+     * @since  1.0-SNAPSHOT
+     */
+    protected AbstractResourceFileControl(final @NotNull String fileExtension,
+                                          final long timeToLive) {
         Objects.requireNonNull(fileExtension);
+        if (timeToLive < 0L && timeToLive != TTL_NO_EXPIRATION_CONTROL && timeToLive != TTL_DONT_CACHE) {
+            throw new IllegalArgumentException("timeToLive must not be negative.");
+        }
         this.fileExtension = fileExtension;
+        this.timeToLive = timeToLive;
     }
 
     /**
@@ -110,7 +176,7 @@ public abstract class AbstractResourceFileControl<T extends ResourceBundle> exte
      * @param loader   the {@code ClassLoader} to use to load the bundle
      * @param reload   the flag to indicate bundle reloading; {@code true} if reloading an expired resource bundle,
      *                 {@code false} otherwise
-     * @return a new {@link PropertyResourceBundle} encapsulating the contents of the *.lang file.
+     * @return a new resource bundle encapsulating the contents of the resource file.
      * @throws NullPointerException     if {@code baseName}, {@code locale}, or {@code loader} is null.
      * @throws IOException              if an error occurred when reading resources using any I/O operation.
      * @throws MissingResourceException if the resource bundle could not be found.
@@ -124,16 +190,259 @@ public abstract class AbstractResourceFileControl<T extends ResourceBundle> exte
                                                    final @NotNull ClassLoader loader,
                                                    final boolean reload) throws IOException, MissingResourceException {
         final @NotNull String resourceName = this.toResourceName(baseName, locale);
-
-        try (final @Nullable InputStream stream = reload ? getReloadedResourceAsStream(loader, resourceName) : loader.getResourceAsStream(resourceName)) {
-            if (stream != null) {
-                return this.newBundle(stream);
+        final boolean detectChanges = this.timeToLive != TTL_DONT_CACHE;
+        @Nullable T bundle = this.newBundle(loader, resourceName, reload);
+        byte @Nullable [] hash = null;
+        if (bundle == null) {
+            try (final @Nullable InputStream stream = reload ? getReloadedResourceAsStream(loader, resourceName) : loader.getResourceAsStream(resourceName)) {
+                if (stream != null && detectChanges) {
+                    final @NotNull MessageDigest digest = Fingerprint.digest();
+                    // The rest of the stream is hashed after the bundle has been read, so it must not be closed early.
+                    final @NotNull DigestInputStream digestStream = new DigestInputStream(stream, digest) {
+                        @Override
+                        public void close() { }
+                    };
+                    bundle = this.newBundle(digestStream);
+                    digestStream.transferTo(OutputStream.nullOutputStream());
+                    hash = digest.digest();
+                } else if (stream != null) {
+                    bundle = this.newBundle(stream);
+                }
+            }
+        }
+        if (bundle != null) {
+            if (detectChanges) {
+                final @Nullable URL url = loader.getResource(resourceName);
+                if (url != null) {
+                    this.fingerprints.put(bundle, this.fingerprint(url, hash));
+                }
             }
+            return bundle;
         }
 
         throw new MissingResourceException("Could not find resource bundle for baseName " + baseName + " and locale " + locale, baseName, "");
     }
 
+    /**
+     * Fingerprints a resource which a bundle has just been loaded from, without reading it again. If the contents were
+     * not hashed while the bundle was read, but {@link #needsReload} hashed the resource and it has not changed since,
+     * that fingerprint is adopted along with its hash.
+     *
+     * @param  url  the resource
+     * @param  hash the hash of the contents the bundle was read from, or {@code null} if they were not hashed
+     * @return the fingerprint
+     * @throws IOException if the attributes of the resource could not be read
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull Fingerprint fingerprint(final @NotNull URL url,
+                                             final byte @Nullable [] hash) throws IOException {
+        final long[] attributes = Fingerprint.attributes(url);
+        final @Nullable Fingerprint changed = this.changedResources.remove(url.toExternalForm());
+        if (hash == null && changed != null && changed.lastModified == attributes[0] && changed.size == attributes[1]) {
+            return changed;
+        }
+        return new Fingerprint(attributes[0], attributes[1], hash);
+    }
+
+    /**
+     * Gets the formats of the resource bundles loaded by this control. Only the file extension of this control is
+     * returned, as every format would otherwise be loaded from the same resource.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @return a list containing only the file extension of this control.
+     * @throws NullPointerException if {@code baseName} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull List<String> getFormats(final @NotNull String baseName) {
+        Objects.requireNonNull(baseName);
+        return List.of(this.fileExtension);
+    }
+
+    /**
+     * Gets the candidate locales of {@code locale} for which {@code loader} actually has a resource.
+     * <p>
+     * The resources which exist next to each base name are listed once per class loader, so finding a bundle probes
+     * only resources which exist. Directories and jar files can be listed; if the resources of {@code loader} cannot
+     * be listed, or if {@code loader} is an {@link AbstractResourceLoader}, which already answers lookups from memory,
+     * every candidate locale is returned. A jar file without an entry for the directory itself is not listed by its
+     * class loader, so candidates are only pruned when every root holding the root bundle's resource was listed. The
+     * index assumes that the resources of {@code loader} do not change.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @param  locale   the locale for which a resource bundle is desired
+     * @param  loader   the {@link ClassLoader} which will be used to load the bundles
+     * @return the candidate locales from {@link #getCandidateLocales(String, Locale)} which have a resource
+     * @throws NullPointerException if any parameter is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    public @NotNull List<Locale> getCandidateLocales(final @NotNull String baseName,
+                                                     final @NotNull Locale locale,
+                                                     final @NotNull ClassLoader loader) {
+        Objects.requireNonNull(loader);
+        final @NotNull List<Locale> candidates = this.getCandidateLocales(baseName, locale);
+        if (loader instanceof AbstractResourceLoader) {
+            return candidates;
+        }
+        final @NotNull Optional<Set<String>> existing = this.resourceIndex
+                .computeIfAbsent(loader, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(baseName, key -> this.listResources(baseName, loader));
+        if (existing.isEmpty()) {
+            return candidates;
+        }
+
+        final @NotNull List<Locale> pruned = new ArrayList<>(candidates.size());
+        for (final @NotNull Locale candidate : candidates) {
+            if (existing.get().contains(this.toResourceName(baseName, candidate))) {
+                pruned.add(candidate);
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Lists the resources with the file extension of this control which exist for a base name.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @param  loader   the {@link ClassLoader} to list resources from
+     * @return the names of the resources, or an empty optional if the resources could not be listed, or if a root
+     *         which holds the root bundle's resource was not listed
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull Optional<Set<String>> listResources(final @NotNull String baseName,
+                                                         final @NotNull ClassLoader loader) {
+        final @NotNull String directory = baseName.replace('.', '/');
+        final @NotNull String suffix = "." + this.fileExtension;
+        final @NotNull Set<String> resources = new HashSet<>();
+        final @NotNull Set<String> listedRoots = new HashSet<>();
+        final @NotNull String rootResource = this.toResourceName(baseName, Locale.ROOT);
+
+        try {
+            final @NotNull Enumeration<URL> urls = loader.getResources(directory);
+            if (!urls.hasMoreElements()) {
+                return Optional.empty();
+            }
+            while (urls.hasMoreElements()) {
+                final @NotNull URL url = urls.nextElement();
+                listedRoots.add(root(url, directory));
+                if ("file".equals(url.getProtocol())) {
+                    try (final @NotNull DirectoryStream<Path> entries = Files.newDirectoryStream(Path.of(url.toURI()), "*" + suffix)) {
+                        for (final @NotNull Path entry : entries) {
+                            resources.add(directory + "/" + entry.getFileName());
+                        }
+                    }
+                } else if (url.openConnection() instanceof JarURLConnection connection) {
+                    final @NotNull String prefix = directory + "/";
+                    final @NotNull Enumeration<JarEntry> entries = connection.getJarFile().entries();
+                    while (entries.hasMoreElements()) {
+                        final @NotNull String name = entries.nextElement().getName();
+                        if (name.startsWith(prefix) && name.endsWith(suffix) && name.indexOf('/', prefix.length()) < 0) {
+                            resources.add(name);
+                        }
+                    }
+                } else {
+                    return Optional.empty();
+                }
+            }
+
+            final @NotNull Enumeration<URL> rootUrls = loader.getResources(rootResource);
+            while (rootUrls.hasMoreElements()) {
+                if (!listedRoots.contains(root(rootUrls.nextElement(), rootResource))) {
+                    return Optional.empty();
+                }
+                resources.add(rootResource);
+            }
+        } catch (final IOException | URISyntaxException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        return Optional.of(Set.copyOf(resources));
+    }
+
+    /**
+     * Gets the root of the class path entry which a resource was found in, by removing the resource name from its URL.
+     *
+     * @param  url  the URL of the resource
+     * @param  name the name the resource was found by
+     * @return the URL of the root, as a string
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull String root(final @NotNull URL url,
+                                        final @NotNull String name) {
+        @NotNull String location = url.toExternalForm();
+        if (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        return location.endsWith(name) ? location.substring(0, location.length() - name.length()) : location;
+    }
+
+    /**
+     * Gets the time-to-live of bundles loaded by this control.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @param  locale   the locale of the resource bundle
+     * @return the time-to-live in milliseconds, {@link #TTL_NO_EXPIRATION_CONTROL} if bundles never expire, or
+     *         {@link #TTL_DONT_CACHE} if bundles should not be cached.
+     * @throws NullPointerException if {@code baseName} is {@code null} or {@code locale} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public long getTimeToLive(final @NotNull String baseName,
+                              final @NotNull Locale locale) {
+        Objects.requireNonNull(baseName);
+        Objects.requireNonNull(locale);
+        return this.timeToLive;
+    }
+
+    /**
+     * Checks whether an expired bundle needs to be reloaded, by comparing its resource to the fingerprint recorded
+     * when it was loaded.
+     * <p>
+     * The resource is only read and hashed if its modification time or size has changed. If an earlier check recorded
+     * a hash and the contents are unchanged, the new modification time is recorded so that the next check is cheap
+     * again. Otherwise the hash is kept for the reloaded bundle, so that its next check can tell a touch from a change.
+     *
+     * @param  baseName the base name of the resource bundle
+     * @param  locale   the locale of the resource bundle
+     * @param  format   the format of the resource bundle
+     * @param  loader   the {@code ClassLoader} used to load the bundle
+     * @param  bundle   the expired bundle
+     * @param  loadTime the time at which {@code bundle} was loaded
+     * @return {@code true} if the resource has changed, was removed, or was not fingerprinted; otherwise {@code false}.
+     * @throws NullPointerException if any parameter other than {@code format} is {@code null}
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public boolean needsReload(final @NotNull String baseName,
+                               final @NotNull Locale locale,
+                               final @Nullable String format,
+                               final @NotNull ClassLoader loader,
+                               final @NotNull ResourceBundle bundle,
+                               final long loadTime) {
+        Objects.requireNonNull(loader);
+        Objects.requireNonNull(bundle);
+        final @Nullable Fingerprint fingerprint = this.fingerprints.get(bundle);
+        final @Nullable URL url = loader.getResource(this.toResourceName(baseName, locale));
+        if (fingerprint == null || url == null) {
+            return true;
+        }
+
+        try {
+            final long[] attributes = Fingerprint.attributes(url);
+            if (attributes[0] == fingerprint.lastModified && attributes[1] == fingerprint.size) {
+                return false;
+            }
+            final @NotNull Fingerprint current = Fingerprint.of(url);
+            if (fingerprint.hash != null && MessageDigest.isEqual(current.hash, fingerprint.hash)) {
+                this.fingerprints.put(bundle, current);
+                return false;
+            }
+            this.changedResources.put(url.toExternalForm(), current);
+            return true;
+        } catch (final IOException ex) {
+            return true;
+        }
+    }
+
     /**
      * Retrieves a reloaded input stream for a resource bundle.
      *
@@ -159,6 +468,27 @@ public abstract class AbstractResourceFileControl<T extends ResourceBundle> exte
         return null;
     }
 
+    /**
+     * Gets a new resource bundle of the type handled by this control file directly from the class loader, without
+     * opening a stream.
+     * <p>
+     * This is called before {@link #newBundle(InputStream)}, and allows implementations to access resources in a more
+     * efficient way than reading a stream, such as by memory mapping files. The default implementation returns
+     * {@code null}.
+     *
+     * @param  loader       the {@link ClassLoader} to use to locate the resource.
+     * @param  resourceName the name of the resource to load.
+     * @param  reload       {@code true} if reloading an expired resource bundle, {@code false} otherwise.
+     * @return the new resource bundle, or {@code null} if the bundle should be read from a stream instead.
+     * @throws IOException if an error occurred when reading resources using any I/O operation.
+     * @since  1.0-SNAPSHOT
+     */
+    protected @Nullable T newBundle(final @NotNull ClassLoader loader,
+                                    final @NotNull String resourceName,
+                                    final boolean reload) throws IOException {
+        return null;
+    }
+
     /**
      * Gets a new resource bundle of the type handled by this control file.
      *
@@ -169,4 +499,85 @@ public abstract class AbstractResourceFileControl<T extends ResourceBundle> exte
      */
     @Contract("_ -> !null")
     protected abstract @NotNull T newBundle(final @NotNull InputStream stream) throws IOException;
+
+    /**
+     * The modification time, size and content hash of a resource at the time a bundle was loaded from it.
+     *
+     * @param lastModified the modification time, in milliseconds, or {@code 0} if unknown
+     * @param size         the size in bytes, or {@code -1} if unknown
+     * @param hash         the SHA-256 hash of the contents, or {@code null} if the resource has not been hashed
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private record Fingerprint(long lastModified,
+                               long size,
+                               @Nullable byte[] hash) {
+        /**
+         * Reads and fingerprints a resource.
+         *
+         * @param  url the resource
+         * @return the fingerprint
+         * @throws IOException if the resource could not be read
+         * @since  1.0-SNAPSHOT
+         */
+        private static @NotNull Fingerprint of(final @NotNull URL url) throws IOException {
+            final long[] attributes = attributes(url);
+            final @NotNull URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try (final @NotNull InputStream stream = connection.getInputStream()) {
+                return new Fingerprint(attributes[0], attributes[1], hash(stream.readAllBytes()));
+            }
+        }
+
+        /**
+         * Gets the modification time and size of a resource without reading it.
+         *
+         * @param  url the resource
+         * @return the modification time in milliseconds, and the size in bytes
+         * @throws IOException if the attributes could not be read
+         * @since  1.0-SNAPSHOT
+         */
+        private static long @NotNull [] attributes(final @NotNull URL url) throws IOException {
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    final @NotNull BasicFileAttributes attributes = Files.readAttributes(Path.of(url.toURI()), BasicFileAttributes.class);
+                    return new long[]{attributes.lastModifiedTime().toMillis(), attributes.size()};
+                } catch (final URISyntaxException | IllegalArgumentException ignored) { }
+            }
+            final @NotNull URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try {
+                return new long[]{connection.getLastModified(), connection.getContentLengthLong()};
+            } finally {
+                if (connection instanceof JarURLConnection) {
+                    connection.getInputStream().close();
+                }
+            }
+        }
+
+        /**
+         * Hashes resource contents.
+         *
+         * @param  contents the contents
+         * @return the SHA-256 hash
+         * @since  1.0-SNAPSHOT
+         */
+        private static @NotNull byte[] hash(final @NotNull byte[] contents) {
+            return digest().digest(contents);
+        }
+
+        /**
+         * Creates the digest which resource contents are hashed with.
+         *
+         * @return a SHA-256 message digest
+         * @since  1.0-SNAPSHOT
+         */
+        private static @NotNull MessageDigest digest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
 }
@@ -0,0 +1,460 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Represents a {@link ResourceBundle} that uses a compiled binary language pack as its underlying data source.
+ * <p>
+ * Language packs are compiled from *.lang or *.json files with {@link #compile(ResourceBundle, Path)} or the
+ * {@link LanguagePackCompiler} command line tool. A pack consists of a hashed key index, an entry table of offsets,
+ * and the UTF-8 encoded keys and values. Packs on the file system are memory mapped rather than read, so opening a
+ * pack is nearly free regardless of its size and the translation data stays off the Java heap. Values are only decoded
+ * when they are looked up.
+ * <p>
+ * The layout of a pack, with all integers big-endian, is:
+ * <pre>
+ * int    magic       0x4C4D4C50 ("LMLP")
+ * int    version     1
+ * int    count       number of entries
+ * int    slots       size of the hash index, a power of two
+ * int[]  index       slots entries; 1 + the entry number for occupied slots, or 0 for empty slots
+ * int[]  entries     count entries of (keyOffset, keyLength, valueOffset, valueLength), relative to the data section
+ * byte[] data        UTF-8 encoded keys and values
+ * </pre>
+ * Instances are immutable and safe for use by multiple concurrent threads.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class BinaryResourceBundle extends ResourceBundle {
+    /**
+     * The magic number which identifies a language pack.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public static final int MAGIC = 0x4C4D4C50;
+    /**
+     * The current language pack format version.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+    private final @NotNull ByteBuffer buffer;
+    private final int count;
+    private final int slotMask;
+    private final int entriesOffset;
+    private final int dataOffset;
+
+    /**
+     * Creates a new resource bundle from a language pack in a buffer. The buffer is not copied, and must not be
+     * modified afterward.
+     *
+     * @param  buffer the language pack
+     * @throws IOException if the buffer does not contain a valid language pack
+     * @since  1.0-SNAPSHOT
+     */
+    public BinaryResourceBundle(final @NotNull ByteBuffer buffer) throws IOException {
+        Objects.requireNonNull(buffer);
+        this.buffer = buffer.slice();
+        try {
+            if (this.buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a language pack.");
+            }
+            if (this.buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported language pack version " + this.buffer.getInt(4) + ".");
+            }
+            this.count = this.buffer.getInt(8);
+            final int slots = this.buffer.getInt(12);
+            if (this.count < 0 || slots <= 0 || Integer.bitCount(slots) != 1 || slots < this.count) {
+                throw new IOException("Corrupt language pack header.");
+            }
+            this.slotMask = slots - 1;
+            this.entriesOffset = Math.addExact(HEADER_SIZE, Math.multiplyExact(slots, 4));
+            this.dataOffset = Math.addExact(this.entriesOffset, Math.multiplyExact(this.count, ENTRY_SIZE));
+            if (this.dataOffset > this.buffer.limit()) {
+                throw new IOException("Truncated language pack.");
+            }
+            final long dataLength = (long) this.buffer.limit() - this.dataOffset;
+            for (int entry = 0; entry < this.count; ++entry) {
+                final int position = this.entriesOffset + entry * ENTRY_SIZE;
+                for (int field = 0; field < ENTRY_SIZE; field += 8) {
+                    final int offset = this.buffer.getInt(position + field);
+                    final int length = this.buffer.getInt(position + field + 4);
+                    if (offset < 0 || length < 0 || (long) offset + length > dataLength) {
+                        throw new IOException("Corrupt language pack entry " + entry + ".");
+                    }
+                }
+            }
+        } catch (final IndexOutOfBoundsException | BufferUnderflowException | ArithmeticException ex) {
+            throw new IOException("Truncated language pack.", ex);
+        }
+    }
+
+    /**
+     * Creates a new resource bundle from a language pack stream. The stream is read fully into memory.
+     *
+     * @param  stream the language pack stream
+     * @throws IOException if an I/O error occurs, or if the stream does not contain a valid language pack
+     * @since  1.0-SNAPSHOT
+     */
+    public BinaryResourceBundle(final @NotNull InputStream stream) throws IOException {
+        this(ByteBuffer.wrap(stream.readAllBytes()));
+    }
+
+    /**
+     * Opens a language pack file by mapping it into memory.
+     * <p>
+     * The file must not be modified in place while the bundle is in use. Replace it with a new file instead, as
+     * {@link #compile(ResourceBundle, Path)} does.
+     *
+     * @param  path the language pack file
+     * @return the resource bundle
+     * @throws IOException if an I/O error occurs, or if the file is not a valid language pack
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_ -> new")
+    public static @NotNull BinaryResourceBundle open(final @NotNull Path path) throws IOException {
+        try (final @NotNull FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BinaryResourceBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()));
+        }
+    }
+
+    /**
+     * Gets the number of translations in this bundle.
+     *
+     * @return the number of translations
+     * @since  1.0-SNAPSHOT
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Gets the value identified by {@code key}, decoding it from the language pack.
+     *
+     * @param  key the key for the desired object
+     * @return the value, or {@code null} if this bundle does not contain {@code key}
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    protected @Nullable Object handleGetObject(final @NotNull String key) {
+        final int entry = this.find(key);
+        return entry < 0 ? null : this.decode(this.entriesOffset + entry * ENTRY_SIZE + 8);
+    }
+
+    /**
+     * Checks whether this bundle contains {@code key}, without decoding its value.
+     *
+     * @param  key the key
+     * @return {@code true} if this bundle or its parent contains {@code key}, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public boolean containsKey(final @NotNull String key) {
+        Objects.requireNonNull(key);
+        return this.find(key) >= 0 || (this.parent != null && this.parent.containsKey(key));
+    }
+
+    /**
+     * Gets the keys present in this resource. Every key is decoded.
+     *
+     * @return The key set.
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull Enumeration<String> getKeys() {
+        return Collections.enumeration(this.handleKeySet());
+    }
+
+    /**
+     * Gets the keys present in this resource. Every key is decoded.
+     *
+     * @return The key set.
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    protected @NotNull Set<String> handleKeySet() {
+        final @NotNull Set<String> keys = HashSet.newHashSet(this.count);
+        for (int entry = 0; entry < this.count; ++entry) {
+            keys.add(this.decode(this.entriesOffset + entry * ENTRY_SIZE));
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the entry number for {@code key}.
+     *
+     * @param  key the key
+     * @return the entry number, or {@code -1} if this bundle does not contain {@code key}
+     * @since  1.0-SNAPSHOT
+     */
+    private int find(final @NotNull String key) {
+        if (this.count == 0) {
+            return -1;
+        }
+        final @NotNull byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+        for (int slot = hash(key) & this.slotMask, probes = 0; probes <= this.slotMask; slot = (slot + 1) & this.slotMask, ++probes) {
+            final int entry = this.buffer.getInt(HEADER_SIZE + slot * 4) - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (entry < this.count && this.matches(this.entriesOffset + entry * ENTRY_SIZE, encoded)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the string at a position in the entry table equals {@code encoded}.
+     *
+     * @param  position the position of the (offset, length) pair in the entry table
+     * @param  encoded  the UTF-8 encoded string to compare
+     * @return {@code true} if the strings are equal, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    private boolean matches(final int position,
+                            final @NotNull byte[] encoded) {
+        final int length = this.buffer.getInt(position + 4);
+        if (length != encoded.length) {
+            return false;
+        }
+        final int offset = this.dataOffset + this.buffer.getInt(position);
+        for (int i = 0; i < length; ++i) {
+            if (this.buffer.get(offset + i) != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the string at a position in the entry table.
+     *
+     * @param  position the position of the (offset, length) pair in the entry table
+     * @return the decoded string
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull String decode(final int position) {
+        final @NotNull byte[] bytes = new byte[this.buffer.getInt(position + 4)];
+        this.buffer.get(this.dataOffset + this.buffer.getInt(position), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes a key for the key index.
+     *
+     * @param  key the key
+     * @return the hash
+     * @since  1.0-SNAPSHOT
+     */
+    private static int hash(final @NotNull String key) {
+        final int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Writes a language pack containing every string value of {@code bundle}, including the values of its parents.
+     *
+     * @param  bundle the bundle to write
+     * @param  stream the stream to write to
+     * @throws IOException if an I/O error occurs
+     * @since  1.0-SNAPSHOT
+     */
+    public static void write(final @NotNull ResourceBundle bundle,
+                             final @NotNull OutputStream stream) throws IOException {
+        Objects.requireNonNull(bundle);
+        Objects.requireNonNull(stream);
+        final @NotNull TreeMap<String, String> translations = new TreeMap<>();
+        for (final @NotNull String key : bundle.keySet()) {
+            if (bundle.getObject(key) instanceof String value) {
+                translations.put(key, value);
+            }
+        }
+        write(translations, stream);
+    }
+
+    /**
+     * Writes a language pack containing {@code translations}.
+     *
+     * @param  translations the translations to write
+     * @param  stream       the stream to write to
+     * @throws IOException if an I/O error occurs
+     * @since  1.0-SNAPSHOT
+     */
+    public static void write(final @NotNull Map<String, String> translations,
+                             final @NotNull OutputStream stream) throws IOException {
+        Objects.requireNonNull(translations);
+        Objects.requireNonNull(stream);
+        final int count = translations.size();
+        int slots = 1;
+        while (slots < count * 2) {
+            slots <<= 1;
+        }
+
+        final @NotNull int[] index = new int[slots];
+        final @NotNull int[] entries = new int[count * 4];
+        final @NotNull ByteArrayOutputStream data = new ByteArrayOutputStream(count * 32);
+        int entry = 0;
+        for (final @NotNull Map.Entry<String, String> translation : new TreeMap<>(translations).entrySet()) {
+            final @NotNull byte[] key = translation.getKey().getBytes(StandardCharsets.UTF_8);
+            final @NotNull byte[] value = translation.getValue().getBytes(StandardCharsets.UTF_8);
+            entries[entry * 4] = data.size();
+            entries[entry * 4 + 1] = key.length;
+            data.write(key);
+            entries[entry * 4 + 2] = data.size();
+            entries[entry * 4 + 3] = value.length;
+            data.write(value);
+
+            int slot = hash(translation.getKey()) & (slots - 1);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            index[slot] = ++entry;
+        }
+
+        final @NotNull DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(count);
+        output.writeInt(slots);
+        for (final int slot : index) {
+            output.writeInt(slot);
+        }
+        for (final int value : entries) {
+            output.writeInt(value);
+        }
+        data.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Compiles a bundle into a language pack file. The pack is written to a temporary file which then replaces
+     * {@code target}, so that bundles which have mapped the previous file are not affected.
+     *
+     * @param  bundle the bundle to compile
+     * @param  target the language pack file to write
+     * @throws IOException if an I/O error occurs
+     * @since  1.0-SNAPSHOT
+     */
+    public static void compile(final @NotNull ResourceBundle bundle,
+                               final @NotNull Path target) throws IOException {
+        final @NotNull Path absolute = target.toAbsolutePath();
+        final @NotNull Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (final @NotNull OutputStream stream = Files.newOutputStream(temporary)) {
+                write(bundle, stream);
+            }
+            try {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final IOException ex) {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Used in the factory method {@link ResourceBundle#getBundle(String, Locale, ClassLoader, ResourceBundle.Control)}
+     * to get a new instance of {@link BinaryResourceBundle}.
+     * <p>
+     * Language packs which are files on the file system are memory mapped. Packs inside archives are read into memory.
+     *
+     * @author Isabel Maskrey
+     * @since 1.0-SNAPSHOT
+     */
+    public final static class Control extends AbstractResourceFileControl<BinaryResourceBundle> {
+        /**
+         * The file extension of language packs.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        public static final @NotNull String FILE_EXTENSION = "langpack";
+
+        /**
+         * Represents a resource bundle loader that handles compiled language packs.
+         * <p>
+         * In particular, {@link #toBundleName(String, Locale)} is overriden to return a bundle name in the format
+         * &lt;language&gt;_&lt;country code&gt; such that the locale {@link Locale#US} would be formatted as
+         * {@code en_us}.
+         * <p>
+         * Additionally, resource files are loaded by a custom resource name with a specific file extension, in this case,
+         * {@code "langpack"}.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        public Control() {
+            super(FILE_EXTENSION);
+        }
+
+        /**
+         * Represents a resource bundle loader that handles compiled language packs, and whose bundles expire after
+         * {@code timeToLive} milliseconds. Expired bundles are only reparsed if their files have changed.
+         *
+         * @param  timeToLive The time-to-live of loaded bundles in milliseconds, or {@link #TTL_NO_EXPIRATION_CONTROL}
+         *                    if bundles should never expire.
+         * @throws IllegalArgumentException if {@code timeToLive} is negative but not {@link #TTL_NO_EXPIRATION_CONTROL}
+         *                                  or {@link #TTL_DONT_CACHE}.
+         * @since  1.0-SNAPSHOT
+         */
+        public Control(final long timeToLive) {
+            super(FILE_EXTENSION, timeToLive);
+        }
+
+        /**
+         * Memory maps the language pack if it is a file on the file system.
+         *
+         * @param  loader       the class loader to use to locate the resource
+         * @param  resourceName the name of the resource
+         * @param  reload       whether an expired bundle is being reloaded
+         * @return the memory-mapped bundle, or {@code null} if the pack is not a file on the file system
+         * @throws IOException if the pack could not be read
+         * @since  1.0-SNAPSHOT
+         */
+        @Override
+        protected @Nullable BinaryResourceBundle newBundle(final @NotNull ClassLoader loader,
+                                                           final @NotNull String resourceName,
+                                                           final boolean reload) throws IOException {
+            final @Nullable URL url = loader.getResource(resourceName);
+            if (url == null || !"file".equals(url.getProtocol())) {
+                return null;
+            }
+            try {
+                return open(Path.of(url.toURI()));
+            } catch (final URISyntaxException | IllegalArgumentException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * Gets a new resource bundle of the type handled by this control file.
+         *
+         * @param  stream The resource stream for the resource.
+         * @return The new resource bundle from the stream.
+         * @throws IOException if an error occurred when reading resources using any I/O operation.
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        protected @NotNull BinaryResourceBundle newBundle(final @NotNull InputStream stream) throws IOException {
+            return new BinaryResourceBundle(stream);
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package dev.satyrn.lunamoth.util.v1;
 
-import com.google.gson.*;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * Represents a {@link ResourceBundle} that uses a JSON object as its underlying data source.
  * <p>
- * This class allows for accessing JSON properties as {@code ResourceBundle} entries.
+ * This class allows for accessing JSON properties as {@code ResourceBundle} entries. The JSON document is streamed
+ * once into a flat table of strings when the bundle is created, and is not retained afterward. Nested objects are
+ * flattened into dotted keys, such that {@code {"a": {"b": "c"}}} yields the key {@code a.b}, and arrays which contain
+ * a single JSON primitive are resolved to that primitive. Nulls, and arrays with any other contents, are skipped.
  *
  * @author Isabel Maskrey
  * @since 1.0-SNAPSHOT
@@ -21,11 +26,11 @@ import java.util.*;
 // TODO: Extract to Moon Moth common library
 public class JsonResourceBundle extends ResourceBundle {
     /**
-     * The underlying JSON object.
+     * The flattened translation table.
      *
-     * @since 3.0.0-papermc-api.1.12-R0.1-SNAPSHOT
+     * @since 1.0-SNAPSHOT
      */
-    private final @NotNull JsonObject json;
+    private final @NotNull Map<String, String> table;
 
     /**
      * Creates a new resource bundle to handle JSON files. The input file is read with the UTF-8 standard charset.
@@ -33,11 +38,12 @@ public class JsonResourceBundle extends ResourceBundle {
      * @param  stream The input stream.
      * @throws IOException If any error occurs during I/O operations.
      * @throws JsonIOException If an IO error causes the JSON parse operation to fail (such as for an empty stream)
+     * @throws JsonSyntaxException If the stream does not contain a well-formed JSON object.
      * @since  1.0-SNAPSHOT
      */
-    public JsonResourceBundle(final @NotNull InputStream stream) throws IOException, JsonIOException {
+    public JsonResourceBundle(final @NotNull InputStream stream) throws IOException, JsonIOException, JsonSyntaxException {
         try (final @NotNull InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
-            this.json = JsonParser.parseReader(reader).getAsJsonObject();
+            this.table = read(reader);
         }
     }
 
@@ -47,39 +53,122 @@ public class JsonResourceBundle extends ResourceBundle {
      *
      * @param  reader The input stream reader.
      * @throws JsonIOException if an IO error causes the JSON parse operation to fail (such as for an empty stream).
+     * @throws JsonSyntaxException If the reader does not contain a well-formed JSON object.
      * @since  1.0-SNAPSHOT
      */
     @SuppressWarnings({"unused"})
-    public JsonResourceBundle(final @NotNull InputStreamReader reader) throws JsonIOException {
-        this.json = JsonParser.parseReader(reader).getAsJsonObject();
+    public JsonResourceBundle(final @NotNull InputStreamReader reader) throws JsonIOException, JsonSyntaxException {
+        this.table = read(reader);
     }
 
     /**
-     * Gets an item from the underlying JSON object identified by {@code key}.
-     * <p>
-     * The object identified by the string must be a JSON primitive, or a single JSON primitive in an array. Otherwise,
-     * the function returns {@code null}.
+     * Streams a JSON object into a flat, immutable translation table.
      *
-     * @param  key the key for the desired object
-     * @return the value identified by the key as a {@code String} if it is a JSON primitive or a single JSON primitive
-     *         in an array.
+     * @param  reader the reader to stream from.
+     * @return the translation table.
+     * @throws JsonIOException if an IO error causes the JSON parse operation to fail.
+     * @throws JsonSyntaxException if the reader does not contain a well-formed JSON object.
      * @since  1.0-SNAPSHOT
      */
-    @Override
-    protected @Nullable Object handleGetObject(@NotNull String key) {
-        final @Nullable JsonElement object = this.json.get(key);
-        if (object != null) {
-            if (object.isJsonPrimitive()) {
-                return object.getAsString();
+    private static @NotNull Map<String, String> read(final @NotNull Reader reader) throws JsonIOException, JsonSyntaxException {
+        final @NotNull JsonReader json = new JsonReader(reader);
+        // Accept the same relaxed syntax as JsonParser, such as comments and unquoted names and values.
+        json.setLenient(true);
+        try {
+            if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonSyntaxException("Expected a JSON object but was " + json.peek() + " at path " + json.getPath());
+            }
+            final @NotNull HashMap<String, String> table = new HashMap<>();
+            readObject(json, "", table);
+            if (json.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
             }
-            if (object instanceof JsonArray jsonArray && jsonArray.asList().size() == 1) {
-                final @Nullable JsonElement firstElement = jsonArray.get(0);
-                if (firstElement != null && firstElement.isJsonPrimitive()) {
-                    return jsonArray.getAsString();
+            return Map.copyOf(table);
+        } catch (final MalformedJsonException | EOFException ex) {
+            throw new JsonSyntaxException(ex);
+        } catch (final IOException ex) {
+            throw new JsonIOException(ex);
+        } catch (final IllegalStateException | NumberFormatException ex) {
+            throw new JsonSyntaxException(ex);
+        }
+    }
+
+    /**
+     * Reads the members of a JSON object into {@code table}, prefixing each key with {@code prefix}.
+     *
+     * @param  json   the JSON reader, positioned at the start of the object.
+     * @param  prefix the key prefix, which is empty for the root object or ends with {@code '.'} otherwise.
+     * @param  table  the table to add translations to.
+     * @throws IOException if an IO error occurs, or if the JSON is malformed.
+     * @since  1.0-SNAPSHOT
+     */
+    private static void readObject(final @NotNull JsonReader json,
+                                   final @NotNull String prefix,
+                                   final @NotNull HashMap<String, String> table) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            final @NotNull String key = prefix + json.nextName();
+            switch (json.peek()) {
+                case BEGIN_OBJECT -> readObject(json, key + ".", table);
+                case BEGIN_ARRAY -> {
+                    json.beginArray();
+                    @Nullable String value = null;
+                    if (json.hasNext()) {
+                        value = readPrimitive(json);
+                        if (json.hasNext()) {
+                            value = null;
+                            while (json.hasNext()) {
+                                json.skipValue();
+                            }
+                        }
+                    }
+                    json.endArray();
+                    if (value != null) {
+                        table.put(key, value);
+                    }
+                }
+                default -> {
+                    final @Nullable String value = readPrimitive(json);
+                    if (value != null) {
+                        table.put(key, value);
+                    }
                 }
             }
         }
-        return null;
+        json.endObject();
+    }
+
+    /**
+     * Reads the next value as a string if it is a JSON primitive, or skips it otherwise.
+     *
+     * @param  json the JSON reader.
+     * @return the value as a string, or {@code null} if the value is not a JSON primitive.
+     * @throws IOException if an IO error occurs, or if the JSON is malformed.
+     * @since  1.0-SNAPSHOT
+     */
+    private static @Nullable String readPrimitive(final @NotNull JsonReader json) throws IOException {
+        return switch (json.peek()) {
+            case STRING, NUMBER -> json.nextString();
+            case BOOLEAN -> Boolean.toString(json.nextBoolean());
+            default -> {
+                json.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Gets a translation identified by {@code key}.
+     * <p>
+     * Keys of nested JSON objects are joined with {@code '.'}.
+     *
+     * @param  key the key for the desired object
+     * @return the value identified by the key, or {@code null} if there is no such value.
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    protected @Nullable Object handleGetObject(@NotNull String key) {
+        return this.table.get(key);
     }
 
     /**
@@ -90,7 +179,18 @@ public class JsonResourceBundle extends ResourceBundle {
      */
     @Override
     public @NotNull Enumeration<String> getKeys() {
-        return Collections.enumeration(json.keySet());
+        return Collections.enumeration(this.table.keySet());
+    }
+
+    /**
+     * Gets the keys present in this resource, not including its parents.
+     *
+     * @return The key set.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    protected @NotNull Set<String> handleKeySet() {
+        return this.table.keySet();
     }
 
     /**
@@ -119,6 +219,20 @@ public class JsonResourceBundle extends ResourceBundle {
             super("json");
         }
 
+        /**
+         * Represents a resource bundle loader that handles JSON-formatted files, and whose bundles expire after
+         * {@code timeToLive} milliseconds. Expired bundles are only reparsed if their files have changed.
+         *
+         * @param  timeToLive The time-to-live of loaded bundles in milliseconds, or {@link #TTL_NO_EXPIRATION_CONTROL}
+         *                    if bundles should never expire.
+         * @throws IllegalArgumentException if {@code timeToLive} is negative but not {@link #TTL_NO_EXPIRATION_CONTROL}
+         *                                  or {@link #TTL_DONT_CACHE}.
+         * @since  1.0-SNAPSHOT
+         */
+        public Control(final long timeToLive) {
+            super("json", timeToLive);
+        }
+
         /**
          * Gets a new resource bundle of the type handled by this control file.
          *
@@ -0,0 +1,355 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Parses UTF-8 encoded *.lang files directly from a byte buffer into a string table.
+ * <p>
+ * The accepted syntax is that of {@link java.util.Properties#load(java.io.Reader)}: comments, the {@code '='},
+ * {@code ':'} and whitespace separators, line continuations, and escape sequences are all supported. Lines without a
+ * backslash, which make up nearly every line of a typical *.lang file, are split and decoded straight from the buffer
+ * without any intermediate copy. Every structural character is ASCII, and so can never occur inside a multibyte UTF-8
+ * sequence, which makes it safe to scan the encoded bytes.
+ * <p>
+ * Buffers larger than {@link #PARALLEL_THRESHOLD} are split at line boundaries and the chunks are parsed in parallel.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+final class LanguageFileParser {
+    /**
+     * The buffer size, in bytes, above which a buffer is split into chunks which are parsed in parallel.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 22;
+    private final @NotNull ByteBuffer buffer;
+    private byte @NotNull [] scratch = new byte[256];
+
+    /**
+     * Creates a new parser over a buffer.
+     *
+     * @param buffer the buffer to parse
+     * @since 1.0-SNAPSHOT
+     */
+    private LanguageFileParser(final @NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Parses a *.lang file. When a key occurs more than once, the last value wins.
+     *
+     * @param  buffer the UTF-8 encoded file contents, from its position to its limit
+     * @return the string table
+     * @throws IllegalArgumentException if the file contains a malformed {@code \\uxxxx} escape sequence
+     * @since  1.0-SNAPSHOT
+     */
+    static @NotNull Map<String, String> parse(final @NotNull ByteBuffer buffer) {
+        final @NotNull ByteBuffer slice = buffer.slice();
+        final int length = slice.limit();
+        if (length <= PARALLEL_THRESHOLD) {
+            final @NotNull HashMap<String, String> table = new HashMap<>();
+            new LanguageFileParser(slice).parse(0, length, table);
+            return Collections.unmodifiableMap(table);
+        }
+
+        final @NotNull List<Integer> bounds = split(slice, Math.min(Runtime.getRuntime().availableProcessors(), length / PARALLEL_THRESHOLD + 1));
+        final @NotNull List<HashMap<String, String>> chunks = IntStream.range(0, bounds.size() - 1)
+                .parallel()
+                .mapToObj(chunk -> {
+                    final @NotNull HashMap<String, String> table = new HashMap<>();
+                    new LanguageFileParser(slice).parse(bounds.get(chunk), bounds.get(chunk + 1), table);
+                    return table;
+                })
+                .toList();
+        final @NotNull HashMap<String, String> table = HashMap.newHashMap(chunks.stream().mapToInt(Map::size).sum());
+        chunks.forEach(table::putAll);
+        return Collections.unmodifiableMap(table);
+    }
+
+    /**
+     * Splits a buffer into at most {@code count} chunks, each of which starts at the beginning of a natural line.
+     * <p>
+     * A chunk may only start after a line which does not end with a backslash, as such a line can never be continued.
+     *
+     * @param  buffer the buffer
+     * @param  count  the desired number of chunks
+     * @return the chunk boundaries, starting with {@code 0} and ending with the buffer limit
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull List<Integer> split(final @NotNull ByteBuffer buffer,
+                                                final int count) {
+        final int length = buffer.limit();
+        final @NotNull List<Integer> bounds = new ArrayList<>(count + 1);
+        bounds.add(0);
+        for (int chunk = 1; chunk < count; ++chunk) {
+            int position = Math.max(bounds.get(bounds.size() - 1), (int) ((long) length * chunk / count));
+            for (; position < length; ++position) {
+                if (buffer.get(position) != '\n') {
+                    continue;
+                }
+                int previous = position - 1;
+                if (previous >= 0 && buffer.get(previous) == '\r') {
+                    --previous;
+                }
+                if (previous < 0 || buffer.get(previous) != '\\') {
+                    break;
+                }
+            }
+            if (position + 1 >= length) {
+                break;
+            }
+            bounds.add(position + 1);
+        }
+        bounds.add(length);
+        return bounds;
+    }
+
+    /**
+     * Parses the natural lines between two positions into {@code table}.
+     *
+     * @param start the position of the first byte, at the start of a natural line
+     * @param end   the position after the last byte
+     * @param table the table to add translations to
+     * @since 1.0-SNAPSHOT
+     */
+    private void parse(final int start,
+                       final int end,
+                       final @NotNull Map<String, String> table) {
+        int position = start;
+        while (position < end) {
+            position = this.skipWhitespace(position, end);
+            if (position >= end) {
+                break;
+            }
+            final byte first = this.buffer.get(position);
+            if (first == '\n' || first == '\r') {
+                ++position;
+                continue;
+            }
+            int lineEnd = position;
+            boolean escaped = false;
+            for (byte b; lineEnd < end && (b = this.buffer.get(lineEnd)) != '\n' && b != '\r'; ++lineEnd) {
+                escaped |= b == '\\';
+            }
+            if (first == '#' || first == '!') {
+                position = lineEnd;
+            } else if (!escaped) {
+                this.parseSimpleLine(position, lineEnd, table);
+                position = lineEnd;
+            } else {
+                position = this.parseEscapedLine(position, end, table);
+            }
+        }
+    }
+
+    /**
+     * Parses a physical line which contains no backslashes, decoding the key and value straight from the buffer.
+     *
+     * @param start the position of the first non-whitespace byte of the line
+     * @param end   the position of the line terminator
+     * @param table the table to add the translation to
+     * @since 1.0-SNAPSHOT
+     */
+    private void parseSimpleLine(final int start,
+                                 final int end,
+                                 final @NotNull Map<String, String> table) {
+        int keyEnd = start;
+        boolean separated = false;
+        for (; keyEnd < end; ++keyEnd) {
+            final byte b = this.buffer.get(keyEnd);
+            if (b == '=' || b == ':') {
+                separated = true;
+                break;
+            }
+            if (isWhitespace(b)) {
+                break;
+            }
+        }
+        int valueStart = keyEnd < end ? keyEnd + 1 : end;
+        for (; valueStart < end; ++valueStart) {
+            final byte b = this.buffer.get(valueStart);
+            if (!isWhitespace(b)) {
+                if (separated || (b != '=' && b != ':')) {
+                    break;
+                }
+                separated = true;
+            }
+        }
+        table.put(this.decode(start, keyEnd), this.decode(valueStart, end));
+    }
+
+    /**
+     * Parses a logical line which contains escape sequences or line continuations.
+     *
+     * @param  start the position of the first non-whitespace byte of the line
+     * @param  end   the position after the last byte which may be read
+     * @param  table the table to add the translation to
+     * @return the position after the logical line
+     * @throws IllegalArgumentException if the line contains a malformed {@code \\uxxxx} escape sequence
+     * @since  1.0-SNAPSHOT
+     */
+    private int parseEscapedLine(final int start,
+                                 final int end,
+                                 final @NotNull Map<String, String> table) {
+        final @NotNull StringBuilder line = new StringBuilder();
+        int position = start;
+        while (true) {
+            int lineEnd = position;
+            int backslashes = 0;
+            for (byte b; lineEnd < end && (b = this.buffer.get(lineEnd)) != '\n' && b != '\r'; ++lineEnd) {
+                backslashes = b == '\\' ? backslashes + 1 : 0;
+            }
+            if ((backslashes & 1) == 0) {
+                line.append(this.decode(position, lineEnd));
+                position = lineEnd;
+                break;
+            }
+            line.append(this.decode(position, lineEnd - 1));
+            position = lineEnd;
+            if (position < end && this.buffer.get(position++) == '\r' && position < end && this.buffer.get(position) == '\n') {
+                ++position;
+            }
+            position = this.skipWhitespace(position, end);
+            if (position >= end) {
+                break;
+            }
+        }
+
+        final int length = line.length();
+        int keyEnd = 0;
+        boolean separated = false;
+        boolean precedingBackslash = false;
+        for (; keyEnd < length; ++keyEnd) {
+            final char c = line.charAt(keyEnd);
+            if (!precedingBackslash && (c == '=' || c == ':')) {
+                separated = true;
+                break;
+            }
+            if (!precedingBackslash && isWhitespace(c)) {
+                break;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+        }
+        int valueStart = keyEnd < length ? keyEnd + 1 : length;
+        for (; valueStart < length; ++valueStart) {
+            final char c = line.charAt(valueStart);
+            if (!isWhitespace(c)) {
+                if (separated || (c != '=' && c != ':')) {
+                    break;
+                }
+                separated = true;
+            }
+        }
+        table.put(unescape(line, 0, keyEnd), unescape(line, valueStart, length));
+        return position;
+    }
+
+    /**
+     * Skips spaces, tabs and form feeds.
+     *
+     * @param  position the position to start at
+     * @param  end      the position after the last byte which may be read
+     * @return the position of the first byte which is not whitespace, or {@code end}
+     * @since  1.0-SNAPSHOT
+     */
+    private int skipWhitespace(int position,
+                               final int end) {
+        while (position < end && isWhitespace(this.buffer.get(position))) {
+            ++position;
+        }
+        return position;
+    }
+
+    /**
+     * Decodes the UTF-8 bytes between two positions.
+     *
+     * @param  start the position of the first byte
+     * @param  end   the position after the last byte
+     * @return the decoded string
+     * @since  1.0-SNAPSHOT
+     */
+    private @NotNull String decode(final int start,
+                                   final int end) {
+        final int length = end - start;
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        if (this.scratch.length < length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+        }
+        this.buffer.get(start, this.scratch, 0, length);
+        return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the escape sequences between two indices of a logical line.
+     *
+     * @param  line  the logical line
+     * @param  start the index of the first character
+     * @param  end   the index after the last character
+     * @return the unescaped string
+     * @throws IllegalArgumentException if the string contains a malformed {@code \\uxxxx} escape sequence
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull String unescape(final @NotNull CharSequence line,
+                                            final int start,
+                                            final int end) {
+        final @NotNull StringBuilder result = new StringBuilder(end - start);
+        for (int index = start; index < end; ) {
+            char c = line.charAt(index++);
+            if (c == '\\' && index < end) {
+                c = line.charAt(index++);
+                if (c == 'u') {
+                    if (index + 4 > end) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    int value = 0;
+                    for (final int last = index + 4; index < last; ++index) {
+                        final char digit = line.charAt(index);
+                        if (digit >= '0' && digit <= '9') {
+                            value = (value << 4) + digit - '0';
+                        } else if (digit >= 'a' && digit <= 'f') {
+                            value = (value << 4) + 10 + digit - 'a';
+                        } else if (digit >= 'A' && digit <= 'F') {
+                            value = (value << 4) + 10 + digit - 'A';
+                        } else {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                    }
+                    c = (char) value;
+                } else if (c == 't') {
+                    c = '\t';
+                } else if (c == 'r') {
+                    c = '\r';
+                } else if (c == 'n') {
+                    c = '\n';
+                } else if (c == 'f') {
+                    c = '\f';
+                }
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Checks whether a character is a space, tab or form feed.
+     *
+     * @param  c the character
+     * @return {@code true} if the character is whitespace, otherwise {@code false}.
+     * @since  1.0-SNAPSHOT
+     */
+    private static boolean isWhitespace(final int c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+}
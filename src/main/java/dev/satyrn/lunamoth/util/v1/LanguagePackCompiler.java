@@ -0,0 +1,112 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compiles *.lang and *.json files into {@link BinaryResourceBundle language packs}.
+ * <p>
+ * Each file is compiled into a file with the same name and the extension
+ * {@value BinaryResourceBundle.Control#FILE_EXTENSION}, in the output directory if one is given or next to the source
+ * file otherwise. Files whose name ends in {@code .json} are read as JSON; all others are read as *.lang files.
+ * Compiled packs are reported through the return value of {@link #compile(Path, List)}, and through this class's
+ * logger when run from the command line.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public final class LanguagePackCompiler {
+    private static final @NotNull Logger COMPILER_LOGGER = Logger.getLogger(LanguagePackCompiler.class.getName());
+
+    /**
+     * Private constructor for {@code LanguagePackCompiler} to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException if an attempt is made to instantiate {@code LanguagePackCompiler}.
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract(value = "-> fail", pure = true)
+    LanguagePackCompiler() {
+        throw new UnsupportedOperationException("LanguagePackCompiler cannot be instantiated.");
+    }
+
+    /**
+     * Compiles *.lang and *.json files into language packs.
+     *
+     * @param  outputDirectory the directory to write the packs to, which is created if it does not exist, or
+     *                         {@code null} to write each pack next to its source file
+     * @param  sources         the files to compile
+     * @return the language pack files which were written, in the order of {@code sources}
+     * @throws IllegalArgumentException if {@code sources} is {@code null} or contains {@code null}
+     * @throws IOException if a file could not be read or written
+     * @since  1.0-SNAPSHOT
+     */
+    public static @NotNull List<Path> compile(final @Nullable Path outputDirectory,
+                                              final @NotNull List<Path> sources) throws IOException {
+        Parameters.requireNonNull("sources", sources);
+        for (final @Nullable Path source : sources) {
+            Parameters.requireNonNull("sources", source);
+        }
+
+        if (outputDirectory != null) {
+            Files.createDirectories(outputDirectory);
+        }
+        final @NotNull List<Path> targets = new ArrayList<>(sources.size());
+        for (final @NotNull Path source : sources) {
+            final @NotNull String name = source.getFileName().toString();
+            final int extension = name.lastIndexOf('.');
+            final @NotNull String packName = (extension > 0 ? name.substring(0, extension) : name) + "." + BinaryResourceBundle.Control.FILE_EXTENSION;
+            final @NotNull Path target = (outputDirectory != null ? outputDirectory : source.toAbsolutePath().getParent()).resolve(packName);
+            final @NotNull ResourceBundle bundle;
+            try (final @NotNull InputStream stream = Files.newInputStream(source)) {
+                bundle = name.endsWith(".json") ? new JsonResourceBundle(stream) : new LanguageResourceBundle(stream);
+            }
+            BinaryResourceBundle.compile(bundle, target);
+            targets.add(target);
+        }
+        return targets;
+    }
+
+    /**
+     * Compiles *.lang and *.json files into language packs from the command line.
+     * <p>
+     * Usage: {@code LanguagePackCompiler [-d outputDirectory] file...}. Each compiled pack is logged at
+     * {@link Level#INFO}.
+     *
+     * @param  args the command line arguments
+     * @throws IllegalArgumentException if no files are given
+     * @throws IOException if a file could not be read or written
+     * @since  1.0-SNAPSHOT
+     */
+    public static void main(final @NotNull String[] args) throws IOException {
+        @Nullable Path outputDirectory = null;
+        final @NotNull List<Path> sources = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; ++i) {
+            if ("-d".equals(args[i]) && i + 1 < args.length) {
+                outputDirectory = Path.of(args[++i]);
+            } else {
+                sources.add(Path.of(args[i]));
+            }
+        }
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("Usage: LanguagePackCompiler [-d outputDirectory] file...");
+        }
+
+        final @NotNull List<Path> targets = compile(outputDirectory, sources);
+        for (int i = 0; i < targets.size(); ++i) {
+            final @NotNull Path source = sources.get(i);
+            final @NotNull Path target = targets.get(i);
+            COMPILER_LOGGER.log(Level.INFO, () -> String.format("Compiled %s to %s", source, target));
+        }
+    }
+}
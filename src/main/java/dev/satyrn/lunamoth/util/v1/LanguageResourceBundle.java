@@ -1,32 +1,51 @@
 package dev.satyrn.lunamoth.util.v1;
 
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Locale;
-import java.util.PropertyResourceBundle;
-import java.util.ResourceBundle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
 /**
  * Represents a {@link ResourceBundle} that uses a Java properties formatted *.lang file as underlying data source.
+ * <p>
+ * Files are parsed directly from their UTF-8 encoded bytes into an immutable string table, rather than through
+ * {@link java.util.Properties}. The accepted syntax is unchanged, including comments, escape sequences and line
+ * continuations. Very large files are split into chunks which are parsed in parallel. The bundle still extends
+ * {@link PropertyResourceBundle}, but answers every lookup from its own table.
  *
  * @author Isabel Maskrey
  * @since 1.0-SNAPSHOT
  */
 // TODO: Could be useful outside of Paper specifically. Extract to Moon Moth common library
 public class LanguageResourceBundle extends PropertyResourceBundle {
+    /**
+     * The translation table.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    private final @NotNull Map<String, String> table;
+
     /**
      * Creates a new language file resource bundle with the UTF-8 standard charset.
      *
      * @param stream The stream to read.
      * @throws IOException if an error occurred when reading resources using any I/O operation.
+     * @throws IllegalArgumentException if the file contains a malformed {@code \\uxxxx} escape sequence.
      * @since 1.0-SNAPSHOT
      */
     public LanguageResourceBundle(final @NotNull InputStream stream) throws IOException {
-        super(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        super(Reader.nullReader());
+        this.table = LanguageFileParser.parse(ByteBuffer.wrap(stream.readAllBytes()));
     }
 
     /**
@@ -36,11 +55,81 @@ public class LanguageResourceBundle extends PropertyResourceBundle {
      *
      * @param reader a reader that represents a language file to read from.
      * @throws IOException if an error occurs when reading resources using any I/O operation.
+     * @throws IllegalArgumentException if the file contains a malformed {@code \\uxxxx} escape sequence.
      * @since 1.0-SNAPSHOT
      */
     @SuppressWarnings({"unused"})
     public LanguageResourceBundle(InputStreamReader reader) throws IOException {
-        super(reader);
+        super(Reader.nullReader());
+        final @NotNull StringWriter contents = new StringWriter();
+        reader.transferTo(contents);
+        this.table = LanguageFileParser.parse(ByteBuffer.wrap(contents.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a new language file resource bundle from a UTF-8 encoded buffer. The buffer is only read while the
+     * bundle is created.
+     *
+     * @param buffer the language file contents, from the buffer's position to its limit.
+     * @throws IOException never; the constructors of {@link PropertyResourceBundle} declare it, but reading a buffer
+     *                     performs no I/O.
+     * @throws IllegalArgumentException if {@code buffer} is {@code null}, or if the file contains a malformed
+     *                                  {@code \\uxxxx} escape sequence.
+     * @since 1.0-SNAPSHOT
+     */
+    public LanguageResourceBundle(final @NotNull ByteBuffer buffer) throws IOException {
+        super(Reader.nullReader());
+        Parameters.requireNonNull("buffer", buffer);
+        this.table = LanguageFileParser.parse(buffer);
+    }
+
+    /**
+     * Opens a UTF-8 encoded language file by reading it into memory in a single call. The file is not memory mapped,
+     * since a mapping would keep the file locked on Windows until the buffer is garbage collected.
+     *
+     * @param  path the language file.
+     * @return the resource bundle.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the file contains a malformed {@code \\uxxxx} escape sequence.
+     * @since  1.0-SNAPSHOT
+     */
+    @Contract("_ -> new")
+    public static @NotNull LanguageResourceBundle open(final @NotNull Path path) throws IOException {
+        return new LanguageResourceBundle(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Gets a translation identified by {@code key}.
+     *
+     * @param  key the key for the desired object
+     * @return the value identified by the key, or {@code null} if there is no such value.
+     * @since  1.0-SNAPSHOT
+     */
+    @Override
+    public @Nullable Object handleGetObject(final @NotNull String key) {
+        return this.table.get(key);
+    }
+
+    /**
+     * Gets the keys present in this resource.
+     *
+     * @return The key set.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    public @NotNull Enumeration<String> getKeys() {
+        return Collections.enumeration(this.table.keySet());
+    }
+
+    /**
+     * Gets the keys present in this resource, not including its parents.
+     *
+     * @return The key set.
+     * @since 1.0-SNAPSHOT
+     */
+    @Override
+    protected @NotNull Set<String> handleKeySet() {
+        return this.table.keySet();
     }
 
     /**
@@ -87,6 +176,23 @@ public class LanguageResourceBundle extends PropertyResourceBundle {
             super(fileExtension);
         }
 
+        /**
+         * Represents a resource bundle loader that handles Java Properties formatted files with a custom file extension,
+         * and whose bundles expire after {@code timeToLive} milliseconds. Expired bundles are only reparsed if their
+         * files have changed.
+         *
+         * @param  fileExtension The file extension that this instance should handle.
+         * @param  timeToLive    The time-to-live of loaded bundles in milliseconds, or {@link #TTL_NO_EXPIRATION_CONTROL}
+         *                       if bundles should never expire.
+         * @throws IllegalArgumentException if {@code timeToLive} is negative but not {@link #TTL_NO_EXPIRATION_CONTROL}
+         *                                  or {@link #TTL_DONT_CACHE}.
+         * @since  1.0-SNAPSHOT
+         */
+        public Control(final @NotNull String fileExtension,
+                       final long timeToLive) {
+            super(fileExtension, timeToLive);
+        }
+
         /**
          * Gets a new resource bundle of the type handled by this control file.
          *
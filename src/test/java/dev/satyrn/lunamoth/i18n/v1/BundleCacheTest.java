@@ -0,0 +1,204 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.LanguageResourceBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code BundleCache} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class BundleCacheTest {
+    private static final @NotNull ClassLoader LOADER = BundleCacheTest.class.getClassLoader();
+
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public BundleCacheTest() { }
+
+    /**
+     * A resource control which counts the bundles it loads.
+     *
+     * @author Isabel Maskrey
+     * @since  1.0-SNAPSHOT
+     */
+    private static final class CountingControl extends ResourceBundle.Control {
+        private final @NotNull ResourceBundle.Control delegate = new LanguageResourceBundle.Control();
+        private final @NotNull AtomicInteger loads = new AtomicInteger();
+        private final @NotNull Set<String> checked = ConcurrentHashMap.newKeySet();
+        private final long timeToLive;
+        private volatile boolean changed;
+
+        /**
+         * Creates a new counting control.
+         *
+         * @param timeToLive the time-to-live of loaded bundles
+         * @since 1.0-SNAPSHOT
+         */
+        private CountingControl(final long timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        /**
+         * Delegates to the *.lang file control.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @NotNull String toBundleName(final @NotNull String baseName,
+                                            final @NotNull Locale locale) {
+            return this.delegate.toBundleName(baseName, locale);
+        }
+
+        /**
+         * Counts and delegates to the *.lang file control.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable ResourceBundle newBundle(final @NotNull String baseName,
+                                                  final @NotNull Locale locale,
+                                                  final @NotNull String format,
+                                                  final @NotNull ClassLoader loader,
+                                                  final boolean reload) throws IllegalAccessException, InstantiationException, IOException {
+            this.loads.incrementAndGet();
+            return this.delegate.newBundle(baseName, locale, format, loader, reload);
+        }
+
+        /**
+         * Returns the configured time-to-live.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public long getTimeToLive(final @NotNull String baseName,
+                                  final @NotNull Locale locale) {
+            return this.timeToLive;
+        }
+
+        /**
+         * Records the checked bundle, and reports it as changed if {@code changed} is set.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public boolean needsReload(final @NotNull String baseName,
+                                   final @NotNull Locale locale,
+                                   final @NotNull String format,
+                                   final @NotNull ClassLoader loader,
+                                   final @NotNull ResourceBundle bundle,
+                                   final long loadTime) {
+            this.checked.add(this.toBundleName(baseName, locale).replace('.', '/'));
+            return this.changed;
+        }
+
+        /**
+         * Falls back to US English.
+         *
+         * @since 1.0-SNAPSHOT
+         */
+        @Override
+        public @Nullable Locale getFallbackLocale(final @NotNull String baseName,
+                                                  final @NotNull Locale locale) {
+            return Locale.US.equals(locale) ? null : Locale.US;
+        }
+    }
+
+    /**
+     * Tests that bundles, including missing bundles, are only loaded once.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testGetBundle() {
+        final @NotNull BundleCache cache = new BundleCache();
+        final @NotNull CountingControl control = new CountingControl(ResourceBundle.Control.TTL_NO_EXPIRATION_CONTROL);
+
+        final @NotNull ResourceBundle italian = cache.getBundle("lang", Locale.ITALY, LOADER, control);
+        final int loads = control.loads.get();
+
+        assertEquals("prova di successo", italian.getString("test.result"));
+        assertEquals(Locale.ITALY, italian.getLocale());
+        assertEquals("prova di successo", cache.getBundle("lang", Locale.ITALY, LOADER, control).getString("test.result"));
+        assertEquals(loads, control.loads.get());
+
+        final @NotNull ResourceBundle canadian = cache.getBundle("lang", Locale.CANADA, LOADER, control);
+
+        assertEquals("successful test", canadian.getString("test.result"));
+        assertEquals(Locale.US, canadian.getLocale());
+        assertThrows(MissingResourceException.class, () -> cache.getBundle("missing", Locale.US, LOADER, control));
+    }
+
+    /**
+     * Tests that clearing the cache and expired bundles cause bundles to be reloaded.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testReload() {
+        final @NotNull BundleCache cache = new BundleCache();
+        final @NotNull CountingControl control = new CountingControl(ResourceBundle.Control.TTL_NO_EXPIRATION_CONTROL);
+
+        cache.getBundle("lang", Locale.US, LOADER, control);
+        final int loads = control.loads.get();
+        cache.clear(ClassLoader.getPlatformClassLoader());
+        cache.getBundle("lang", Locale.US, LOADER, control);
+
+        assertEquals(loads, control.loads.get());
+
+        cache.clear(LOADER);
+        cache.getBundle("lang", Locale.US, LOADER, control);
+
+        assertEquals(loads * 2, control.loads.get());
+
+        final @NotNull CountingControl uncached = new CountingControl(ResourceBundle.Control.TTL_DONT_CACHE);
+        cache.getBundle("lang", Locale.US, LOADER, uncached);
+        cache.getBundle("lang", Locale.US, LOADER, uncached);
+
+        assertEquals(loads * 2, uncached.loads.get());
+    }
+
+    /**
+     * Tests that invalidating a resource only checks the bundles loaded from it for changes, and reloads them if they
+     * need to be reloaded.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testInvalidate() {
+        final @NotNull BundleCache cache = new BundleCache();
+        final @NotNull CountingControl control = new CountingControl(ResourceBundle.Control.TTL_NO_EXPIRATION_CONTROL);
+
+        cache.getBundle("lang", Locale.US, LOADER, control);
+        cache.getBundle("lang", Locale.ITALY, LOADER, control);
+        final int loads = control.loads.get();
+        cache.invalidate(ClassLoader.getPlatformClassLoader(), Set.of("lang/it_it"));
+        cache.invalidate(LOADER, Set.of("lang/it_it"));
+        cache.getBundle("lang", Locale.US, LOADER, control);
+        cache.getBundle("lang", Locale.ITALY, LOADER, control);
+
+        assertEquals(loads, control.loads.get());
+        assertEquals(Set.of("lang/it_it"), control.checked);
+
+        control.changed = true;
+        cache.invalidate();
+
+        assertEquals("prova di successo", cache.getBundle("lang", Locale.ITALY, LOADER, control).getString("test.result"));
+        assertTrue(control.loads.get() > loads);
+    }
+}
@@ -1,9 +1,29 @@
 package dev.satyrn.lunamoth.i18n.v1;
 
+import dev.satyrn.lunamoth.util.v1.AbstractResourceFileControl;
+import dev.satyrn.lunamoth.util.v1.BinaryResourceBundle;
+import dev.satyrn.lunamoth.util.v1.LanguageResourceBundle;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,6 +66,26 @@ public class I18nTest {
         assertEquals("fell back from a different language", italianI18n.translate("test.fallback"));
     }
 
+    /**
+     * Tests loading external translations from an archive.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    public void testTranslateFromArchive(final @TempDir Path directory) throws Exception {
+        final @NotNull Path archive = directory.resolve("translations.zip");
+        try (final ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("lang/en_us.lang"));
+            zip.write("test.externalTranslation=this is loaded from an archive".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        try (final @NotNull I18n i18n = new I18n("lang", archive.toString())) {
+            assertEquals("this is loaded from an archive", i18n.translate("test.externalTranslation"));
+            assertEquals("successful test", i18n.translate("test.result"));
+        }
+    }
+
     /**
      * Tests the {@code format} method.
      *
@@ -144,6 +184,66 @@ public class I18nTest {
         assertNull(i18n.getBaseDirectory());
     }
 
+    /**
+     * Tests that setting the current base directory again, or calling {@code reload}, rereads external translations,
+     * while switching locales reuses the loaded translations.
+     *
+     * @param directory a temporary directory
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testReload(final @TempDir Path directory) throws Exception {
+        final @NotNull Path lang = Files.createDirectories(directory.resolve("lang"));
+        Files.writeString(lang.resolve("en_us.lang"), "test.externalTranslation=first");
+
+        try (final @NotNull I18n i18n = new I18n("lang", directory.toString())) {
+            assertEquals("first", i18n.translate("test.externalTranslation"));
+
+            Files.writeString(lang.resolve("en_us.lang"), "test.externalTranslation=second");
+            i18n.setCurrentLocale(Locale.ITALY).setCurrentLocale(Locale.US);
+            assertEquals("first", i18n.translate("test.externalTranslation"));
+
+            i18n.setBaseDirectory(directory.toString());
+            assertEquals("second", i18n.translate("test.externalTranslation"));
+
+            Files.writeString(lang.resolve("en_us.lang"), "test.externalTranslation=third");
+            assertEquals("third", i18n.reload().translate("test.externalTranslation"));
+        }
+    }
+
+    /**
+     * Tests that reloading only reparses translation files whose contents have changed.
+     *
+     * @param directory a temporary directory
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testReloadUnchangedResources(final @TempDir Path directory) throws Exception {
+        final @NotNull Path file = Files.createDirectories(directory.resolve("lang")).resolve("en_us.lang");
+        Files.writeString(file, "test.externalTranslation=unchanged");
+        final @NotNull AtomicInteger parses = new AtomicInteger();
+        final @NotNull ResourceBundle.Control control = new AbstractResourceFileControl<LanguageResourceBundle>("lang") {
+            @Override
+            protected @NotNull LanguageResourceBundle newBundle(final @NotNull InputStream stream) throws IOException {
+                parses.incrementAndGet();
+                return new LanguageResourceBundle(stream);
+            }
+        };
+
+        try (final @NotNull I18n i18n = new I18n("lang", directory.toString()).setResourceType(I18n.ResourceType.CUSTOM, control)) {
+            assertEquals("unchanged", i18n.translate("test.externalTranslation"));
+            final int loaded = parses.get();
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000L));
+            assertEquals("unchanged", i18n.reload().translate("test.externalTranslation"));
+            assertEquals(loaded, parses.get());
+
+            Files.writeString(file, "test.externalTranslation=changed");
+            assertEquals("changed", i18n.reload().translate("test.externalTranslation"));
+            assertEquals(loaded + 1, parses.get());
+        }
+    }
+
     /**
      * Tests the {@code setResourceType} method.
      *
@@ -164,4 +264,113 @@ public class I18nTest {
 
         assertEquals("this translation does not come from an json file", i18n.translate("test.fromJson"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@code getTranslationSource} method.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testGetTranslationSource() {
+        final @NotNull I18n i18n = new I18n("lang", "testFiles").setCurrentLocale("it_it");
+
+        assertEquals(I18n.TranslationSource.INTERNAL, i18n.getTranslationSource("test.result"));
+        assertEquals(I18n.TranslationSource.DEFAULT, i18n.getTranslationSource("test.fallback"));
+        assertNull(i18n.getTranslationSource("test.nonexistant"));
+
+        i18n.setCurrentLocale(Locale.US);
+
+        assertEquals(I18n.TranslationSource.EXTERNAL, i18n.getTranslationSource("test.externalTranslation"));
+    }
+
+    /**
+     * Tests that translations remain consistent while another thread reconfigures the {@code I18n}.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testConcurrentTranslate() throws Exception {
+        final @NotNull I18n i18n = new I18n("lang");
+        final @NotNull ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final @NotNull List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; ++i) {
+                readers.add(executor.submit(() -> {
+                    for (int j = 0; j < 2000; ++j) {
+                        final @NotNull String fromJson = i18n.translate("test.fromJson");
+                        assertTrue("this comes from a JSON file".equals(fromJson)
+                                || "this translation does not come from an json file".equals(fromJson));
+                        assertEquals("fallback should be formatted", i18n.format("test.nonexistant", "fallback should be {0}", "formatted"));
+                    }
+                }));
+            }
+            final @NotNull Future<?> writer = executor.submit(() -> {
+                for (int j = 0; j < 20; ++j) {
+                    i18n.setResourceType(j % 2 == 0 ? I18n.ResourceType.JSON : I18n.ResourceType.LANG);
+                }
+            });
+
+            writer.get(30, TimeUnit.SECONDS);
+            for (final @NotNull Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that external translations are reloaded when the watched base directory changes.
+     *
+     * @param directory a temporary directory
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testWatchBaseDirectory(final @TempDir Path directory) throws Exception {
+        final @NotNull Path lang = Files.createDirectories(directory.resolve("lang"));
+        Files.writeString(lang.resolve("en_us.lang"), "test.externalTranslation=before");
+        Files.writeString(lang.resolve("it_it.lang"), "test.externalTranslation=prima");
+
+        try (final @NotNull I18n i18n = new I18n("lang", directory.toString()).watchBaseDirectory(Duration.ofMillis(50L))) {
+            final @NotNull Translator italian = i18n.forLocale(Locale.ITALY);
+
+            assertEquals("before", i18n.translate("test.externalTranslation"));
+            assertEquals("prima", italian.translate("test.externalTranslation"));
+
+            Files.writeString(lang.resolve("en_us.lang"), "test.externalTranslation=after");
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+            while (!"after".equals(i18n.translate("test.externalTranslation")) && System.nanoTime() < deadline) {
+                Thread.sleep(20L);
+            }
+
+            assertEquals("after", i18n.translate("test.externalTranslation"));
+            assertEquals("prima", italian.translate("test.externalTranslation"));
+            assertEquals("successful test", i18n.translate("test.result"));
+            assertThrows(IllegalArgumentException.class, () -> i18n.watchBaseDirectory(Duration.ofMillis(-1L)));
+        }
+    }
+
+    /**
+     * Tests that language packs loaded through {@link I18n.ResourceType#BINARY} are resolved on lookup rather than
+     * merged when the translation table is built.
+     *
+     * @param directory a temporary directory
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testBinaryResourcesAreResolvedOnLookup(final @TempDir Path directory) throws Exception {
+        final @NotNull Path lang = Files.createDirectories(directory.resolve("lang"));
+        try (final @NotNull OutputStream stream = Files.newOutputStream(lang.resolve("en_us." + BinaryResourceBundle.Control.FILE_EXTENSION))) {
+            BinaryResourceBundle.write(Map.of("test.externalTranslation", "from a pack", "test.unused", "never decoded"), stream);
+        }
+
+        try (final @NotNull I18n i18n = new I18n("lang", directory.toString()).setResourceType(I18n.ResourceType.BINARY)) {
+            assertEquals(0, i18n.getTable(Locale.US).size());
+
+            assertEquals("from a pack", i18n.translate("test.externalTranslation"));
+            assertEquals(I18n.TranslationSource.EXTERNAL, i18n.getTranslationSource("test.externalTranslation"));
+            assertEquals(1, i18n.getTable(Locale.US).size());
+        }
+    }
+}
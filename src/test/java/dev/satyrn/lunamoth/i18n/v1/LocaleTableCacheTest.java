@@ -0,0 +1,74 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code LocaleTableCache} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class LocaleTableCacheTest {
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public LocaleTableCacheTest() { }
+
+    /**
+     * Tests that tables are loaded once and then served from the cache.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testGet() {
+        final @NotNull AtomicInteger loads = new AtomicInteger();
+        final @NotNull LocaleTableCache cache = new LocaleTableCache(locale -> {
+            loads.incrementAndGet();
+            return TranslationTable.build(locale, null, null, null);
+        }, 4);
+
+        final @NotNull TranslationTable table = cache.get(Locale.ITALY);
+
+        assertSame(table, cache.get(Locale.ITALY));
+        assertSame(table, cache.getIfPresent(Locale.ITALY));
+        assertNull(cache.getIfPresent(Locale.US));
+        assertEquals(1, loads.get());
+        assertEquals(Locale.ITALY, table.locale());
+    }
+
+    /**
+     * Tests that the least recently used locales are evicted.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testEviction() throws InterruptedException {
+        final @NotNull LocaleTableCache cache = new LocaleTableCache(locale -> TranslationTable.build(locale, null, null, null), 2);
+
+        cache.get(Locale.US);
+        Thread.sleep(5L);
+        cache.get(Locale.ITALY);
+        Thread.sleep(5L);
+        cache.get(Locale.US);
+        Thread.sleep(5L);
+        cache.get(Locale.FRANCE);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getIfPresent(Locale.US));
+        assertNull(cache.getIfPresent(Locale.ITALY));
+
+        cache.setMaximumSize(1);
+
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getIfPresent(Locale.FRANCE));
+        assertThrows(IllegalArgumentException.class, () -> cache.setMaximumSize(0));
+    }
+}
@@ -0,0 +1,144 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code MessageTemplate} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class MessageTemplateTest {
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public MessageTemplateTest() { }
+
+    /**
+     * Tests that compiled templates render identically to {@link MessageFormat}.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testFormatMatchesMessageFormat() {
+        final @NotNull String[] patterns = {
+                "successful format test {0}",
+                "{0} and {1} and {0} again",
+                "it''s {0}",
+                "'{0}' is quoted, {0} is not",
+                "unterminated 'quote {0}",
+                "a } brace and {1}",
+                "{0,number} {0,number,integer} {0,number,#.##}",
+                "{0,number,currency}",
+                "{0,choice,0#none|1#one|1<{0,number} items}",
+                "{2} is out of range",
+                "plain text",
+                "{ 0,number}",
+                "{0, number}"
+        };
+        final @NotNull Object[][] argumentSets = {
+                {true},
+                {1234.5678, "two"},
+                {null, 3},
+                {new Date(0L)},
+                {42L, 0, 1},
+        };
+
+        for (final @NotNull Locale locale : List.of(Locale.US, Locale.ITALY)) {
+            for (final @NotNull String pattern : patterns) {
+                final @NotNull MessageFormat expected;
+                try {
+                    expected = new MessageFormat(pattern, locale);
+                } catch (final IllegalArgumentException ex) {
+                    assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile(pattern, locale));
+                    continue;
+                }
+                final @NotNull MessageTemplate template = MessageTemplate.compile(pattern, locale);
+                for (final @NotNull Object[] arguments : argumentSets) {
+                    @NotNull String expectedText;
+                    try {
+                        expectedText = expected.format(arguments);
+                    } catch (final IllegalArgumentException ex) {
+                        assertThrows(IllegalArgumentException.class, () -> template.format(arguments));
+                        continue;
+                    }
+                    assertEquals(expectedText, template.format(arguments), pattern);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that invalid patterns are rejected the same way {@link MessageFormat} rejects them.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testCompileInvalidPattern() {
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("unmatched {0", Locale.US));
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("not a number {name}", Locale.US));
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("bad type {0,nope}", Locale.US));
+    }
+
+    /**
+     * Tests the {@code compileLenient} method.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testCompileLenient() {
+        final @NotNull List<IllegalArgumentException> errors = new ArrayList<>();
+        final @NotNull MessageTemplate template = MessageTemplate.compileLenient("hello {name}, it''s {0}", Locale.US, errors::add);
+
+        assertEquals(1, errors.size());
+        assertTrue(template.isFormattable());
+        assertEquals("hello [name], it's world", template.format(new Object[]{"world"}));
+        assertEquals("hello {name}, it's {0}", template.text());
+
+        final @NotNull MessageTemplate broken = MessageTemplate.compileLenient("broken {0", Locale.US, errors::add);
+
+        assertFalse(broken.isFormattable());
+        assertEquals("broken {0", broken.text());
+        assertThrows(IllegalStateException.class, () -> broken.format(new Object[]{1}));
+    }
+
+    /**
+     * Tests the {@code text} and {@code errorText} methods.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testTextAndErrorText() {
+        final @NotNull MessageTemplate template = MessageTemplate.compile("failed test {0,number,currency} {1,number,currency}", Locale.US);
+
+        assertEquals("failed test {0,number,currency} {1,number,currency}", template.text());
+        assertEquals("failed test [0] [1]", template.errorText());
+        assertThrows(IllegalArgumentException.class, () -> template.format(new Object[]{true}));
+    }
+
+    /**
+     * Tests that {@code formatTo} appends to an existing builder.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testFormatTo() {
+        final @NotNull MessageTemplate template = MessageTemplate.compile("{0}!", Locale.US);
+        final @NotNull StringBuilder builder = new StringBuilder("hello ");
+
+        template.formatTo(builder, new Object[]{"world"});
+
+        assertEquals("hello world!", builder.toString());
+    }
+}
@@ -0,0 +1,73 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code ResourceDirectoryWatcher} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class ResourceDirectoryWatcherTest {
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public ResourceDirectoryWatcherTest() { }
+
+    /**
+     * Tests that changes in subdirectories are reported relative to the watched directory. A burst of changes is
+     * usually reported as a single batch, but slow file system events may split it, so batches are merged until every
+     * change has been seen.
+     *
+     * @param directory a temporary directory
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testWatch(final @TempDir Path directory) throws Exception {
+        final @NotNull Path lang = Files.createDirectories(directory.resolve("lang"));
+        final @NotNull LinkedBlockingQueue<Set<Path>> batches = new LinkedBlockingQueue<>();
+        try (final @NotNull ResourceDirectoryWatcher ignored = new ResourceDirectoryWatcher(directory, Duration.ofMillis(200L), batches::add)) {
+            Files.writeString(lang.resolve("en_us.lang"), "a=1");
+            Files.writeString(lang.resolve("it_it.lang"), "a=2");
+
+            final @NotNull Set<Path> expected = Set.of(Path.of("lang", "en_us.lang"), Path.of("lang", "it_it.lang"));
+            final @NotNull Set<Path> seen = new HashSet<>();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+            while (!seen.containsAll(expected)) {
+                final long remaining = deadline - System.nanoTime();
+                final Set<Path> batch = remaining > 0L ? batches.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                assertNotNull(batch, () -> "Timed out waiting for changes; saw " + seen);
+                seen.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * Tests that invalid arguments are rejected.
+     *
+     * @param directory a temporary directory
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    @SuppressWarnings({"ConstantConditions", "resource"})
+    void testInvalidArguments(final @TempDir Path directory) {
+        assertThrows(IllegalArgumentException.class, () -> new ResourceDirectoryWatcher(null, Duration.ZERO, batch -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new ResourceDirectoryWatcher(directory, Duration.ofMillis(-1L), batch -> { }));
+        assertThrows(IOException.class, () -> new ResourceDirectoryWatcher(directory.resolve("missing"), Duration.ZERO, batch -> { }));
+    }
+}
@@ -0,0 +1,92 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code TranslationKey} class and the keys generated by {@link TranslationKeyProcessor}.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+@GenerateTranslationKeys(resource = "lang/en_us.lang", className = "TestTranslationKeys")
+public class TranslationKeyTest {
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public TranslationKeyTest() { }
+
+    /**
+     * Tests the generated key class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testGeneratedKeys() {
+        assertEquals("test.result", TestTranslationKeys.TEST_RESULT.getKey());
+        assertSame(TestTranslationKeys.INDEX, TestTranslationKeys.TEST_FORMAT.getIndex());
+        assertSame(TestTranslationKeys.TEST_FORMAT, TestTranslationKeys.INDEX.get(TestTranslationKeys.TEST_FORMAT.getId()));
+        assertTrue(TestTranslationKeys.TEST_RESULT.getId() < TestTranslationKeys.INDEX.size());
+    }
+
+    /**
+     * Tests translating typed keys.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testTranslate() {
+        final @NotNull I18n i18n = new I18n("lang");
+        final @NotNull TranslationKey missing = TranslationKey.Index.of("test.nonexistant").get(0);
+
+        assertEquals("successful test", i18n.translate(TestTranslationKeys.TEST_RESULT));
+        assertEquals("successful format test true", i18n.format(TestTranslationKeys.TEST_FORMAT, true));
+        assertEquals("test.nonexistant", i18n.translate(missing));
+        assertEquals("prova di successo", i18n.forLocale(Locale.ITALY).translate(TestTranslationKeys.TEST_RESULT));
+        assertEquals("fell back from a different language", i18n.forLocale(Locale.ITALY).translate(TestTranslationKeys.TEST_FALLBACK));
+
+        i18n.setResourceType(I18n.ResourceType.JSON);
+
+        assertEquals("this comes from a JSON file", i18n.translate(TestTranslationKeys.TEST_FROMJSON));
+    }
+
+    /**
+     * Tests the {@code Index.of} method.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testIndexOf() {
+        final @NotNull TranslationKey.Index index = TranslationKey.Index.of("a", "b");
+
+        assertEquals(2, index.size());
+        assertEquals("b", index.get(1).getKey());
+        assertEquals("b", index.get(1).toString());
+        assertThrows(IllegalArgumentException.class, () -> index.get(2));
+        assertThrows(IllegalArgumentException.class, () -> TranslationKey.Index.of("a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> TranslationKey.Index.of("a", null));
+    }
+
+    /**
+     * Tests the {@code toConstantName} method of the processor.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testToConstantName() {
+        final @NotNull Set<String> names = new HashSet<>();
+
+        assertEquals("TEST_RESULT", TranslationKeyProcessor.toConstantName("test.result", names));
+        assertEquals("TEST_RESULT_2", TranslationKeyProcessor.toConstantName("test-result", names));
+        assertEquals("_1_KEY", TranslationKeyProcessor.toConstantName("1.key", names));
+    }
+}
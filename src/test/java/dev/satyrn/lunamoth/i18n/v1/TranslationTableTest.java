@@ -0,0 +1,126 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import dev.satyrn.lunamoth.util.v1.BinaryResourceBundle;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code TranslationTable} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class TranslationTableTest {
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public TranslationTableTest() { }
+
+    /**
+     * Creates a resource bundle from key/value pairs.
+     *
+     * @param  contents the bundle contents
+     * @return the bundle
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull ResourceBundle bundle(final @NotNull Object[][] contents) {
+        return new ListResourceBundle() {
+            @Override
+            protected Object @NotNull [][] getContents() {
+                return contents;
+            }
+        };
+    }
+
+    /**
+     * Tests that layers are merged in order of precedence.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testBuild() {
+        final @NotNull TranslationTable table = TranslationTable.build(Locale.ITALY,
+                bundle(new Object[][]{{"a", "default a"}, {"b", "default b"}, {"c", "default c"}, {"n", 1}}),
+                bundle(new Object[][]{{"b", "internal b"}, {"c", "internal c"}}),
+                bundle(new Object[][]{{"c", "external c"}}));
+
+        assertEquals(3, table.size());
+        assertEquals(Locale.ITALY, table.locale());
+        assertEquals("default a", table.get("a").template().text());
+        assertEquals(I18n.TranslationSource.DEFAULT, table.get("a").source());
+        assertEquals("internal b", table.get("b").template().text());
+        assertEquals(I18n.TranslationSource.INTERNAL, table.get("b").source());
+        assertEquals("external c", table.get("c").template().text());
+        assertEquals(I18n.TranslationSource.EXTERNAL, table.get("c").source());
+        assertNull(table.get("n"));
+    }
+
+    /**
+     * Creates a language pack from key/value pairs.
+     *
+     * @param  translations the pack contents
+     * @return the pack
+     * @throws IOException if the pack could not be written
+     * @since  1.0-SNAPSHOT
+     */
+    private static @NotNull BinaryResourceBundle pack(final @NotNull Map<String, String> translations) throws IOException {
+        final @NotNull ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        BinaryResourceBundle.write(translations, stream);
+        return new BinaryResourceBundle(ByteBuffer.wrap(stream.toByteArray()));
+    }
+
+    /**
+     * Tests that language pack layers are resolved on lookup, in order of precedence.
+     *
+     * @throws IOException if a pack could not be written
+     * @since  1.0-SNAPSHOT
+     */
+    @Test
+    void testBuildWithLanguagePacks() throws IOException {
+        final @NotNull TranslationTable table = TranslationTable.build(Locale.ITALY,
+                pack(Map.of("a", "default a", "b", "default b", "c", "default c")),
+                bundle(new Object[][]{{"b", "internal b"}, {"c", "internal c"}}),
+                pack(Map.of("c", "external c {0}")));
+
+        assertEquals(2, table.size());
+        assertEquals("default a", table.peek("a").template().text());
+        assertEquals(I18n.TranslationSource.DEFAULT, table.get("a").source());
+        assertEquals("internal b", table.get("b").template().text());
+        assertEquals(I18n.TranslationSource.INTERNAL, table.get("b").source());
+        assertEquals("external c 1", table.translate("c", "c", new Object[]{1}));
+        assertEquals(I18n.TranslationSource.EXTERNAL, table.get("c").source());
+        assertSame(table.get("c"), table.get("c"));
+        assertEquals(3, table.size());
+        assertNull(table.get("missing"));
+        assertTrue(table.isKnownMissing("missing"));
+    }
+
+    /**
+     * Tests that misses are recorded in the negative set.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testMissingKeys() {
+        final @NotNull TranslationTable table = TranslationTable.build(Locale.US, null, null, null);
+
+        assertFalse(table.isKnownMissing("missing"));
+        assertNull(table.peek("missing"));
+        assertFalse(table.isKnownMissing("missing"));
+        assertNull(table.get("missing"));
+        assertTrue(table.isKnownMissing("missing"));
+        assertNull(table.get("missing"));
+    }
+}
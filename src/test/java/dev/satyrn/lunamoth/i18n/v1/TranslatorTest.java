@@ -0,0 +1,119 @@
+package dev.satyrn.lunamoth.i18n.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code Translator} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class TranslatorTest {
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public TranslatorTest() { }
+
+    /**
+     * Tests that translators translate into their own locale regardless of the current locale.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testTranslate() {
+        final @NotNull I18n i18n = new I18n("lang", "testFiles");
+        final @NotNull Translator italian = i18n.forLocale(Locale.ITALY);
+        final @NotNull Translator english = i18n.forLocale(Locale.US);
+
+        assertEquals(Locale.ITALY, italian.getLocale());
+        assertEquals("prova di successo", italian.translate("test.result"));
+        assertEquals("fell back from a different language", italian.translate("test.fallback"));
+        assertEquals("successful test", english.translate("test.result"));
+        assertEquals("this is loaded from an external file", english.translate("test.externalTranslation"));
+        assertEquals("successful format test true", english.format("test.format", "test.format", true));
+        assertEquals("there is no translation", italian.translate("test.nonexistant", "there is no translation"));
+        assertEquals(Locale.US, i18n.getCurrentLocale());
+        assertEquals(I18n.TranslationSource.INTERNAL, italian.getTranslationSource("test.result"));
+        assertEquals(I18n.TranslationSource.EXTERNAL, english.getTranslationSource("test.externalTranslation"));
+
+        i18n.setCurrentLocale(Locale.ITALY);
+
+        assertEquals("prova di successo", italian.translate("test.result"));
+        assertEquals("successful test", english.translate("test.result"));
+    }
+
+    /**
+     * Tests that translators reflect resources reloaded by their {@code I18n}.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testReload() {
+        final @NotNull I18n i18n = new I18n("lang");
+        final @NotNull Translator english = i18n.forLocale(Locale.US);
+
+        assertEquals("this translation does not come from an json file", english.translate("test.fromJson"));
+
+        i18n.setResourceType(I18n.ResourceType.JSON);
+
+        assertEquals("this comes from a JSON file", english.translate("test.fromJson"));
+    }
+
+    /**
+     * Tests that invalid arguments are rejected.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testInvalidArguments() {
+        final @NotNull I18n i18n = new I18n("lang");
+
+        assertThrows(IllegalArgumentException.class, () -> i18n.forLocale(null));
+        assertThrows(IllegalArgumentException.class, () -> i18n.forLocale(Locale.US).translate((String) null));
+        assertThrows(IllegalArgumentException.class, () -> i18n.forLocale(Locale.US).translate("key", (String) null));
+        assertThrows(IllegalArgumentException.class, () -> i18n.setMaximumCachedLocales(0));
+    }
+
+    /**
+     * Tests translating into many locales concurrently with a small locale cache.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testConcurrentLocales() throws Exception {
+        final @NotNull I18n i18n = new I18n("lang").setMaximumCachedLocales(2);
+        final @NotNull Locale[] locales = {Locale.US, Locale.ITALY, Locale.CANADA, Locale.FRANCE};
+        final @NotNull ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final @NotNull List<Future<?>> futures = new ArrayList<>();
+            for (final @NotNull Locale locale : locales) {
+                futures.add(executor.submit(() -> {
+                    final @NotNull Translator translator = i18n.forLocale(locale);
+                    final @NotNull String expected = locale.equals(Locale.ITALY) ? "prova di successo" : "successful test";
+                    for (int i = 0; i < 500; i++) {
+                        assertEquals(expected, translator.translate("test.result"));
+                    }
+                }));
+            }
+            for (final @NotNull Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, i18n.getMaximumCachedLocales());
+    }
+}
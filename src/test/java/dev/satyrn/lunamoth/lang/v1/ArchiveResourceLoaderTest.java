@@ -0,0 +1,98 @@
+package dev.satyrn.lunamoth.lang.v1;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@code ArchiveResourceLoader} class.
+ *
+ * @author Isabel Maskrey
+ * @since  1.0-SNAPSHOT
+ */
+public class ArchiveResourceLoaderTest {
+
+    /**
+     * Creates a new instance of this test class.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    public ArchiveResourceLoaderTest() { }
+
+    /**
+     * Writes a zip archive containing a single entry.
+     *
+     * @param archive  the archive to write
+     * @param name     the entry name
+     * @param contents the entry contents
+     * @since 1.0-SNAPSHOT
+     */
+    private static void writeArchive(final @NotNull Path archive,
+                             final @NotNull String name,
+                             final @NotNull String contents) throws IOException {
+        try (final OutputStream stream = Files.newOutputStream(archive);
+             final ZipOutputStream zip = new ZipOutputStream(stream)) {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(contents.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * Tests the {@code getResource} and {@code getResourceAsStream} methods.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testGetResource(final @TempDir Path directory) throws IOException {
+        final @NotNull Path archive = directory.resolve("translations.zip");
+        writeArchive(archive, "lang/en_us.lang", "key=value");
+        assertTrue(ArchiveResourceLoader.isArchive(archive));
+        assertFalse(ArchiveResourceLoader.isArchive(directory));
+
+        try (final @NotNull ArchiveResourceLoader loader = new ArchiveResourceLoader(this.getClass().getClassLoader(), archive)) {
+            final @Nullable URL resourceUrl = loader.getResource("lang/en_us.lang");
+            assertNotNull(resourceUrl);
+            assertNull(loader.getResource("lang/nonexistant.lang"));
+            assertNull(loader.getResourceAsStream("lang/nonexistant.lang"));
+            try (final InputStream stream = loader.getResourceAsStream("lang/en_us.lang")) {
+                assertNotNull(stream);
+                assertEquals("key=value", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertThrows(UnsupportedOperationException.class, () -> loader.loadClass("dev.satyrn.lunamoth.lang.v1.ArchiveResourceLoader"));
+        }
+    }
+
+    /**
+     * Tests the {@code refresh} and {@code close} methods.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testRefresh(final @TempDir Path directory) throws IOException {
+        final @NotNull Path archive = directory.resolve("translations.jar");
+        writeArchive(archive, "lang/en_us.lang", "key=value");
+
+        final @NotNull ArchiveResourceLoader loader = new ArchiveResourceLoader(this.getClass().getClassLoader(), archive);
+        writeArchive(archive, "lang/it_it.lang", "key=valore");
+        loader.refresh();
+        assertNull(loader.getResource("lang/en_us.lang"));
+        assertNotNull(loader.getResource("lang/it_it.lang"));
+
+        loader.close();
+        assertNull(loader.getResourceAsStream("lang/it_it.lang"));
+    }
+}
@@ -3,12 +3,16 @@ package dev.satyrn.lunamoth.lang.v1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,4 +73,28 @@ public class FileResourceLoaderTest {
             assertNotNull(stream);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the {@code refresh} method.
+     * <p>
+     * Files created after the index was built should only be found once the index has been refreshed.
+     *
+     * @since 1.0-SNAPSHOT
+     */
+    @Test
+    void testRefresh(final @TempDir Path directory) throws IOException {
+        final @NotNull FileResourceLoader loader = new FileResourceLoader(this.getClass().getClassLoader(), directory.toString());
+        assertNull(loader.getResource("lang/en_us.lang"));
+
+        Files.createDirectories(directory.resolve("lang"));
+        Files.writeString(directory.resolve("lang/en_us.lang"), "key=value");
+        assertNull(loader.getResourceAsStream("lang/en_us.lang"));
+
+        loader.refresh();
+        assertNotNull(loader.getResource("lang/en_us.lang"));
+        try (final InputStream stream = loader.getResourceAsStream("lang/../lang/en_us.lang")) {
+            assertNotNull(stream);
+            assertEquals("key=value", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
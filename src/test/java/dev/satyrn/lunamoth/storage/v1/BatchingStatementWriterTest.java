@@ -0,0 +1,173 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BatchingStatementWriterTest {
+
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private PreparedStatement insertStatement;
+    @Mock
+    private PreparedStatement updateStatement;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement("INSERT")).thenReturn(insertStatement);
+        when(mockConnection.prepareStatement("UPDATE")).thenReturn(updateStatement);
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchingStatementWriter(null, 1, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchingStatementWriter(() -> mockConnection, 0, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchingStatementWriter(() -> mockConnection, 1, Duration.ofSeconds(-1L), 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchingStatementWriter(() -> mockConnection, 1, Duration.ZERO, 0));
+    }
+
+    @Test
+    void testFlushWritesOneTransaction() throws Exception {
+        try (BatchingStatementWriter writer = new BatchingStatementWriter(() -> mockConnection, 100, Duration.ofMinutes(1L), 100)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; ++i) {
+                futures.add(writer.submit("INSERT", i, "value " + i));
+            }
+            futures.add(writer.submit("UPDATE", 1));
+            futures.add(writer.submit("INSERT", 10, null));
+            writer.flush();
+
+            for (CompletableFuture<Void> future : futures) {
+                assertTrue(future.isDone());
+                assertNull(future.get());
+            }
+        }
+
+        InOrder order = inOrder(mockConnection, insertStatement, updateStatement);
+        order.verify(mockConnection).setAutoCommit(false);
+        order.verify(insertStatement).executeBatch();
+        order.verify(updateStatement).executeBatch();
+        order.verify(insertStatement).executeBatch();
+        order.verify(mockConnection).commit();
+        order.verify(mockConnection).setAutoCommit(true);
+        order.verify(mockConnection).close();
+        verify(mockConnection, times(1)).prepareStatement("INSERT");
+        verify(insertStatement, times(11)).addBatch();
+        verify(insertStatement).setObject(2, null);
+        verify(updateStatement).setObject(1, 1);
+    }
+
+    @Test
+    void testFlushBySize() throws Exception {
+        try (BatchingStatementWriter writer = new BatchingStatementWriter(() -> mockConnection, 2, Duration.ofMinutes(1L), 10)) {
+            writer.submit("INSERT", 1);
+            writer.submit("INSERT", 2).get(5L, TimeUnit.SECONDS);
+        }
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void testFlushByTime() throws Exception {
+        try (BatchingStatementWriter writer = new BatchingStatementWriter(() -> mockConnection, 100, Duration.ofMillis(20L), 10)) {
+            writer.submit("INSERT", 1).get(5L, TimeUnit.SECONDS);
+        }
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void testFailedBatchIsRolledBack() throws Exception {
+        when(insertStatement.executeBatch()).thenThrow(new SQLException("constraint violated"));
+        when(insertStatement.executeUpdate()).thenThrow(new SQLException("constraint violated"));
+        try (BatchingStatementWriter writer = new BatchingStatementWriter(() -> mockConnection, 100, Duration.ofMinutes(1L), 10)) {
+            CompletableFuture<Void> insert = writer.submit("INSERT", 1);
+            CompletableFuture<Void> update = writer.submit("UPDATE", 1);
+            writer.flush();
+
+            ExecutionException ex = assertThrows(ExecutionException.class, insert::get);
+            assertInstanceOf(SQLException.class, ex.getCause());
+            assertNull(update.get());
+        }
+        verify(mockConnection, times(2)).rollback();
+        verify(mockConnection, times(1)).commit();
+        verify(updateStatement, never()).executeBatch();
+        verify(updateStatement).executeUpdate();
+    }
+
+    @Test
+    void testFailedBatchRetriesSurvivors() throws Exception {
+        when(insertStatement.executeBatch()).thenThrow(new SQLException("constraint violated"));
+        doThrow(new SQLException("constraint violated")).when(insertStatement).setObject(1, 2);
+        try (BatchingStatementWriter writer = new BatchingStatementWriter(() -> mockConnection, 100, Duration.ofMinutes(1L), 10)) {
+            CompletableFuture<Void> first = writer.submit("INSERT", 1);
+            CompletableFuture<Void> failing = writer.submit("INSERT", 2);
+            CompletableFuture<Void> last = writer.submit("INSERT", 3);
+            writer.flush();
+
+            assertNull(first.get());
+            assertThrows(ExecutionException.class, failing::get);
+            assertNull(last.get());
+        }
+        InOrder order = inOrder(mockConnection, insertStatement);
+        order.verify(mockConnection).rollback();
+        order.verify(insertStatement).setObject(1, 1);
+        order.verify(insertStatement).executeUpdate();
+        order.verify(mockConnection).commit();
+        order.verify(mockConnection).rollback();
+        order.verify(insertStatement).setObject(1, 3);
+        order.verify(insertStatement).executeUpdate();
+        order.verify(mockConnection).commit();
+        verify(insertStatement, times(2)).executeUpdate();
+        verify(mockConnection).close();
+    }
+
+    @Test
+    void testMissingConnectionFailsBatch() throws Exception {
+        try (BatchingStatementWriter writer = new BatchingStatementWriter(() -> null, 100, Duration.ofMinutes(1L), 10)) {
+            CompletableFuture<Void> insert = writer.submit("INSERT", 1);
+            writer.flush();
+
+            ExecutionException ex = assertThrows(ExecutionException.class, insert::get);
+            assertInstanceOf(SQLException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void testCloseDrainsQueue() throws Exception {
+        BatchingStatementWriter writer = new BatchingStatementWriter(() -> mockConnection, 3, Duration.ofMinutes(1L), 2);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            futures.add(writer.submit("INSERT", i));
+        }
+        writer.close();
+
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone());
+        }
+        verify(insertStatement, times(20)).addBatch();
+        assertThrows(IllegalStateException.class, () -> writer.submit("INSERT", 21));
+        assertThrows(IllegalStateException.class, writer::flush);
+    }
+}
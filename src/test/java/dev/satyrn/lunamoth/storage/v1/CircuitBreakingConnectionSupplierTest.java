@@ -0,0 +1,107 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class CircuitBreakingConnectionSupplierTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicReference<Connection> next = new AtomicReference<>();
+
+    private ConnectionSupplier delegate() {
+        return () -> {
+            calls.incrementAndGet();
+            return next.get();
+        };
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        Duration second = Duration.ofSeconds(1L);
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakingConnectionSupplier(null, 1, second, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakingConnectionSupplier(delegate(), 0, second, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakingConnectionSupplier(delegate(), 1, Duration.ZERO, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakingConnectionSupplier(delegate(), 1, second, Duration.ofMillis(1L)));
+    }
+
+    @Test
+    void testOpensAfterThreshold() {
+        CircuitBreakingConnectionSupplier supplier = new CircuitBreakingConnectionSupplier(delegate(), 3,
+                Duration.ofMinutes(1L), Duration.ofMinutes(5L));
+
+        assertNull(supplier.get());
+        assertNull(supplier.get());
+        assertEquals(CircuitBreakingConnectionSupplier.State.CLOSED, supplier.getState());
+        assertNull(supplier.get());
+        assertEquals(CircuitBreakingConnectionSupplier.State.OPEN, supplier.getState());
+
+        next.set(mock(Connection.class));
+        assertNull(supplier.get());
+        assertEquals(3, calls.get());
+        assertEquals(1L, supplier.getRejectedCount());
+    }
+
+    @Test
+    void testSuccessResetsFailures() {
+        CircuitBreakingConnectionSupplier supplier = new CircuitBreakingConnectionSupplier(delegate(), 2,
+                Duration.ofMinutes(1L), Duration.ofMinutes(5L));
+
+        assertNull(supplier.get());
+        next.set(mock(Connection.class));
+        assertNotNull(supplier.get());
+        next.set(null);
+        assertNull(supplier.get());
+        assertEquals(CircuitBreakingConnectionSupplier.State.CLOSED, supplier.getState());
+    }
+
+    @Test
+    void testProbeClosesCircuit() throws InterruptedException {
+        CircuitBreakingConnectionSupplier supplier = new CircuitBreakingConnectionSupplier(delegate(), 1,
+                Duration.ofMillis(20L), Duration.ofSeconds(1L));
+
+        assertNull(supplier.get());
+        assertEquals(CircuitBreakingConnectionSupplier.State.OPEN, supplier.getState());
+        Thread.sleep(40L);
+
+        next.set(mock(Connection.class));
+        assertNotNull(supplier.get());
+        assertEquals(CircuitBreakingConnectionSupplier.State.CLOSED, supplier.getState());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testFailedProbeBacksOff() throws InterruptedException {
+        CircuitBreakingConnectionSupplier supplier = new CircuitBreakingConnectionSupplier(delegate(), 1,
+                Duration.ofMillis(50L), Duration.ofSeconds(10L));
+
+        assertNull(supplier.get());
+        Thread.sleep(70L);
+        assertNull(supplier.get());
+        assertEquals(2, calls.get());
+        assertEquals(CircuitBreakingConnectionSupplier.State.OPEN, supplier.getState());
+
+        // The backoff has doubled to 100 ms, so the circuit is still open after another 70 ms.
+        Thread.sleep(70L);
+        assertNull(supplier.get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testExceptionCountsAsFailure() {
+        CircuitBreakingConnectionSupplier supplier = new CircuitBreakingConnectionSupplier(() -> {
+            throw new IllegalStateException("supplier has been disposed.");
+        }, 1, Duration.ofMinutes(1L), Duration.ofMinutes(1L));
+
+        assertThrows(IllegalStateException.class, supplier::get);
+        assertEquals(CircuitBreakingConnectionSupplier.State.OPEN, supplier.getState());
+        assertNull(supplier.get());
+    }
+}
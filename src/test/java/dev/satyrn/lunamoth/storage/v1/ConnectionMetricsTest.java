@@ -0,0 +1,85 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionMetricsTest {
+
+    @Test
+    void testSnapshot() {
+        ConnectionMetrics metrics = new ConnectionMetrics(() -> 2, () -> 3, () -> 4);
+        metrics.recordAcquire(1_000L, true);
+        metrics.recordAcquire(3_000L, true);
+        metrics.recordAcquire(5_000L, false);
+        metrics.recordAcquireTimeout();
+        metrics.recordConnect(2_000_000L, true);
+        metrics.recordConnect(2_000_000L, false);
+        metrics.recordClose(60_000_000_000L);
+
+        ConnectionMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2L, snapshot.acquireCount());
+        assertEquals(1L, snapshot.acquireFailureCount());
+        assertEquals(1L, snapshot.acquireTimeoutCount());
+        assertEquals(1L, snapshot.connectCount());
+        assertEquals(1L, snapshot.connectFailureCount());
+        assertEquals(1L, snapshot.closeCount());
+        assertEquals(2, snapshot.activeConnections());
+        assertEquals(3, snapshot.idleConnections());
+        assertEquals(4, snapshot.waitingThreads());
+        assertEquals(2_000d, snapshot.acquireLatency().mean());
+        assertEquals(3_000L, snapshot.acquireLatency().maxNanos());
+        assertEquals(60_000_000_000L, snapshot.connectionLifetime().totalNanos());
+    }
+
+    @Test
+    void testUntrackedGauges() {
+        ConnectionMetrics.Snapshot snapshot = new ConnectionMetrics().snapshot();
+        assertEquals(-1, snapshot.activeConnections());
+        assertEquals(-1, snapshot.idleConnections());
+        assertEquals(-1, snapshot.waitingThreads());
+        assertEquals(0d, snapshot.acquireLatency().mean());
+        assertEquals(0L, snapshot.acquireLatency().percentile(0.99d));
+    }
+
+    @Test
+    void testPercentile() {
+        ConnectionMetrics metrics = new ConnectionMetrics();
+        for (int i = 0; i < 99; ++i) {
+            metrics.recordConnect(100L, true);
+        }
+        metrics.recordConnect(1_000_000L, true);
+        metrics.recordConnect(0L, true);
+
+        ConnectionMetrics.Latency latency = metrics.snapshot().connectLatency();
+        long p50 = latency.percentile(0.5d);
+        assertTrue(p50 >= 100L && p50 < 200L);
+        long p99 = latency.percentile(0.99d);
+        assertTrue(p99 >= 100L && p99 < 200L);
+        assertEquals(1_000_000L, latency.percentile(1d));
+        assertEquals(0L, latency.percentile(0d));
+        assertThrows(IllegalArgumentException.class, () -> latency.percentile(1.5d));
+    }
+
+    @Test
+    void testRegister() throws Exception {
+        ConnectionMetrics metrics = new ConnectionMetrics(() -> 1, () -> 0, () -> 0);
+        metrics.recordAcquire(1_500_000L, true);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName name = metrics.register("test database");
+        try {
+            assertThrows(IllegalStateException.class, () -> metrics.register("test database"));
+            assertEquals(1L, server.getAttribute(name, "AcquireCount"));
+            assertEquals(1, server.getAttribute(name, "ActiveConnections"));
+            assertEquals(1.5d, (double) server.getAttribute(name, "AcquireLatencyMaxMillis"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,111 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionSupplierTest {
+
+    @Test
+    void testGetAsync() throws Exception {
+        Connection connection = mock(Connection.class);
+        ConnectionSupplier supplier = () -> connection;
+
+        assertSame(connection, supplier.getAsync().get(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGetAsyncDoesNotBlockCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Connection connection = mock(Connection.class);
+        ConnectionSupplier supplier = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                return null;
+            }
+            return connection;
+        };
+
+        CompletableFuture<Connection> future = supplier.getAsync();
+        assertFalse(future.isDone());
+        release.countDown();
+        assertSame(connection, future.get(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGetAsyncWithExecutor() throws Exception {
+        ConnectionSupplier supplier = () -> null;
+
+        CompletableFuture<Connection> future = supplier.getAsync(Runnable::run, null);
+        assertTrue(future.isDone());
+        assertNull(future.get());
+    }
+
+    @Test
+    void testGetAsyncPropagatesFailure() {
+        ConnectionSupplier supplier = () -> {
+            throw new IllegalStateException("supplier has been disposed.");
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> supplier.getAsync(Runnable::run, null).get());
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testGetAsyncWithInvalidParameters() {
+        ConnectionSupplier supplier = () -> null;
+
+        assertThrows(IllegalArgumentException.class, () -> supplier.getAsync(null, null));
+        assertThrows(IllegalArgumentException.class, () -> supplier.getAsync(Duration.ofSeconds(-1L)));
+    }
+
+    @Test
+    void testGetAsyncTimeoutInterruptsAndClosesLateConnection() throws Exception {
+        Connection connection = mock(Connection.class);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        ConnectionSupplier supplier = () -> {
+            try {
+                Thread.sleep(10_000L);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            returned.countDown();
+            return connection;
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> supplier.getAsync(Duration.ofMillis(50L)).get(5L, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+        assertTrue(interrupted.await(5L, TimeUnit.SECONDS));
+        assertTrue(returned.await(5L, TimeUnit.SECONDS));
+        verify(connection, timeout(5_000L)).close();
+    }
+
+    @Test
+    void testGetAsyncCancelled() throws SQLException {
+        Connection connection = mock(Connection.class);
+        ConnectionSupplier supplier = () -> connection;
+        Runnable[] deferred = new Runnable[1];
+
+        CompletableFuture<Connection> future = supplier.getAsync(task -> deferred[0] = task, null);
+        assertTrue(future.cancel(true));
+        deferred[0].run();
+
+        assertThrows(CancellationException.class, future::join);
+        verify(connection, never()).close();
+    }
+}
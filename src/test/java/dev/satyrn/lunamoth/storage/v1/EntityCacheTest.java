@@ -0,0 +1,345 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EntityCacheTest {
+
+    private final Map<Integer, String> table = new ConcurrentHashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Map<Integer, String>> batches = new ArrayList<>();
+    private final AtomicBoolean failWrites = new AtomicBoolean();
+    private Connection mockConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        mockConnection = mock(Connection.class);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        table.put(1, "Alice");
+        table.put(2, "Bob");
+        table.put(3, "Carol");
+    }
+
+    private EntityCache<Integer, String> cache(int maximumSize) {
+        return new EntityCache<>(() -> mockConnection, (connection, key) -> {
+            loads.incrementAndGet();
+            return table.get(key);
+        }, (connection, entities) -> {
+            if (failWrites.get()) {
+                throw new SQLException("deadlock");
+            }
+            synchronized (batches) {
+                batches.add(Map.copyOf(entities));
+            }
+            table.putAll(entities);
+        }, maximumSize);
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new EntityCache<Integer, String>(null, (c, k) -> null, (c, e) -> { }, 1));
+        assertThrows(IllegalArgumentException.class, () -> new EntityCache<Integer, String>(() -> mockConnection, null, (c, e) -> { }, 1));
+        assertThrows(IllegalArgumentException.class, () -> new EntityCache<Integer, String>(() -> mockConnection, (c, k) -> null, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> cache(0));
+        assertThrows(IllegalArgumentException.class, () -> cache(1).setTimeToLive(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> cache(1).setWriteBehind(Duration.ofSeconds(1L), 0));
+        assertThrows(IllegalArgumentException.class, () -> cache(1).setMaximumDirty(0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> cache(1).setMaximumDirty(1, Duration.ofSeconds(-1L)));
+        assertThrows(IllegalArgumentException.class, () -> cache(1).get(null));
+    }
+
+    @Test
+    void testReadThrough() throws SQLException {
+        EntityCache<Integer, String> cache = cache(10);
+        assertEquals("Alice", cache.get(1));
+        assertEquals("Alice", cache.get(1));
+        assertNull(cache.get(4));
+        assertNull(cache.get(4));
+        assertEquals(3, loads.get());
+        verify(mockConnection, times(3)).close();
+
+        EntityCache.Statistics statistics = cache.statistics();
+        assertEquals(1L, statistics.hitCount());
+        assertEquals(3L, statistics.missCount());
+        assertEquals(0.25d, statistics.hitRate());
+        assertEquals(1, statistics.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() throws SQLException {
+        EntityCache<Integer, String> cache = cache(2);
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        cache.get(3);
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.statistics().evictionCount());
+
+        loads.set(0);
+        cache.get(1);
+        assertEquals(0, loads.get());
+        cache.get(2);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEntitiesExpire() throws Exception {
+        EntityCache<Integer, String> cache = cache(10).setTimeToLive(Duration.ofMillis(20L));
+        cache.get(1);
+        Thread.sleep(40L);
+        table.put(1, "Alicia");
+        assertEquals("Alicia", cache.get(1));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadsAreSingleFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EntityCache<Integer, String> cache = new EntityCache<>(() -> mockConnection, (connection, key) -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                assertTrue(release.await(5L, TimeUnit.SECONDS));
+            } catch (InterruptedException ex) {
+                throw new SQLException(ex);
+            }
+            return table.get(key);
+        }, (connection, entities) -> { }, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(1)));
+            assertTrue(loading.await(5L, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; ++i) {
+                results.add(executor.submit(() -> cache.get(1)));
+            }
+            Thread.sleep(20L);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("Alice", result.get(5L, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testWritesAreBatched() throws SQLException {
+        EntityCache<Integer, String> cache = cache(10).setWriteBehind(Duration.ofMinutes(1L), 2);
+        cache.put(1, "Alicia");
+        cache.put(4, "Dave");
+        cache.put(5, "Eve");
+        assertEquals("Alicia", cache.get(1));
+        assertEquals("Alice", table.get(1));
+        assertEquals(3, cache.statistics().dirtyCount());
+
+        cache.flush();
+        assertEquals(List.of(Map.of(1, "Alicia", 4, "Dave"), Map.of(5, "Eve")), batches);
+        assertEquals("Alicia", table.get(1));
+        verify(mockConnection, times(2)).setAutoCommit(false);
+        verify(mockConnection, times(2)).commit();
+        verify(mockConnection, times(2)).setAutoCommit(true);
+
+        EntityCache.Statistics statistics = cache.statistics();
+        assertEquals(3L, statistics.writeCount());
+        assertEquals(0, statistics.dirtyCount());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testDirtyEntitiesAreNotEvicted() throws SQLException {
+        EntityCache<Integer, String> cache = cache(1);
+        cache.put(4, "Dave");
+        cache.put(5, "Eve");
+        assertEquals(2, cache.size());
+        assertEquals("Dave", cache.get(4));
+        assertEquals(0, loads.get());
+
+        cache.flush();
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testFailedWriteIsRetried() throws SQLException {
+        EntityCache<Integer, String> cache = cache(10);
+        cache.put(1, "Alicia");
+        failWrites.set(true);
+        assertThrows(SQLException.class, cache::flush);
+        verify(mockConnection).rollback();
+        assertEquals(1, cache.statistics().dirtyCount());
+        assertEquals(1L, cache.statistics().writeFailureCount());
+
+        failWrites.set(false);
+        cache.flush();
+        assertEquals("Alicia", table.get(1));
+        assertEquals(0, cache.statistics().dirtyCount());
+    }
+
+    @Test
+    void testDirtyEntitiesAreBounded() throws SQLException {
+        EntityCache<Integer, String> cache = cache(10).setMaximumDirty(2, Duration.ZERO);
+        failWrites.set(true);
+        cache.put(1, "Alicia");
+        cache.put(4, "Dave");
+        assertThrows(IllegalStateException.class, () -> cache.put(5, "Eve"));
+        cache.put(1, "Alice");
+        assertThrows(SQLException.class, cache::flush);
+        assertThrows(IllegalStateException.class, () -> cache.put(5, "Eve"));
+        assertEquals(2, cache.statistics().dirtyCount());
+        assertNull(cache.get(5));
+
+        failWrites.set(false);
+        cache.flush();
+        cache.put(5, "Eve");
+        assertEquals(1, cache.statistics().dirtyCount());
+    }
+
+    @Test
+    void testPutWaitsForRoom() throws Exception {
+        EntityCache<Integer, String> cache = cache(10).setWriteBehind(Duration.ofMillis(10L), 100)
+                .setMaximumDirty(1, Duration.ofSeconds(5L));
+        failWrites.set(true);
+        cache.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            cache.put(1, "Alicia");
+            Future<?> put = executor.submit(() -> cache.put(4, "Dave"));
+            Thread.sleep(50L);
+            assertFalse(put.isDone());
+            assertTrue(cache.statistics().writeFailureCount() > 0L);
+
+            failWrites.set(false);
+            put.get(5L, TimeUnit.SECONDS);
+            assertEquals("Alicia", table.get(1));
+        } finally {
+            executor.shutdownNow();
+            cache.close();
+        }
+        assertEquals("Dave", table.get(4));
+    }
+
+    @Test
+    void testBackgroundFlush() throws Exception {
+        EntityCache<Integer, String> cache = cache(10).setWriteBehind(Duration.ofMillis(10L), 100).start();
+        try {
+            cache.put(1, "Alicia");
+            long deadline = System.nanoTime() + Duration.ofSeconds(5L).toNanos();
+            while (!"Alicia".equals(table.get(1)) && System.nanoTime() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertEquals("Alicia", table.get(1));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    void testCloseFlushes() throws SQLException {
+        EntityCache<Integer, String> cache = cache(10);
+        cache.put(4, "Dave");
+        cache.close();
+        assertEquals("Dave", table.get(4));
+        assertThrows(IllegalStateException.class, () -> cache.get(4));
+        assertThrows(IllegalStateException.class, () -> cache.put(4, "David"));
+        assertThrows(IllegalStateException.class, cache::start);
+    }
+
+    @Test
+    void testNullConnectionFailsLoad() {
+        EntityCache<Integer, String> cache = new EntityCache<>(() -> null, (c, k) -> "x", (c, e) -> { }, 10);
+        assertThrows(SQLException.class, () -> cache.get(1));
+        assertEquals(1L, cache.statistics().loadFailureCount());
+    }
+
+    @Test
+    void testWriteDuringLoadWins() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EntityCache<Integer, String> cache = new EntityCache<>(() -> mockConnection, (connection, key) -> {
+            String stale = table.get(key);
+            loading.countDown();
+            try {
+                assertTrue(release.await(5L, TimeUnit.SECONDS));
+            } catch (InterruptedException ex) {
+                throw new SQLException(ex);
+            }
+            return stale;
+        }, (connection, entities) -> table.putAll(entities), 10);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> read = executor.submit(() -> cache.get(1));
+            assertTrue(loading.await(5L, TimeUnit.SECONDS));
+            cache.put(1, "Alicia");
+            cache.flush();
+            release.countDown();
+
+            assertEquals("Alicia", read.get(5L, TimeUnit.SECONDS));
+            assertEquals("Alicia", cache.get(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSameInstancePutDuringWriteStaysDirty() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = new ArrayList<>();
+        EntityCache<Integer, StringBuilder> cache = new EntityCache<>(() -> mockConnection, (connection, key) -> null,
+                (connection, entities) -> {
+                    synchronized (written) {
+                        written.add(entities.get(1).toString());
+                    }
+                    writing.countDown();
+                    try {
+                        assertTrue(release.await(5L, TimeUnit.SECONDS));
+                    } catch (InterruptedException ex) {
+                        throw new SQLException(ex);
+                    }
+                }, 10);
+        StringBuilder profile = new StringBuilder("Alice");
+        cache.put(1, profile);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> flush = executor.submit(() -> {
+                cache.flush();
+                return null;
+            });
+            assertTrue(writing.await(5L, TimeUnit.SECONDS));
+            profile.append("ia");
+            cache.put(1, profile);
+            release.countDown();
+            flush.get(5L, TimeUnit.SECONDS);
+
+            // The flush picks the entity up again, since the put after the first write left it dirty.
+            assertEquals(List.of("Alice", "Aliceia"), written);
+            assertEquals(0, cache.statistics().dirtyCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LeakDetectingConnectionSupplierTest {
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        ConnectionSupplier delegate = () -> null;
+        assertThrows(IllegalArgumentException.class, () -> new LeakDetectingConnectionSupplier(null, Duration.ofSeconds(1L), 0d));
+        assertThrows(IllegalArgumentException.class, () -> new LeakDetectingConnectionSupplier(delegate, null, 0d));
+        assertThrows(IllegalArgumentException.class, () -> new LeakDetectingConnectionSupplier(delegate, Duration.ZERO, 0d));
+        assertThrows(IllegalArgumentException.class, () -> new LeakDetectingConnectionSupplier(delegate, Duration.ofSeconds(1L), 1.5d));
+    }
+
+    @Test
+    void testClosedConnectionIsNotTracked() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        try (LeakDetectingConnectionSupplier supplier = new LeakDetectingConnectionSupplier(() -> mockConnection, Duration.ofMinutes(1L), 1d)) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            assertEquals(1, supplier.snapshot().outstanding());
+
+            connection.close();
+            connection.close();
+            verify(mockConnection, times(2)).close();
+
+            LeakDetectingConnectionSupplier.Snapshot snapshot = supplier.snapshot();
+            assertEquals(1L, snapshot.borrowCount());
+            assertEquals(1L, snapshot.returnCount());
+            assertEquals(0, snapshot.outstanding());
+            assertTrue(snapshot.suspectedLeaks().isEmpty());
+        }
+    }
+
+    @Test
+    void testNullConnectionIsNotTracked() {
+        try (LeakDetectingConnectionSupplier supplier = new LeakDetectingConnectionSupplier(() -> null, Duration.ofMinutes(1L), 1d)) {
+            assertNull(supplier.get());
+            assertEquals(0L, supplier.snapshot().borrowCount());
+        }
+    }
+
+    @Test
+    void testLeakIsDetected() throws Exception {
+        Connection mockConnection = mock(Connection.class);
+        try (LeakDetectingConnectionSupplier supplier = new LeakDetectingConnectionSupplier(() -> mockConnection, Duration.ofMillis(20L), 1d)) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5L).toNanos();
+            while (supplier.snapshot().leakCount() == 0L && System.nanoTime() < deadline) {
+                Thread.sleep(10L);
+            }
+
+            LeakDetectingConnectionSupplier.Snapshot snapshot = supplier.snapshot();
+            assertEquals(1L, snapshot.leakCount());
+            assertEquals(1, snapshot.suspectedLeaks().size());
+            LeakDetectingConnectionSupplier.SuspectedLeak leak = snapshot.suspectedLeaks().get(0);
+            assertEquals(Thread.currentThread().getName(), leak.threadName());
+            assertTrue(leak.heldFor().toMillis() >= 20L);
+            assertNotNull(leak.borrowSite());
+            assertEquals(getClass().getName(), leak.borrowSite().getStackTrace()[1].getClassName());
+
+            connection.close();
+            assertTrue(supplier.snapshot().suspectedLeaks().isEmpty());
+            assertEquals(1L, supplier.snapshot().leakCount());
+        }
+    }
+
+    @Test
+    void testStackTraceIsSampled() {
+        Connection mockConnection = mock(Connection.class);
+        try (LeakDetectingConnectionSupplier supplier = new LeakDetectingConnectionSupplier(() -> mockConnection, Duration.ofNanos(1L), 0d)) {
+            assertNotNull(supplier.get());
+
+            LeakDetectingConnectionSupplier.Snapshot snapshot = supplier.snapshot();
+            assertEquals(1, snapshot.suspectedLeaks().size());
+            assertNull(snapshot.suspectedLeaks().get(0).borrowSite());
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class PooledConnectionSupplierTest {
+
+    private final List<Connection> opened = new ArrayList<>();
+
+    private ConnectionSupplier delegate() {
+        return () -> {
+            Connection connection = mock(Connection.class);
+            try {
+                when(connection.getAutoCommit()).thenReturn(true);
+                when(connection.isValid(anyInt())).thenReturn(true);
+                when(connection.getSchema()).thenReturn("main");
+                when(connection.getHoldability()).thenReturn(ResultSet.HOLD_CURSORS_OVER_COMMIT);
+                when(connection.getTypeMap()).thenReturn(new HashMap<>());
+                when(connection.getClientInfo()).thenReturn(new Properties());
+            } catch (SQLException ex) {
+                throw new AssertionError(ex);
+            }
+            synchronized (opened) {
+                opened.add(connection);
+            }
+            return connection;
+        };
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new PooledConnectionSupplier(null, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PooledConnectionSupplier(delegate(), 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PooledConnectionSupplier(delegate(), -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PooledConnectionSupplier(delegate(), 2, 1));
+    }
+
+    @Test
+    void testStartPrewarmsMinimum() {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 3, 5).start()) {
+            assertEquals(3, supplier.getOpenConnections());
+            assertEquals(3, supplier.getIdleConnections());
+            assertEquals(3, opened.size());
+        }
+    }
+
+    @Test
+    void testCloseReturnsConnectionToPool() throws SQLException {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 2)) {
+            Connection first = supplier.get();
+            assertNotNull(first);
+            first.close();
+            first.close();
+
+            assertTrue(first.isClosed());
+            assertThrows(SQLException.class, first::createStatement);
+            assertEquals(1, supplier.getIdleConnections());
+            verify(opened.get(0), never()).close();
+
+            Connection second = supplier.get();
+            assertNotNull(second);
+            assertFalse(second.isClosed());
+            assertEquals(1, opened.size());
+            second.close();
+        }
+    }
+
+    @Test
+    void testReturnRollsBackOpenTransaction() throws SQLException {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 1)) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            connection.setAutoCommit(false);
+            when(opened.get(0).getAutoCommit()).thenReturn(false);
+            connection.close();
+
+            verify(opened.get(0)).rollback();
+            verify(opened.get(0)).setAutoCommit(true);
+        }
+    }
+
+    @Test
+    void testReturnClosesStatements() throws SQLException {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 1)) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            Statement statement = mock(Statement.class);
+            PreparedStatement prepared = mock(PreparedStatement.class);
+            when(opened.get(0).createStatement()).thenReturn(statement);
+            when(opened.get(0).prepareStatement("SELECT 1")).thenReturn(prepared);
+            Statement lentStatement = connection.createStatement();
+            PreparedStatement lentPrepared = connection.prepareStatement("SELECT 1");
+            assertSame(connection, lentStatement.getConnection());
+            assertSame(connection, lentPrepared.getConnection());
+            lentPrepared.executeQuery();
+            verify(prepared).executeQuery();
+            connection.close();
+
+            verify(statement).close();
+            verify(prepared).close();
+            assertEquals(1, supplier.getIdleConnections());
+        }
+    }
+
+    @Test
+    void testReturnRestoresSettings() throws SQLException {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 1)) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            Connection physical = opened.get(0);
+            connection.close();
+            verify(physical, never()).setReadOnly(anyBoolean());
+            verify(physical, never()).setTransactionIsolation(anyInt());
+
+            connection = supplier.get();
+            assertNotNull(connection);
+            connection.setReadOnly(true);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            connection.setCatalog("reports");
+            connection.setNetworkTimeout(Runnable::run, 1000);
+            connection.setSchema("archive");
+            connection.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
+            connection.setTypeMap(Map.of("point", Object.class));
+            connection.setClientInfo("ApplicationName", "reports");
+            connection.close();
+
+            verify(physical).setReadOnly(false);
+            verify(physical).setTransactionIsolation(Connection.TRANSACTION_NONE);
+            verify(physical, times(1)).setCatalog(any());
+            verify(physical).setNetworkTimeout(any(), eq(0));
+            verify(physical).setSchema("main");
+            verify(physical).setHoldability(ResultSet.HOLD_CURSORS_OVER_COMMIT);
+            verify(physical).setTypeMap(Map.of());
+            verify(physical).setClientInfo(new Properties());
+            assertEquals(1, supplier.getIdleConnections());
+        }
+    }
+
+    @Test
+    void testBorrowTimesOutWhenExhausted() throws SQLException {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 1)
+                .setBorrowTimeout(Duration.ofMillis(50L))) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            assertNull(supplier.get());
+            connection.close();
+            assertNotNull(supplier.get());
+        }
+    }
+
+    @Test
+    void testInvalidConnectionIsReplaced() throws SQLException {
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 1)
+                .setValidation(Duration.ZERO, Duration.ofSeconds(1L))) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            connection.close();
+            when(opened.get(0).isValid(anyInt())).thenReturn(false);
+
+            Connection replacement = supplier.get();
+            assertNotNull(replacement);
+            verify(opened.get(0)).close();
+            assertEquals(2, opened.size());
+            assertEquals(1, supplier.getOpenConnections());
+        }
+    }
+
+    @Test
+    void testBoundedUnderContention() throws Exception {
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        try (PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 4);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; ++i) {
+                results.add(executor.submit(() -> {
+                    try (Connection connection = supplier.get()) {
+                        if (connection == null) {
+                            return false;
+                        }
+                        peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        Thread.sleep(1L);
+                        inUse.decrementAndGet();
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            assertTrue(peak.get() <= 4);
+            assertTrue(opened.size() <= 4);
+        }
+    }
+
+    @Test
+    void testCloseClosesIdleConnections() throws SQLException {
+        PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 2, 2).start();
+        Connection borrowed = supplier.get();
+        assertNotNull(borrowed);
+        supplier.close();
+
+        assertThrows(IllegalStateException.class, supplier::get);
+        assertEquals(1, supplier.getOpenConnections());
+        borrowed.close();
+        assertEquals(0, supplier.getOpenConnections());
+        for (Connection connection : opened) {
+            verify(connection).close();
+        }
+    }
+
+    @Test
+    void testMetrics() throws SQLException {
+        PooledConnectionSupplier supplier = new PooledConnectionSupplier(delegate(), 0, 1)
+                .setBorrowTimeout(Duration.ofMillis(10L));
+        try (supplier) {
+            Connection connection = supplier.get();
+            assertNotNull(connection);
+            assertNull(supplier.get());
+
+            ConnectionMetrics.Snapshot snapshot = supplier.getMetrics().snapshot();
+            assertEquals(1L, snapshot.acquireCount());
+            assertEquals(1L, snapshot.acquireFailureCount());
+            assertEquals(1L, snapshot.acquireTimeoutCount());
+            assertEquals(1L, snapshot.connectCount());
+            assertEquals(1, snapshot.activeConnections());
+            assertEquals(0, snapshot.idleConnections());
+            assertEquals(0, snapshot.waitingThreads());
+
+            connection.close();
+            assertEquals(1, supplier.getMetrics().getIdleConnections());
+            assertEquals(0, supplier.getMetrics().getActiveConnections());
+        }
+        assertEquals(1L, supplier.getMetrics().snapshot().closeCount());
+    }
+}
@@ -0,0 +1,182 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class QueryTimingConnectionSupplierTest {
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        ConnectionSupplier delegate = () -> null;
+        assertThrows(IllegalArgumentException.class, () -> new QueryTimingConnectionSupplier(null, Duration.ofSeconds(1L), false));
+        assertThrows(IllegalArgumentException.class, () -> new QueryTimingConnectionSupplier(delegate, null, false));
+        assertThrows(IllegalArgumentException.class, () -> new QueryTimingConnectionSupplier(delegate, Duration.ofSeconds(-1L), false));
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("SELECT * FROM users WHERE id = ? AND name = ?",
+                QueryTimingConnectionSupplier.normalize("SELECT *\n  FROM users -- comment\n WHERE id = 42 AND name = 'O''Brien'"));
+        assertEquals("DELETE FROM t2 WHERE id IN (?)",
+                QueryTimingConnectionSupplier.normalize("DELETE /* hint */ FROM t2 WHERE id IN (1, 2,3)"));
+        assertEquals("SELECT \"col 1\" FROM `t 1` WHERE x = ?",
+                QueryTimingConnectionSupplier.normalize("SELECT \"col 1\" FROM `t 1` WHERE x = 1.5"));
+    }
+
+    @Test
+    void testNullConnection() {
+        assertNull(new QueryTimingConnectionSupplier(() -> null, Duration.ofSeconds(1L), false).get());
+    }
+
+    @Test
+    void testPreparedStatementIsTimed() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        PreparedStatement mockStatement = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(3);
+        when(mockStatement.executeBatch()).thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO, 2});
+
+        QueryTimingConnectionSupplier supplier = new QueryTimingConnectionSupplier(() -> mockConnection, Duration.ofMinutes(1L), false);
+        Connection connection = supplier.get();
+        assertNotNull(connection);
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE t SET x = ? WHERE id = 7")) {
+            assertSame(connection, statement.getConnection());
+            assertEquals(3, statement.executeUpdate());
+            assertArrayEquals(new int[]{1, Statement.SUCCESS_NO_INFO, 2}, statement.executeBatch());
+        }
+        verify(mockStatement).close();
+
+        List<QueryTimingConnectionSupplier.StatementStatistics> snapshot = supplier.snapshot();
+        assertEquals(1, snapshot.size());
+        QueryTimingConnectionSupplier.StatementStatistics stats = snapshot.get(0);
+        assertEquals("UPDATE t SET x = ? WHERE id = ?", stats.sql());
+        assertEquals(2L, stats.executions());
+        assertEquals(0L, stats.errors());
+        assertEquals(6L, stats.rows());
+        assertEquals(0L, stats.latency().buckets()[63]);
+    }
+
+    @Test
+    void testFailedExecutionIsCounted() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        Statement mockStatement = mock(Statement.class);
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.execute(anyString())).thenThrow(new SQLException("syntax error"));
+
+        QueryTimingConnectionSupplier supplier = new QueryTimingConnectionSupplier(() -> mockConnection, Duration.ZERO, false);
+        Connection connection = supplier.get();
+        assertNotNull(connection);
+        Statement statement = connection.createStatement();
+        assertThrows(SQLException.class, () -> statement.execute("DROP TABLE 'x'"));
+
+        QueryTimingConnectionSupplier.StatementStatistics stats = supplier.snapshot().get(0);
+        assertEquals("DROP TABLE ?", stats.sql());
+        assertEquals(1L, stats.executions());
+        assertEquals(1L, stats.errors());
+    }
+
+    @Test
+    void testDetailedModeCountsFetchedRows() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        Statement mockStatement = mock(Statement.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.executeQuery(anyString())).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+
+        QueryTimingConnectionSupplier supplier = new QueryTimingConnectionSupplier(() -> mockConnection, Duration.ofMinutes(1L), true);
+        Connection connection = supplier.get();
+        assertNotNull(connection);
+        Statement statement = connection.createStatement();
+        try (ResultSet resultSet = statement.executeQuery("SELECT id FROM t")) {
+            assertSame(statement, resultSet.getStatement());
+            while (resultSet.next()) {
+                resultSet.getInt(1);
+            }
+        }
+        verify(mockResultSet).close();
+
+        QueryTimingConnectionSupplier.StatementStatistics stats = supplier.snapshot().get(0);
+        assertEquals(2L, stats.rows());
+        assertEquals(1L, stats.latency().count());
+        assertEquals(1L, Arrays.stream(stats.latency().buckets()).sum());
+    }
+
+    @Test
+    void testDetailedModeCountsRowsWithoutClosingResultSet() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        Statement mockStatement = mock(Statement.class);
+        ResultSet exhausted = mock(ResultSet.class);
+        ResultSet abandoned = mock(ResultSet.class);
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.execute(anyString())).thenReturn(true);
+        when(mockStatement.getResultSet()).thenReturn(exhausted, exhausted, abandoned);
+        when(exhausted.next()).thenReturn(true, true, true, false);
+        when(abandoned.next()).thenReturn(true, true);
+
+        QueryTimingConnectionSupplier supplier = new QueryTimingConnectionSupplier(() -> mockConnection, Duration.ofMinutes(1L), true);
+        Connection connection = supplier.get();
+        assertNotNull(connection);
+        Statement statement = connection.createStatement();
+        assertTrue(statement.execute("SELECT id FROM t"));
+        ResultSet resultSet = statement.getResultSet();
+        assertSame(statement, resultSet.getStatement());
+        assertSame(resultSet, statement.getResultSet());
+        while (resultSet.next()) {
+            resultSet.getInt(1);
+        }
+        assertEquals(3L, supplier.snapshot().get(0).rows());
+
+        assertTrue(statement.execute("SELECT id FROM t"));
+        ResultSet next = statement.getResultSet();
+        assertTrue(next.next());
+        assertTrue(next.next());
+        assertEquals(3L, supplier.snapshot().get(0).rows());
+        statement.close();
+        verify(mockStatement).close();
+        assertEquals(5L, supplier.snapshot().get(0).rows());
+    }
+
+    @Test
+    void testSlowestStatements() throws SQLException {
+        Connection mockConnection = mock(Connection.class);
+        Statement mockStatement = mock(Statement.class);
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.execute("SELECT 1")).thenReturn(true);
+        when(mockStatement.execute("SELECT SLEEP(1)")).thenAnswer(invocation -> {
+            Thread.sleep(20L);
+            return true;
+        });
+
+        QueryTimingConnectionSupplier supplier = new QueryTimingConnectionSupplier(() -> mockConnection, Duration.ofMinutes(1L), false);
+        Connection connection = supplier.get();
+        assertNotNull(connection);
+        Statement statement = connection.createStatement();
+        statement.execute("SELECT 1");
+        statement.execute("SELECT SLEEP(1)");
+        statement.execute("SELECT 1");
+
+        List<QueryTimingConnectionSupplier.StatementStatistics> slowest = supplier.slowestStatements(1);
+        assertEquals(1, slowest.size());
+        assertEquals("SELECT SLEEP(?)", slowest.get(0).sql());
+        assertTrue(slowest.get(0).latency().maxNanos() >= Duration.ofMillis(20L).toNanos());
+        assertEquals(2, supplier.slowestStatements(5).size());
+        assertThrows(IllegalArgumentException.class, () -> supplier.slowestStatements(-1));
+
+        supplier.reset();
+        assertTrue(supplier.snapshot().isEmpty());
+    }
+}
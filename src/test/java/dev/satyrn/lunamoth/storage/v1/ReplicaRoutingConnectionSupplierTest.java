@@ -0,0 +1,256 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingConnectionSupplierTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final List<Connection> replicaConnections = List.of(mock(Connection.class), mock(Connection.class), mock(Connection.class));
+    private final List<AtomicReference<Connection>> next = new ArrayList<>();
+    private final List<AtomicInteger> calls = new ArrayList<>();
+
+    private List<ConnectionSupplier> replicas() {
+        List<ConnectionSupplier> replicas = new ArrayList<>();
+        for (Connection connection : replicaConnections) {
+            AtomicReference<Connection> reference = new AtomicReference<>(connection);
+            AtomicInteger count = new AtomicInteger();
+            next.add(reference);
+            calls.add(count);
+            replicas.add(() -> {
+                count.incrementAndGet();
+                return reference.get();
+            });
+        }
+        return replicas;
+    }
+
+    private static Connection use(Connection connection) throws SQLException {
+        connection.isValid(0);
+        return connection;
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        ConnectionSupplier primary = () -> primaryConnection;
+        List<ConnectionSupplier> withNull = new ArrayList<>();
+        withNull.add(null);
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaRoutingConnectionSupplier(null, List.of(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN));
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaRoutingConnectionSupplier(primary, null, ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN));
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaRoutingConnectionSupplier(primary, List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaRoutingConnectionSupplier(primary, withNull, ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN));
+    }
+
+    @Test
+    void testWritesGoToPrimary() {
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        assertSame(primaryConnection, supplier.get());
+        calls.forEach(count -> assertEquals(0, count.get()));
+    }
+
+    @Test
+    void testRoundRobin() throws SQLException {
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        for (int i = 0; i < 6; ++i) {
+            Connection connection = supplier.getReadOnly();
+            assertNotNull(connection);
+            use(connection);
+            connection.close();
+        }
+        calls.forEach(count -> assertEquals(2, count.get()));
+        for (Connection connection : replicaConnections) {
+            verify(connection, times(2)).isValid(0);
+            verify(connection, times(2)).close();
+        }
+    }
+
+    @Test
+    void testLeastOutstanding() throws SQLException {
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.LEAST_OUTSTANDING);
+        Connection first = supplier.getReadOnly();
+        Connection second = supplier.getReadOnly();
+        Connection third = supplier.getReadOnly();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotNull(third);
+        for (int replica = 0; replica < 3; ++replica) {
+            assertEquals(1, supplier.getOutstandingBorrows(replica));
+        }
+
+        use(second).close();
+        second.close();
+        assertEquals(0, supplier.getOutstandingBorrows(1));
+        for (int i = 0; i < 3; ++i) {
+            Connection connection = supplier.getReadOnly();
+            assertNotNull(connection);
+            connection.close();
+        }
+        assertEquals(1, calls.get(0).get());
+        assertEquals(4, calls.get(1).get());
+        assertEquals(1, calls.get(2).get());
+        assertThrows(IllegalArgumentException.class, () -> supplier.getOutstandingBorrows(3));
+    }
+
+    @Test
+    void testUnhealthyReplicaIsSkipped() throws InterruptedException, SQLException {
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN)
+                .setRetryInterval(Duration.ofMillis(50L));
+        next.get(0).set(null);
+
+        Connection connection = supplier.getReadOnly();
+        assertNotNull(connection);
+        use(connection);
+        verify(replicaConnections.get(1)).isValid(0);
+        assertEquals(2, supplier.getHealthyReplicas());
+        assertEquals(0, supplier.getOutstandingBorrows(0));
+
+        for (int i = 0; i < 4; ++i) {
+            assertNotNull(supplier.getReadOnly());
+        }
+        assertEquals(1, calls.get(0).get());
+
+        Thread.sleep(70L);
+        assertEquals(3, supplier.getHealthyReplicas());
+        next.get(0).set(replicaConnections.get(0));
+        for (int i = 0; i < 3; ++i) {
+            assertNotNull(supplier.getReadOnly());
+        }
+        assertEquals(2, calls.get(0).get());
+        assertEquals(3, supplier.getHealthyReplicas());
+    }
+
+    @Test
+    void testFallsBackToPrimary() {
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.LEAST_OUTSTANDING);
+        next.forEach(reference -> reference.set(null));
+
+        assertSame(primaryConnection, supplier.getReadOnly());
+        assertEquals(0, supplier.getHealthyReplicas());
+        assertSame(primaryConnection, supplier.getReadOnly());
+        calls.forEach(count -> assertEquals(1, count.get()));
+
+        ReplicaRoutingConnectionSupplier withoutReplicas = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                List.of(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        assertSame(primaryConnection, withoutReplicas.getReadOnly());
+    }
+
+    @Test
+    void testReplicaExceptionIsTreatedAsFailure() {
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                List.of(() -> {
+                    throw new IllegalStateException("supplier has been disposed.");
+                }), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        assertSame(primaryConnection, supplier.getReadOnly());
+        assertEquals(0, supplier.getHealthyReplicas());
+        assertEquals(0, supplier.getOutstandingBorrows(0));
+    }
+
+    @Test
+    void testSaturatedReplicaStaysInRotation() {
+        ConnectionMetrics metrics = new ConnectionMetrics();
+        AtomicReference<Connection> pooled = new AtomicReference<>();
+        ConnectionSupplier pool = new ConnectionSupplier() {
+            @Override
+            public Connection get() {
+                return pooled.get();
+            }
+
+            @Override
+            public ConnectionMetrics getMetrics() {
+                return metrics;
+            }
+        };
+        ReplicaRoutingConnectionSupplier supplier = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                List.of(pool), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+
+        assertSame(primaryConnection, supplier.getReadOnly());
+        assertEquals(1, supplier.getHealthyReplicas());
+
+        pooled.set(replicaConnections.get(0));
+        assertNotSame(primaryConnection, supplier.getReadOnly());
+
+        ConnectionSupplier failing = new ConnectionSupplier() {
+            @Override
+            public Connection get() {
+                metrics.recordConnect(0L, false);
+                return null;
+            }
+
+            @Override
+            public ConnectionMetrics getMetrics() {
+                return metrics;
+            }
+        };
+        ReplicaRoutingConnectionSupplier failed = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                List.of(failing), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        assertSame(primaryConnection, failed.getReadOnly());
+        assertEquals(0, failed.getHealthyReplicas());
+    }
+
+    @Test
+    void testDecoratorsRouteReadsToReplicas() throws SQLException {
+        ReplicaRoutingConnectionSupplier router = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        try (LeakDetectingConnectionSupplier leaks = new LeakDetectingConnectionSupplier(
+                new CircuitBreakingConnectionSupplier(router, 3, Duration.ofSeconds(1L), Duration.ofSeconds(10L)),
+                Duration.ofMinutes(1L), 0d)) {
+            QueryTimingConnectionSupplier supplier = new QueryTimingConnectionSupplier(leaks, Duration.ofSeconds(1L), false);
+            Connection connection = supplier.getReadOnly();
+            assertNotNull(connection);
+            use(connection);
+            verify(replicaConnections.get(0)).isValid(0);
+            assertEquals(1, leaks.snapshot().outstanding());
+            connection.close();
+            assertEquals(0, router.getOutstandingBorrows(0));
+
+            supplier.get().close();
+            verify(primaryConnection).close();
+            calls.forEach(count -> assertTrue(count.get() <= 1));
+        }
+    }
+
+    @Test
+    void testStatementCachingRoutesReadsToReplicas() throws SQLException {
+        ReplicaRoutingConnectionSupplier router = new ReplicaRoutingConnectionSupplier(() -> primaryConnection,
+                replicas(), ReplicaRoutingConnectionSupplier.Strategy.ROUND_ROBIN);
+        StatementCachingConnectionSupplier supplier = new StatementCachingConnectionSupplier(router, 4);
+        Connection connection = supplier.getReadOnly();
+        assertNotNull(connection);
+        use(connection);
+        verify(replicaConnections.get(0)).isValid(0);
+        assertEquals(1, router.getOutstandingBorrows(0));
+        connection.close();
+        assertEquals(0, router.getOutstandingBorrows(0));
+
+        supplier.get().close();
+        verify(primaryConnection).close();
+        assertEquals(1, calls.get(0).get());
+
+        ConnectionMetrics metrics = mock(ConnectionMetrics.class);
+        ConnectionSupplier measured = mock(ConnectionSupplier.class);
+        when(measured.getMetrics()).thenReturn(metrics);
+        assertSame(metrics, new StatementCachingConnectionSupplier(measured, 4).getMetrics());
+    }
+
+    @Test
+    void testDefaultReadOnlyUsesGet() {
+        ConnectionSupplier supplier = () -> primaryConnection;
+        assertSame(primaryConnection, supplier.getReadOnly());
+    }
+}
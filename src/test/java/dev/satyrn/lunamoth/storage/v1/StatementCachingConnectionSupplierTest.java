@@ -0,0 +1,171 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class StatementCachingConnectionSupplierTest {
+
+    @Mock
+    private Connection mockConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(mockConnection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testConstructorWithInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new StatementCachingConnectionSupplier(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new StatementCachingConnectionSupplier(() -> mockConnection, 0));
+    }
+
+    @Test
+    void testNullConnection() {
+        assertNull(new StatementCachingConnectionSupplier(() -> null, 1).get());
+    }
+
+    @Test
+    void testStatementIsReused() throws SQLException {
+        Connection connection = new StatementCachingConnectionSupplier(() -> mockConnection, 4).get();
+        assertNotNull(connection);
+
+        PreparedStatement first = connection.prepareStatement("SELECT 1");
+        first.setInt(1, 1);
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::executeQuery);
+
+        PreparedStatement second = connection.prepareStatement("SELECT 1");
+        assertFalse(second.isClosed());
+        assertSame(connection, second.getConnection());
+        second.close();
+
+        verify(mockConnection, times(1)).prepareStatement("SELECT 1");
+    }
+
+    @Test
+    void testReturnResetsStatement() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(statement.getQueryTimeout()).thenReturn(30);
+        when(statement.getFetchSize()).thenReturn(10);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(mockConnection.prepareStatement("SELECT 1")).thenReturn(statement);
+        Connection connection = new StatementCachingConnectionSupplier(() -> mockConnection, 4).get();
+        assertNotNull(connection);
+
+        PreparedStatement first = connection.prepareStatement("SELECT 1");
+        first.close();
+        verify(statement, never()).setQueryTimeout(anyInt());
+
+        PreparedStatement second = connection.prepareStatement("SELECT 1");
+        second.setMaxRows(5);
+        second.setQueryTimeout(1);
+        second.setFetchSize(1000);
+        second.setFetchDirection(ResultSet.FETCH_REVERSE);
+        second.setEscapeProcessing(false);
+        assertSame(resultSet, second.executeQuery());
+        second.close();
+
+        verify(resultSet).close();
+        verify(statement).setMaxRows(0);
+        verify(statement).setQueryTimeout(30);
+        verify(statement).setFetchSize(10);
+        verify(statement).setFetchDirection(0);
+        verify(statement).setEscapeProcessing(true);
+        verify(statement, never()).close();
+        verify(mockConnection, times(1)).prepareStatement("SELECT 1");
+    }
+
+    @Test
+    void testStatementInUseIsNotShared() throws SQLException {
+        Connection connection = new StatementCachingConnectionSupplier(() -> mockConnection, 4).get();
+        assertNotNull(connection);
+
+        PreparedStatement first = connection.prepareStatement("SELECT 1");
+        PreparedStatement second = connection.prepareStatement("SELECT 1");
+        first.close();
+        second.close();
+
+        verify(mockConnection, times(2)).prepareStatement("SELECT 1");
+        connection.prepareStatement("SELECT 1").close();
+        verify(mockConnection, times(2)).prepareStatement("SELECT 1");
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() throws SQLException {
+        PreparedStatement evicted = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement("SELECT 1")).thenReturn(evicted);
+        Connection connection = new StatementCachingConnectionSupplier(() -> mockConnection, 2).get();
+        assertNotNull(connection);
+
+        connection.prepareStatement("SELECT 1").close();
+        connection.prepareStatement("SELECT 2").close();
+        connection.prepareStatement("SELECT 3").close();
+
+        verify(evicted).close();
+        connection.prepareStatement("SELECT 1").close();
+        verify(mockConnection, times(2)).prepareStatement("SELECT 1");
+    }
+
+    @Test
+    void testRegisteredStatementsArePrepared() throws SQLException {
+        Connection connection = new StatementCachingConnectionSupplier(() -> mockConnection, 4)
+                .register("SELECT 1", "SELECT 2", "SELECT 1")
+                .get();
+        assertNotNull(connection);
+
+        verify(mockConnection, times(1)).prepareStatement("SELECT 1");
+        verify(mockConnection, times(1)).prepareStatement("SELECT 2");
+        connection.prepareStatement("SELECT 2").close();
+        verify(mockConnection, times(1)).prepareStatement("SELECT 2");
+    }
+
+    @Test
+    void testCloseClosesCachedStatements() throws SQLException {
+        PreparedStatement cached = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement("SELECT 1")).thenReturn(cached);
+        Connection connection = new StatementCachingConnectionSupplier(() -> mockConnection, 4).get();
+        assertNotNull(connection);
+
+        connection.prepareStatement("SELECT 1").close();
+        verify(cached, never()).close();
+        connection.close();
+
+        verify(cached).close();
+        verify(mockConnection).close();
+        assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    void testBeneathPool() throws SQLException {
+        try (PooledConnectionSupplier pool = new PooledConnectionSupplier(
+                new StatementCachingConnectionSupplier(() -> mockConnection, 4), 0, 1)) {
+            for (int i = 0; i < 3; ++i) {
+                try (Connection connection = pool.get()) {
+                    assertNotNull(connection);
+                    connection.prepareStatement("SELECT 1").close();
+                }
+            }
+        }
+        verify(mockConnection, times(1)).prepareStatement("SELECT 1");
+    }
+}
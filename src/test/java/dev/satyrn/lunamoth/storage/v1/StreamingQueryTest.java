@@ -0,0 +1,137 @@
+package dev.satyrn.lunamoth.storage.v1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class StreamingQueryTest {
+
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+    private ResultSet mockResultSet;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        mockResultSet = mock(ResultSet.class);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, true, false);
+        when(mockResultSet.getInt(1)).thenReturn(1, 2, 3);
+    }
+
+    private void verifyReleased() throws SQLException {
+        verify(mockResultSet).close();
+        verify(mockStatement).close();
+        verify(mockConnection).setAutoCommit(true);
+        verify(mockConnection).close();
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new StreamingQuery(null, 100));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingQuery(() -> mockConnection, -1));
+        assertDoesNotThrow(() -> new StreamingQuery(() -> mockConnection, StreamingQuery.ROW_BY_ROW));
+
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 100);
+        assertThrows(IllegalArgumentException.class, () -> query.iterator(null, row -> row.getInt(1)));
+        assertThrows(IllegalArgumentException.class, () -> query.iterator("SELECT id FROM players", null));
+    }
+
+    @Test
+    void testStreamIsConsumedLazily() throws SQLException {
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 500);
+        try (Stream<Integer> stream = query.stream("SELECT id FROM players WHERE world = ?", row -> row.getInt(1), "overworld")) {
+            verify(mockConnection).setAutoCommit(false);
+            verify(mockConnection).prepareStatement("SELECT id FROM players WHERE world = ?",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            verify(mockStatement).setFetchSize(500);
+            verify(mockStatement).setObject(1, "overworld");
+            verify(mockResultSet, never()).next();
+
+            assertEquals(List.of(1, 2, 3), stream.toList());
+        }
+        verifyReleased();
+    }
+
+    @Test
+    void testIteratorReleasesWhenExhausted() throws SQLException {
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 0);
+        StreamingQuery.RowIterator<Integer> iterator = query.iterator("SELECT id FROM players", row -> row.getInt(1));
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+        verifyReleased();
+
+        assertThrows(NoSuchElementException.class, iterator::next);
+        iterator.close();
+        verify(mockConnection).close();
+    }
+
+    @Test
+    void testClosingEarlyReleases() throws SQLException {
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 0);
+        try (Stream<Integer> stream = query.stream("SELECT id FROM players", row -> row.getInt(1))) {
+            assertEquals(1, stream.findFirst().orElseThrow());
+        }
+        verifyReleased();
+        verify(mockResultSet, times(1)).next();
+    }
+
+    @Test
+    void testMapperFailureReleases() throws SQLException {
+        when(mockResultSet.getInt(1)).thenThrow(new SQLException("bad column"));
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 0);
+        StreamingQuery.RowIterator<Integer> iterator = query.iterator("SELECT id FROM players", row -> row.getInt(1));
+
+        UncheckedSQLException ex = assertThrows(UncheckedSQLException.class, iterator::next);
+        assertEquals("bad column", ex.getCause().getMessage());
+        verifyReleased();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testQueryFailureReleases() throws SQLException {
+        when(mockStatement.executeQuery()).thenThrow(new SQLException("syntax error"));
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 0);
+
+        assertThrows(SQLException.class, () -> query.stream("SELEC id FROM players", row -> row.getInt(1)));
+        verify(mockStatement).close();
+        verify(mockConnection).setAutoCommit(true);
+        verify(mockConnection).close();
+    }
+
+    @Test
+    void testAutoCommitIsLeftAlone() throws SQLException {
+        when(mockConnection.getAutoCommit()).thenReturn(false);
+        StreamingQuery query = new StreamingQuery(() -> mockConnection, 0);
+        try (Stream<String> stream = query.stream("SELECT name FROM players",
+                StreamingQuery.RowMapper.of(row -> "player"))) {
+            assertEquals(3L, stream.count());
+        }
+        verify(mockConnection, never()).setAutoCommit(anyBoolean());
+        verify(mockConnection).close();
+    }
+
+    @Test
+    void testNullConnection() {
+        StreamingQuery query = new StreamingQuery(() -> null, 0);
+        assertThrows(SQLException.class, () -> query.iterator("SELECT id FROM players", row -> row.getInt(1)));
+    }
+}
@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -11,8 +12,14 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -43,6 +50,10 @@ class AbstractResourceFileControlTest {
             super("test");
         }
 
+        public TestResourceFileControl(long timeToLive) {
+            super("test", timeToLive);
+        }
+
         @Override
         protected @NotNull TestResourceBundle newBundle(@NotNull InputStream stream) {
             // Assume the stream contains a simple key=value format
@@ -155,4 +166,95 @@ class AbstractResourceFileControlTest {
         InputStream stream = control.getReloadedResourceAsStream(classLoader, resourceName);
         assertNull(stream);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testNeedsReload(@TempDir Path directory) throws IOException {
+        Path file = Files.createDirectories(directory.resolve("base/name")).resolve("en_us.test");
+        Files.writeString(file, "key1=value1");
+        TestResourceFileControl expiringControl = new TestResourceFileControl(1000L);
+        assertEquals(1000L, expiringControl.getTimeToLive("base.name", Locale.US));
+        assertEquals(ResourceBundle.Control.TTL_NO_EXPIRATION_CONTROL, control.getTimeToLive("base.name", Locale.US));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            ResourceBundle bundle = expiringControl.newBundle("base.name", Locale.US, "test", loader, false);
+            assertFalse(expiringControl.needsReload("base.name", Locale.US, "test", loader, bundle, 0L));
+
+            // The resource was hashed while it was read, so even the first touch does not reload it.
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000L));
+            assertFalse(expiringControl.needsReload("base.name", Locale.US, "test", loader, bundle, 0L));
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000L));
+            assertFalse(expiringControl.needsReload("base.name", Locale.US, "test", loader, bundle, 0L));
+            assertFalse(expiringControl.needsReload("base.name", Locale.US, "test", loader, bundle, 0L));
+
+            Files.writeString(file, "key1=value2");
+            assertTrue(expiringControl.needsReload("base.name", Locale.US, "test", loader, bundle, 0L));
+
+            Files.delete(file);
+            assertTrue(expiringControl.needsReload("base.name", Locale.US, "test", loader, bundle, 0L));
+        }
+    }
+
+    @Test
+    void testInvalidTimeToLive() {
+        assertThrows(IllegalArgumentException.class, () -> new TestResourceFileControl(-3L));
+    }
+
+    @Test
+    void testGetCandidateLocales_Directory(@TempDir Path directory) throws IOException {
+        Path lang = Files.createDirectories(directory.resolve("base/name"));
+        Files.writeString(lang.resolve("en.test"), "key1=value1");
+        Files.writeString(lang.resolve("it_it.lang"), "key1=value1");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            assertEquals(List.of("test"), control.getFormats("base.name"));
+            assertEquals(List.of(Locale.ENGLISH), control.getCandidateLocales("base.name", Locale.US, loader));
+            assertEquals(List.of(), control.getCandidateLocales("base.name", Locale.ITALY, loader));
+        }
+    }
+
+    @Test
+    void testGetCandidateLocales_Jar(@TempDir Path directory) throws IOException {
+        Path jar = directory.resolve("translations.jar");
+        try (JarOutputStream stream = new JarOutputStream(Files.newOutputStream(jar))) {
+            stream.putNextEntry(new JarEntry("base/name/"));
+            stream.closeEntry();
+            stream.putNextEntry(new JarEntry("base/name/en_us.test"));
+            stream.write("key1=value1".getBytes());
+            stream.closeEntry();
+            stream.putNextEntry(new JarEntry("base/name.test"));
+            stream.write("key1=value1".getBytes());
+            stream.closeEntry();
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            assertEquals(List.of(Locale.US, Locale.ROOT), control.getCandidateLocales("base.name", Locale.US, loader));
+            assertEquals(List.of(Locale.ROOT), control.getCandidateLocales("base.name", Locale.ITALY, loader));
+        }
+    }
+
+    @Test
+    void testGetCandidateLocales_JarWithoutDirectoryEntry(@TempDir Path directory) throws IOException {
+        Files.writeString(Files.createDirectories(directory.resolve("classes/base/name")).resolve("en.test"), "key1=value1");
+        Path jar = directory.resolve("translations.jar");
+        try (JarOutputStream stream = new JarOutputStream(Files.newOutputStream(jar))) {
+            stream.putNextEntry(new JarEntry("base/name/it_it.test"));
+            stream.write("key1=value1".getBytes());
+            stream.closeEntry();
+            stream.putNextEntry(new JarEntry("base/name.test"));
+            stream.write("key1=value1".getBytes());
+            stream.closeEntry();
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.resolve("classes").toUri().toURL(), jar.toUri().toURL()}, null)) {
+            assertEquals(control.getCandidateLocales("base.name", Locale.ITALY), control.getCandidateLocales("base.name", Locale.ITALY, loader));
+        }
+    }
+
+    @Test
+    void testGetCandidateLocales_Unlisted(@TempDir Path directory) throws IOException {
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            assertEquals(control.getCandidateLocales("base.name", Locale.US), control.getCandidateLocales("base.name", Locale.US, loader));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryResourceBundleTest {
+
+    private static byte[] pack(Map<String, String> translations) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        BinaryResourceBundle.write(translations, stream);
+        return stream.toByteArray();
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Map<String, String> translations = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            translations.put("key" + i, "value " + i);
+        }
+        translations.put("unicode.ключ", "значение {0}");
+        BinaryResourceBundle bundle = new BinaryResourceBundle(new ByteArrayInputStream(pack(translations)));
+
+        assertEquals(translations.size(), bundle.size());
+        for (Map.Entry<String, String> translation : translations.entrySet()) {
+            assertEquals(translation.getValue(), bundle.getString(translation.getKey()));
+        }
+        assertNull(bundle.handleGetObject("missing"));
+        assertFalse(bundle.containsKey("missing"));
+        assertEquals(translations.keySet(), new HashSet<>(Collections.list(bundle.getKeys())));
+    }
+
+    @Test
+    void testEmptyPack() throws IOException {
+        BinaryResourceBundle bundle = new BinaryResourceBundle(ByteBuffer.wrap(pack(Map.of())));
+
+        assertEquals(0, bundle.size());
+        assertNull(bundle.handleGetObject("key"));
+        assertFalse(bundle.getKeys().hasMoreElements());
+    }
+
+    @Test
+    void testInvalidPack() throws IOException {
+        byte[] valid = pack(Map.of("key", "value"));
+
+        assertThrows(IOException.class, () -> new BinaryResourceBundle(ByteBuffer.wrap("not a pack".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IOException.class, () -> new BinaryResourceBundle(ByteBuffer.wrap(Arrays.copyOf(valid, 8))));
+        assertThrows(IOException.class, () -> new BinaryResourceBundle(ByteBuffer.wrap(Arrays.copyOf(valid, valid.length - 1))));
+    }
+
+    @Test
+    void testCompileAndOpen(final @TempDir Path directory) throws IOException {
+        Path target = directory.resolve("en_us.langpack");
+        LanguageResourceBundle source = new LanguageResourceBundle(new ByteArrayInputStream("key1=value1\nkey2=value2".getBytes(StandardCharsets.UTF_8)));
+        BinaryResourceBundle.compile(source, target);
+
+        BinaryResourceBundle bundle = BinaryResourceBundle.open(target);
+        assertEquals("value1", bundle.getString("key1"));
+        assertEquals("value2", bundle.getString("key2"));
+
+        BinaryResourceBundle.compile(new LanguageResourceBundle(new ByteArrayInputStream("key1=changed".getBytes(StandardCharsets.UTF_8))), target);
+        assertEquals("value1", bundle.getString("key1"));
+        assertEquals("changed", BinaryResourceBundle.open(target).getString("key1"));
+    }
+
+    @Test
+    void testControl(final @TempDir Path directory) throws IOException {
+        Path lang = Files.createDirectories(directory.resolve("base/name"));
+        BinaryResourceBundle.compile(new LanguageResourceBundle(new ByteArrayInputStream("key=value".getBytes(StandardCharsets.UTF_8))), lang.resolve("en_us.langpack"));
+
+        BinaryResourceBundle.Control control = new BinaryResourceBundle.Control();
+        assertEquals("base/name/en_us.langpack", control.toResourceName("base.name", Locale.US));
+        try (URLClassLoader loader = new URLClassLoader(new java.net.URL[]{directory.toUri().toURL()}, null)) {
+            ResourceBundle bundle = control.newBundle("base.name", Locale.US, "langpack", loader, false);
+            assertInstanceOf(BinaryResourceBundle.class, bundle);
+            assertEquals("value", bundle.getString("key"));
+            assertThrows(MissingResourceException.class, () -> control.newBundle("base.name", Locale.ITALY, "langpack", loader, false));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.satyrn.lunamoth.util.v1;
 
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -49,6 +50,32 @@ public class JsonResourceBundleTest {
         assertNull(jsonResourceBundle.handleGetObject("invalidKey"));
     }
 
+    @Test
+    void testHandleGetObject_NestedObject() throws IOException {
+        String jsonContent = "{\"a\": {\"b\": \"c\", \"d\": {\"e\": 1}}, \"f\": true}";
+        JsonResourceBundle bundle = new JsonResourceBundle(new ByteArrayInputStream(jsonContent.getBytes()));
+
+        assertEquals("c", bundle.handleGetObject("a.b"));
+        assertEquals("1", bundle.handleGetObject("a.d.e"));
+        assertEquals("true", bundle.handleGetObject("f"));
+        assertNull(bundle.handleGetObject("a"));
+        assertEquals(java.util.Set.of("a.b", "a.d.e", "f"), bundle.keySet());
+    }
+
+    @Test
+    void testHandleGetObject_SkippedValues() throws IOException {
+        String jsonContent = "{\"empty\": [], \"many\": [\"x\", \"y\"], \"nested\": [{\"x\": \"y\"}], \"null\": null, \"kept\": \"value\"}";
+        JsonResourceBundle bundle = new JsonResourceBundle(new ByteArrayInputStream(jsonContent.getBytes()));
+
+        assertEquals(java.util.Set.of("kept"), bundle.keySet());
+    }
+
+    @Test
+    void testConstructor_NotAnObject() {
+        assertThrows(JsonSyntaxException.class, () -> new JsonResourceBundle(new ByteArrayInputStream("[\"value\"]".getBytes())));
+        assertThrows(JsonSyntaxException.class, () -> new JsonResourceBundle(new ByteArrayInputStream("{\"key\": ".getBytes())));
+    }
+
     @Test
     void testGetKeys() {
         Enumeration<String> keys = jsonResourceBundle.getKeys();
@@ -87,4 +114,21 @@ public class JsonResourceBundleTest {
         JsonIOException exception = assertThrows(JsonIOException.class, () -> new JsonResourceBundle(reader));
         assertEquals("java.io.IOException: Mock IOException", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConstructor_LenientSyntax() throws IOException {
+        String jsonContent = "// comment\n{a: b, 'c': 'd', \"e\": {f: 1}}";
+        JsonResourceBundle bundle = new JsonResourceBundle(new ByteArrayInputStream(jsonContent.getBytes()));
+
+        assertEquals("b", bundle.handleGetObject("a"));
+        assertEquals("d", bundle.handleGetObject("c"));
+        assertEquals("1", bundle.handleGetObject("e.f"));
+    }
+
+    @Test
+    void testConstructor_TrailingContent() {
+        String jsonContent = "{\"a\": \"b\"} trailing";
+        assertThrows(JsonSyntaxException.class,
+                () -> new JsonResourceBundle(new ByteArrayInputStream(jsonContent.getBytes())));
+    }
+}
@@ -0,0 +1,69 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageFileParserTest {
+
+    private static Map<String, String> parse(String contents) {
+        return LanguageFileParser.parse(ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Map<String, String> load(String contents) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(contents));
+        Map<String, String> table = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> table.put(key, properties.getProperty(key)));
+        return table;
+    }
+
+    @Test
+    void testMatchesProperties() throws IOException {
+        String contents = String.join("\n",
+                "# comment \\",
+                "! another comment",
+                "   indented.key = indented value  ",
+                "colon.key:colon value",
+                "space.key space value",
+                "spaced.separator   =   =value",
+                "empty.key",
+                "empty.value=",
+                "escaped\\=key=escaped\\tvalue\\u00e9",
+                "continued=first \\",
+                "     second \\\\",
+                "not.continued=value\\\\",
+                "unicode.ключ=значение {0}",
+                "crlf=line\r\ncr=line\rduplicate=first",
+                "duplicate=second",
+                "\f\tform.feed=value",
+                "trailing=backslash\\");
+
+        assertEquals(load(contents), parse(contents));
+    }
+
+    @Test
+    void testMalformedEscape() {
+        assertThrows(IllegalArgumentException.class, () -> parse("key=\\u12"));
+        assertThrows(IllegalArgumentException.class, () -> parse("key=\\u12zz"));
+    }
+
+    @Test
+    void testParallel() throws IOException {
+        StringBuilder contents = new StringBuilder(LanguageFileParser.PARALLEL_THRESHOLD * 2);
+        for (int line = 0; contents.length() <= LanguageFileParser.PARALLEL_THRESHOLD * 2; ++line) {
+            contents.append("key.").append(line % 50_000).append("=value ").append(line);
+            contents.append(line % 7 == 0 ? " \\\n    continued\n" : "\n");
+        }
+
+        assertEquals(load(contents.toString()), parse(contents.toString()));
+    }
+}
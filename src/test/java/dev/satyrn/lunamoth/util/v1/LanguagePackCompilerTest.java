@@ -0,0 +1,35 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguagePackCompilerTest {
+
+    @Test
+    void testCompile(@TempDir Path directory) throws IOException {
+        Path lang = Files.writeString(directory.resolve("en_us.lang"), "key=from lang");
+        Path json = Files.writeString(directory.resolve("it_it.json"), "{\"key\": \"from json\"}");
+
+        List<Path> targets = LanguagePackCompiler.compile(null, List.of(lang, json));
+        assertEquals(List.of(directory.resolve("en_us.langpack"), directory.resolve("it_it.langpack")), targets);
+        assertEquals("from lang", BinaryResourceBundle.open(targets.get(0)).getString("key"));
+        assertEquals("from json", BinaryResourceBundle.open(targets.get(1)).getString("key"));
+
+        Path output = directory.resolve("packs");
+        LanguagePackCompiler.main(new String[]{"-d", output.toString(), lang.toString()});
+        assertEquals("from lang", BinaryResourceBundle.open(output.resolve("en_us.langpack")).getString("key"));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> LanguagePackCompiler.main(new String[0]));
+        assertThrows(IllegalArgumentException.class, () -> LanguagePackCompiler.compile(null, null));
+    }
+}
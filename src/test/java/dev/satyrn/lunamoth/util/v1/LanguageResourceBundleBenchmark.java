@@ -0,0 +1,88 @@
+package dev.satyrn.lunamoth.util.v1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+
+/**
+ * Compares parsing a large *.lang file with {@link LanguageResourceBundle} against {@link PropertyResourceBundle}, which
+ * parsed *.lang files before {@code LanguageFileParser} was introduced.
+ * <p>
+ * The file is generated from a fixed seed, so every run parses the same contents. Run it from the project directory
+ * after {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes dev.satyrn.lunamoth.util.v1.LanguageResourceBundleBenchmark [lines]
+ * </pre>
+ */
+public final class LanguageResourceBundleBenchmark {
+    private static final int DEFAULT_LINES = 100_000;
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    private LanguageResourceBundleBenchmark() { }
+
+    public static void main(String[] args) throws IOException {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+        byte[] contents = generate(lines);
+        verify(contents);
+
+        System.out.printf("%,d lines, %,d bytes, median of %d runs after %d warmup runs%n", lines, contents.length,
+                MEASURED_ITERATIONS, WARMUP_ITERATIONS);
+        System.out.printf("PropertyResourceBundle: %8.2f ms%n", median(contents, false));
+        System.out.printf("LanguageResourceBundle: %8.2f ms%n", median(contents, true));
+    }
+
+    static byte[] generate(int lines) {
+        SplittableRandom random = new SplittableRandom(0x4C414E47L);
+        StringBuilder builder = new StringBuilder(lines * 48);
+        for (int i = 0; i < lines; ++i) {
+            switch (random.nextInt(20)) {
+                case 0 -> builder.append("# Section ").append(i).append('\n');
+                case 1 -> builder.append("plugin.message.").append(i).append("=First part of a long message \\\n    continued on the next line\n");
+                case 2 -> builder.append("plugin.unicode.").append(i).append("=Caf\\u00e9 ").append(i).append('\n');
+                default -> builder.append("plugin.key.").append(i).append(" = Player {0} has ").append(random.nextInt(1000))
+                        .append(" points in {1}\n");
+            }
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void verify(byte[] contents) throws IOException {
+        ResourceBundle expected = parse(contents, false);
+        ResourceBundle actual = parse(contents, true);
+        if (!expected.keySet().equals(actual.keySet())) {
+            throw new IllegalStateException("The parsers disagree on the keys of the generated file.");
+        }
+        for (String key : expected.keySet()) {
+            if (!expected.getString(key).equals(actual.getString(key))) {
+                throw new IllegalStateException("The parsers disagree on the value of " + key + ".");
+            }
+        }
+    }
+
+    private static double median(byte[] contents, boolean languageBundle) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            parse(contents, languageBundle);
+        }
+        double[] times = new double[MEASURED_ITERATIONS];
+        for (int i = 0; i < times.length; ++i) {
+            long start = System.nanoTime();
+            parse(contents, languageBundle);
+            times[i] = (System.nanoTime() - start) / 1_000_000d;
+        }
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+
+    private static ResourceBundle parse(byte[] contents, boolean languageBundle) throws IOException {
+        ByteArrayInputStream stream = new ByteArrayInputStream(contents);
+        return languageBundle
+                ? new LanguageResourceBundle(stream)
+                : new PropertyResourceBundle(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+}
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.PropertyResourceBundle;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -41,6 +43,8 @@ class LanguageResourceBundleTest {
         LanguageResourceBundle resourceBundle = new LanguageResourceBundle(emptyStream);
 
         assertNotNull(resourceBundle);
+        assertInstanceOf(PropertyResourceBundle.class, resourceBundle);
+        assertFalse(resourceBundle.getKeys().hasMoreElements());
     }
 
     @Test
@@ -51,6 +55,7 @@ class LanguageResourceBundleTest {
         // Make the InputStream throw an IOException when read(byte[], int, int) is called
         try {
             doThrow(new IOException("Mocked IOException")).when(mockedInputStream).read(any(byte[].class), anyInt(), anyInt());
+            doThrow(new IOException("Mocked IOException")).when(mockedInputStream).readAllBytes();
         } catch (IOException e) {
             // This shouldn't happen in setting up the mock
             e.printStackTrace();